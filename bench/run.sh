@@ -0,0 +1,7 @@
+#!/bin/sh
+# Compila y corre los benchmarks con el profiler de GC (tasa de asignación por fase).
+# Uso: bench/run.sh [filtro JMH] [opciones JMH], p. ej. bench/run.sh LexerBenchmark -p bytes=1000000
+set -e
+cd "$(dirname "$0")/.."
+mvn -B -q -pl bench -am package -DskipTests
+exec java -jar bench/target/benchmarks.jar -prof gc "$@"
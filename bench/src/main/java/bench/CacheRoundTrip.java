@@ -0,0 +1,156 @@
+package bench;
+
+import cache.CompilationCache;
+import driver.Compiler;
+import error.Category;
+import error.ErrorHandler;
+import optimizer.Optimizer;
+import output.Dump;
+import output.JsonDump;
+import output.OutputSink;
+import output.Section;
+import output.TextDump;
+import parser.Statement;
+import vm.CodeGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/* Ida y vuelta por la CompilationCache: cada fuente se compila directo, con
+ * la caché vacía (fallo: compila y guarda) y con otra instancia sobre el
+ * mismo directorio (acierto: se decodifica del disco). Los tres resultados
+ * tienen que volcarse igual que en Main, en texto y en JSON y con todas las
+ * secciones: tokens, errores o advertencias, AST optimizado, símbolos y
+ * bytecode. También se comparan las sentencias con posiciones (ver
+ * ParserStress.describe).
+ *
+ * Los fuentes son programas del generador, secuencias de fragmentos (casi
+ * siempre con errores) y casos fijos con errores de cada fase,
+ * redeclaraciones, literales de borde y texto no ASCII (también sustitutos
+ * sueltos, que no tienen UTF-8).
+ *
+ * Uso: java -cp bench/target/benchmarks.jar bench.CacheRoundTrip [casos]
+ */
+public final class CacheRoundTrip {
+    private static final String[] EDGES = {
+            "", "long x;", "long x; long x;", "long x; { long x; double y; { double y; } }",
+            "long x = 1; x = y;", "write(\"sin cerrar);", "long x = @;", "x = ;", "/* sin cerrar",
+            "write(\"ñandú ✓ 😀\");", "write(\"\uD800\");", "write(\"?\");", "x = \uDC00;",
+            "long x = 9223372036854775807; write(-x - 1);", "long x; { long y; long y = 2; write(y); }",
+            "double d = 0.1; write(d * 3.0); write(1.0 / 0.0);", "if (true) then write(1); else write(2);",
+            "long a; a = 1; while (a < 3) { a += 1; long a; }", "long x = 99999999999999999999;",
+            "write(!true || 1 < 2.5);", "double z = 1e;", "long\tx\r\n= 2;\nwrite(x);"
+    };
+
+    private CacheRoundTrip() {}
+
+    public static void main(String[] args) throws IOException {
+        int cases = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        Random random = new Random(17);
+        // sin repetidos: con la caché vacía todos tienen que ser fallos
+        Set<String> unique = new LinkedHashSet<>();
+        for (int i = 0; i < EDGES.length + cases; i++) {
+            unique.add(i < EDGES.length ? EDGES[i]
+                    : i % 3 == 0 ? ProgramGenerator.generate(i, 8_000)
+                    : ParserStress.noise(random, 1 + random.nextInt(40)));
+        }
+        List<String> sources = new ArrayList<>(unique);
+
+        Path dir = Files.createTempDirectory("cache-round-trip");
+        int failures = 0, warnings = 0, errors = 0;
+        try {
+            CompilationCache cold = new CompilationCache(dir);
+            List<Compiler.CompilationResult> stored = new ArrayList<>();
+            for (int i = 0; i < sources.size(); i++) stored.add(cold.compile("caso" + i, sources.get(i)));
+
+            CompilationCache warm = new CompilationCache(dir);
+            for (int i = 0; i < sources.size(); i++) {
+                String source = sources.get(i);
+                Compiler.CompilationResult direct = Compiler.compile("caso" + i, source);
+                Compiler.CompilationResult loaded = warm.compile("caso" + i, source);
+                if (direct.hasErrors()) errors++;
+                else if (direct.errors.hasWarnings()) warnings++;
+
+                String expected = describe(direct);
+                String difference = !loaded.cached ? "no se leyó de la caché"
+                        : stored.get(i).cached ? "la caché vacía devolvió un acierto"
+                        : !expected.equals(describe(stored.get(i))) ? "compilado con caché vacía\n" + diff(expected, describe(stored.get(i)))
+                        : !expected.equals(describe(loaded)) ? "leído de la caché\n" + diff(expected, describe(loaded))
+                        : null;
+                if (difference != null) {
+                    failures++;
+                    if (failures <= 5) {
+                        System.out.println("caso " + i + ": " + difference);
+                        System.out.println("  fuente: " + source.replace("\n", "\\n"));
+                    }
+                }
+            }
+            System.out.printf("%d casos (%d con errores, %d con advertencias), %d aciertos, %d diferencias%n",
+                    sources.size(), errors, warnings, warm.hits(), failures);
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+            }
+        }
+        if (failures > 0) System.exit(1);
+    }
+
+    private static String describe(Compiler.CompilationResult r) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(r.bytes).append(" bytes, ").append(r.tokenCount()).append(" tokens, fase ").append(r.failedPhase()).append('\n');
+        sb.append(render(r, false)).append(render(r, true));
+        if (r.statements != null) {
+            for (Statement s : r.statements) {
+                if (s != null) ParserStress.describe(s, sb).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    // Lo que Main vuelca para este resultado, con stdout y stderr en el mismo texto
+    private static String render(Compiler.CompilationResult r, boolean json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream err = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        OutputSink sink = new OutputSink(bytes);
+        EnumSet<Section> sections = EnumSet.allOf(Section.class);
+        Dump dump = json ? new JsonDump(sink, sections, false) : new TextDump(sink, sections, false, err);
+        ErrorHandler errors = r.errors;
+
+        dump.tokens(r.tokens);
+        Category failed = r.failedPhase();
+        if (failed != null) {
+            dump.failed(failed, errors);
+        } else {
+            if (errors.hasWarnings()) dump.warnings(errors);
+            Optimizer optimizer = new Optimizer();
+            List<Statement> statements = optimizer.optimize(r.statements);
+            dump.program(statements, optimizer.getEliminatedNodes());
+            dump.symbols(r.symbolTable);
+            dump.bytecode(CodeGenerator.compile(statements));
+        }
+        dump.finish(errors);
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    // Primera línea distinta
+    private static String diff(String expected, String actual) {
+        String[] a = expected.split("\n", -1), b = actual.split("\n", -1);
+        for (int i = 0; i < Math.max(a.length, b.length); i++) {
+            String x = i < a.length ? a[i] : "<fin>", y = i < b.length ? b[i] : "<fin>";
+            if (!x.equals(y)) return "  línea " + (i + 1) + "\n  esperado: " + x + "\n  obtenido: " + y;
+        }
+        return "  (iguales)";
+    }
+}
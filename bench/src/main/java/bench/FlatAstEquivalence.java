@@ -0,0 +1,189 @@
+package bench;
+
+import error.ErrorHandler;
+import lexer.Lexer;
+import lexer.TokenBuffer;
+import parser.FlatAst;
+import parser.FlatParser;
+import parser.Parser;
+import parser.Statement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/* Comprueba que FlatParser arma el mismo árbol que Parser. Para cada
+ * programa del generador o secuencia aleatoria de fragmentos (ver
+ * ParserStress):
+ * - FlatParser acepta exactamente si Parser no reporta errores;
+ * - el árbol plano, leído con sus accesores, describe lo mismo que el de
+ *   objetos (tipos de nodo, posiciones, nombres, operadores y literales);
+ * - los nodos están en postorden (cada hijo antes que su padre), Cursor da
+ *   el preorden y walk() llama enter/exit bien anidados.
+ * Todos los casos reutilizan la misma arena.
+ *
+ * Uso: java -cp bench/target/benchmarks.jar bench.FlatAstEquivalence [casos]
+ */
+public final class FlatAstEquivalence {
+    // Casos de borde fijos, antes de los aleatorios
+    private static final String[] EDGES = {
+            "", "{ }", "{ { } }", "(x) = 1;", "1 = x;", "x + y = 1;", "x = y += 2;", "-x = 1;",
+            "if (x) then if (y) then x = 1; else x = 2;", "while (x) { }", "write(-(-x));",
+            "x = !true || false && 1 < 2 == 3 >= 4;", "x = 1 - 2 - 3 * 4 / 5;", "long x = (1);",
+            "double y", "read(x)", "write(\"s\");", "x;", ";", "if (x) then ; else ;"
+    };
+
+    private FlatAstEquivalence() {}
+
+    public static void main(String[] args) {
+        int cases = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        Random random = new Random(13);
+        FlatAst ast = new FlatAst(16);
+        int failures = 0, accepted = 0;
+        for (int i = 0; i < EDGES.length + cases; i++) {
+            String source = i < EDGES.length ? EDGES[i]
+                    : i % 5 == 0 ? ProgramGenerator.generate(i, 20_000)
+                    : ParserStress.noise(random, 1 + random.nextInt(40));
+            ErrorHandler err = new ErrorHandler(ErrorHandler.UNLIMITED);
+            TokenBuffer tokens = new Lexer(source, err).scanBuffer();
+            if (err.hasErrors()) continue;
+            List<Statement> statements = new Parser(tokens.stream(), err).parse();
+            boolean ok = new FlatParser(tokens).parseInto(ast);
+            String difference;
+            if (ok == err.hasErrors()) {
+                difference = ok ? "FlatParser aceptó con errores: " + err.getDiagnostics() : "FlatParser rechazó un programa válido";
+            } else {
+                difference = ok ? compare(statements, ast) : null;
+            }
+            if (ok) accepted++;
+            if (difference != null) {
+                failures++;
+                if (failures <= 5) {
+                    System.out.println("caso " + i + ": " + difference);
+                    System.out.println("  fuente: " + source.replace("\n", "\\n"));
+                }
+            }
+        }
+        System.out.printf("%d casos, %d aceptados, %d diferencias%n", EDGES.length + cases, accepted, failures);
+        if (failures > 0) System.exit(1);
+    }
+
+    private static String compare(List<Statement> statements, FlatAst ast) {
+        StringBuilder expected = new StringBuilder();
+        for (Statement s : statements) ParserStress.describe(s, expected).append('\n');
+        StringBuilder actual = new StringBuilder();
+        for (int s = ast.firstChild(ast.root()); s != FlatAst.NONE; s = ast.nextSibling(s)) {
+            describe(ast, s, actual).append('\n');
+        }
+        if (!expected.toString().equals(actual.toString())) {
+            return "árbol distinto\n  objetos: " + expected + "\n  plano:   " + actual;
+        }
+        return traversals(ast);
+    }
+
+    // Mismo formato que ParserStress.describe, leyendo el árbol plano
+    private static StringBuilder describe(FlatAst ast, int n, StringBuilder sb) {
+        if (n == FlatAst.NONE) return sb.append("null");
+        TokenBuffer tokens = ast.tokens();
+        int first = ast.firstChild(n);
+        switch (ast.kind(n)) {
+            case BINARY:
+                position(ast, n, sb).append('(');
+                describe(ast, first, sb).append(' ').append(ast.op(n)).append(' ');
+                return describe(ast, ast.nextSibling(first), sb).append(')');
+            case UNARY:
+                return describe(ast, first, position(ast, n, sb).append(ast.op(n)).append(' '));
+            case LITERAL:
+                return position(ast, n, sb).append("lit ").append(ast.literal(n));
+            case VARIABLE:
+                return position(ast, n, sb).append("var ").append(ast.name(n));
+            case ASSIGN:
+                position(ast, n, sb).append(ast.name(n)).append(' ').append(ast.op(n)).append(' ');
+                return describe(ast, ast.nextSibling(first), sb);
+            default:
+                break;
+        }
+        String kind;
+        switch (ast.kind(n)) {
+            case VAR_DECL: kind = "varDecl"; break;
+            case READ: kind = "read"; break;
+            case WRITE: kind = "write"; break;
+            case IF: kind = "if"; break;
+            case WHILE: kind = "while"; break;
+            case BLOCK: kind = "block"; break;
+            default: kind = "expr"; break;
+        }
+        sb.append(kind).append('@').append(ast.line(n)).append(':').append(ast.column(n)).append('[');
+        switch (ast.kind(n)) {
+            case VAR_DECL:
+                sb.append(tokens.lexeme(ast.token(n))).append(' ').append(ast.name(n)).append(' ');
+                describe(ast, first, sb);
+                break;
+            case READ:
+                sb.append(ast.name(n));
+                break;
+            case IF:
+                describe(ast, ast.child(n, 2), describe(ast, ast.child(n, 1), describe(ast, first, sb).append(' ')).append(' '));
+                break;
+            case WHILE:
+                describe(ast, ast.child(n, 1), describe(ast, first, sb).append(' '));
+                break;
+            case BLOCK:
+                for (int c = first; c != FlatAst.NONE; c = ast.nextSibling(c)) describe(ast, c, sb).append(' ');
+                break;
+            default: // WRITE, EXPRESSION
+                describe(ast, first, sb);
+                break;
+        }
+        return sb.append(']');
+    }
+
+    private static StringBuilder position(FlatAst ast, int n, StringBuilder sb) {
+        return sb.append('@').append(ast.line(n)).append(':').append(ast.column(n));
+    }
+
+    // Postorden en la arena, preorden del Cursor y anidamiento de walk()
+    private static String traversals(FlatAst ast) {
+        for (int n = 0; n < ast.size(); n++) {
+            for (int c = ast.firstChild(n); c != FlatAst.NONE; c = ast.nextSibling(c)) {
+                if (c >= n) return "hijo " + c + " después de su padre " + n;
+            }
+        }
+        List<Integer> expected = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        preorder(ast, ast.root(), 0, expected, depths);
+        List<Integer> actual = new ArrayList<>();
+        FlatAst.Cursor cursor = ast.cursor(ast.root());
+        while (cursor.next()) {
+            if (cursor.depth() != depths.get(actual.size())) return "profundidad del cursor en " + cursor.node();
+            actual.add(cursor.node());
+        }
+        if (!expected.equals(actual)) return "preorden del cursor";
+
+        List<Integer> entered = new ArrayList<>();
+        List<Integer> open = new ArrayList<>();
+        boolean[] bad = {false};
+        ast.walk(ast.root(), new FlatAst.Visitor() {
+            @Override
+            public boolean enter(FlatAst a, int node) {
+                entered.add(node);
+                open.add(node);
+                return true;
+            }
+
+            @Override
+            public void exit(FlatAst a, int node) {
+                // cada exit cierra el último nodo abierto
+                if (open.isEmpty() || open.remove(open.size() - 1) != node) bad[0] = true;
+            }
+        });
+        if (!entered.equals(expected) || !open.isEmpty() || bad[0]) return "recorrido de walk()";
+        return null;
+    }
+
+    private static void preorder(FlatAst ast, int n, int depth, List<Integer> out, List<Integer> depths) {
+        out.add(n);
+        depths.add(depth);
+        for (int c = ast.firstChild(n); c != FlatAst.NONE; c = ast.nextSibling(c)) preorder(ast, c, depth + 1, out, depths);
+    }
+}
@@ -0,0 +1,140 @@
+package bench;
+
+import error.ErrorHandler;
+import incremental.IncrementalDocument;
+import lexer.Lexer;
+import lexer.TokenBuffer;
+import parser.Parser;
+import parser.Statement;
+
+import java.util.List;
+import java.util.Random;
+
+/* Compara IncrementalDocument contra una compilación completa. Cada caso
+ * parte de un programa (uno chico fijo o uno del generador) y le aplica una
+ * serie de ediciones aleatorias: inserciones, borrados y reemplazos de
+ * fragmentos que abren o cierran comentarios, cadenas y bloques, cambian
+ * líneas o introducen errores. Después de cada edición los tokens (tipo,
+ * lexema, valor, línea y columna), los diagnósticos y las sentencias (con
+ * posiciones, ver ParserStress.describe) deben ser los de re-tokenizar y
+ * re-parsear el texto entero.
+ *
+ * Una parte de los casos va entera dentro de un bloque o de las ramas de un
+ * if, para que las ediciones caigan en sentencias anidadas y se re-parseen
+ * desde el bloque que las contiene.
+ *
+ * Al final muestra cuánto se re-tokenizó y re-parseó por edición en promedio,
+ * y el tiempo de una edición chica en el medio de programas cada vez más
+ * grandes (suelto y dentro de un bloque): tiene que quedar parecido, no
+ * crecer con el tamaño del archivo.
+ *
+ * Uso: java -cp bench/target/benchmarks.jar bench.IncrementalFuzz [casos] [ediciones]
+ */
+public final class IncrementalFuzz {
+    private static final String SMALL = "long x = 0;\nwrite(x);\n/* c */\nwhile (x < 10) {\n  x += 1;\n}\n";
+
+    private static final String[] INSERTS = {
+            "long x = 1;\n", "\n", "  ", "/*", "*/", "\"", "y", "+ 2", ";", "{", "}", "(", ")",
+            "while (x < 3) { x += 1; }\n", "@", "write(x);\n", "// nota", "12.5", "if (x) then ", "else "
+    };
+
+    private IncrementalFuzz() {}
+
+    public static void main(String[] args) {
+        int cases = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int edits = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        Random random = new Random(5);
+        int failures = 0;
+        long editCount = 0, relexed = 0, reparsed = 0, tokens = 0, statements = 0;
+        for (int c = 0; c < cases; c++) {
+            StringBuilder source = new StringBuilder(initial(c));
+            IncrementalDocument doc = new IncrementalDocument(source);
+            for (int e = 0; e < edits; e++) {
+                int offset = random.nextInt(source.length() + 1);
+                int removed = Math.min(random.nextInt(4), source.length() - offset);
+                String inserted = random.nextInt(3) == 0 ? "" : INSERTS[random.nextInt(INSERTS.length)];
+                source.replace(offset, offset + removed, inserted);
+                doc.edit(offset, removed, inserted);
+
+                String difference = compare(source.toString(), doc);
+                editCount++;
+                relexed += doc.lastRelexedTokens();
+                reparsed += doc.lastReparsedStatements();
+                tokens += doc.tokens().size();
+                statements += doc.statements().size();
+                if (difference != null) {
+                    failures++;
+                    if (failures <= 5) {
+                        System.out.println("caso " + c + ", edición " + e + ": " + difference);
+                        System.out.println("  fuente: " + source.toString().replace("\n", "\\n"));
+                    }
+                    break; // el documento ya no sirve para las ediciones siguientes
+                }
+            }
+        }
+        System.out.printf("%d casos, %d ediciones, %d diferencias%n", cases, editCount, failures);
+        System.out.printf("por edición: %.1f de %.1f tokens re-tokenizados, %.1f de %.1f sentencias re-parseadas%n",
+                (double) relexed / editCount, (double) tokens / editCount,
+                (double) reparsed / editCount, (double) statements / editCount);
+        if (failures > 0) System.exit(1);
+
+        for (int size = 10_000; size <= 640_000; size *= 4) {
+            String program = ProgramGenerator.generate(size, size);
+            System.out.printf("%,8d caracteres: %6.1f µs por edición, %6.1f µs dentro de un bloque%n",
+                    program.length(), timeEdits(program), timeEdits("{\n" + program + "}\n"));
+        }
+    }
+
+    private static String initial(int c) {
+        switch (c % 4) {
+            case 0: return ProgramGenerator.generate(c, 4_000);
+            case 1: return SMALL;
+            case 2: return "{\n" + ProgramGenerator.generate(c, 2_000) + "}\n";
+            default: return "if (x) then {\n" + SMALL + "} else {\n" + SMALL + "}\n";
+        }
+    }
+
+    /* Microsegundos por edición escribiendo y borrando un término en una
+     * asignación sin sangría ("_l0 = ...") de la mitad del programa: siempre el
+     * mismo tipo de sentencia, así solo cambia el tamaño del archivo.
+     */
+    private static double timeEdits(String program) {
+        IncrementalDocument doc = new IncrementalDocument(program);
+        int offset = program.indexOf("\n_l0 = ", program.length() / 2) + 7;
+        int rounds = 20_000;
+        long start = 0;
+        for (int r = -rounds; r < rounds; r++) {
+            if (r == 0) start = System.nanoTime(); // la primera mitad calienta la JVM
+            doc.edit(offset, 0, "1 + ");
+            doc.edit(offset, 4, "");
+        }
+        return (System.nanoTime() - start) / 1e3 / (2.0 * rounds);
+    }
+
+    private static String compare(String source, IncrementalDocument doc) {
+        ErrorHandler err = new ErrorHandler(ErrorHandler.UNLIMITED);
+        TokenBuffer full = new Lexer(source, err).scanBuffer();
+        List<Statement> parsed = new Parser(full.stream(), err).parse();
+
+        TokenBuffer actual = doc.tokens();
+        if (full.size() != actual.size()) return "tokens: " + full.size() + " / " + actual.size();
+        for (int i = 0; i < full.size(); i++) {
+            String expected = full.token(i).toString();
+            if (!expected.equals(actual.token(i).toString())) return "token " + i + ": " + expected + " / " + actual.token(i);
+        }
+        if (!err.getDiagnostics().toString().equals(doc.diagnostics().toString())) {
+            return "diagnósticos: " + err.getDiagnostics() + " / " + doc.diagnostics();
+        }
+        // el documento no guarda los huecos de las sentencias con errores
+        StringBuilder expected = new StringBuilder();
+        for (Statement s : parsed) {
+            if (s != null) ParserStress.describe(s, expected).append('\n');
+        }
+        StringBuilder got = new StringBuilder();
+        for (Statement s : doc.statements()) ParserStress.describe(s, got).append('\n');
+        if (!expected.toString().equals(got.toString())) {
+            return "sentencias\n  completo:    " + expected + "\n  incremental: " + got;
+        }
+        return null;
+    }
+}
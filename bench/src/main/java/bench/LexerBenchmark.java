@@ -0,0 +1,66 @@
+package bench;
+
+import error.ErrorHandler;
+import lexer.Lexer;
+import lexer.NameTable;
+import lexer.ParallelLexer;
+import lexer.TableLexer;
+import lexer.Token;
+import lexer.TokenBuffer;
+import lexer.TokenType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LexerBenchmark {
+
+    @Benchmark
+    public TokenBuffer scanBuffer(Programs p, Throughput t) {
+        TokenBuffer tokens = new Lexer(p.source, new ErrorHandler()).scanBuffer();
+        t.add(tokens.size(), p.source.length());
+        return tokens;
+    }
+
+    @Benchmark
+    public TokenBuffer scanTable(Programs p, Throughput t) {
+        TokenBuffer tokens = new TableLexer(p.source, new ErrorHandler()).scanBuffer();
+        t.add(tokens.size(), p.source.length());
+        return tokens;
+    }
+
+    // Trozos en el pool común; con el fuente de 10 KB cae en el Lexer secuencial
+    @Benchmark
+    public TokenBuffer scanParallel(Programs p, Throughput t) {
+        TokenBuffer tokens = new ParallelLexer(Runtime.getRuntime().availableProcessors())
+                .scan(p.source, new ErrorHandler(), new NameTable());
+        t.add(tokens.size(), p.source.length());
+        return tokens;
+    }
+
+    @Benchmark
+    public List<Token> scanTokens(Programs p, Throughput t) {
+        List<Token> tokens = new Lexer(p.source, new ErrorHandler()).scanTokens();
+        t.add(tokens.size(), p.source.length());
+        return tokens;
+    }
+
+    @Benchmark
+    public void nextToken(Programs p, Throughput t, Blackhole bh) {
+        Lexer lexer = new Lexer(p.source, new ErrorHandler());
+        int n = 0;
+        Token tok;
+        do {
+            tok = lexer.nextToken();
+            bh.consume(tok);
+            n++;
+        } while (tok.type != TokenType.EOF);
+        t.add(n, p.source.length());
+    }
+}
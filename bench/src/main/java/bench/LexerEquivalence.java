@@ -0,0 +1,170 @@
+package bench;
+
+import error.ErrorHandler;
+import lexer.Lexer;
+import lexer.NameTable;
+import lexer.ParallelLexer;
+import lexer.TableLexer;
+import lexer.TokenBuffer;
+
+import java.util.Random;
+
+/* Comprueba que TableLexer produce token por token lo mismo que Lexer: tipo,
+ * rango, línea, columna, valor, ids de nombres y diagnósticos. Usa programas
+ * del generador y además texto aleatorio sobre el alfabeto del lenguaje (con
+ * operadores sueltos, comentarios y strings sin cerrar, no ASCII...), que es
+ * donde aparecen los casos de borde.
+ *
+ * Después compara igual ParallelLexer contra Lexer, con trozos de pocos KB
+ * para que haya muchos cortes, en fuentes con comentarios de bloque de
+ * muchas líneas (el pre-escaneo corta dentro de ellos y el empalme tiene
+ * que re-tokenizar), "//" y strings que contienen "/*" o "*" + "/", y
+ * errores léxicos (vuelta al Lexer secuencial).
+ *
+ * Uso: java -cp bench/target/benchmarks.jar bench.LexerEquivalence [casos]
+ */
+public final class LexerEquivalence {
+    private static final String[] PIECES = {
+            " ", "  ", "\t", "\n", "\r\n", "x", "_y1", "long", "double", "if", "then", "else", "while",
+            "break", "read", "write", "true", "false", "truex", "0", "42", "2147483647", "2147483648",
+            "9223372036854775807", "9223372036854775808", "0.1", "123456789012345678.0625",
+            "3.25", "1" + "0".repeat(308) + ".5", "1" + "0".repeat(309) + ".5", "7.", ".5", "+", "-", "*", "/", "=", "==", "!", "!=", "<", "<=", "<>", ">", ">=",
+            "&", "&&", "|", "||", "+=", "-=", "*=", "/=", "(", ")", "{", "}", ";", "\"", "\"hola\"",
+            "//", "// nota\n", "/*", "*/", "/* bloque\n */", "@", "#", ",", "ñ", "é", "\u0000"
+    };
+
+    private LexerEquivalence() {}
+
+    public static void main(String[] args) {
+        int cases = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        Random random = new Random(7);
+        int failures = 0;
+        for (int i = 0; i < cases; i++) {
+            String source = i % 10 == 0
+                    ? ProgramGenerator.generate(i, 20_000)
+                    : noise(random, 1 + random.nextInt(400));
+            int maxErrors = i % 3 == 0 ? 3 : ErrorHandler.UNLIMITED;
+            String difference = compare(source, maxErrors);
+            if (difference != null) {
+                failures++;
+                if (failures <= 10) {
+                    System.out.println("caso " + i + ": " + difference);
+                    System.out.println("  fuente: " + escape(source));
+                }
+            }
+        }
+        System.out.printf("%d casos, %d diferencias%n", cases, failures);
+
+        int parallelCases = Math.max(1, cases / 20);
+        int parallelFailures = 0;
+        for (int i = 0; i < parallelCases; i++) {
+            String source = commented(random, 20_000 + random.nextInt(200_000));
+            if (i % 7 == 0) source = "/*" + source; // comentario sin cerrar desde el principio
+            int maxErrors = i % 3 == 0 ? 3 : ErrorHandler.UNLIMITED;
+            ParallelLexer parallel = new ParallelLexer(2 + i % 7, 512 + random.nextInt(8192));
+            String difference = compareParallel(source, parallel, maxErrors);
+            if (difference != null) {
+                parallelFailures++;
+                if (parallelFailures <= 10) System.out.println("paralelo, caso " + i + ": " + difference);
+            }
+        }
+        System.out.printf("paralelo: %d casos, %d diferencias%n", parallelCases, parallelFailures);
+        if (failures + parallelFailures > 0) System.exit(1);
+    }
+
+    private static final String[] LINES = {
+            "long x = 12;\n", "double y = 3.25 * x;\n", "// línea con /* que no abre nada\n",
+            "// y otra con */ que no cierra\n", "write(\"hola /* no es comentario */\");\n",
+            "while (a <= b) { a += 1; }\n", "  /* corto */ z = z - 1;\n", "/*\n*/\n",
+            "if (p && q || !r) then { w = w / 2; }\n", "nombre_1 = 1;\n", "\n"
+    };
+
+    // Fuente de unos targetBytes con comentarios de bloque que cruzan los cortes
+    private static String commented(Random random, int targetBytes) {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < targetBytes) {
+            int pick = random.nextInt(LINES.length + 3);
+            if (pick < LINES.length) {
+                sb.append(LINES[pick]);
+            } else if (pick == LINES.length) {
+                // comentario largo cuyas líneas interiores parecen código
+                sb.append("/* largo\n");
+                int lines = random.nextInt(400);
+                for (int k = 0; k < lines; k++) sb.append(k % 3 == 0 ? "long q = 1; \"x\n" : "  a = b + c;\n");
+                sb.append("*/\n");
+            } else if (pick == LINES.length + 1) {
+                sb.append("nombre_").append(random.nextInt(5000)).append(" = 2;\n");
+            } else if (random.nextInt(50) == 0) {
+                sb.append("@ # \"sin cerrar\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    static String compareParallel(String source, ParallelLexer parallel, int maxErrors) {
+        ErrorHandler expectedErrors = new ErrorHandler(maxErrors);
+        ErrorHandler actualErrors = new ErrorHandler(maxErrors);
+        TokenBuffer expected = new Lexer(source, expectedErrors, new NameTable()).scanBuffer();
+        TokenBuffer actual = parallel.scan(source, actualErrors, new NameTable());
+        return compare(expected, expectedErrors, actual, actualErrors);
+    }
+
+    private static String noise(Random random, int pieces) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < pieces; i++) sb.append(PIECES[random.nextInt(PIECES.length)]);
+        return sb.toString();
+    }
+
+    // Primera diferencia entre los dos lexers, o null si coinciden
+    static String compare(String source, int maxErrors) {
+        ErrorHandler expectedErrors = new ErrorHandler(maxErrors);
+        ErrorHandler actualErrors = new ErrorHandler(maxErrors);
+        TokenBuffer expected = new Lexer(source, expectedErrors, new NameTable()).scanBuffer();
+        TokenBuffer actual = new TableLexer(source, actualErrors, new NameTable()).scanBuffer();
+        return compare(expected, expectedErrors, actual, actualErrors);
+    }
+
+    private static String compare(TokenBuffer expected, ErrorHandler expectedErrors,
+                                  TokenBuffer actual, ErrorHandler actualErrors) {
+
+        int n = Math.min(expected.size(), actual.size());
+        for (int i = 0; i < n; i++) {
+            if (expected.type(i) != actual.type(i) || expected.start(i) != actual.start(i)
+                    || expected.length(i) != actual.length(i) || expected.line(i) != actual.line(i)
+                    || expected.column(i) != actual.column(i) || expected.value(i) != actual.value(i)) {
+                return "token " + i + ": " + describe(expected, i) + " / " + describe(actual, i);
+            }
+        }
+        if (expected.size() != actual.size()) {
+            return "cantidad de tokens: " + expected.size() + " / " + actual.size();
+        }
+        if (expected.names().size() != actual.names().size()) {
+            return "nombres: " + expected.names().size() + " / " + actual.names().size();
+        }
+        for (int i = 0; i < expected.names().size(); i++) {
+            if (!expected.names().name(i).equals(actual.names().name(i))) {
+                return "nombre " + i + ": " + expected.names().name(i) + " / " + actual.names().name(i);
+            }
+        }
+        String e = expectedErrors.getDiagnostics() + " suprimidos=" + expectedErrors.getSuppressed();
+        String a = actualErrors.getDiagnostics() + " suprimidos=" + actualErrors.getSuppressed();
+        return e.equals(a) ? null : "diagnósticos: " + e + " / " + a;
+    }
+
+    private static String describe(TokenBuffer t, int i) {
+        return t.type(i) + "@" + t.start(i) + "+" + t.length(i) + " " + t.line(i) + ":" + t.column(i) + " v=" + t.value(i);
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            if (c == '\n') sb.append("\\n");
+            else if (c == '\r') sb.append("\\r");
+            else if (c == '\t') sb.append("\\t");
+            else if (c < ' ') sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+            if (sb.length() > 300) return sb.append("...").toString();
+        }
+        return sb.toString();
+    }
+}
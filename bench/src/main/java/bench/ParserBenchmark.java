@@ -0,0 +1,85 @@
+package bench;
+
+import error.ErrorHandler;
+import lexer.Lexer;
+import lexer.TokenBuffer;
+import org.openjdk.jmh.annotations.*;
+import parser.FlatAst;
+import parser.FlatParser;
+import parser.Parser;
+import parser.Statement;
+import semantic.SemanticAnalyzer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    // Tokens y AST ya construidos, para medir cada fase por separado
+    @State(Scope.Benchmark)
+    public static class Prepared {
+        TokenBuffer tokens;
+        List<Statement> statements;
+
+        @Setup(Level.Trial)
+        public void prepare(Programs p) {
+            ErrorHandler err = new ErrorHandler();
+            tokens = new Lexer(p.source, err).scanBuffer();
+            statements = new Parser(tokens.stream(), err).parse();
+            if (err.hasErrors()) {
+                throw new IllegalStateException("programa inválido: " + err.getDiagnostics().get(0));
+            }
+        }
+    }
+
+    // Arena del árbol plano, reutilizada entre invocaciones como en una compilación por lotes
+    @State(Scope.Thread)
+    public static class Arena {
+        FlatAst ast = new FlatAst(16);
+    }
+
+    @Benchmark
+    public List<Statement> parse(Programs p, Prepared prepared, Throughput t) {
+        List<Statement> result = new Parser(prepared.tokens.stream(), new ErrorHandler()).parse();
+        t.add(p.tokenCount, p.source.length());
+        return result;
+    }
+
+    // Modo sin recursión (pilas de trabajo en el heap) sobre los mismos tokens
+    @Benchmark
+    public List<Statement> parseStackSafe(Programs p, Prepared prepared, Throughput t) {
+        List<Statement> result = new Parser(prepared.tokens.stream(), new ErrorHandler()).stackSafe().parse();
+        t.add(p.tokenCount, p.source.length());
+        return result;
+    }
+
+    // Árbol plano en arreglos primitivos: sin Tokens ni nodos objeto
+    @Benchmark
+    public FlatAst parseFlat(Programs p, Prepared prepared, Arena arena, Throughput t) {
+        if (!new FlatParser(prepared.tokens).parseInto(arena.ast)) throw new IllegalStateException();
+        t.add(p.tokenCount, p.source.length());
+        return arena.ast;
+    }
+
+    // Lexer y parser encadenados en modo pull, sin materializar la lista de tokens
+    @Benchmark
+    public List<Statement> lexAndParseStreaming(Programs p, Throughput t) {
+        ErrorHandler err = new ErrorHandler();
+        List<Statement> result = new Parser(new Lexer(p.source, err), err).parse();
+        t.add(p.tokenCount, p.source.length());
+        return result;
+    }
+
+    @Benchmark
+    public SemanticAnalyzer analyze(Programs p, Prepared prepared, Throughput t) {
+        SemanticAnalyzer analyzer = new SemanticAnalyzer(new ErrorHandler(), prepared.tokens.names());
+        analyzer.analyze(prepared.statements);
+        t.add(p.tokenCount, p.source.length());
+        return analyzer;
+    }
+}
@@ -0,0 +1,233 @@
+package bench;
+
+import error.ErrorHandler;
+import lexer.Lexer;
+import lexer.TokenBuffer;
+import parser.Expr;
+import parser.Parser;
+import parser.Statement;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/* Prueba de carga del modo sin recursión del parser (Parser.stackSafe()).
+ *
+ * 1. Equivalencia: en programas del generador y en secuencias aleatorias de
+ *    fragmentos (casi siempre con errores de sintaxis) ambos modos deben dar
+ *    el mismo árbol, con posiciones, y los mismos diagnósticos. Algunas
+ *    secuencias empiezan abriendo decenas de niveles, para que el modo
+ *    recursivo pase a las pilas a mitad de camino (Parser.MAX_NESTING).
+ * 2. Profundidad: fuentes con niveles de anidamiento de bloques, if, else if,
+ *    while, paréntesis, "-" y asignaciones encadenadas se parsean en un hilo
+ *    con una pila de 256 KB. Se mide con n/2 y n niveles para ver que el
+ *    tiempo crece linealmente. El modo recursivo también tiene que pasar con
+ *    n niveles: pasado Parser.MAX_NESTING sigue sin recursión.
+ *
+ * Uso: java -cp bench/target/benchmarks.jar bench.ParserStress [niveles] [casos]
+ */
+public final class ParserStress {
+    private static final long STACK = 256 * 1024;
+
+    private static final String[] PIECES = {
+            " ", "\n", "{", "}", "{ ", " }", "if (x) then ", "else ", "while (x < 3) ", "(", ")", "x", "y",
+            "1", "2.5", "\"s\"", "true", "+", "-", "*", "/", "||", "&&", "==", "!=", "<", ">=", "=", "+=",
+            "*=", "!", ";", "; ", "long y", "double z = ", "read(x);", "write(", "write(x);", "x = x + 1;", ","
+    };
+    private static final String[] OPENERS = {"{", "(", "if (x) then ", "while (x < 3) ", "- ", "x = ", "write(", "else "};
+
+    private ParserStress() {}
+
+    public static void main(String[] args) throws Exception {
+        int levels = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int cases = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+
+        int failures = equivalence(cases);
+        System.out.printf("equivalencia: %d casos, %d diferencias%n", cases, failures);
+
+        failures += depth("bloques", n -> repeat("{", n) + "x = 1;" + repeat("}", n), levels);
+        failures += depth("if", n -> repeat("if (x) then ", n) + "x = 1;", levels);
+        failures += depth("else if", n -> repeat("if (x) then x = 1; else ", n) + "x = 2;", levels);
+        failures += depth("while", n -> repeat("while (x) ", n) + "x = 1;", levels);
+        failures += depth("paréntesis", n -> "x = " + repeat("(1 + ", n) + "1" + repeat(")", n) + ";", levels);
+        failures += depth("menos unario", n -> "x = " + repeat("- ", n) + "1;", levels);
+        failures += depth("asignaciones", n -> repeat("x = ", n) + "1;", levels);
+        failures += depth("mezcla", n -> repeat("{ if (x) then while ((x)) ", n / 3) + "x = -(1);" + repeat("}", n / 3), levels);
+
+        if (failures > 0) System.exit(1);
+    }
+
+    // EQUIVALENCIA
+
+    private static int equivalence(int cases) {
+        Random random = new Random(11);
+        int failures = 0;
+        for (int i = 0; i < cases; i++) {
+            String source = i % 10 == 0 ? ProgramGenerator.generate(i, 20_000)
+                    : i % 10 == 5 ? openers(random, 20 + random.nextInt(60)) + noise(random, 1 + random.nextInt(200))
+                    : noise(random, 1 + random.nextInt(200));
+            int maxErrors = i % 3 == 0 ? 3 : ErrorHandler.UNLIMITED;
+            String expected = parse(source, maxErrors, false);
+            String actual = parse(source, maxErrors, true);
+            if (!expected.equals(actual)) {
+                failures++;
+                if (failures <= 5) {
+                    System.out.println("caso " + i + ": " + source.replace("\n", "\\n"));
+                    System.out.println("  recursivo: " + expected);
+                    System.out.println("  sin pila:  " + actual);
+                }
+            }
+        }
+        return failures;
+    }
+
+    static String noise(Random random, int pieces) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < pieces; i++) sb.append(PIECES[random.nextInt(PIECES.length)]);
+        return sb.toString();
+    }
+
+    private static String openers(Random random, int pieces) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < pieces; i++) sb.append(OPENERS[random.nextInt(OPENERS.length)]);
+        return sb.toString();
+    }
+
+    // Árbol y diagnósticos como texto, para comparar los dos modos
+    private static String parse(String source, int maxErrors, boolean stackSafe) {
+        ErrorHandler err = new ErrorHandler(maxErrors);
+        TokenBuffer tokens = new Lexer(source, err).scanBuffer();
+        Parser parser = new Parser(tokens.stream(), err);
+        if (stackSafe) parser.stackSafe();
+        List<Statement> statements = parser.parse();
+        StringBuilder sb = new StringBuilder();
+        for (Statement s : statements) describe(s, sb).append('\n');
+        return sb.append(err.getDiagnostics()).append(" suprimidos=").append(err.getSuppressed()).toString();
+    }
+
+    static StringBuilder describe(Statement s, StringBuilder sb) {
+        if (s == null) return sb.append("null");
+        sb.append(s.kind).append('@').append(s.line).append(':').append(s.column).append('[');
+        if (s instanceof Statement.VarDecl) {
+            Statement.VarDecl v = (Statement.VarDecl) s;
+            describe(v.initializer, sb.append(v.type).append(' ').append(v.name).append(' '));
+        } else if (s instanceof Statement.Read) {
+            sb.append(((Statement.Read) s).name);
+        } else if (s instanceof Statement.Write) {
+            describe(((Statement.Write) s).value, sb);
+        } else if (s instanceof Statement.If) {
+            Statement.If f = (Statement.If) s;
+            describe(f.elseBranch, describe(f.thenBranch, describe(f.condition, sb).append(' ')).append(' '));
+        } else if (s instanceof Statement.While) {
+            Statement.While w = (Statement.While) s;
+            describe(w.body, describe(w.condition, sb).append(' '));
+        } else if (s instanceof Statement.Block) {
+            for (Statement inner : ((Statement.Block) s).statements) describe(inner, sb).append(' ');
+        } else {
+            describe(((Statement.Expression) s).expr, sb);
+        }
+        return sb.append(']');
+    }
+
+    static StringBuilder describe(Expr e, StringBuilder sb) {
+        if (e == null) return sb.append("null");
+        sb.append('@').append(e.line).append(':').append(e.column);
+        if (e instanceof Expr.Binary) {
+            Expr.Binary b = (Expr.Binary) e;
+            describe(b.right, describe(b.left, sb.append('(')).append(' ').append(b.op).append(' ')).append(')');
+        } else if (e instanceof Expr.Unary) {
+            Expr.Unary u = (Expr.Unary) e;
+            describe(u.operand, sb.append(u.op).append(' '));
+        } else if (e instanceof Expr.Literal) {
+            sb.append("lit ").append(((Expr.Literal) e).value());
+        } else if (e instanceof Expr.Variable) {
+            sb.append("var ").append(((Expr.Variable) e).name);
+        } else {
+            Expr.Assign a = (Expr.Assign) e;
+            describe(a.value, sb.append(a.name).append(' ').append(a.op).append(' '));
+        }
+        return sb;
+    }
+
+    // PROFUNDIDAD
+
+    private static int depth(String shape, IntFunction<String> source, int levels) throws InterruptedException {
+        time(source.apply(levels / 2), shape, levels / 2, true); // calentamiento del JIT
+        long half = time(source.apply(levels / 2), shape, levels / 2, true);
+        long full = time(source.apply(levels), shape, levels, true);
+        long recursive = time(source.apply(levels), shape, levels, false);
+        boolean ok = half >= 0 && full >= 0 && recursive >= 0;
+        System.out.printf("%-13s %,9d niveles: %s  (%,d ms; con la mitad %,d ms; recursivo %,d ms)%n",
+                shape, levels, ok ? "ok" : "FALLÓ", full, half, recursive);
+        return ok ? 0 : 1;
+    }
+
+    // Milisegundos del parseo en un hilo de pila chica, o -1 si falló
+    private static long time(String source, String shape, int levels, boolean stackSafe) throws InterruptedException {
+        long[] result = {-1};
+        run(() -> {
+            ErrorHandler err = new ErrorHandler();
+            TokenBuffer tokens = new Lexer(source, err).scanBuffer();
+            long start = System.nanoTime();
+            Parser parser = new Parser(tokens.stream(), err);
+            if (stackSafe) parser.stackSafe();
+            List<Statement> statements;
+            try {
+                statements = parser.parse();
+            } catch (StackOverflowError e) {
+                System.out.println(shape + (stackSafe ? "" : " (recursivo)") + ": StackOverflowError");
+                return;
+            }
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            if (err.hasErrors()) {
+                System.out.println(shape + ": " + err.getDiagnostics().get(0));
+            } else if (chain(statements) < levels) {
+                System.out.println(shape + ": el árbol tiene " + chain(statements) + " niveles");
+            } else {
+                result[0] = elapsed;
+            }
+        });
+        return result[0];
+    }
+
+    private static void run(Runnable task) throws InterruptedException {
+        Thread t = new Thread(null, task, "parser", STACK);
+        t.start();
+        t.join();
+    }
+
+    /* Largo de la cadena de nodos más profunda siguiendo siempre el último
+     * hijo (sin recursión: el árbol es justamente el que no entra en la pila).
+     */
+    private static int chain(List<Statement> statements) {
+        Object node = statements.isEmpty() ? null : statements.get(statements.size() - 1);
+        int n = 0;
+        while (node != null) {
+            n++;
+            if (node instanceof Statement.Block) {
+                List<Statement> inner = ((Statement.Block) node).statements;
+                node = inner.isEmpty() ? null : inner.get(inner.size() - 1);
+            } else if (node instanceof Statement.If) {
+                Statement.If f = (Statement.If) node;
+                node = f.elseBranch != null ? f.elseBranch : f.thenBranch;
+            } else if (node instanceof Statement.While) {
+                node = ((Statement.While) node).body;
+            } else if (node instanceof Statement.Expression) {
+                node = ((Statement.Expression) node).expr;
+            } else if (node instanceof Expr.Assign) {
+                node = ((Expr.Assign) node).value;
+            } else if (node instanceof Expr.Unary) {
+                node = ((Expr.Unary) node).operand;
+            } else if (node instanceof Expr.Binary) {
+                node = ((Expr.Binary) node).right;
+            } else {
+                node = null;
+            }
+        }
+        return n;
+    }
+
+    private static String repeat(String s, int n) {
+        return s.repeat(Math.max(n, 0));
+    }
+}
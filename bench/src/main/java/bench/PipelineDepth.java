@@ -0,0 +1,165 @@
+package bench;
+
+import cache.CompilationCache;
+import driver.Compiler;
+import driver.Driver;
+import driver.Options;
+import output.OutputSink;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/* Anidamiento extremo por el compilador entero (Driver, como Main), no solo
+ * por el parser como ParserStress. Cada forma (bloques, if, else if, while,
+ * paréntesis, "-", asignaciones encadenadas, una suma larga y una mezcla) va
+ * dentro de un programa que declara x y al final la escribe, y se compila con
+ * volcados en texto y en JSON, bytecode, --run y --jvm --run, con y sin
+ * optimizador (que pliega las expresiones constantes antes de generar).
+ *
+ * Todo corre en un hilo con una pila chica (256 KB), con y sin
+ * --stack-safe-parser, y tiene que compilar: la VM y la JVM tienen que
+ * escribir el valor esperado de x. La JVM puede rechazar el programa por sus
+ * límites de 64 KB de código y de pila de operandos por método. Además cada
+ * forma pasa dos veces por una CompilationCache (guarda y lee el árbol).
+ *
+ * Uso: java -cp bench/target/benchmarks.jar bench.PipelineDepth [niveles]
+ */
+public final class PipelineDepth {
+    private static final long STACK = 256 * 1024;
+
+    // El AST en texto va indentado (crece con el cuadrado de la profundidad): el árbol se vuelca en JSON
+    private static final String[][] MODES = {
+            {"--quiet"}, {"--tokens", "--symbols"}, {"--json"}, {"--bytecode", "--quiet"}, {"--run"}, {"--jvm", "--run"},
+            {"--no-opt", "--json"}, {"--no-opt", "--run"}, {"--no-opt", "--jvm", "--run"}
+    };
+
+    private PipelineDepth() {}
+
+    public static void main(String[] args) throws Exception {
+        int levels = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int failures = 0;
+        failures += shape("bloques", n -> "{".repeat(n) + "x = 2;" + "}".repeat(n), levels, 2);
+        failures += shape("if", n -> "if (x) then ".repeat(n) + "x = 2;", levels, 2);
+        failures += shape("else if", n -> "if (x < 0) then x = 3; else ".repeat(n) + "x = 2;", levels, 2);
+        failures += shape("while", n -> "while (x < 1) ".repeat(n) + "x = 2;", levels, 1);
+        failures += shape("paréntesis", n -> "x = " + "(1 + ".repeat(n) + "1" + ")".repeat(n) + ";", levels, levels + 1);
+        failures += shape("menos unario", n -> "x = " + "- ".repeat(n) + "1;", levels, levels % 2 == 0 ? 1 : -1);
+        failures += shape("asignaciones", n -> "x = ".repeat(n) + "2;", levels, 2);
+        failures += shape("suma", n -> "x = 1" + " + 1".repeat(n) + ";", levels, levels + 1);
+        failures += shape("mezcla", n -> "{ if (x) then while ((x < 1)) ".repeat(n / 3) + "x = 2;" + "}".repeat(n / 3), levels, 1);
+        System.out.println(failures == 0 ? "sin fallas" : failures + " fallas");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static int shape(String name, IntFunction<String> body, int levels, long expected) throws Exception {
+        String source = "long x = 1;\n" + body.apply(levels) + "\nwrite(x);\n";
+        int failures = 0, compiled = 0, jvmRejected = 0;
+        for (String[] mode : MODES) {
+            boolean jvm = Arrays.asList(mode).contains("--jvm");
+            boolean run = Arrays.asList(mode).contains("--run");
+            for (boolean stackSafe : new boolean[] {false, true}) {
+                Outcome outcome = compile(source, mode, stackSafe);
+                if (jvm && outcome.status == Driver.COMPILE_ERRORS && outcome.err.contains("clase JVM")) {
+                    jvmRejected++;
+                } else if (outcome.status != Driver.OK || outcome.thrown != null || !outcome.err.isEmpty()
+                        || run && !outcome.out.equals(expected + "\n")) {
+                    failures++;
+                    System.out.println(name + " " + String.join(" ", mode) + (stackSafe ? " --stack-safe-parser: " : ": ") + outcome);
+                } else {
+                    compiled++;
+                }
+            }
+        }
+        String cached = cacheRoundTrip(source);
+        if (cached != null) {
+            failures++;
+            System.out.println(name + " por la caché: " + cached);
+        }
+        System.out.printf("%-13s %,d niveles: %s, %d compilaron%s%n", name, levels, failures == 0 ? "ok" : "FALLÓ",
+                compiled, jvmRejected > 0 ? " (la JVM rechazó " + jvmRejected + " por sus límites)" : "");
+        return failures;
+    }
+
+    // null si guardar y leer el resultado da el mismo árbol
+    private static String cacheRoundTrip(String source) throws Exception {
+        Path dir = Files.createTempDirectory("pipeline-depth");
+        String[] result = {null};
+        try {
+            onSmallStack(() -> {
+                try {
+                    Compiler.CompilationResult stored = new CompilationCache(dir).compile("Profundo", source);
+                    Compiler.CompilationResult loaded = new CompilationCache(dir).compile("Profundo", source);
+                    if (!loaded.cached) result[0] = "no se leyó de la caché";
+                    else if (stored.hasErrors() || loaded.hasErrors()) result[0] = "con errores";
+                    else if (!sameHeights(stored, loaded)) result[0] = "el árbol leído es distinto";
+                } catch (Throwable e) {
+                    result[0] = e.toString();
+                }
+            });
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+            }
+        }
+        return result[0];
+    }
+
+    // Las alturas salen de los constructores: si coinciden sentencia por sentencia, se decodificó todo el árbol
+    private static boolean sameHeights(Compiler.CompilationResult a, Compiler.CompilationResult b) {
+        if (a.statements.size() != b.statements.size()) return false;
+        for (int i = 0; i < a.statements.size(); i++) {
+            if (a.statements.get(i).height != b.statements.get(i).height) return false;
+        }
+        return true;
+    }
+
+    private static final class Outcome {
+        int status = -1;
+        String out = "";
+        String err = "";
+        Throwable thrown;
+
+        @Override
+        public String toString() {
+            String text = thrown != null ? thrown.toString() : "estado " + status + ", stdout " + head(out) + ", stderr " + head(err);
+            return text.replace("\n", "\\n");
+        }
+
+        private static String head(String s) {
+            return s.length() > 200 ? s.substring(0, 200) + "..." : s;
+        }
+    }
+
+    private static Outcome compile(String source, String[] mode, boolean stackSafe) throws InterruptedException {
+        Outcome outcome = new Outcome();
+        onSmallStack(() -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            try {
+                Options options = Options.parse(mode);
+                options.stackSafe = stackSafe;
+                outcome.status = Driver.run(options, "Profundo", source, null, new OutputSink(out),
+                        new PrintStream(err, true, StandardCharsets.UTF_8), InputStream.nullInputStream(), out);
+            } catch (Throwable e) {
+                outcome.thrown = e;
+            }
+            outcome.out = out.toString(StandardCharsets.UTF_8);
+            outcome.err = err.toString(StandardCharsets.UTF_8);
+        });
+        return outcome;
+    }
+
+    private static void onSmallStack(Runnable task) throws InterruptedException {
+        Thread t = new Thread(null, task, "compilador", STACK);
+        t.start();
+        t.join();
+    }
+}
@@ -0,0 +1,169 @@
+package bench;
+
+import java.util.Random;
+
+/* Generador reproducible de programas sintéticos válidos para los benchmarks.
+ * Con la misma semilla produce siempre el mismo texto. Mezcla declaraciones,
+ * if/while/bloques anidados hasta maxDepth, expresiones de exprLength
+ * operandos y comentarios de línea y de bloque.
+ */
+public final class ProgramGenerator {
+    private final Random random;
+    private final int maxDepth;
+    private final int exprLength;
+    private final StringBuilder out = new StringBuilder();
+    private int longVars;
+    private int doubleVars;
+    private int temps;
+
+    public ProgramGenerator(long seed, int maxDepth, int exprLength) {
+        this.random = new Random(seed);
+        this.maxDepth = maxDepth;
+        this.exprLength = exprLength;
+    }
+
+    // Programa de aproximadamente targetBytes caracteres
+    public static String generate(long seed, int targetBytes) {
+        return new ProgramGenerator(seed, 6, 8).program(targetBytes);
+    }
+
+    public String program(int targetBytes) {
+        out.append("/* programa sintético, semilla fija */\n");
+        longVars = 4;
+        doubleVars = 4;
+        for (int i = 0; i < longVars; i++) out.append("long _l").append(i).append(";\n");
+        for (int i = 0; i < doubleVars; i++) out.append("double _d").append(i).append(" = ").append(i).append(".5;\n");
+        while (out.length() < targetBytes) {
+            if (random.nextInt(8) == 0) declaration(0);
+            else statement(0);
+        }
+        return out.toString();
+    }
+
+    private void statement(int depth) {
+        indent(depth);
+        int pick = random.nextInt(depth < maxDepth ? 10 : 6);
+        switch (pick) {
+            case 0:
+                // un comentario no es una sentencia: va antes de una
+                out.append("// comentario de línea ").append(random.nextInt(1000)).append('\n');
+                indent(depth);
+                out.append("write(").append(longVar()).append(");\n");
+                break;
+            case 1:
+                out.append("read(").append(longVar()).append(");\n");
+                break;
+            case 2:
+                out.append("write(").append(random.nextBoolean() ? longVar() : doubleVar()).append(");\n");
+                break;
+            case 3:
+                out.append(longVar()).append(" = ");
+                longExpr(exprLength);
+                out.append(";\n");
+                break;
+            case 4:
+                out.append(doubleVar()).append(random.nextBoolean() ? " = " : " += ");
+                doubleExpr(exprLength);
+                out.append(";\n");
+                break;
+            case 5:
+                out.append("/* comentario\n");
+                indent(depth);
+                out.append("   de bloque */ ").append(longVar()).append(" = ");
+                longExpr(2);
+                out.append(";\n");
+                break;
+            case 6: case 7:
+                out.append("if (");
+                condition();
+                out.append(") then\n");
+                statement(depth + 1);
+                if (random.nextBoolean()) {
+                    indent(depth);
+                    out.append("else\n");
+                    statement(depth + 1);
+                }
+                break;
+            case 8:
+                out.append("while (");
+                condition();
+                out.append(") {\n");
+                block(depth + 1);
+                indent(depth);
+                out.append("}\n");
+                break;
+            default:
+                out.append("{\n");
+                block(depth + 1);
+                indent(depth);
+                out.append("}\n");
+                break;
+        }
+    }
+
+    // Las declaraciones solo valen como sentencia de nivel superior o dentro de un bloque
+    private void declaration(int depth) {
+        indent(depth);
+        out.append("long _t").append(temps++).append(" = ");
+        longExpr(2);
+        out.append(";\n");
+    }
+
+    private void block(int depth) {
+        if (random.nextInt(3) == 0) declaration(depth);
+        int n = 1 + random.nextInt(4);
+        for (int i = 0; i < n; i++) statement(depth);
+    }
+
+    private void condition() {
+        int n = 1 + random.nextInt(3);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) out.append(random.nextBoolean() ? " && " : " || ");
+            longExpr(2);
+            out.append(RELATIONAL[random.nextInt(RELATIONAL.length)]);
+            longExpr(2);
+        }
+    }
+
+    private static final String[] RELATIONAL = {" > ", " < ", " >= ", " <= ", " == ", " <> "};
+    private static final String[] ARITH = {" + ", " - ", " * ", " / "};
+
+    // Solo operandos long, para que la asignación a un long sea válida
+    private void longExpr(int operands) {
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) out.append(ARITH[random.nextInt(ARITH.length)]);
+            if (random.nextInt(4) == 0) {
+                out.append('(');
+                out.append(longVar()).append(" + ").append(1 + random.nextInt(9));
+                out.append(')');
+            } else if (random.nextBoolean()) {
+                out.append(longVar());
+            } else {
+                out.append(1 + random.nextInt(1000));
+            }
+        }
+    }
+
+    private void doubleExpr(int operands) {
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) out.append(ARITH[random.nextInt(ARITH.length)]);
+            switch (random.nextInt(3)) {
+                case 0: out.append(doubleVar()); break;
+                case 1: out.append(longVar()); break;
+                default: out.append(random.nextInt(100)).append('.').append(random.nextInt(100)); break;
+            }
+        }
+    }
+
+    private String longVar() {
+        return "_l" + random.nextInt(longVars);
+    }
+
+    private String doubleVar() {
+        return "_d" + random.nextInt(doubleVars);
+    }
+
+    private void indent(int depth) {
+        for (int i = 0; i < depth; i++) out.append("    ");
+    }
+}
@@ -0,0 +1,34 @@
+package bench;
+
+import error.ErrorHandler;
+import lexer.Lexer;
+import lexer.TokenBuffer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Programa sintético compartido por los benchmarks de cada fase
+@State(Scope.Benchmark)
+public class Programs {
+    @Param({"10000", "1000000"})
+    public int bytes;
+
+    @Param({"42"})
+    public long seed;
+
+    public String source;
+    public int tokenCount;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        source = ProgramGenerator.generate(seed, bytes);
+        ErrorHandler err = new ErrorHandler();
+        TokenBuffer tokens = new Lexer(source, err).scanBuffer();
+        if (err.hasErrors()) {
+            throw new IllegalStateException("el generador produjo un programa inválido: " + err.getDiagnostics().get(0));
+        }
+        tokenCount = tokens.size();
+    }
+}
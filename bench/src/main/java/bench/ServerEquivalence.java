@@ -0,0 +1,160 @@
+package bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/* Compara el servidor contra Main, de punta a punta y con procesos reales:
+ * levanta "Main --server" en un socket temporal y para cada fuente y cada
+ * juego de opciones corre "Main <opciones> <archivo>" y "server.Client
+ * <opciones> <archivo>". La salida estándar, la de errores y el estado de
+ * salida tienen que ser los mismos (con --stats la tabla de tiempos no se
+ * compara). Los pedidos pasan por los buffers reutilizados de los hilos del
+ * servidor, así que también cubre ese camino.
+ *
+ * Con --run el servidor tiene que rechazar el pedido con estado 2.
+ *
+ * Uso: java -cp bench/target/benchmarks.jar bench.ServerEquivalence [programas]
+ */
+public final class ServerEquivalence {
+    private static final String[][] OPTIONS = {
+            {}, {"--json"}, {"--ndjson"}, {"--tokens"}, {"--ast"}, {"--symbols"}, {"--quiet"}, {"--no-opt", "--ast"},
+            {"--bytecode"}, {"--json", "--bytecode"}, {"--max-errors", "2"}, {"--table-lexer"}, {"--stack-safe-parser"},
+            {"--lex-threads", "1"}, {"--jvm"}, {"--stats", "--quiet"}
+    };
+
+    private static final String[] EDGES = {
+            "long x = 1;\nwrite(x + 2);\n",
+            "long x;\nlong x;\ndouble y;\n{ double y; double y = 1.5; }\nwrite(\"ñandú\");\n",
+            "long x = @;\nwrite(\"sin cerrar);\n",
+            "long x = ;\nwrite(x)\nif (x then x = 1;\n",
+            "long x = 1;\nx = y;\nz = \"s\" * 2;\nwrite(x && 1.5);\n",
+            ""
+    };
+
+    private ServerEquivalence() {}
+
+    public static void main(String[] args) throws Exception {
+        int programs = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        Path dir = Files.createTempDirectory("server-equivalence");
+        Path socket = dir.resolve("compilador.sock");
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < EDGES.length + programs; i++) {
+            Path file = dir.resolve("caso" + i + ".txt");
+            Files.writeString(file, i < EDGES.length ? EDGES[i] : ProgramGenerator.generate(i, 4_000));
+            files.add(file);
+        }
+        // da para dos trozos: los dos lados usan el léxico paralelo
+        Path big = dir.resolve("grande.txt");
+        Files.writeString(big, ProgramGenerator.generate(99, 600_000));
+        files.add(big);
+
+        Process server = new ProcessBuilder(java("Main", "--server", "--socket", socket.toString(), "--threads", "2"))
+                .redirectErrorStream(true).redirectOutput(dir.resolve("servidor.log").toFile()).start();
+        int cases = 0, failures = 0;
+        try {
+            for (int wait = 0; !Files.exists(socket); wait++) {
+                if (wait == 200 || !server.isAlive()) throw new IllegalStateException("el servidor no arrancó");
+                Thread.sleep(50);
+            }
+            for (Path file : files) {
+                for (String[] options : OPTIONS) {
+                    cases++;
+                    String difference = compare(file, options, socket);
+                    if (difference != null) {
+                        failures++;
+                        if (failures <= 5) System.out.println(file.getFileName() + " " + Arrays.toString(options) + ": " + difference);
+                    }
+                }
+            }
+            Result rejected = exec(client(socket, "--run", files.get(0).toString()));
+            cases++;
+            if (rejected.status != 2) {
+                failures++;
+                System.out.println("--run: el servidor devolvió " + rejected.status + " en lugar de 2");
+            }
+        } finally {
+            server.destroy();
+            server.waitFor(10, TimeUnit.SECONDS);
+            try (Stream<Path> list = Files.walk(dir)) {
+                for (Path p : (Iterable<Path>) list.sorted(Comparator.reverseOrder())::iterator) Files.deleteIfExists(p);
+            }
+        }
+        System.out.printf("%d casos, %d diferencias%n", cases, failures);
+        if (failures > 0) System.exit(1);
+    }
+
+    private static String compare(Path file, String[] options, Path socket) throws IOException, InterruptedException {
+        List<String> main = new ArrayList<>(Arrays.asList(options));
+        main.add(file.toString());
+        Result direct = exec(java("Main", main.toArray(new String[0])));
+        Result served = exec(client(socket, main.toArray(new String[0])));
+
+        boolean stats = Arrays.asList(options).contains("--stats");
+        if (direct.status != served.status) return "estado " + direct.status + " / " + served.status;
+        if (!direct.out.equals(served.out)) return "stdout distinto\n  main:     " + head(direct.out) + "\n  servidor: " + head(served.out);
+        if (!stats && !direct.err.equals(served.err)) {
+            return "stderr distinto\n  main:     " + head(direct.err) + "\n  servidor: " + head(served.err);
+        }
+        return null;
+    }
+
+    private static String head(String s) {
+        s = s.replace("\n", "\\n");
+        return s.length() > 300 ? s.substring(0, 300) + "..." : s;
+    }
+
+    private static final class Result {
+        final int status;
+        final String out;
+        final String err;
+
+        Result(int status, String out, String err) {
+            this.status = status;
+            this.out = out;
+            this.err = err;
+        }
+    }
+
+    private static Result exec(List<String> command) throws IOException, InterruptedException {
+        Path out = Files.createTempFile("salida", ".txt");
+        Path err = Files.createTempFile("errores", ".txt");
+        try {
+            Process p = new ProcessBuilder(command).redirectInput(ProcessBuilder.Redirect.from(new File("/dev/null")))
+                    .redirectOutput(out.toFile()).redirectError(err.toFile()).start();
+            if (!p.waitFor(120, TimeUnit.SECONDS)) {
+                p.destroyForcibly();
+                throw new IllegalStateException("no terminó: " + command);
+            }
+            return new Result(p.exitValue(), Files.readString(out, StandardCharsets.UTF_8), Files.readString(err, StandardCharsets.UTF_8));
+        } finally {
+            Files.deleteIfExists(out);
+            Files.deleteIfExists(err);
+        }
+    }
+
+    private static List<String> client(Path socket, String... args) {
+        List<String> all = new ArrayList<>(Arrays.asList("--socket", socket.toString()));
+        all.addAll(Arrays.asList(args));
+        return java("server.Client", all.toArray(new String[0]));
+    }
+
+    // Otra JVM con el mismo classpath que esta
+    private static List<String> java(String mainClass, String... args) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass);
+        command.addAll(Arrays.asList(args));
+        return command;
+    }
+}
@@ -0,0 +1,81 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+import lexer.NameTable;
+import org.openjdk.jmh.infra.Blackhole;
+import symboltable.SymbolTable;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SymbolTableBenchmark {
+    @Param({"4", "64", "1024"})
+    public int depth;
+
+    @Param({"8"})
+    public int namesPerScope;
+
+    private String[] names;
+    private int[] ids; // los mismos nombres internados, como los deja el parser en los nodos
+    private NameTable table;
+    private SymbolTable nested;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        names = new String[depth * namesPerScope];
+        ids = new int[names.length];
+        table = new NameTable();
+        for (int i = 0; i < names.length; i++) {
+            names[i] = ("_v" + i).intern();
+            ids[i] = table.intern(names[i]);
+        }
+        nested = build();
+    }
+
+    private SymbolTable build() {
+        SymbolTable symbols = new SymbolTable(table);
+        for (int d = 0; d < depth; d++) {
+            if (d > 0) symbols.beginScope();
+            for (int k = 0; k < namesPerScope; k++) {
+                int i = d * namesPerScope + k;
+                symbols.addSymbol(ids[i], names[i], "long", null, d);
+            }
+        }
+        return symbols;
+    }
+
+    // Búsqueda de todos los nombres desde el ámbito más interno, por id (como el análisis semántico)
+    @Benchmark
+    public void lookupAll(Blackhole bh) {
+        for (int id : ids) {
+            bh.consume(nested.getSymbol(id));
+        }
+    }
+
+    // Lo mismo por texto: cada búsqueda hashea el nombre en la NameTable
+    @Benchmark
+    public void lookupAllByName(Blackhole bh) {
+        for (String name : names) {
+            bh.consume(nested.getSymbol(name));
+        }
+    }
+
+    // Búsqueda de un nombre global (el peor caso de la tabla por pila de mapas)
+    @Benchmark
+    public boolean existsOutermost() {
+        return nested.exists(names[0]);
+    }
+
+    // Abrir, declarar y cerrar todos los ámbitos
+    @Benchmark
+    public SymbolTable declareAndClose() {
+        SymbolTable symbols = build();
+        for (int d = 1; d < depth; d++) symbols.endScope();
+        return symbols;
+    }
+}
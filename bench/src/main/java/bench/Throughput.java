@@ -0,0 +1,28 @@
+package bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.State;
+
+/* Contadores auxiliares: JMH los informa como tasa, así cada benchmark
+ * reporta tokens/s y bytes/s además de ops/s.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+    public long tokens;
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        tokens = 0;
+        bytes = 0;
+    }
+
+    void add(int tokenCount, int byteCount) {
+        tokens += tokenCount;
+        bytes += byteCount;
+    }
+}
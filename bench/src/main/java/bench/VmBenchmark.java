@@ -0,0 +1,77 @@
+package bench;
+
+import error.ErrorHandler;
+import lexer.Lexer;
+import org.openjdk.jmh.annotations.*;
+import parser.Parser;
+import parser.Statement;
+import semantic.SemanticAnalyzer;
+import jvm.JvmGenerator;
+import jvm.JvmRuntime;
+import jvm.ProgramLoader;
+import vm.BufferedInput;
+import vm.BufferedOutput;
+import vm.CodeGenerator;
+import vm.Program;
+import vm.VM;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Un while de puro cálculo en la VM y como clase JVM. Con -prof gc, la asignación
+// por op es solo la de los búferes de E/S y no crece con iterations.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VmBenchmark {
+    @Param({"1000000"})
+    public int iterations;
+
+    private Program program;
+    private Class<?> jvmClass;
+
+    static final String LOOP = """
+            long _i = 0;
+            long _acc = 0;
+            double _x = 0.5;
+            while (_i < _n) {
+                if (_i / 3 * 3 == _i) then _acc += _i; else _acc = _acc - 1;
+                _x = _x * 0.999 + 1;
+                _i = _i + 1;
+            }
+            write(_acc);
+            write(_x);
+            """;
+
+    @Setup(Level.Trial)
+    public void compile() {
+        List<Statement> statements = analyze("long _n = " + iterations + ";\n" + LOOP);
+        program = CodeGenerator.compile(statements);
+        jvmClass = new ProgramLoader().define("Loop", JvmGenerator.generate("Loop", statements));
+    }
+
+    static List<Statement> analyze(String source) {
+        ErrorHandler err = new ErrorHandler();
+        Parser parser = new Parser(new Lexer(source, err), err);
+        List<Statement> statements = parser.parse();
+        new SemanticAnalyzer(err, parser.names()).analyze(statements);
+        if (err.hasErrors()) throw new IllegalStateException(err.getDiagnostics().get(0).toString());
+        return statements;
+    }
+
+    @Benchmark
+    public void jvm() {
+        JvmRuntime.run(jvmClass, new ByteArrayInputStream(new byte[0]), OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void vm() {
+        VM.execute(program, new BufferedInput(new ByteArrayInputStream(new byte[0])),
+                new BufferedOutput(OutputStream.nullOutputStream()));
+    }
+}
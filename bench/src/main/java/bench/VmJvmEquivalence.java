@@ -0,0 +1,276 @@
+package bench;
+
+import driver.Compiler;
+import jvm.JvmGenerator;
+import jvm.JvmRuntime;
+import jvm.ProgramLoader;
+import optimizer.Optimizer;
+import parser.Statement;
+import vm.CodeGenerator;
+import vm.ExecutionError;
+import vm.VM;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+/* Ejecución diferencial de la VM contra la clase JVM generada. Cada caso es
+ * un programa aleatorio que siempre termina (los while tienen un contador
+ * propio que el cuerpo no toca) y mezcla lo que más se presta a diferencias
+ * entre los dos generadores: long con desborde, mezcla long/double, NaN e
+ * infinitos en comparaciones, división entera por cero, cortocircuito,
+ * asignaciones dentro de expresiones, asignaciones compuestas, "-" y "!"
+ * anidados, condiciones constantes y read() con entradas inválidas.
+ *
+ * Se ejecuta en la VM y en la JVM, con y sin optimizador: la salida y el
+ * error de ejecución (mensaje y línea) tienen que ser los mismos en las cuatro.
+ *
+ * Uso: java -cp bench/target/benchmarks.jar bench.VmJvmEquivalence [casos]
+ */
+public final class VmJvmEquivalence {
+    private static final String[] LONG_LITERALS = {
+            "0", "1", "2", "7", "1000", "2147483647", "9223372036854775807", "4611686018427387904"
+    };
+    private static final String[] DOUBLE_LITERALS = {"0.0", "0.5", "2.5", "1.0", "1000000.125", "3.0"};
+    // sobre todo valores válidos: "2.5" no sirve para un long, "x" y "" para nada
+    private static final String[] INPUTS = {
+            "3", "-4", "0", "9223372036854775807", "12", "-1", "5", "7", "2.5", "x", ""
+    };
+    private static final String[] ARITH = {" + ", " - ", " * ", " / "};
+    // en expresiones la división va menos seguido: con divisor cero el programa termina ahí
+    private static final String[] OPERATORS = {" + ", " - ", " * ", " + ", " - ", " * ", " / "};
+    private static final String[] RELATIONAL = {" < ", " <= ", " > ", " >= ", " == ", " != "};
+
+    private final Random random;
+    private final StringBuilder out = new StringBuilder();
+    private int counters;
+
+    private VmJvmEquivalence(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) {
+        int cases = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int failures = 0, invalid = 0, errors = 0;
+        for (int i = 0; i < cases; i++) {
+            VmJvmEquivalence generator = new VmJvmEquivalence(i);
+            String source = generator.program();
+            String input = generator.input();
+            String[] results = new String[4];
+            String labels = "vm, vm --no-opt, jvm, jvm --no-opt";
+            boolean ok = true;
+            for (int k = 0; k < 4 && ok; k++) {
+                results[k] = run(source, input, k >= 2, k % 2 == 0, "Prueba" + i);
+                ok = results[k] != null;
+            }
+            if (!ok) {
+                invalid++;
+                if (invalid <= 3) System.out.println("caso " + i + ": el programa no compiló\n" + source);
+                continue;
+            }
+            if (results[0].contains("❌")) errors++;
+            if (!results[0].equals(results[1]) || !results[0].equals(results[2]) || !results[0].equals(results[3])) {
+                failures++;
+                if (failures <= 5) {
+                    System.out.println("caso " + i + " (" + labels + "):");
+                    for (String r : results) System.out.println("  " + r.replace("\n", "\\n"));
+                    System.out.println("  entrada: " + input.replace("\n", "\\n"));
+                    System.out.println(source);
+                }
+            }
+        }
+        System.out.printf("%d casos (%d terminan con error de ejecución), %d inválidos, %d diferencias%n",
+                cases, errors, invalid, failures);
+        if (failures + invalid > 0) System.exit(1);
+    }
+
+    // Salida del programa seguida del error de ejecución, si lo hubo; null si no compila
+    private static String run(String source, String input, boolean jvm, boolean optimize, String className) {
+        Compiler.CompilationResult result = Compiler.compile(className, source);
+        if (result.hasErrors()) return null;
+        List<Statement> statements = result.statements;
+        if (optimize) statements = new Optimizer().optimize(statements);
+
+        ByteArrayInputStream in = new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        String error = "";
+        try {
+            if (jvm) {
+                byte[] bytes = JvmGenerator.generate(className, statements);
+                JvmRuntime.run(new ProgramLoader().define(className, bytes), in, output);
+            } else {
+                VM.run(CodeGenerator.compile(statements), in, output);
+            }
+        } catch (ExecutionError e) {
+            error = "❌ " + e;
+        } catch (RuntimeException e) {
+            error = "❌ excepción " + e;
+        }
+        return output.toString(StandardCharsets.UTF_8) + error;
+    }
+
+    // GENERADOR
+
+    private String program() {
+        out.append("long a0 = ").append(longLiteral()).append(";\nlong a1 = 3;\nlong a2 = -5;\n");
+        out.append("double d0 = ").append(doubleLiteral()).append(";\ndouble d1 = -2.5;\ndouble d2 = 0.0;\n");
+        int n = 4 + random.nextInt(12);
+        for (int i = 0; i < n; i++) statement(0);
+        out.append("write(a0); write(a1); write(a2); write(d0); write(d1); write(d2);\n");
+        return out.toString();
+    }
+
+    private String input() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 6; i++) sb.append(INPUTS[random.nextInt(INPUTS.length)]).append('\n');
+        return sb.toString();
+    }
+
+    private void statement(int depth) {
+        switch (random.nextInt(depth < 3 ? 12 : 8)) {
+            case 0: case 1:
+                out.append(longVar()).append(" = ");
+                longExpr(2);
+                out.append(";\n");
+                break;
+            case 2:
+                out.append(doubleVar()).append(" = ");
+                doubleExpr(2);
+                out.append(";\n");
+                break;
+            case 3:
+                out.append(longVar()).append(ARITH[random.nextInt(4)].trim()).append("= ");
+                longExpr(1);
+                out.append(";\n");
+                break;
+            case 4:
+                out.append(doubleVar()).append(ARITH[random.nextInt(4)].trim()).append("= ");
+                if (random.nextBoolean()) doubleExpr(1);
+                else longExpr(1);
+                out.append(";\n");
+                break;
+            case 5:
+                out.append("write(");
+                switch (random.nextInt(4)) {
+                    case 0: longExpr(2); break;
+                    case 1: doubleExpr(2); break;
+                    case 2: condition(1); break;
+                    default: out.append("\"texto\""); break;
+                }
+                out.append(");\n");
+                break;
+            case 6:
+                out.append("read(").append(random.nextBoolean() ? longVar() : doubleVar()).append(");\n");
+                break;
+            case 7:
+                out.append(longVar()).append(" = ");
+                out.append('(').append(longVar()).append(" = ");
+                longExpr(1);
+                out.append(") + ");
+                longExpr(1);
+                out.append(";\n");
+                break;
+            case 8: case 9:
+                out.append("if (");
+                condition(2);
+                out.append(") then ");
+                statement(depth + 1);
+                if (random.nextBoolean()) {
+                    out.append("else ");
+                    statement(depth + 1);
+                }
+                break;
+            case 10: {
+                // el contador es propio del bucle: el cuerpo no lo modifica, así que termina
+                String counter = "k" + counters++;
+                out.append("{\nlong ").append(counter).append(" = 0;\nwhile (").append(counter)
+                        .append(" < ").append(1 + random.nextInt(4)).append(") {\n");
+                int n = 1 + random.nextInt(3);
+                for (int i = 0; i < n; i++) statement(depth + 1);
+                out.append(counter).append(" += 1;\n}\n}\n");
+                break;
+            }
+            default:
+                out.append("{\n");
+                statement(depth + 1);
+                statement(depth + 1);
+                out.append("}\n");
+                break;
+        }
+    }
+
+    private void condition(int terms) {
+        int n = 1 + random.nextInt(terms);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) out.append(random.nextBoolean() ? " && " : " || ");
+            switch (random.nextInt(6)) {
+                case 0: out.append(random.nextBoolean() ? "true" : "false"); break;
+                case 1: out.append('!').append('(');
+                    condition(1);
+                    out.append(')');
+                    break;
+                case 2: longExpr(1); break; // numérica: distinta de cero
+                case 3: doubleExpr(1);
+                    out.append(RELATIONAL[random.nextInt(RELATIONAL.length)]);
+                    doubleExpr(1);
+                    break;
+                default:
+                    longExpr(2);
+                    out.append(RELATIONAL[random.nextInt(RELATIONAL.length)]);
+                    longExpr(1);
+                    break;
+            }
+        }
+    }
+
+    private void longExpr(int operands) {
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) out.append(OPERATORS[random.nextInt(OPERATORS.length)]);
+            switch (random.nextInt(6)) {
+                case 0: out.append(longLiteral()); break;
+                case 1: out.append("-(").append(longVar()).append(')'); break;
+                case 2: out.append("- -").append(longVar()); break;
+                case 3: out.append('(');
+                    longExpr(2);
+                    out.append(')');
+                    break;
+                default: out.append(longVar()); break;
+            }
+        }
+    }
+
+    private void doubleExpr(int operands) {
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) out.append(OPERATORS[random.nextInt(OPERATORS.length)]);
+            switch (random.nextInt(6)) {
+                case 0: out.append(doubleLiteral()); break;
+                case 1: out.append("(0.0 / 0.0)"); break; // NaN
+                case 2: out.append(longVar()); break;
+                case 3: out.append("-").append(doubleVar()); break;
+                case 4: out.append('(');
+                    doubleExpr(2);
+                    out.append(')');
+                    break;
+                default: out.append(doubleVar()); break;
+            }
+        }
+    }
+
+    private String longLiteral() {
+        return LONG_LITERALS[random.nextInt(LONG_LITERALS.length)];
+    }
+
+    private String doubleLiteral() {
+        return DOUBLE_LITERALS[random.nextInt(DOUBLE_LITERALS.length)];
+    }
+
+    private String longVar() {
+        return "a" + random.nextInt(3);
+    }
+
+    private String doubleVar() {
+        return "d" + random.nextInt(3);
+    }
+}
@@ -0,0 +1,40 @@
+#!/bin/sh
+# Mide el tiempo de arranque de punta a punta de una compilación corta,
+# comparando la JVM por defecto con el lanzador de arranque rápido (CDS,
+# C1 solo, SerialGC) y cada ajuste por separado.
+# Uso: bench/startup.sh [repeticiones] [argumentos de Main]
+#      (por defecto 20 repeticiones sobre el programa de ejemplo de Main)
+set -e
+cd "$(dirname "$0")/.."
+N=${1:-20}
+[ $# -gt 0 ] && shift
+[ -f core/target/compilador.jsa ] || bin/train-cds.sh
+JAR=$(pwd)/core/target/compilador-1.0-SNAPSHOT.jar
+JSA=$(pwd)/core/target/compilador.jsa
+
+# measure <etiqueta> <opciones de la JVM>: imprime mínimo, mediana y media en ms
+measure() {
+    label=$1
+    shift
+    java "$@" -cp "$JAR" Main $ARGS > /dev/null 2>&1 # calienta la caché de disco
+    i=0
+    times=""
+    while [ $i -lt "$N" ]; do
+        start=$(date +%s%N)
+        java "$@" -cp "$JAR" Main $ARGS > /dev/null 2>&1 || true
+        end=$(date +%s%N)
+        times="$times $(( (end - start) / 1000 ))"
+        i=$((i + 1))
+    done
+    echo "$times" | tr ' ' '\n' | grep . | sort -n | awk -v label="$label" '
+        { t[NR] = $1; sum += $1 }
+        END { printf "%-28s min %7.1f ms   mediana %7.1f ms   media %7.1f ms\n",
+                     label, t[1] / 1000, t[int((NR + 1) / 2)] / 1000, sum / NR / 1000 }'
+}
+
+ARGS="$*"
+echo "Arranque de 'Main $ARGS' ($N repeticiones)"
+measure "JVM por defecto"
+measure "CDS de la aplicación" -XX:SharedArchiveFile="$JSA"
+measure "C1 + SerialGC" -XX:TieredStopAtLevel=1 -XX:+UseSerialGC
+measure "lanzador (todo junto)" -XX:SharedArchiveFile="$JSA" -XX:TieredStopAtLevel=1 -XX:+UseSerialGC
@@ -0,0 +1,54 @@
+#!/bin/sh
+# Entrenamiento del archivo AppCDS para el arranque rápido (bin/compilador).
+# Corre el compilador en sus modos de uso habituales registrando las clases
+# que carga, une las listas y arma un archivo CDS estático con ellas: en las
+# ejecuciones siguientes la JVM las mapea ya parseadas y verificadas en lugar
+# de leerlas del jar.
+# Uso: bin/train-cds.sh   (deja core/target/compilador.jsa)
+set -e
+cd "$(dirname "$0")/.."
+mvn -B -q -pl core package -DskipTests
+# rutas absolutas: el archivo CDS registra el classpath y debe coincidir con el del lanzador
+JAR=$(pwd)/core/target/compilador-1.0-SNAPSHOT.jar
+JSA=$(pwd)/core/target/compilador.jsa
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+# Programa de entrenamiento: toca todas las construcciones del lenguaje
+cat > "$WORK/entrenamiento.txt" <<'FIN'
+/* Programa de entrenamiento para CDS */
+long _n;
+double _acum = 0.5;
+read(_n);
+while (_n > 0) {
+    long _i = _n * 2;
+    if (_i <> 4 && !(_i >= 10 || _i < 0)) then
+        _acum += _i / 2.0;
+    else {
+        _acum -= 1;
+        _acum *= 1.5;
+    }
+    _n = _n - 1;
+}
+write(_acum);
+write("fin");
+// comentario de línea
+FIN
+
+# train <nombre> [argumentos de Main]
+train() {
+    lista="$WORK/$1.lst"
+    shift
+    java -XX:DumpLoadedClassList="$lista" -cp "$JAR" Main "$@" > /dev/null
+}
+train volcado "$WORK/entrenamiento.txt"
+train json --json "$WORK/entrenamiento.txt"
+train bytecode --bytecode --quiet "$WORK/entrenamiento.txt"
+echo 5 | train vm --run "$WORK/entrenamiento.txt"
+echo 5 | train jvm --run --jvm "$WORK/entrenamiento.txt"
+
+# Unión de las listas sin repetir líneas (el orden de carga se conserva)
+cat "$WORK"/*.lst | grep -v '^#' | awk '!visto[$0]++' > "$WORK/clases.lst"
+java -Xshare:dump -XX:SharedClassListFile="$WORK/clases.lst" -XX:SharedArchiveFile="$JSA" \
+    -cp "$JAR" > "$WORK/dump.log" 2>&1 || { cat "$WORK/dump.log"; exit 1; }
+echo "Archivo CDS: $JSA ($(wc -l < "$WORK/clases.lst") clases)"
@@ -4,20 +4,49 @@
 * Si hay errores usa el ErrorHandler
 * Imprime la tabla de simpobolos o el resultado final del analisis
 */
-import lexer.*;
-import error.*;
-import parser.*;
-import symboltable.*;
+import lexer.Source;
+import server.CompileServer;
+import cache.CompilationCache;
+import driver.BatchCompiler;
+import driver.Driver;
+import driver.Options;
+import output.OutputSink;
 
-import java.nio.file.Files;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 public class Main {
     public static void main(String[] args) throws Exception {
-        String source;
-        if (args.length > 0) {
-            source = Files.readString(Path.of(args[0]));
+        // Los modos batch y servidor van aparte para que el arranque del caso
+        // común no cargue (ni verifique) sus clases.
+        if (args.length > 1 && args[0].equals("--batch")) {
+            batch(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--server")) {
+            server(args);
+            return;
+        }
+
+        // Opciones: ver driver.Options
+        PrintStream err = stderr();
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println("❌ " + e.getMessage());
+            System.exit(Driver.USAGE);
+            return;
+        }
+
+        CharSequence source;
+        if (options.path != null) {
+            source = Source.open(Path.of(options.path));
         } else {
             // Programa de ejemplo del enunciado:
             source = """
@@ -40,39 +69,91 @@ public class Main {
             """;
         }
 
-        // ANALIZADOR LÉXICO
-        ErrorHandler err = new ErrorHandler();
-        Lexer lexer = new Lexer(source, err);
-        List<Token> tokens = lexer.scanTokens();
+        // Sale con 1 si hubo errores de compilación, igual que el cliente del servidor
+        int status = Driver.run(options, options.path, source, null, OutputSink.stdout(), err, System.in, System.out);
+        if (status != Driver.OK) System.exit(status);
+    }
 
-        System.out.println("=== TOKENS ===");
-        for (Token t : tokens) {
-            System.out.println(t);
-        }
+    // Los diagnósticos en UTF-8 como la salida estándar (OutputSink), sin importar la codificación por defecto
+    private static PrintStream stderr() {
+        return new PrintStream(new FileOutputStream(FileDescriptor.err), true, StandardCharsets.UTF_8);
+    }
 
-        if (err.hasLexErrors()) {
-            System.out.println("\n❌ Se detectaron errores léxicos:");
-            err.printLexErrors();
+    // Main --batch <directorio|glob> [hilos] [--cache <dir>] [--cache-size <MB>] [opciones del frente]
+    private static void batch(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String cacheDir = null;
+        long cacheBytes = CompilationCache.DEFAULT_MAX_BYTES;
+        Options options;
+        try {
+            List<String> frontEnd = new ArrayList<>();
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].equals("--cache")) cacheDir = value(args, ++i, "--cache");
+                else if (args[i].equals("--cache-size")) {
+                    cacheBytes = number("--cache-size", value(args, ++i, "--cache-size"), 1, Long.MAX_VALUE >> 20) << 20;
+                } else if (Options.FRONT_END.contains(args[i])) {
+                    frontEnd.add(args[i]);
+                    if (Options.takesValue(args[i]) && i + 1 < args.length) frontEnd.add(args[++i]);
+                } else if (args[i].startsWith("--")) {
+                    throw new IllegalArgumentException("opción no disponible en modo batch: " + args[i]);
+                } else if (args[i].matches("\\d+")) {
+                    threads = (int) number("la cantidad de hilos", args[i], 1, Integer.MAX_VALUE);
+                } else {
+                    throw new IllegalArgumentException("argumento inesperado: " + args[i]);
+                }
+            }
+            options = Options.parse(frontEnd);
+            // los archivos ya se reparten entre los hilos: el léxico de cada uno va secuencial salvo que se pida
+            if (!frontEnd.contains("--lex-threads")) options.lexThreads = 1;
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ " + e.getMessage());
+            System.exit(Driver.USAGE);
             return;
         }
+        CompilationCache cache = cacheDir != null ? new CompilationCache(Path.of(cacheDir), cacheBytes) : null;
+        int failed = new BatchCompiler(threads, cache, options).run(args[1]);
+        if (failed > 0) System.exit(Driver.COMPILE_ERRORS);
+    }
 
-        //ANALIZADOR SINTÁCTICO
-        Parser parser = new Parser(tokens, err);
-        List<Statement> statements = parser.parse();
+    private static String value(String[] args, int i, String option) {
+        if (i == args.length) throw new IllegalArgumentException("falta el valor de " + option);
+        return args[i];
+    }
 
-        if (err.hasLexErrors()) {
-            System.out.println("\n❌ Se detectaron errores sintácticos:");
-            err.printLexErrors();
-            return;
+    // Entero en [min, max]; si no, IllegalArgumentException con el mensaje de uso
+    private static long number(String option, String value, long min, long max) {
+        long n;
+        try {
+            n = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            n = min - 1;
         }
+        if (n < min || n > max) throw new IllegalArgumentException("valor inválido para " + option + ": " + value);
+        return n;
+    }
 
-        //RESULTADO DEL PARSER
-        System.out.println("\n✅ Análisis sintáctico exitoso.\n");
-        System.out.println("=== ESTRUCTURA DEL PROGRAMA ===");
-        for (Statement s : statements) {
-            System.out.println(s);
+    // Main --server [--socket <ruta> | --stdio] [--threads <n>]
+    private static void server(String[] args) throws Exception {
+        Path socket = null;
+        boolean stdio = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].equals("--stdio")) stdio = true;
+                else if (args[i].equals("--socket")) socket = Path.of(value(args, ++i, "--socket"));
+                else if (args[i].equals("--threads")) threads = (int) number("--threads", value(args, ++i, "--threads"), 1, Integer.MAX_VALUE);
+                else if (args[i].startsWith("--")) throw new IllegalArgumentException("opción no disponible en modo servidor: " + args[i]);
+                else throw new IllegalArgumentException("argumento inesperado: " + args[i]);
+            }
+            if (stdio && socket != null) throw new IllegalArgumentException("--stdio y --socket no van juntos");
+        } catch (IllegalArgumentException e) {
+            // incluye InvalidPathException, que también es IllegalArgumentException
+            stderr().println("❌ " + e.getMessage());
+            System.exit(Driver.USAGE);
+            return;
         }
-        System.out.println();
-        parser.getSymbolTable().print();
+        CompileServer server = new CompileServer(threads);
+        if (stdio) server.serve(System.in, System.out);
+        else server.serve(socket != null ? socket : CompileServer.defaultSocket());
     }
 }
@@ -0,0 +1,253 @@
+package cache;
+
+import driver.Compiler;
+import driver.Options;
+import error.ErrorHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/* Caché en disco de los resultados del frente (tokens, AST, tabla de
+ * símbolos y diagnósticos), direccionada por contenido: la clave es el
+ * SHA-256 de la versión del compilador, el tope de errores y el texto del
+ * fuente, así que renombrar o mover un archivo no invalida nada y cambiar
+ * el compilador invalida todo. Cada entrada es un archivo <clave>.bin con el formato de
+ * ResultCodec, que se lee mapeándolo en memoria.
+ *
+ * El tamaño total se limita con desalojo LRU. El orden de uso es la fecha
+ * de modificación de cada archivo (un acierto la actualiza), así se conserva
+ * entre ejecuciones. Es segura entre hilos: el índice está sincronizado y
+ * las entradas se escriben a un temporal y se renombran atómicamente.
+ */
+public final class CompilationCache {
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+    private static final String SUFFIX = ".bin";
+
+    private final Path dir;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true); // clave -> tamaño
+    private long totalBytes;
+    private int hits;
+    private int misses;
+
+    public CompilationCache(Path dir) throws IOException {
+        this(dir, DEFAULT_MAX_BYTES);
+    }
+
+    public CompilationCache(Path dir, long maxBytes) throws IOException {
+        if (maxBytes <= 0) throw new IllegalArgumentException("tamaño de caché inválido: " + maxBytes);
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(dir);
+        loadIndex();
+        // el límite pudo haber bajado desde la corrida anterior
+        for (String k : evict(null)) delete(k);
+    }
+
+    // Índice inicial: las entradas existentes, de la menos a la más recientemente usada
+    private void loadIndex() throws IOException {
+        Map<Path, BasicFileAttributes> attrs = new HashMap<>();
+        try (Stream<Path> list = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) list::iterator) {
+                if (!p.getFileName().toString().endsWith(SUFFIX)) continue;
+                try {
+                    attrs.put(p, Files.readAttributes(p, BasicFileAttributes.class));
+                } catch (NoSuchFileException e) {
+                    // la borró otro proceso mientras se listaba
+                }
+            }
+        }
+        List<Path> files = new ArrayList<>(attrs.keySet());
+        files.sort(Comparator.comparing(p -> attrs.get(p).lastModifiedTime()));
+        for (Path p : files) {
+            String name = p.getFileName().toString();
+            long size = attrs.get(p).size();
+            entries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+            totalBytes += size;
+        }
+    }
+
+    public static String key(CharSequence source) {
+        return key(source, ErrorHandler.DEFAULT_MAX_ERRORS);
+    }
+
+    /* SHA-256 de la versión del compilador y del formato y del tope de
+     * errores (que cambia los diagnósticos), seguidos del fuente en UTF-8
+     */
+    public static String key(CharSequence source, int maxErrors) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update((Compiler.VERSION + "/" + ResultCodec.FORMAT + "/" + maxErrors + "\n").getBytes(StandardCharsets.UTF_8));
+        // un sustituto suelto no tiene UTF-8: va como 0xFF y el char, y 0xFF no aparece en UTF-8 válido
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        CharBuffer chars = CharBuffer.wrap(source);
+        ByteBuffer bytes = ByteBuffer.allocate(1 << 16);
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, true);
+            bytes.flip();
+            digest.update(bytes);
+            bytes.clear();
+            if (result.isError()) {
+                for (int i = 0; i < result.length(); i++) {
+                    char c = chars.get();
+                    digest.update(new byte[] {(byte) 0xFF, (byte) (c >> 8), (byte) c});
+                }
+            } else if (!result.isOverflow()) {
+                break;
+            }
+        }
+        encoder.flush(bytes);
+        bytes.flip();
+        digest.update(bytes);
+
+        byte[] hash = digest.digest();
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /* Resultado guardado para este fuente, o null si no está. Una entrada
+     * ilegible (truncada, de otro formato) se descarta como si no existiera.
+     */
+    public Compiler.CompilationResult load(String name, CharSequence source) {
+        return load(key(source), name, source);
+    }
+
+    private Compiler.CompilationResult load(String key, String name, CharSequence source) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                misses++;
+                return null;
+            }
+        }
+        Path file = path(key);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            Compiler.CompilationResult result = ResultCodec.decode(buf, name, source);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            synchronized (this) {
+                hits++;
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            // NoSuchFile (desalojada por otro hilo), BufferUnderflow, formato desconocido...
+            remove(key);
+            synchronized (this) {
+                misses++;
+            }
+            return null;
+        }
+    }
+
+    // Busca en la caché y, si no está, compila y guarda el resultado
+    public Compiler.CompilationResult compile(String name, CharSequence source) {
+        return compile(name, source, new Options());
+    }
+
+    // Las opciones del frente no cambian el resultado, salvo el tope de errores que entra en la clave
+    public Compiler.CompilationResult compile(String name, CharSequence source, Options options) {
+        String key = key(source, options.maxErrors);
+        Compiler.CompilationResult result = load(key, name, source);
+        if (result != null) return result;
+        result = Compiler.compile(name, source, options);
+        store(key, result);
+        return result;
+    }
+
+    public void store(Compiler.CompilationResult result, CharSequence source) {
+        store(key(source), result);
+    }
+
+    private void store(String key, Compiler.CompilationResult result) {
+        byte[] data = ResultCodec.encode(result);
+        if (data.length > maxBytes) return;
+        Path file = path(key);
+        try {
+            Path tmp = Files.createTempFile(dir, key, ".tmp");
+            Files.write(tmp, data);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("no se pudo escribir la caché en " + dir, e);
+        }
+        List<String> evicted;
+        synchronized (this) {
+            Long previous = entries.put(key, (long) data.length);
+            totalBytes += data.length - (previous == null ? 0 : previous);
+            evicted = evict(key);
+        }
+        for (String k : evicted) delete(k);
+    }
+
+    // Saca del índice las entradas menos usadas hasta entrar en maxBytes, sin tocar keep
+    private List<String> evict(String keep) {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            if (eldest.getKey().equals(keep)) continue;
+            totalBytes -= eldest.getValue();
+            evicted.add(eldest.getKey());
+            it.remove();
+        }
+        return evicted;
+    }
+
+    private void remove(String key) {
+        synchronized (this) {
+            Long size = entries.remove(key);
+            if (size == null) return;
+            totalBytes -= size;
+        }
+        delete(key);
+    }
+
+    private void delete(String key) {
+        try {
+            Files.deleteIfExists(path(key));
+        } catch (IOException e) {
+            // queda huérfana en disco; el próximo loadIndex la vuelve a contar
+        }
+    }
+
+    private Path path(String key) {
+        return dir.resolve(key + SUFFIX);
+    }
+
+    public synchronized int hits() {
+        return hits;
+    }
+
+    public synchronized int misses() {
+        return misses;
+    }
+
+    public synchronized long size() {
+        return totalBytes;
+    }
+}
@@ -0,0 +1,600 @@
+package cache;
+
+import driver.Compiler;
+import driver.TreeStack;
+import error.Diagnostic;
+import error.ErrorCode;
+import error.ErrorHandler;
+import lexer.NameTable;
+import lexer.TokenBuffer;
+import lexer.TokenType;
+import parser.Expr;
+import parser.Statement;
+import symboltable.DataType;
+import symboltable.SymbolTable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/* Formato binario de un CompilationResult para la caché. Salvo la cabecera
+ * y los reales (8 bytes big-endian), los enteros van en base 128 con zigzag
+ * y las cadenas como longitud + UTF-8 (las que tienen sustitutos sueltos,
+ * que UTF-8 no representa, como -2 - cantidad de chars y cada char):
+ *
+ *   cabecera    MAGIC, FORMAT, longitud del fuente
+ *   nombres     los identificadores en orden de id (se reinternan igual)
+ *   tokens      tipo, inicio relativo al token anterior, longitud y valor
+ *               (línea y columna salen del fuente)
+ *   símbolos    por ámbito: padre y sus símbolos en orden de declaración
+ *   AST         cantidad de sentencias, altura (para la pila, ver TreeStack)
+ *               y preorden con una etiqueta por nodo; los símbolos resueltos
+ *               se guardan como índice en la lista de símbolos
+ *   diagnósticos código, posición y argumentos de errores y advertencias,
+ *               más suprimidos y abortado
+ *
+ * El texto del fuente no se guarda: quien consulta la caché ya lo tiene (es
+ * parte de la clave) y los tokens lo referencian por posición.
+ */
+final class ResultCodec {
+    static final int MAGIC = 0x4C434348; // "LCCH"
+    static final int FORMAT = 8; // cambia también si el frente cambia sus resultados (la clave lo incluye)
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+    private static final ErrorCode[] CODES = ErrorCode.values();
+    private static final DataType[] DATA_TYPES = DataType.values();
+
+    // Etiquetas de nodos y de valores; 0 siempre es null
+    private static final byte NULL = 0;
+    private static final byte VAR_DECL = 1, READ = 2, WRITE = 3, IF = 4, WHILE = 5, BLOCK = 6, EXPRESSION = 7;
+    private static final byte BINARY = 1, UNARY = 2, LITERAL = 3, VARIABLE = 4, ASSIGN = 5;
+    private static final byte INT = 1, LONG = 2, DOUBLE = 3, BOOLEAN = 4, STRING = 5, CHAR = 6;
+
+    private ResultCodec() {}
+
+    // CODIFICACIÓN
+
+    static byte[] encode(Compiler.CompilationResult result) {
+        Writer w = new Writer(Math.max(256, result.bytes * 4));
+        w.putInt(MAGIC);
+        w.putInt(FORMAT);
+        w.putInt(result.bytes);
+
+        TokenBuffer tokens = result.tokens;
+        NameTable names = tokens.names();
+        w.putVarInt(names.size());
+        for (int i = 0; i < names.size(); i++) w.putString(names.name(i));
+        w.putVarInt(tokens.size());
+        int tokenEnd = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            TokenType type = tokens.type(i);
+            w.putByte(type.ordinal());
+            w.putVarInt(tokens.start(i) - tokenEnd); // espacio desde el token anterior
+            w.putVarInt(tokens.length(i));
+            if (type == TokenType.DOUBLE_LITERAL) w.putLong(tokens.value(i));
+            else w.putVarLong(tokens.value(i));
+            tokenEnd = tokens.start(i) + tokens.length(i);
+        }
+
+        Map<SymbolTable.SymbolInfo, Integer> symbolIds = new IdentityHashMap<>();
+        if (result.symbolTable == null) {
+            w.putVarInt(-1);
+        } else {
+            List<SymbolTable.Scope> scopes = result.symbolTable.getScopes();
+            w.putVarInt(scopes.size());
+            for (SymbolTable.Scope scope : scopes) {
+                w.putVarInt(scope.parent == null ? -1 : scope.parent.id);
+                w.putVarInt(scope.symbols().size());
+                for (SymbolTable.SymbolInfo s : scope.symbols()) {
+                    symbolIds.put(s, symbolIds.size());
+                    w.putString(s.name);
+                    w.putString(s.type);
+                    w.putValue(s.value);
+                    w.putString(s.scope);
+                    w.putVarInt(s.line);
+                }
+            }
+        }
+
+        if (result.statements == null) {
+            w.putVarInt(-1);
+        } else {
+            w.putVarInt(result.statements.size());
+            int height = Statement.height(result.statements);
+            w.putVarInt(height);
+            AstWriter ast = new AstWriter(w, symbolIds);
+            TreeStack.run(height, () -> {
+                for (Statement s : result.statements) ast.statement(s);
+                return null;
+            });
+        }
+
+        ErrorHandler errors = result.errors;
+        putDiagnostics(w, errors.getDiagnostics());
+        putDiagnostics(w, errors.getWarnings());
+        w.putVarInt(errors.getSuppressed());
+        w.putByte(errors.isAborted() ? 1 : 0);
+        return w.toByteArray();
+    }
+
+    private static void putDiagnostics(Writer w, List<Diagnostic> diagnostics) {
+        w.putVarInt(diagnostics.size());
+        for (Diagnostic d : diagnostics) {
+            w.putByte(d.code.ordinal());
+            w.putVarInt(d.line);
+            w.putVarInt(d.column);
+            Object[] args = d.args();
+            w.putByte(args.length);
+            for (Object arg : args) w.putValue(arg);
+        }
+    }
+
+    private static final class AstWriter implements Statement.Visitor<Void>, Expr.Visitor<Void> {
+        private final Writer w;
+        private final Map<SymbolTable.SymbolInfo, Integer> symbolIds;
+
+        AstWriter(Writer w, Map<SymbolTable.SymbolInfo, Integer> symbolIds) {
+            this.w = w;
+            this.symbolIds = symbolIds;
+        }
+
+        void statement(Statement s) {
+            if (s == null) w.putByte(NULL);
+            else s.accept(this);
+        }
+
+        void expr(Expr e) {
+            if (e == null) w.putByte(NULL);
+            else e.accept(this);
+        }
+
+        private void node(byte tag, int line, int column) {
+            w.putByte(tag);
+            w.putVarInt(line);
+            w.putVarInt(column);
+        }
+
+        private void exprNode(byte tag, Expr e) {
+            node(tag, e.line, e.column);
+            w.putByte(e.type == null ? 0 : e.type.ordinal() + 1);
+        }
+
+        private void symbol(SymbolTable.SymbolInfo s) {
+            Integer id = s == null ? null : symbolIds.get(s);
+            w.putVarInt(id == null ? -1 : id);
+        }
+
+        @Override
+        public Void visitVarDecl(Statement.VarDecl stmt) {
+            node(VAR_DECL, stmt.line, stmt.column);
+            w.putString(stmt.type);
+            w.putString(stmt.name);
+            expr(stmt.initializer);
+            symbol(stmt.symbol);
+            return null;
+        }
+
+        @Override
+        public Void visitRead(Statement.Read stmt) {
+            node(READ, stmt.line, stmt.column);
+            w.putString(stmt.name);
+            symbol(stmt.symbol);
+            return null;
+        }
+
+        @Override
+        public Void visitWrite(Statement.Write stmt) {
+            node(WRITE, stmt.line, stmt.column);
+            expr(stmt.value);
+            return null;
+        }
+
+        @Override
+        public Void visitIf(Statement.If stmt) {
+            node(IF, stmt.line, stmt.column);
+            expr(stmt.condition);
+            statement(stmt.thenBranch);
+            statement(stmt.elseBranch);
+            return null;
+        }
+
+        @Override
+        public Void visitWhile(Statement.While stmt) {
+            node(WHILE, stmt.line, stmt.column);
+            expr(stmt.condition);
+            statement(stmt.body);
+            return null;
+        }
+
+        @Override
+        public Void visitBlock(Statement.Block stmt) {
+            node(BLOCK, stmt.line, stmt.column);
+            w.putVarInt(stmt.statements.size());
+            for (Statement s : stmt.statements) statement(s);
+            return null;
+        }
+
+        @Override
+        public Void visitExpression(Statement.Expression stmt) {
+            node(EXPRESSION, stmt.line, stmt.column);
+            expr(stmt.expr);
+            return null;
+        }
+
+        @Override
+        public Void visitBinary(Expr.Binary expr) {
+            exprNode(BINARY, expr);
+            w.putByte(expr.op.ordinal());
+            expr(expr.left);
+            expr(expr.right);
+            return null;
+        }
+
+        @Override
+        public Void visitUnary(Expr.Unary expr) {
+            exprNode(UNARY, expr);
+            w.putByte(expr.op.ordinal());
+            expr(expr.operand);
+            return null;
+        }
+
+        @Override
+        public Void visitLiteral(Expr.Literal expr) {
+            exprNode(LITERAL, expr);
+            // tipo y valor sin empaquetar, como en el nodo
+            w.putByte(expr.kind.ordinal());
+            if (expr.kind == DataType.STRING) w.putString(expr.string);
+            else if (expr.isDouble()) w.putLong(expr.bits);
+            else w.putVarLong(expr.bits);
+            return null;
+        }
+
+        @Override
+        public Void visitVariable(Expr.Variable expr) {
+            exprNode(VARIABLE, expr);
+            w.putString(expr.name);
+            symbol(expr.symbol);
+            return null;
+        }
+
+        @Override
+        public Void visitAssign(Expr.Assign expr) {
+            exprNode(ASSIGN, expr);
+            w.putString(expr.name);
+            w.putByte(expr.op.ordinal());
+            expr(expr.value);
+            symbol(expr.symbol);
+            return null;
+        }
+    }
+
+    // Búfer creciente con las mismas convenciones que ByteBuffer (big-endian)
+    private static final class Writer {
+        private byte[] data;
+        private int size;
+
+        Writer(int capacity) {
+            data = new byte[capacity];
+        }
+
+        private void ensure(int n) {
+            if (size + n > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, size + n));
+        }
+
+        void putByte(int v) {
+            ensure(1);
+            data[size++] = (byte) v;
+        }
+
+        void putInt(int v) {
+            ensure(4);
+            data[size++] = (byte) (v >>> 24);
+            data[size++] = (byte) (v >>> 16);
+            data[size++] = (byte) (v >>> 8);
+            data[size++] = (byte) v;
+        }
+
+        void putLong(long v) {
+            putInt((int) (v >>> 32));
+            putInt((int) v);
+        }
+
+        // Entero con signo en base 128 (zigzag): los valores chicos ocupan un byte
+        void putVarInt(int v) {
+            putVarLong(v);
+        }
+
+        void putVarLong(long v) {
+            long z = (v << 1) ^ (v >> 63);
+            ensure(10);
+            while ((z & ~0x7FL) != 0) {
+                data[size++] = (byte) ((z & 0x7F) | 0x80);
+                z >>>= 7;
+            }
+            data[size++] = (byte) z;
+        }
+
+        void putString(String s) {
+            if (s == null) {
+                putVarInt(-1);
+                return;
+            }
+            if (!wellFormed(s)) {
+                putVarInt(-2 - s.length());
+                for (int i = 0; i < s.length(); i++) putVarInt(s.charAt(i));
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            putVarInt(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void putValue(Object v) {
+            if (v == null) putByte(NULL);
+            else if (v instanceof Integer) { putByte(INT); putVarInt((Integer) v); }
+            else if (v instanceof Long) { putByte(LONG); putVarLong((Long) v); }
+            else if (v instanceof Double) { putByte(DOUBLE); putLong(Double.doubleToRawLongBits((Double) v)); }
+            else if (v instanceof Boolean) { putByte(BOOLEAN); putByte((Boolean) v ? 1 : 0); }
+            else if (v instanceof Character) { putByte(CHAR); putVarInt((Character) v); }
+            else { putByte(STRING); putString(v.toString()); }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    // DECODIFICACIÓN
+
+    /* Reconstruye el resultado a partir de los bytes (normalmente un
+     * MappedByteBuffer). Lanza IllegalArgumentException si el contenido no
+     * tiene el formato esperado.
+     */
+    static Compiler.CompilationResult decode(ByteBuffer in, String name, CharSequence source) {
+        if (in.getInt() != MAGIC || in.getInt() != FORMAT) throw new IllegalArgumentException("formato desconocido");
+        int bytes = in.getInt();
+        if (bytes != source.length()) throw new IllegalArgumentException("el fuente no coincide");
+
+        NameTable names = new NameTable();
+        int nameCount = getVarInt(in);
+        for (int i = 0; i < nameCount; i++) names.intern(getString(in));
+        int tokenCount = getVarInt(in);
+        TokenBuffer tokens = new TokenBuffer(source, names, tokenCount);
+        int tokenEnd = 0;
+        for (int i = 0; i < tokenCount; i++) {
+            TokenType type = TOKEN_TYPES[in.get()];
+            int start = tokenEnd + getVarInt(in);
+            tokenEnd = start + getVarInt(in);
+            long value = type == TokenType.DOUBLE_LITERAL ? in.getLong() : getVarLong(in);
+            tokens.add(type, start, tokenEnd, value);
+        }
+
+        SymbolTable table = null;
+        List<SymbolTable.SymbolInfo> symbols = new ArrayList<>();
+        int scopeCount = getVarInt(in);
+        if (scopeCount >= 0) {
+            table = new SymbolTable(); // ya abre el global (id 0)
+            for (int id = 0; id < scopeCount; id++) {
+                int parent = getVarInt(in);
+                if (id > 0) {
+                    // los ámbitos se abrieron en preorden: se cierra hasta volver al padre
+                    while (table.currentScope().id != parent) table.endScope();
+                    table.beginScope();
+                }
+                int count = getVarInt(in);
+                for (int i = 0; i < count; i++) {
+                    String symbolName = getString(in);
+                    String type = getString(in);
+                    Object value = getValue(in);
+                    String scope = getString(in);
+                    symbols.add(table.addSymbol(symbolName, type, value, scope, getVarInt(in)));
+                }
+            }
+            while (table.currentScope().id != 0) table.endScope();
+        }
+
+        List<Statement> statements = null;
+        int statementCount = getVarInt(in);
+        if (statementCount >= 0) {
+            int height = getVarInt(in);
+            // cada nivel consume algún token: una altura mayor es de una entrada dañada y pediría una pila enorme
+            if (height < 0 || height > 2 * tokenCount + 2) throw new IllegalArgumentException("altura inválida");
+            AstReader ast = new AstReader(in, symbols);
+            statements = TreeStack.run(height, () -> {
+                List<Statement> decoded = new ArrayList<>(statementCount);
+                for (int i = 0; i < statementCount; i++) decoded.add(ast.statement());
+                return decoded;
+            });
+        }
+
+        List<Diagnostic> diagnostics = getDiagnostics(in);
+        List<Diagnostic> warnings = getDiagnostics(in);
+        int suppressed = getVarInt(in);
+        boolean aborted = in.get() != 0;
+        ErrorHandler errors = new ErrorHandler();
+        errors.restore(diagnostics, warnings, suppressed, aborted);
+
+        return Compiler.CompilationResult.restored(name, bytes, errors, tokens, statements, table);
+    }
+
+    private static List<Diagnostic> getDiagnostics(ByteBuffer in) {
+        int count = getVarInt(in);
+        List<Diagnostic> diagnostics = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ErrorCode code = CODES[in.get()];
+            int line = getVarInt(in);
+            int column = getVarInt(in);
+            Object[] args = new Object[in.get()];
+            for (int a = 0; a < args.length; a++) args[a] = getValue(in);
+            diagnostics.add(new Diagnostic(code, line, column, args));
+        }
+        return diagnostics;
+    }
+
+    private static final class AstReader {
+        private final ByteBuffer in;
+        private final List<SymbolTable.SymbolInfo> symbols;
+
+        AstReader(ByteBuffer in, List<SymbolTable.SymbolInfo> symbols) {
+            this.in = in;
+            this.symbols = symbols;
+        }
+
+        private SymbolTable.SymbolInfo symbol() {
+            int id = getVarInt(in);
+            return id < 0 ? null : symbols.get(id);
+        }
+
+        Statement statement() {
+            byte tag = in.get();
+            if (tag == NULL) return null;
+            int line = getVarInt(in);
+            int column = getVarInt(in);
+            switch (tag) {
+                case VAR_DECL: {
+                    String type = getString(in);
+                    String name = getString(in);
+                    Statement.VarDecl s = new Statement.VarDecl(type, name, expr(), line, column);
+                    s.symbol = symbol();
+                    return s;
+                }
+                case READ: {
+                    Statement.Read s = new Statement.Read(getString(in), line, column);
+                    s.symbol = symbol();
+                    return s;
+                }
+                case WRITE:
+                    return new Statement.Write(expr(), line, column);
+                case IF: {
+                    Expr condition = expr();
+                    Statement thenBranch = statement();
+                    return new Statement.If(condition, thenBranch, statement(), line, column);
+                }
+                case WHILE: {
+                    Expr condition = expr();
+                    return new Statement.While(condition, statement(), line, column);
+                }
+                case BLOCK: {
+                    int count = getVarInt(in);
+                    List<Statement> body = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) body.add(statement());
+                    return new Statement.Block(body, line, column);
+                }
+                case EXPRESSION:
+                    return new Statement.Expression(expr(), line, column);
+                default:
+                    throw new IllegalArgumentException("sentencia desconocida: " + tag);
+            }
+        }
+
+        Expr expr() {
+            byte tag = in.get();
+            if (tag == NULL) return null;
+            int line = getVarInt(in);
+            int column = getVarInt(in);
+            int typeTag = in.get();
+            DataType type = typeTag == 0 ? null : DATA_TYPES[typeTag - 1];
+            Expr e;
+            switch (tag) {
+                case BINARY: {
+                    TokenType op = TOKEN_TYPES[in.get()];
+                    Expr left = expr();
+                    e = new Expr.Binary(left, op, expr(), line, column);
+                    break;
+                }
+                case UNARY: {
+                    TokenType op = TOKEN_TYPES[in.get()];
+                    e = new Expr.Unary(op, expr(), line, column);
+                    break;
+                }
+                case LITERAL: {
+                    DataType kind = DATA_TYPES[in.get()];
+                    if (kind == DataType.STRING) e = Expr.Literal.ofString(getString(in), line, column);
+                    else e = new Expr.Literal(kind, kind == DataType.DOUBLE ? in.getLong() : getVarLong(in), null, line, column);
+                    break;
+                }
+                case VARIABLE: {
+                    Expr.Variable v = new Expr.Variable(getString(in), line, column);
+                    v.symbol = symbol();
+                    e = v;
+                    break;
+                }
+                case ASSIGN: {
+                    String name = getString(in);
+                    TokenType op = TOKEN_TYPES[in.get()];
+                    Expr.Assign a = new Expr.Assign(name, op, expr(), line, column);
+                    a.symbol = symbol();
+                    e = a;
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("expresión desconocida: " + tag);
+            }
+            e.type = type;
+            return e;
+        }
+    }
+
+    private static int getVarInt(ByteBuffer in) {
+        return (int) getVarLong(in);
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long z = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) throw new IllegalArgumentException("entero mal formado");
+            b = in.get();
+            z |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (z >>> 1) ^ -(z & 1);
+    }
+
+    // Sin sustitutos sueltos: se puede pasar por UTF-8 sin perder nada
+    private static boolean wellFormed(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!Character.isSurrogate(c)) continue;
+            if (!Character.isHighSurrogate(c) || i + 1 == s.length() || !Character.isLowSurrogate(s.charAt(i + 1))) {
+                return false;
+            }
+            i++;
+        }
+        return true;
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = getVarInt(in);
+        if (length == -1) return null;
+        if (length < -1) {
+            char[] chars = new char[-2 - length];
+            for (int i = 0; i < chars.length; i++) chars[i] = (char) getVarInt(in);
+            return new String(chars);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Object getValue(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL: return null;
+            case INT: return getVarInt(in);
+            case LONG: return getVarLong(in);
+            case DOUBLE: return Double.longBitsToDouble(in.getLong());
+            case BOOLEAN: return in.get() != 0;
+            case CHAR: return (char) getVarInt(in);
+            case STRING: return getString(in);
+            default: throw new IllegalArgumentException("valor desconocido: " + tag);
+        }
+    }
+}
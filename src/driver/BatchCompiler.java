@@ -0,0 +1,168 @@
+package driver;
+
+import cache.CompilationCache;
+import error.Diagnostic;
+import lexer.Source;
+
+import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/* Modo batch: compila todos los archivos de un directorio (o que coincidan con
+ * un glob) en paralelo sobre un ForkJoinPool. Cada archivo es una tarea
+ * independiente; los diagnósticos se informan en orden de ruta, sin importar
+ * qué hilo terminó primero. Con una CompilationCache los archivos que no
+ * cambiaron desde la última corrida se leen de disco sin lexer ni parser.
+ * Un archivo ilegible (borrado, sin permiso, no UTF-8) cuenta como fallido y
+ * el resto se compila igual.
+ */
+public class BatchCompiler {
+    private final int parallelism;
+    private final CompilationCache cache; // null: sin caché
+    private final Options options;        // solo cuentan las del frente
+
+    public BatchCompiler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchCompiler(int parallelism) {
+        this(parallelism, null);
+    }
+
+    public BatchCompiler(int parallelism, CompilationCache cache) {
+        this(parallelism, cache, new Options());
+    }
+
+    public BatchCompiler(int parallelism, CompilationCache cache, Options options) {
+        this.parallelism = parallelism;
+        this.cache = cache;
+        this.options = options;
+    }
+
+    public List<Compiler.CompilationResult> compileAll(List<Path> files) throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> files.parallelStream()
+                    .map(this::compileFile)
+                    .collect(Collectors.toList())).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Un archivo que no se puede leer da un resultado fallido, sin cortar el resto del lote
+    private Compiler.CompilationResult compileFile(Path file) {
+        CharSequence source;
+        try {
+            source = Source.open(file);
+        } catch (IOException e) {
+            return Compiler.CompilationResult.unreadable(file.toString(), reason(e));
+        }
+        return cache != null
+                ? cache.compile(file.toString(), source, options)
+                : Compiler.compile(file.toString(), source, options);
+    }
+
+    private static String reason(IOException e) {
+        if (e instanceof NoSuchFileException) return "el archivo no existe";
+        if (e instanceof AccessDeniedException) return "permiso denegado";
+        if (e instanceof CharacterCodingException) return "no es UTF-8 válido";
+        return e.getMessage() != null ? e.getMessage() : e.toString();
+    }
+
+    // Compila y muestra diagnósticos y resumen; devuelve la cantidad de archivos con errores
+    public int run(String pattern) throws IOException, InterruptedException {
+        long startNanos = System.nanoTime();
+        List<Path> files = collect(pattern);
+        List<Compiler.CompilationResult> results = compileAll(files);
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+
+        long tokens = 0, bytes = 0, errorCount = 0, warningCount = 0;
+        int failed = 0;
+        for (Compiler.CompilationResult r : results) {
+            tokens += r.tokenCount();
+            bytes += r.bytes;
+            warningCount += r.errors.getWarnings().size();
+            if (r.readError != null) {
+                failed++;
+                errorCount++;
+                System.out.println("❌ " + r.name);
+                System.out.println("   No se pudo leer: " + r.readError);
+            } else if (r.hasErrors()) {
+                failed++;
+                errorCount += r.errors.getDiagnostics().size();
+                System.out.println("❌ " + r.name);
+            } else if (r.errors.hasWarnings()) {
+                System.out.println("⚠️ " + r.name);
+            }
+            for (Diagnostic w : r.errors.getWarnings()) {
+                System.out.println("   " + w);
+            }
+            for (Diagnostic e : r.errors.getDiagnostics()) {
+                System.out.println("   " + e);
+            }
+        }
+
+        System.out.println("\n=== RESUMEN BATCH ===");
+        System.out.printf("Archivos: %d (%d con errores)%n", results.size(), failed);
+        System.out.printf("Tokens:   %d%n", tokens);
+        System.out.printf("Bytes:    %d%n", bytes);
+        System.out.printf("Errores:  %d%n", errorCount);
+        System.out.printf("Avisos:   %d%n", warningCount);
+        System.out.printf("Tiempo:   %d ms (%d hilos)%n", elapsedMs, parallelism);
+        if (cache != null) {
+            System.out.printf("Caché:    %d aciertos, %d fallos (%d KB)%n",
+                    cache.hits(), cache.misses(), cache.size() / 1024);
+        }
+        return failed;
+    }
+
+    // Un directorio se recorre completo; cualquier otra cosa se interpreta como glob
+    static List<Path> collect(String pattern) throws IOException {
+        Path path = Paths.get(pattern);
+        if (Files.isDirectory(path)) {
+            return sortedFiles(path, p -> true);
+        }
+        if (Files.isRegularFile(path)) {
+            return Collections.singletonList(path);
+        }
+
+        Path base = globBase(pattern);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        return sortedFiles(base, p -> matcher.matches(p.normalize()));
+    }
+
+    private static List<Path> sortedFiles(Path root, Predicate<Path> filter) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            List<Path> files = new ArrayList<>();
+            walk.filter(Files::isRegularFile).filter(filter).forEach(files::add);
+            Collections.sort(files);
+            return files;
+        }
+    }
+
+    // Directorio más largo del patrón que no contiene comodines
+    private static Path globBase(String pattern) {
+        int wildcard = pattern.length();
+        for (int i = 0; i < pattern.length(); i++) {
+            if ("*?[{".indexOf(pattern.charAt(i)) >= 0) {
+                wildcard = i;
+                break;
+            }
+        }
+        int slash = pattern.lastIndexOf('/', wildcard);
+        return slash < 0 ? Paths.get(".") : Paths.get(slash == 0 ? "/" : pattern.substring(0, slash));
+    }
+}
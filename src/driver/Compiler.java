@@ -0,0 +1,140 @@
+package driver;
+
+import error.Category;
+import error.ErrorHandler;
+import lexer.Lexer;
+import lexer.NameTable;
+import lexer.ParallelLexer;
+import lexer.TableLexer;
+import lexer.TokenBuffer;
+import parser.Parser;
+import parser.Statement;
+import semantic.SemanticAnalyzer;
+import stats.Phase;
+import stats.PipelineStats;
+import symboltable.SymbolTable;
+
+import java.util.List;
+
+/* Ejecuta el frente del compilador (léxico, sintáctico, semántico) sobre una
+ * unidad. Cada llamada usa su propio Lexer, Parser y ErrorHandler, así que
+ * se puede invocar desde varios hilos a la vez. Se detiene en la primera
+ * fase que reporta errores; Driver le agrega optimización, generación y
+ * volcados.
+ */
+public final class Compiler {
+    // Versión del frente; entra en la clave de la caché, así que cambia con cada cambio de salida
+    public static final String VERSION = "1.0-SNAPSHOT";
+
+    private Compiler() {}
+
+    public static CompilationResult compile(String name, CharSequence source) {
+        return compile(name, source, new ErrorHandler(), null);
+    }
+
+    public static CompilationResult compile(String name, CharSequence source, Options options) {
+        return compile(name, source, options, new ErrorHandler(options.maxErrors), null, new PipelineStats(false));
+    }
+
+    public static CompilationResult compile(String name, CharSequence source, ErrorHandler err, TokenBuffer tokens) {
+        return compile(name, source, new Options(), err, tokens, new PipelineStats(false));
+    }
+
+    /* Con las opciones del frente (léxico, parser; el tope de errores ya
+     * viene en err) y midiendo cada fase en stats.
+     *
+     * tokens es un buffer a reutilizar (se vacía y pasa a apuntar a source),
+     * o null para crear uno nuevo. El resultado lo referencia, así que no se
+     * puede reutilizar mientras el resultado siga en uso. Un fuente que da
+     * para dos trozos con lexThreads > 1 se tokeniza en paralelo en un buffer
+     * propio.
+     */
+    public static CompilationResult compile(String name, CharSequence source, Options options, ErrorHandler err,
+                                            TokenBuffer tokens, PipelineStats stats) {
+        CompilationResult result = new CompilationResult(name, source.length(), err);
+
+        stats.begin(Phase.LEX);
+        if (!options.tableLexer && options.lexThreads > 1 && source.length() >= 2 * ParallelLexer.MIN_CHUNK) {
+            result.tokens = new ParallelLexer(options.lexThreads).scan(source, err, new NameTable());
+        } else if (tokens == null) {
+            result.tokens = options.tableLexer ? new TableLexer(source, err).scanBuffer() : new Lexer(source, err).scanBuffer();
+        } else {
+            tokens.reset(source);
+            if (options.tableLexer) new TableLexer(source, err, tokens.names()).scanInto(tokens);
+            else new Lexer(source, err, tokens.names()).scanInto(tokens);
+            result.tokens = tokens;
+        }
+        stats.end(Phase.LEX, result.tokenCount(), err.count(Category.LEXICAL));
+        stats.tokens(result.tokens);
+        if (err.hasErrors(Category.LEXICAL)) return result;
+
+        stats.begin(Phase.PARSE);
+        Parser parser = new Parser(result.tokens.stream(), err);
+        if (options.stackSafe) parser.stackSafe();
+        result.statements = parser.parse();
+        stats.end(Phase.PARSE, result.tokenCount(), err.count(Category.SYNTACTIC));
+        if (err.hasErrors(Category.SYNTACTIC)) return result;
+
+        // recorre el árbol recursivamente: con mucho anidamiento, en un hilo con la pila a la medida
+        return TreeStack.run(Statement.height(result.statements), () -> {
+            stats.begin(Phase.SEMANTIC);
+            SemanticAnalyzer analyzer = new SemanticAnalyzer(err, parser.names());
+            analyzer.analyze(result.statements);
+            result.symbolTable = analyzer.getSymbolTable();
+            stats.end(Phase.SEMANTIC, result.statements.size(), err.count(Category.SEMANTIC));
+            stats.symbols(result.symbolTable);
+            return result;
+        });
+    }
+
+    public static class CompilationResult {
+        public final String name;
+        public final int bytes;
+        public final ErrorHandler errors;
+        public TokenBuffer tokens;
+        public List<Statement> statements;   // null si hubo errores léxicos
+        public SymbolTable symbolTable;      // null si no se llegó al análisis semántico
+        public boolean cached;               // se leyó de la caché en lugar de compilarse
+        public String readError;             // el fuente no se pudo leer (modo batch): no pasó por ninguna fase
+
+        CompilationResult(String name, int bytes, ErrorHandler errors) {
+            this.name = name;
+            this.bytes = bytes;
+            this.errors = errors;
+        }
+
+        // Resultado reconstruido sin pasar por las fases (lo usa la caché)
+        public static CompilationResult restored(String name, int bytes, ErrorHandler errors, TokenBuffer tokens,
+                                                 List<Statement> statements, SymbolTable symbolTable) {
+            CompilationResult r = new CompilationResult(name, bytes, errors);
+            r.tokens = tokens;
+            r.statements = statements;
+            r.symbolTable = symbolTable;
+            r.cached = true;
+            return r;
+        }
+
+        public static CompilationResult unreadable(String name, String reason) {
+            CompilationResult r = new CompilationResult(name, 0, new ErrorHandler());
+            r.readError = reason;
+            return r;
+        }
+
+        // Tokens reconocidos, sin contar el EOF
+        public int tokenCount() {
+            return tokens == null ? 0 : tokens.size() - 1;
+        }
+
+        public boolean hasErrors() {
+            return readError != null || errors.hasErrors();
+        }
+
+        // Primera fase que reportó errores, o null si no hubo
+        public Category failedPhase() {
+            for (Category c : Category.values()) {
+                if (errors.hasErrors(c)) return c;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package driver;
+
+import error.Category;
+import error.ErrorHandler;
+import jvm.JvmGenerator;
+import jvm.JvmRuntime;
+import jvm.ProgramLoader;
+import lexer.TokenBuffer;
+import optimizer.Optimizer;
+import output.Dump;
+import output.JsonDump;
+import output.OutputSink;
+import output.Section;
+import output.TextDump;
+import parser.Statement;
+import stats.Phase;
+import stats.PipelineStats;
+import vm.CodeGenerator;
+import vm.ExecutionError;
+import vm.Program;
+import vm.VM;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+
+/* Una compilación completa con las opciones de Main: frente, optimización,
+ * generación de código, ejecución y volcados. Main la corre sobre la consola
+ * y el servidor sobre los búferes de cada pedido, así las dos salidas son
+ * la misma. Devuelve el estado de salida de Main.
+ */
+public final class Driver {
+    public static final int OK = 0;
+    public static final int COMPILE_ERRORS = 1;
+    public static final int USAGE = 2;
+
+    private Driver() {}
+
+    /* path es el nombre del fuente (null para el programa de ejemplo); da el
+     * nombre de la clase JVM. Los volcados van a sink y los diagnósticos a
+     * err; con --run el programa lee de in y escribe en out. tokens es un
+     * buffer a reutilizar, o null (ver Compiler.compile).
+     */
+    public static int run(Options options, String path, CharSequence source, TokenBuffer tokens,
+                          OutputSink sink, PrintStream err, InputStream in, OutputStream out) throws IOException {
+        // Con --run la salida estándar es del programa: no se vuelca nada y el formato es texto
+        EnumSet<Section> sections = options.sections.isEmpty()
+                ? EnumSet.allOf(Section.class) : EnumSet.copyOf(options.sections);
+        if (options.quiet || options.run) sections.clear();
+        PipelineStats stats = new PipelineStats(options.showStats);
+        Dump dump = stats.timed((options.json || options.ndjson) && !options.run
+                ? new JsonDump(sink, sections, options.ndjson)
+                : new TextDump(sink, sections, options.quiet, err));
+
+        String name = path != null ? path : "ejemplo";
+        ErrorHandler errors = new ErrorHandler(options.maxErrors);
+        try {
+            Compiler.CompilationResult result = Compiler.compile(name, source, options, errors, tokens, stats);
+            // el resto recorre el árbol recursivamente: con mucho anidamiento, en un hilo con la pila a la medida
+            int height = result.statements != null ? Statement.height(result.statements) : 0;
+            return TreeStack.run(height, () -> finish(options, path, result, errors, dump, stats, sink, err, in, out));
+        } finally {
+            stats.finish(name, source.length(), errors, err);
+        }
+    }
+
+    // Volcados, optimización, generación de código y ejecución de un resultado ya compilado
+    private static int finish(Options options, String path, Compiler.CompilationResult result, ErrorHandler errors,
+                              Dump dump, PipelineStats stats, OutputSink sink, PrintStream err,
+                              InputStream in, OutputStream out) throws IOException {
+        dump.tokens(result.tokens);
+        Category failed = result.failedPhase();
+        if (failed != null) {
+            dump.failed(failed, errors);
+            dump.finish(errors);
+            return COMPILE_ERRORS;
+        }
+        if (errors.hasWarnings()) dump.warnings(errors);
+
+        //OPTIMIZACIÓN
+        List<Statement> statements = result.statements;
+        int eliminated = -1;
+        if (options.optimize) {
+            stats.begin(Phase.OPTIMIZE);
+            Optimizer optimizer = new Optimizer();
+            statements = optimizer.optimize(statements);
+            eliminated = optimizer.getEliminatedNodes();
+            stats.end(Phase.OPTIMIZE, eliminated, 0);
+        }
+
+        //GENERACIÓN DE CÓDIGO
+        // lo ya volcado sale antes que cualquier mensaje de stderr o del programa
+        sink.flush();
+        if (options.jvm || options.classDir != null) {
+            String className = JvmGenerator.classNameFor(path != null ? path : "Programa");
+            stats.begin(Phase.CODEGEN);
+            byte[] classBytes = jvmClass(className, statements, options.classDir, err);
+            stats.end(Phase.CODEGEN, 0, 0);
+            if (classBytes == null) return COMPILE_ERRORS;
+            if (options.jvm && options.run) {
+                try {
+                    JvmRuntime.run(new ProgramLoader().define(className, classBytes), in, out);
+                } catch (ExecutionError e) {
+                    err.println("❌ " + e);
+                }
+                return OK;
+            }
+        }
+
+        // El código de la VM solo hace falta para ejecutarlo o mostrarlo
+        Program program = null;
+        if (options.run || options.dumpBytecode) {
+            stats.begin(Phase.CODEGEN);
+            program = CodeGenerator.compile(statements);
+            stats.end(Phase.CODEGEN, program.instructionCount(), 0);
+        }
+        if (options.run) {
+            if (options.dumpBytecode) err.print(program.disassemble());
+            try {
+                VM.run(program, in, out);
+            } catch (ExecutionError e) {
+                err.println("❌ " + e);
+            }
+            return OK;
+        }
+
+        //RESULTADO DEL PARSER
+        dump.program(statements, eliminated);
+        dump.symbols(result.symbolTable);
+        if (options.dumpBytecode) dump.bytecode(program);
+        dump.finish(errors);
+        return OK;
+    }
+
+    // Genera la clase JVM y la escribe si se pidió; null si el programa no se pudo traducir
+    private static byte[] jvmClass(String className, List<Statement> statements, String classDir, PrintStream err)
+            throws IOException {
+        byte[] classBytes;
+        try {
+            classBytes = JvmGenerator.generate(className, statements);
+        } catch (IllegalStateException e) {
+            err.println("❌ No se pudo generar la clase JVM: " + e.getMessage());
+            return null;
+        }
+        if (classDir != null) {
+            Path out = Path.of(classDir).resolve(className + ".class");
+            Files.createDirectories(out.getParent());
+            Files.write(out, classBytes);
+            err.println("Clase escrita en " + out);
+        }
+        return classBytes;
+    }
+}
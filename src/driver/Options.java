@@ -0,0 +1,101 @@
+package driver;
+
+import error.ErrorHandler;
+import output.Section;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/* Opciones de una compilación, las mismas para Main, el servidor y el modo
+ * batch (que solo toma las del frente, ver FRONT_END):
+ *
+ * --run ejecuta el programa en la VM sin los volcados; --bytecode muestra el código generado.
+ * --jvm ejecuta la clase JVM generada en lugar de la VM; --emit-class <dir> la escribe a disco.
+ * --no-opt desactiva el optimizador; --max-errors <n> corta el análisis tras n errores.
+ * --tokens, --ast y --symbols eligen qué volcar (por defecto todo); --quiet no vuelca nada
+ * salvo los errores; --json y --ndjson cambian el formato del volcado.
+ * --stats muestra en stderr tiempo, memoria asignada y conteos de cada fase.
+ * --lex-threads <n> limita los hilos del léxico en fuentes grandes (1 = secuencial).
+ * --table-lexer usa el léxico guiado por tablas (AFD) en lugar del switch.
+ * --stack-safe-parser parsea todo sin recursión, no solo lo que pasa de Parser.MAX_NESTING
+ * niveles; el resultado es el mismo. Cualquier anidamiento compila: las fases que recorren el
+ * árbol corren con una pila a la medida de su altura (ver TreeStack).
+ *
+ * Cualquier otro argumento es la ruta del fuente.
+ */
+public final class Options {
+    // Las que cambian cómo se analiza el fuente; el resto es de volcado, generación o ejecución
+    public static final Set<String> FRONT_END = Set.of("--max-errors", "--lex-threads", "--table-lexer", "--stack-safe-parser");
+
+    private static final Set<String> WITH_VALUE = Set.of("--max-errors", "--lex-threads", "--emit-class");
+
+    public boolean run = false;
+    public boolean showStats = false;
+    public boolean quiet = false;
+    public boolean json = false;
+    public boolean ndjson = false;
+    public EnumSet<Section> sections = EnumSet.noneOf(Section.class); // vacío: todas
+    public boolean optimize = true;
+    public int maxErrors = ErrorHandler.DEFAULT_MAX_ERRORS;
+    public boolean dumpBytecode = false;
+    public boolean jvm = false;
+    public int lexThreads = 1; // parse() toma todos los procesadores, como Main
+    public boolean tableLexer = false;
+    public boolean stackSafe = false;
+    public String classDir = null;
+    public String path = null;
+
+    public static Options parse(String... args) {
+        return parse(List.of(args));
+    }
+
+    // Lanza IllegalArgumentException ante una opción desconocida o un valor que falta o no es un número
+    public static Options parse(List<String> args) {
+        Options o = new Options();
+        o.lexThreads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            String value = null;
+            if (takesValue(arg)) {
+                if (i + 1 == args.size()) throw new IllegalArgumentException("falta el valor de " + arg);
+                value = args.get(++i);
+            }
+            switch (arg) {
+                case "--run": o.run = true; break;
+                case "--bytecode": o.dumpBytecode = true; break;
+                case "--jvm": o.jvm = true; break;
+                case "--no-opt": o.optimize = false; break;
+                case "--quiet": o.quiet = true; break;
+                case "--stats": o.showStats = true; break;
+                case "--tokens": o.sections.add(Section.TOKENS); break;
+                case "--ast": o.sections.add(Section.AST); break;
+                case "--symbols": o.sections.add(Section.SYMBOLS); break;
+                case "--json": o.json = true; break;
+                case "--ndjson": o.ndjson = true; break;
+                case "--max-errors": o.maxErrors = number(arg, value); break;
+                case "--table-lexer": o.tableLexer = true; break;
+                case "--stack-safe-parser": o.stackSafe = true; break;
+                case "--lex-threads": o.lexThreads = number(arg, value); break;
+                case "--emit-class": o.classDir = value; break;
+                default:
+                    if (arg.startsWith("--")) throw new IllegalArgumentException("opción desconocida: " + arg);
+                    o.path = arg;
+                    break;
+            }
+        }
+        return o;
+    }
+
+    public static boolean takesValue(String arg) {
+        return WITH_VALUE.contains(arg);
+    }
+
+    private static int number(String option, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("valor inválido para " + option + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package driver;
+
+/* Pila para las fases que recorren el árbol recursivamente (análisis
+ * semántico, optimizador, volcados, generadores, la caché): gastan pila en
+ * proporción a la altura del árbol (ASTNode.height), y con decenas de miles
+ * de niveles no alcanza la de ningún hilo común.
+ *
+ * Hasta INLINE_HEIGHT niveles el trabajo corre en el hilo que llama, sin
+ * costo. Por encima corre en un hilo propio con BYTES_PER_LEVEL de pila por
+ * nivel y quien llama espera el resultado; lo que el trabajo lance se relanza
+ * en quien llama. La pila se reserva como memoria virtual y se ocupa solo la
+ * que el recorrido usa.
+ */
+public final class TreeStack {
+    // Con esta altura los recorridos entran en una pila de 256 KB aun interpretados (-Xint)
+    static final int INLINE_HEIGHT = 128;
+    // Lo que más gasta por nivel, medido con -Xint y con JIT, con margen
+    static final long BYTES_PER_LEVEL = 2048;
+    // Lo que el recorrido usa fuera del árbol: el Driver, los volcados, el generador de clases...
+    static final long BASE_BYTES = 1 << 20;
+
+    public interface Work<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private TreeStack() {}
+
+    public static <T, E extends Exception> T run(int height, Work<T, E> work) throws E {
+        if (height <= INLINE_HEIGHT) return work.run();
+        Outcome<T> outcome = new Outcome<>();
+        Thread thread = new Thread(null, () -> {
+            try {
+                outcome.value = work.run();
+            } catch (Throwable e) {
+                outcome.thrown = e;
+            }
+        }, "recorrido del árbol", BASE_BYTES + height * BYTES_PER_LEVEL);
+        thread.start();
+        // el trabajo escribe en las salidas de quien llama: no se lo abandona aunque interrumpan la espera
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (outcome.thrown != null) throw TreeStack.<E>rethrow(outcome.thrown);
+        return outcome.value;
+    }
+
+    // Lo único comprobado que el trabajo puede lanzar es E
+    @SuppressWarnings("unchecked")
+    private static <E extends Exception> E rethrow(Throwable thrown) throws E {
+        if (thrown instanceof RuntimeException) throw (RuntimeException) thrown;
+        if (thrown instanceof Error) throw (Error) thrown;
+        return (E) thrown;
+    }
+
+    private static final class Outcome<T> {
+        T value;
+        Throwable thrown;
+    }
+}
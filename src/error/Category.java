@@ -0,0 +1,16 @@
+package error;
+
+// Fase que detectó el error o la advertencia
+public enum Category {
+    LEXICAL("Error léxico", "Advertencia léxica"),
+    SYNTACTIC("Error sintáctico", "Advertencia sintáctica"),
+    SEMANTIC("Error semántico", "Advertencia semántica");
+
+    public final String label;
+    public final String warningLabel;
+
+    Category(String label, String warningLabel) {
+        this.label = label;
+        this.warningLabel = warningLabel;
+    }
+}
@@ -0,0 +1,46 @@
+package error;
+
+/* Un error o advertencia con su código, posición y argumentos. El texto se
+ * arma recién cuando se pide (message/toString), así reportar no concatena cadenas.
+ */
+public class Diagnostic {
+    public final ErrorCode code;
+    public final int line;
+    public final int column;
+    private final Object[] args;
+
+    public Diagnostic(ErrorCode code, int line, int column, Object... args) {
+        this.code = code;
+        this.line = line;
+        this.column = column;
+        this.args = args;
+    }
+
+    public Category category() {
+        return code.category;
+    }
+
+    public boolean isWarning() {
+        return code.warning;
+    }
+
+    // Argumentos con que se arma el mensaje (para serializar el diagnóstico)
+    public Object[] args() {
+        return args.clone();
+    }
+
+    public String message() {
+        return code.format(args);
+    }
+
+    // El mismo diagnóstico en otra posición
+    public Diagnostic movedTo(int newLine, int newColumn) {
+        return new Diagnostic(code, newLine, newColumn, args);
+    }
+
+    @Override
+    public String toString() {
+        return (code.warning ? "Advertencia" : "Error") + " [línea " + line + ", columna " + column + "] "
+                + code.id + ": " + (code.warning ? code.category.warningLabel : code.category.label) + ": " + message();
+    }
+}
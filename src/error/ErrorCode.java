@@ -0,0 +1,66 @@
+package error;
+
+/* Catálogo de diagnósticos. Cada código tiene su categoría y una plantilla
+ * con marcadores {0}, {1}... que se reemplazan recién al mostrar el mensaje.
+ * Los códigos W son advertencias: se informan pero no detienen la compilación.
+ */
+public enum ErrorCode {
+    // Léxicos
+    UNEXPECTED_CHAR(Category.LEXICAL, "L01", "Carácter inesperado: '{0}'"),
+    LONE_AMPERSAND(Category.LEXICAL, "L02", "Símbolo '&' inesperado. ¿Quisiste escribir '&&'?"),
+    LONE_BAR(Category.LEXICAL, "L03", "Símbolo '|' inesperado. ¿Quisiste escribir '||'?"),
+    UNTERMINATED_COMMENT(Category.LEXICAL, "L04", "comentario multilínea sin cierre."),
+    UNTERMINATED_STRING_LINE(Category.LEXICAL, "L05", "cadena sin cierre en la misma línea."),
+    UNTERMINATED_STRING(Category.LEXICAL, "L06", "cadena sin cierre."),
+    INVALID_DOUBLE(Category.LEXICAL, "L07", "real fuera del rango de double: {0}"),
+    INVALID_INT(Category.LEXICAL, "L08", "entero fuera del rango de long: {0}"),
+
+    // Sintácticos: el parser pasa el texto fijo de lo que esperaba
+    SYNTAX(Category.SYNTACTIC, "S01", "{0}"),
+    EXPECTED_EXPRESSION(Category.SYNTACTIC, "S02", "Se esperaba una expresión."),
+    INVALID_ASSIGN_TARGET(Category.SYNTACTIC, "S03", "destino de asignación inválido."),
+
+    // Semánticos
+    BAD_CONDITION(Category.SEMANTIC, "E01", "condición de {0}() debe ser numérica o booleana."),
+    DOUBLE_TO_LONG(Category.SEMANTIC, "E02", "no se puede asignar un double a un long ({0})."),
+    INCOMPATIBLE_ASSIGN(Category.SEMANTIC, "E03", "no se puede asignar un {0} a un {1} ({2})."),
+    UNDECLARED(Category.SEMANTIC, "E04", "variable '{0}' usada sin declarar."),
+    INVALID_OPERANDS(Category.SEMANTIC, "E05", "operandos inválidos para '{0}'."),
+
+    // Advertencias
+    REDECLARED(Category.SEMANTIC, "W01", "la variable '{0}' ya fue declarada en este ámbito.", true);
+
+    public final Category category;
+    public final String id;
+    public final String template;
+    public final boolean warning;
+
+    ErrorCode(Category category, String id, String template) {
+        this(category, id, template, false);
+    }
+
+    ErrorCode(Category category, String id, String template, boolean warning) {
+        this.category = category;
+        this.id = id;
+        this.template = template;
+        this.warning = warning;
+    }
+
+    // Plantilla con los argumentos aplicados
+    String format(Object[] args) {
+        if (args.length == 0) return template;
+        StringBuilder sb = new StringBuilder(template.length() + 16);
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            int close = c == '{' ? template.indexOf('}', i) : -1;
+            if (close > i + 1) {
+                int n = Integer.parseInt(template, i + 1, close, 10);
+                sb.append(n < args.length ? String.valueOf(args[n]) : "?");
+                i = close;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
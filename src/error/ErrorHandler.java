@@ -1,26 +1,125 @@
 package error;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 
+/* Acumula los diagnósticos de una compilación.
+ * - Límite de errores: al llegar a maxErrors deja de registrar y marca la
+ *   compilación como abortada; lexer, parser y análisis lo consultan con
+ *   isAborted() para terminar antes.
+ * - Supresión: un error de la misma categoría en la misma posición que el
+ *   anterior se descarta (el parser además evita las cascadas con su modo pánico).
+ * - Advertencias: van en una lista aparte (getWarnings); no cuentan como
+ *   errores, ni para el límite ni para hasErrors().
+ */
 public class ErrorHandler {
-    private final List<LexError> lexErrors = new ArrayList<>();
+    public static final int DEFAULT_MAX_ERRORS = 100;
+    public static final int UNLIMITED = Integer.MAX_VALUE;
 
-    public void addLexError(int line, int column, String message) {
-        lexErrors.add(new LexError(line, column, message));
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private final List<Diagnostic> warnings = new ArrayList<>();
+    private final int[] counts = new int[Category.values().length];
+    private final int maxErrors;
+    private Diagnostic last;
+    private int suppressed;
+    private boolean aborted;
+
+    public ErrorHandler() {
+        this(DEFAULT_MAX_ERRORS);
     }
 
-    public boolean hasLexErrors() {
-        return !lexErrors.isEmpty();
+    public ErrorHandler(int maxErrors) {
+        this.maxErrors = maxErrors;
     }
 
-    public List<LexError> getLexErrors() {
-        return lexErrors;
+    public void report(ErrorCode code, int line, int column, Object... args) {
+        if (code.warning) {
+            warnings.add(new Diagnostic(code, line, column, args));
+            return;
+        }
+        if (aborted) {
+            suppressed++;
+            return;
+        }
+        if (last != null && last.line == line && last.column == column && last.code.category == code.category) {
+            suppressed++;
+            return;
+        }
+        last = new Diagnostic(code, line, column, args);
+        diagnostics.add(last);
+        counts[code.category.ordinal()]++;
+        if (diagnostics.size() >= maxErrors) aborted = true;
     }
 
-    public void printLexErrors() {
-        for (LexError e : lexErrors) {
-            System.err.println(e);
+    /* Carga diagnósticos ya filtrados por otro ErrorHandler (p. ej. leídos de
+     * la caché), sin volver a aplicar el límite ni la supresión.
+     */
+    public void restore(List<Diagnostic> list, List<Diagnostic> warningList, int suppressedCount, boolean wasAborted) {
+        warnings.addAll(warningList);
+        for (Diagnostic d : list) {
+            diagnostics.add(d);
+            counts[d.code.category.ordinal()]++;
+            last = d;
         }
+        suppressed += suppressedCount;
+        aborted |= wasAborted;
+    }
+
+    public boolean hasErrors() {
+        return !diagnostics.isEmpty();
+    }
+
+    public boolean hasErrors(Category category) {
+        return counts[category.ordinal()] > 0;
+    }
+
+    public int count(Category category) {
+        return counts[category.ordinal()];
+    }
+
+    // Solo los errores; las advertencias están en getWarnings()
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    public boolean hasWarnings() {
+        return !warnings.isEmpty();
     }
-}
 
+    public List<Diagnostic> getWarnings() {
+        return warnings;
+    }
+
+    // Se alcanzó el límite de errores: las fases deben detenerse
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    // Errores descartados por repetidos o por haber superado el límite
+    public int getSuppressed() {
+        return suppressed;
+    }
+
+    public void print() {
+        print(System.err);
+    }
+
+    public void print(PrintStream out) {
+        printWarnings(out);
+        for (Diagnostic d : diagnostics) {
+            out.println(d);
+        }
+        if (aborted) {
+            out.println("Se alcanzó el límite de " + maxErrors + " errores; análisis detenido.");
+        }
+        if (suppressed > 0) {
+            out.println("(" + suppressed + " errores suprimidos)");
+        }
+    }
+
+    public void printWarnings(PrintStream out) {
+        for (Diagnostic d : warnings) {
+            out.println(d);
+        }
+    }
+}
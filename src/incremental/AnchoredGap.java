@@ -0,0 +1,96 @@
+package incremental;
+
+import java.util.Arrays;
+
+/* Lista con hueco (ver GapText) de elementos anclados a un token del
+ * documento: las sentencias de nivel superior a su primer token y los errores
+ * léxicos al token que se estaba escaneando. Como en TokenGap, después del
+ * hueco el ancla se guarda relativa a la cantidad de tokens, así que cuando
+ * una edición cambia esa cantidad los elementos siguientes no se tocan.
+ *
+ * El hueco se mueve con los tokens todavía sin reemplazar; lo que se quita o
+ * se agrega después ya va con los índices nuevos.
+ */
+final class AnchoredGap<T extends AnchoredGap.Anchored> {
+    abstract static class Anchored {
+        int token; // ver token(i)
+    }
+
+    private final TokenGap tokens;
+    private Anchored[] items = new Anchored[16];
+    private int gapStart = 0;
+    private int gapEnd = 16;
+
+    AnchoredGap(TokenGap tokens) {
+        this.tokens = tokens;
+    }
+
+    int size() {
+        return items.length - (gapEnd - gapStart);
+    }
+
+    // Lugar del hueco: los elementos [0, gap()) están antes
+    int gap() {
+        return gapStart;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int i) {
+        return (T) items[i < gapStart ? i : i + gapEnd - gapStart];
+    }
+
+    // Índice del token al que está anclado el elemento i
+    int token(int i) {
+        return i < gapStart ? items[i].token : items[i + gapEnd - gapStart].token + tokens.size();
+    }
+
+    // Primer elemento anclado en token o después (size() si no hay)
+    int indexAtOrAfter(int token) {
+        int lo = 0, hi = size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (token(mid) < token) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    void moveGap(int index) {
+        int count = tokens.size();
+        while (gapStart > index) {
+            Anchored item = items[--gapStart];
+            item.token -= count;
+            items[--gapEnd] = item;
+        }
+        while (gapStart < index) {
+            Anchored item = items[gapEnd];
+            items[gapEnd++] = null;
+            item.token += count;
+            items[gapStart++] = item;
+        }
+    }
+
+    // Quita el primer elemento después del hueco
+    void removeAfterGap() {
+        items[gapEnd++] = null;
+    }
+
+    // Quita el último elemento antes del hueco
+    void removeBeforeGap() {
+        items[--gapStart] = null;
+    }
+
+    // Agrega antes del hueco un elemento anclado al token dado (índice nuevo)
+    void insert(T item, int token) {
+        if (gapStart == gapEnd) {
+            int tail = items.length - gapEnd;
+            Anchored[] next = Arrays.copyOf(items, items.length * 2);
+            System.arraycopy(items, gapEnd, next, next.length - tail, tail);
+            Arrays.fill(next, gapEnd, next.length - tail, null);
+            gapEnd = next.length - tail;
+            items = next;
+        }
+        item.token = token;
+        items[gapStart++] = item;
+    }
+}
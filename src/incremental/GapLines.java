@@ -0,0 +1,103 @@
+package incremental;
+
+import java.util.Arrays;
+
+/* Comienzos de línea del documento, con un hueco como el de GapText.
+ * Antes del hueco se guarda la posición; después, la distancia al final del
+ * texto (posición - largo): una edición en el hueco no cambia ninguna de las
+ * dos, así que los comienzos de más adelante no se tocan.
+ *
+ * Se usa en dos pasos alrededor de la edición del texto: prepare() con el
+ * texto viejo deja el hueco en el lugar del cambio y edited() con el nuevo
+ * quita los comienzos de los '\n' borrados y agrega los de lo insertado.
+ */
+final class GapLines {
+    private final CharSequence text;
+    private int[] starts;
+    private int gapStart;
+    private int gapEnd;
+    private int hint = 1; // última línea calculada; las consultas suelen ir en orden
+
+    GapLines(CharSequence text) {
+        this.text = text;
+        int length = text.length();
+        starts = new int[Math.max(16, length >>> 4)];
+        int count = 1; // starts[0] = 0
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) == '\n') {
+                if (count == starts.length) starts = Arrays.copyOf(starts, count * 2);
+                starts[count++] = i + 1;
+            }
+        }
+        gapStart = count;
+        gapEnd = starts.length;
+    }
+
+    int lineCount() {
+        return starts.length - (gapEnd - gapStart);
+    }
+
+    // Posición donde empieza la línea (desde 1)
+    int lineStart(int line) {
+        int k = line - 1;
+        return k < gapStart ? starts[k] : starts[k + gapEnd - gapStart] + text.length();
+    }
+
+    // Línea (desde 1) que contiene offset; prueba primero la de la consulta anterior y la siguiente
+    int line(int offset) {
+        int count = lineCount();
+        if (hint <= count && lineStart(hint) <= offset) {
+            if (hint == count || offset < lineStart(hint + 1)) return hint;
+            if (hint + 1 == count || offset < lineStart(hint + 2)) return ++hint;
+        }
+        int lo = 1, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (lineStart(mid) <= offset) lo = mid;
+            else hi = mid - 1;
+        }
+        return hint = lo;
+    }
+
+    // Columna (desde 1) de offset
+    int column(int offset) {
+        return offset - lineStart(line(offset)) + 1;
+    }
+
+    // Con el texto todavía sin editar: deja el hueco después de los comienzos <= offset
+    void prepare(int offset) {
+        int k = line(offset);
+        int length = text.length();
+        if (k < gapStart) {
+            for (int i = gapStart - 1; i >= k; i--) starts[--gapEnd] = starts[i] - length;
+            gapStart = k;
+        } else {
+            while (gapStart < k) starts[gapStart++] = starts[gapEnd++] + length;
+        }
+    }
+
+    /* Con el texto ya editado (offset + inserted reemplazó lo borrado): los
+     * comienzos que venían de un '\n' borrado quedaron, en coordenadas nuevas,
+     * hasta el final de lo insertado.
+     */
+    void edited(int offset, CharSequence inserted) {
+        int editEnd = offset + inserted.length();
+        int length = text.length();
+        while (gapEnd < starts.length && starts[gapEnd] + length <= editEnd) gapEnd++;
+        for (int i = 0; i < inserted.length(); i++) {
+            if (inserted.charAt(i) != '\n') continue;
+            if (gapStart == gapEnd) grow();
+            starts[gapStart++] = offset + i + 1;
+        }
+        hint = 1;
+    }
+
+    private void grow() {
+        int tail = starts.length - gapEnd;
+        int[] next = new int[starts.length * 2];
+        System.arraycopy(starts, 0, next, 0, gapStart);
+        System.arraycopy(starts, gapEnd, next, next.length - tail, tail);
+        gapEnd = next.length - tail;
+        starts = next;
+    }
+}
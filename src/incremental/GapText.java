@@ -0,0 +1,75 @@
+package incremental;
+
+/* Texto del documento como "gap buffer": los caracteres viven en un arreglo
+ * con un hueco libre en el punto de la última edición. Editar mueve el hueco
+ * hasta el lugar del cambio (se copian solo los caracteres entre las dos
+ * posiciones) y escribe ahí lo insertado, así que las ediciones seguidas en
+ * la misma zona no copian el resto del texto.
+ */
+final class GapText implements CharSequence {
+    private char[] chars;
+    private int gapStart;
+    private int gapEnd;
+
+    GapText(CharSequence source) {
+        int length = source.length();
+        chars = new char[Math.max(16, length + (length >>> 2))];
+        for (int i = 0; i < length; i++) chars[i] = source.charAt(i);
+        gapStart = length;
+        gapEnd = chars.length;
+    }
+
+    @Override
+    public int length() {
+        return chars.length - (gapEnd - gapStart);
+    }
+
+    @Override
+    public char charAt(int index) {
+        return index < gapStart ? chars[index] : chars[index + gapEnd - gapStart];
+    }
+
+    // Reemplaza removed caracteres en offset por inserted
+    void replace(int offset, int removed, CharSequence inserted) {
+        moveGap(offset);
+        gapEnd += removed;
+        int n = inserted.length();
+        if (gapEnd - gapStart < n) grow(n);
+        for (int i = 0; i < n; i++) chars[gapStart++] = inserted.charAt(i);
+    }
+
+    private void moveGap(int offset) {
+        if (offset < gapStart) {
+            int n = gapStart - offset;
+            System.arraycopy(chars, offset, chars, gapEnd - n, n);
+            gapStart -= n;
+            gapEnd -= n;
+        } else if (offset > gapStart) {
+            int n = offset - gapStart;
+            System.arraycopy(chars, gapEnd, chars, gapStart, n);
+            gapStart += n;
+            gapEnd += n;
+        }
+    }
+
+    private void grow(int needed) {
+        int tail = chars.length - gapEnd;
+        char[] next = new char[Math.max(chars.length * 2, length() + needed + 16)];
+        System.arraycopy(chars, 0, next, 0, gapStart);
+        System.arraycopy(chars, gapEnd, next, next.length - tail, tail);
+        gapEnd = next.length - tail;
+        chars = next;
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        char[] out = new char[end - start];
+        for (int i = start; i < end; i++) out[i - start] = charAt(i);
+        return new String(out);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+}
@@ -0,0 +1,583 @@
+package incremental;
+
+import error.Diagnostic;
+import error.ErrorHandler;
+import lexer.Lexer;
+import lexer.LineIndex;
+import lexer.NameTable;
+import lexer.TokenBuffer;
+import lexer.TokenType;
+import parser.ASTNode;
+import parser.Parser;
+import parser.Statement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/* Documento editable para la integración con el editor. Una edición cuesta
+ * lo que la zona que toca, no lo que el archivo:
+ *
+ * - Texto, comienzos de línea y tokens tienen un hueco en el lugar del
+ *   último cambio (GapText, GapLines, TokenGap): editar no copia ni corrige
+ *   lo que viene después.
+ * - Se vuelve a tokenizar desde el último token que termina antes del cambio
+ *   hasta el primer token nuevo que coincide (tipo, largo y posición) con uno
+ *   viejo: de ahí en más el lexer produciría lo mismo, porque todo token
+ *   empieza fuera de comentarios y cadenas.
+ * - Se reparsea en el bloque más interno que contiene el cambio, solo las
+ *   sentencias que lo tocan (ver reparseBlock). Si no hay tal bloque, o el
+ *   cambio alcanza sus llaves, se reparsean sentencias de nivel superior.
+ * - Cada sentencia de nivel superior recuerda dónde estaba su primer token
+ *   cuando se calcularon las posiciones de su subárbol y sus diagnósticos;
+ *   si el token se movió, se corrigen recién cuando alguien los lee. Los
+ *   errores léxicos se guardan relativos a su token y se ubican al leerlos.
+ *   En el momento solo se corrige el resto de la sentencia de nivel superior
+ *   donde cayó un cambio reparseado por bloque.
+ *
+ * tokens(), statements() y diagnostics() arman vistas del documento entero.
+ */
+public class IncrementalDocument {
+    private final GapText text;
+    private final GapLines lines;
+    private final NameTable names = new NameTable();
+    private final TokenGap tokens;
+    private final AnchoredGap<Entry> entries;      // sentencias de nivel superior, en su primer token
+    private final AnchoredGap<LexError> lexErrors; // en el token que se estaba escaneando
+
+    private int relexedTokens;
+    private int reparsedStatements;
+
+    // Sentencia de nivel superior (null si tuvo errores) con sus diagnósticos sintácticos
+    private static final class Entry extends AnchoredGap.Anchored {
+        final Statement statement;
+        List<Diagnostic> diagnostics;
+        int line;   // dónde estaba el primer token cuando se calcularon
+        int column; // las posiciones del subárbol y los diagnósticos
+
+        Entry(Statement statement, List<Diagnostic> diagnostics, int line, int column) {
+            this.statement = statement;
+            this.diagnostics = diagnostics;
+            this.line = line;
+            this.column = column;
+        }
+    }
+
+    // offset: posición relativa al comienzo del token (negativa si salió del hueco anterior)
+    private static final class LexError extends AnchoredGap.Anchored {
+        final Diagnostic diagnostic;
+        final int offset;
+
+        LexError(Diagnostic diagnostic, int offset) {
+            this.diagnostic = diagnostic;
+            this.offset = offset;
+        }
+    }
+
+    /* Un bloque del camino desde la sentencia de nivel superior hasta el
+     * token anterior al cambio, con índices y posiciones del texto viejo.
+     */
+    private static final class Level {
+        final Statement.Block block;
+        final int depth; // índice del bloque en Path.nodes
+        final int open;  // token '{'
+        final int child; // hijo que contiene ese token (-1 si está antes del primero)
+        final int close; // token '}' si el reparseo puede terminar en él (-1 si no)
+
+        Level(Statement.Block block, int depth, int open, int child, int close) {
+            this.block = block;
+            this.depth = depth;
+            this.open = open;
+            this.child = child;
+            this.close = close;
+        }
+    }
+
+    private static final class Path {
+        final List<Statement> nodes = new ArrayList<>();   // desde la sentencia de nivel superior
+        final List<Integer> children = new ArrayList<>();  // en los bloques, el hijo por el que sigue
+        final List<Level> blocks = new ArrayList<>();
+    }
+
+    public IncrementalDocument(CharSequence source) {
+        text = new GapText(source);
+        lines = new GapLines(text);
+        tokens = new TokenGap(text, lines, names);
+        entries = new AnchoredGap<>(tokens);
+        lexErrors = new AnchoredGap<>(tokens);
+
+        ErrorHandler err = new ErrorHandler(ErrorHandler.UNLIMITED);
+        Lexer lexer = new Lexer(text, err, names);
+        TokenBuffer fresh = freshBuffer();
+        while (scanOne(lexer, fresh, err, 0) != TokenType.EOF) {
+            // sigue hasta el EOF
+        }
+        tokens.replace(0, 0, fresh, fresh.size());
+        relexedTokens = fresh.size();
+        reparsedStatements = 0;
+        reparseEntries(0, 0, -1);
+    }
+
+    // Reemplaza removed caracteres en offset por inserted
+    public void edit(int offset, int removed, String inserted) {
+        if (offset < 0 || removed < 0 || offset + removed > text.length()) {
+            throw new IndexOutOfBoundsException("edición fuera del documento: " + offset + "+" + removed);
+        }
+
+        // 1. Con el texto viejo: desde qué token se re-tokeniza, qué sentencia se
+        // reparsea y, si el cambio cae dentro de bloques, el camino hasta ellos
+        int first = tokens.indexAtOrAfter(offset, 0);
+        while (first > 0 && tokens.start(first - 1) + tokens.length(first - 1) >= offset) first--;
+        int lexFrom = first == 0 ? 0 : tokens.start(--first); // antes de la edición: la posición no cambia
+        // La sentencia que contiene el token anterior al primero re-tokenizado: su final pudo depender del lookahead
+        int stmt = entryIndexOf(first - 1);
+        int parseFrom = stmt < entries.size() ? entries.token(stmt) : 0;
+        Path path = first > 0 && stmt < entries.size() ? blocksAround(stmt, first - 1) : new Path();
+        int end = offset + removed;
+        int endLine = lines.line(end);
+        int endColumn = end - lines.lineStart(endLine) + 1;
+
+        // Los huecos van al lugar del cambio antes de editar el texto
+        tokens.prepare(first);
+        entries.moveGap(Math.min(stmt + 1, entries.size()));
+        lexErrors.moveGap(firstRescanned(first, lexFrom));
+        lines.prepare(offset);
+        text.replace(offset, removed, inserted);
+        lines.edited(offset, inserted);
+        int editEnd = offset + inserted.length();
+        int newLine = lines.line(editEnd);
+        PositionShifter shift = new PositionShifter(newLine - endLine, endLine,
+                editEnd - lines.lineStart(newLine) + 1 - endColumn);
+
+        // 2. RELEXADO. Los tokens viejos desde first quedaron tras el hueco y ya
+        // tienen posiciones del texto nuevo.
+        ErrorHandler err = new ErrorHandler(ErrorHandler.UNLIMITED);
+        Lexer lexer = new Lexer(text, err, names);
+        lexer.reset(lexFrom);
+        TokenBuffer fresh = freshBuffer();
+        int resume; // índice viejo desde el que se reutiliza todo
+        while (true) {
+            TokenType type = scanOne(lexer, fresh, err, first);
+            int n = fresh.size() - 1;
+            int start = fresh.start(n);
+            if (start >= editEnd) {
+                int j = tokens.indexAtOrAfter(start, first);
+                if (j < tokens.size() && tokens.start(j) == start
+                        && tokens.type(j) == type && tokens.length(j) == fresh.length(n)) {
+                    resume = j;
+                    break;
+                }
+            }
+            if (type == TokenType.EOF) {
+                // el EOF nuevo siempre coincide con el viejo, así que no se llega acá
+                throw new IllegalStateException("no se pudo resincronizar el relexado");
+            }
+        }
+        int last = fresh.size() - 1; // token nuevo que coincidió con el viejo resume
+        int relexEnd = first + last; // tokens nuevos en [first, relexEnd)
+        tokens.replace(first, resume, fresh, last);
+        relexedTokens = last + 1;
+        // Los errores léxicos viejos hasta el hueco anterior a resume se re-escanearon
+        while (lexErrors.gap() < lexErrors.size() && lexErrors.token(lexErrors.gap()) <= relexEnd) {
+            lexErrors.removeAfterGap();
+        }
+
+        // 3. REPARSEO: del bloque más interno hacia afuera; si ninguno sirve, en el nivel superior
+        reparsedStatements = 0;
+        for (int k = path.blocks.size() - 1; k >= 0; k--) {
+            if (reparseBlock(entries.get(stmt), path, path.blocks.get(k), resume, relexEnd, shift, pack(endLine, endColumn))) return;
+        }
+        reparseEntries(stmt, parseFrom, relexEnd);
+    }
+
+    // Un token con sus errores léxicos, que se anclan a first + su índice en fresh
+    private TokenType scanOne(Lexer lexer, TokenBuffer fresh, ErrorHandler err, int first) {
+        int before = err.getDiagnostics().size();
+        TokenType type = lexer.scanOneInto(fresh);
+        int n = fresh.size() - 1;
+        for (int k = before; k < err.getDiagnostics().size(); k++) {
+            Diagnostic e = err.getDiagnostics().get(k);
+            // con el índice de una sola línea de freshBuffer(), la columna es la posición + 1
+            lexErrors.insert(new LexError(e, e.column - 1 - fresh.start(n)), first + n);
+        }
+        return type;
+    }
+
+    /* Buffer para los tokens re-escaneados. Su índice de líneas tiene una sola
+     * línea, así que el lexer reporta sus errores con la posición en la
+     * columna; la línea verdadera se calcula al leerlos.
+     */
+    private TokenBuffer freshBuffer() {
+        TokenBuffer fresh = new TokenBuffer(text, names);
+        fresh.lines(LineIndex.of(""));
+        return fresh;
+    }
+
+    // Primer error léxico que se vuelve a escanear: los de lexFrom en adelante
+    private int firstRescanned(int first, int lexFrom) {
+        int k = lexErrors.indexAtOrAfter(first);
+        while (k < lexErrors.size() && lexErrors.token(k) == first && lexErrors.get(k).offset < 0 && lexFrom > 0) k++;
+        return k;
+    }
+
+    /* Parsea sentencias de nivel superior desde el token from (la sentencia
+     * stmt, que se descarta) hasta el EOF o hasta caer en el comienzo de una
+     * sentencia vieja cuyo token anterior también es reutilizado (posterior a
+     * resyncFrom): la recuperación de errores mira previous(), así que ese
+     * token también tiene que ser el mismo. Las viejas que quedan en el medio
+     * se descartan.
+     */
+    private void reparseEntries(int stmt, int from, int resyncFrom) {
+        if (stmt < entries.gap()) entries.removeBeforeGap();
+        ErrorHandler err = new ErrorHandler(ErrorHandler.UNLIMITED);
+        Parser parser = new Parser(tokens.stream(from), err);
+        while (parser.hasMore()) {
+            int pos = parser.position();
+            if (pos > resyncFrom) {
+                while (entries.gap() < entries.size() && entries.token(entries.gap()) < pos) entries.removeAfterGap();
+                if (resyncFrom >= 0 && entries.gap() < entries.size() && entries.token(entries.gap()) == pos) return;
+            }
+            int before = err.getDiagnostics().size();
+            Statement statement = parser.parseDeclaration();
+            int after = err.getDiagnostics().size();
+            List<Diagnostic> diags = after == before ? List.of() : new ArrayList<>(err.getDiagnostics().subList(before, after));
+            entries.insert(new Entry(statement, diags, tokens.line(pos), tokens.column(pos)), pos);
+            reparsedStatements++;
+        }
+        while (entries.gap() < entries.size()) entries.removeAfterGap();
+    }
+
+    /* Camino desde la sentencia de nivel superior stmt hasta el token anchor,
+     * bajando por bloques, ramas de if y cuerpos de while mientras el token
+     * quede adentro (no en una condición ni en una llave). Todo con el texto
+     * viejo; la sentencia se pone al día antes (materialize).
+     *
+     * El '}' de un bloque es el token anterior a lo que le sigue, si se sabe
+     * dónde termina el bloque (exact). Solo se anota como final posible del
+     * reparseo (Level.close) si además:
+     * - el bloque se cerró: si llega al EOF puede haber quedado abierto, con
+     *   un '}' de un hijo al final, y eso deja un diagnóstico en el EOF o en
+     *   su última sentencia (el que la dejó en modo pánico);
+     * - después del bloque no se parsea un else, tampoco tras el '}' de los
+     *   bloques de los que es el último hijo: lo haría con el modo pánico que
+     *   dejó el último hijo, y eso no se ve desde acá.
+     */
+    private Path blocksAround(int stmt, int anchor) {
+        Entry e = materialize(stmt);
+        Path path = new Path();
+        long at = position(anchor);
+        int eof = tokens.size() - 1;
+        int next = stmt + 1 < entries.size() ? entries.token(stmt + 1) : eof; // primer token después de s
+        boolean exact = true;
+        boolean elseFollows = false;
+        Statement s = e.statement;
+        while (s != null) {
+            path.nodes.add(s);
+            if (s instanceof Statement.Block) {
+                Statement.Block block = (Statement.Block) s;
+                List<Statement> children = block.statements;
+                int open = tokenAt(block);
+                int close = next - 1;
+                boolean closed = exact && close > open && tokens.type(close) == TokenType.RBRACE
+                        && (next != eof || !hasErrorBetween(e,
+                                children.isEmpty() ? position(open + 1) : position(children.get(children.size() - 1)),
+                                position(eof)));
+                int k = lastChildAtOrBefore(children, at);
+                path.blocks.add(new Level(block, path.nodes.size() - 1, open, k, closed && !elseFollows ? close : -1));
+                path.children.add(k);
+                if (k < 0) break;
+                exact = k + 1 < children.size() || closed;
+                next = k + 1 < children.size() ? tokenAt(children.get(k + 1)) : close;
+                elseFollows &= k + 1 == children.size();
+                s = children.get(k);
+            } else if (s instanceof Statement.If) {
+                path.children.add(-1);
+                Statement.If f = (Statement.If) s;
+                if (at < position(f.thenBranch)) break;
+                if (f.elseBranch != null && at >= position(f.elseBranch)) {
+                    s = f.elseBranch;
+                } else {
+                    if (f.elseBranch != null) {
+                        int elseToken = tokenAt(f.elseBranch) - 1;
+                        if (anchor >= elseToken) break;
+                        next = elseToken;
+                        elseFollows = true;
+                    }
+                    s = f.thenBranch;
+                }
+            } else if (s instanceof Statement.While) {
+                path.children.add(-1);
+                Statement.While w = (Statement.While) s;
+                if (at < position(w.body)) break;
+                s = w.body;
+            } else {
+                path.children.add(-1);
+                break;
+            }
+        }
+        return path;
+    }
+
+    /* Reparsea dentro de level.block los hijos que tocan los tokens nuevos:
+     * desde el que contiene el token anterior al cambio hasta caer en el
+     * comienzo de un hijo viejo cuyo token anterior es reutilizado, o hasta
+     * el '}' si es el viejo (Level.close). Devuelve false, sin tocar nada, si
+     * el reparseo se sale del bloque o no puede terminar en él.
+     *
+     * Los diagnósticos sintácticos de la sentencia de nivel superior están en
+     * orden de parseo, así que los de los hijos reparseados son los que caen
+     * entre el comienzo del primero y el del siguiente reutilizado. En esos
+     * límites también pudo reportar el hijo de al lado (lookahead): si hay
+     * alguno justo ahí, se reparsea un hijo más.
+     */
+    private boolean reparseBlock(Entry e, Path path, Level level, int resume, int relexEnd, PositionShifter shift,
+                                 long editEnd) {
+        List<Statement> children = level.block.statements;
+        int tokenDelta = relexEnd - resume;
+        int close = level.close >= resume ? level.close + tokenDelta : -1; // '}' reutilizado, índice nuevo
+        int i = level.child;
+        while (i > 0 && hasErrorAt(e, position(children.get(i)))) i--;
+        boolean fromOpen = i <= 0;
+        if (fromOpen) i = 0;
+        // lo que está antes del cambio tiene las mismas posiciones e índices que antes
+        long openAt = position(level.block);
+        long startAt = fromOpen ? openAt : position(children.get(i));
+        int from = fromOpen ? level.open + 1 : tokenAt(children.get(i));
+        int limit = close;
+        if (limit < 0) {
+            // sin '}' posible, tiene que volver a caer en un hijo posterior al cambio
+            Statement lastChild = children.isEmpty() ? null : children.get(children.size() - 1);
+            if (lastChild == null || children.size() - 1 <= i || position(lastChild) < editEnd) return false;
+            limit = tokenAtMoved(lastChild, shift);
+        }
+
+        ErrorHandler err = new ErrorHandler(ErrorHandler.UNLIMITED);
+        Parser parser = new Parser(tokens.stream(from), err);
+        List<Statement> fresh = new ArrayList<>();
+        int parsed = 0;
+        int j;
+        while (true) {
+            int pos = parser.position();
+            if (pos > relexEnd) {
+                int k = childAt(children, unmoved(pos, shift), i + 1);
+                if (k >= 0 && !hasErrorAt(e, position(children.get(k)))) {
+                    j = k;
+                    break;
+                }
+            }
+            TokenType type = tokens.type(pos);
+            if (type == TokenType.RBRACE || type == TokenType.EOF) {
+                if (pos != close) return false;
+                j = children.size();
+                break;
+            }
+            if (pos > limit) return false;
+            Statement statement = parser.parseDeclaration();
+            parsed++;
+            if (statement != null) fresh.add(statement);
+        }
+        reparsedStatements = parsed;
+        long endAt = j < children.size() ? position(children.get(j)) : unmoved(close, shift);
+
+        // Lo que sigue al cambio en la sentencia de nivel superior pasa a las posiciones
+        // nuevas: los hijos viejos desde j y, afuera, lo que viene después del camino
+        if (shift.moves()) {
+            shiftFrom(children, j, shift);
+            for (int d = level.depth - 1; d >= 0; d--) {
+                Statement node = path.nodes.get(d);
+                if (node instanceof Statement.Block) {
+                    shiftFrom(((Statement.Block) node).statements, path.children.get(d) + 1, shift);
+                } else if (node instanceof Statement.If) {
+                    Statement.If f = (Statement.If) node;
+                    if (f.elseBranch != null && f.thenBranch == path.nodes.get(d + 1)
+                            && (shift.lineDelta != 0 || f.elseBranch.line == shift.colLine)) {
+                        shift.shift(f.elseBranch);
+                    }
+                }
+            }
+        }
+        List<Diagnostic> diags = new ArrayList<>(e.diagnostics.size() + err.getDiagnostics().size());
+        boolean added = false;
+        for (Diagnostic d : e.diagnostics) {
+            long at = pack(d.line, d.column);
+            if (fromOpen ? at <= openAt : at < startAt) {
+                diags.add(d);
+            } else if (j < children.size() ? at >= endAt : at > endAt) {
+                if (!added) diags.addAll(err.getDiagnostics());
+                added = true;
+                diags.add(shift.shift(d));
+            }
+        }
+        if (!added) diags.addAll(err.getDiagnostics());
+        e.diagnostics = diags;
+
+        int oldHeight = height(children, i, j);
+        children.subList(i, j).clear();
+        children.addAll(i, fresh);
+        updateHeights(path, level.depth, oldHeight, height(fresh, 0, fresh.size()));
+        return true;
+    }
+
+    // Corre a las posiciones nuevas las sentencias desde from; con lineDelta == 0, solo las de colLine
+    private static void shiftFrom(List<Statement> statements, int from, PositionShifter shift) {
+        for (int k = from; k < statements.size(); k++) {
+            Statement s = statements.get(k);
+            if (shift.lineDelta == 0 && s.line != shift.colLine) break;
+            shift.shift(s);
+        }
+    }
+
+    /* Alturas del camino de abajo hacia arriba, tras cambiar en el bloque del
+     * nivel depth hijos cuya altura máxima era oldMax por otros de newMax.
+     * Un bloque se recorre entero solo si pudo haber perdido su hijo más alto.
+     */
+    private static void updateHeights(Path path, int depth, int oldMax, int newMax) {
+        for (int d = depth; d >= 0; d--) {
+            Statement node = path.nodes.get(d);
+            int before = node.height;
+            if (node instanceof Statement.Block) {
+                if (newMax >= oldMax) node.height = Math.max(node.height, newMax + 1);
+                else if (oldMax + 1 == node.height) node.height = 1 + Statement.height(((Statement.Block) node).statements);
+            } else if (node instanceof Statement.If) {
+                Statement.If f = (Statement.If) node;
+                node.height = 1 + Math.max(height(f.condition), Math.max(height(f.thenBranch), height(f.elseBranch)));
+            } else if (node instanceof Statement.While) {
+                Statement.While w = (Statement.While) node;
+                node.height = 1 + Math.max(height(w.condition), height(w.body));
+            }
+            if (node.height == before) return;
+            oldMax = before;
+            newMax = node.height;
+        }
+    }
+
+    private static int height(ASTNode node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static int height(List<Statement> statements, int from, int to) {
+        int height = 0;
+        for (int k = from; k < to; k++) height = Math.max(height, statements.get(k).height);
+        return height;
+    }
+
+    // Pone al día las posiciones de la sentencia stmt si su primer token se movió
+    private Entry materialize(int stmt) {
+        Entry e = entries.get(stmt);
+        int token = entries.token(stmt);
+        int line = tokens.line(token);
+        int column = tokens.column(token);
+        if (line != e.line || column != e.column) {
+            PositionShifter shift = new PositionShifter(line - e.line, e.line, column - e.column);
+            if (e.statement != null) shift.shift(e.statement);
+            if (!e.diagnostics.isEmpty()) {
+                List<Diagnostic> moved = new ArrayList<>(e.diagnostics.size());
+                for (Diagnostic d : e.diagnostics) moved.add(shift.shift(d));
+                e.diagnostics = moved;
+            }
+            e.line = line;
+            e.column = column;
+        }
+        return e;
+    }
+
+    // POSICIONES: línea y columna empaquetadas en un long, que se ordena como el texto
+
+    private static long pack(int line, int column) {
+        return ((long) line << 32) | column;
+    }
+
+    private long position(int token) {
+        return pack(tokens.line(token), tokens.column(token));
+    }
+
+    private static long position(ASTNode node) {
+        return pack(node.line, node.column);
+    }
+
+    // Token donde empieza una sentencia (su posición es la de su primer token)
+    private int tokenAt(ASTNode node) {
+        return tokens.indexAtOrAfter(lines.lineStart(node.line) + node.column - 1, 0);
+    }
+
+    // Igual, para una sentencia posterior al cambio que todavía tiene posiciones viejas
+    private int tokenAtMoved(ASTNode node, PositionShifter shift) {
+        int line = node.line + shift.lineDelta;
+        int column = node.line == shift.colLine ? node.column + shift.colDelta : node.column;
+        return tokens.indexAtOrAfter(lines.lineStart(line) + column - 1, 0);
+    }
+
+    // Posición vieja de un token nuevo posterior al cambio
+    private long unmoved(int token, PositionShifter shift) {
+        int line = tokens.line(token) - shift.lineDelta;
+        int column = tokens.column(token);
+        return pack(line, line == shift.colLine ? column - shift.colDelta : column);
+    }
+
+    // Sentencia de nivel superior que contiene el token (0 si está antes de todas)
+    private int entryIndexOf(int token) {
+        return Math.max(0, entries.indexAtOrAfter(token + 1) - 1);
+    }
+
+    private static int lastChildAtOrBefore(List<Statement> children, long at) {
+        int lo = 0, hi = children.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (position(children.get(mid)) <= at) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo - 1;
+    }
+
+    // Hijo desde from que empieza justo en at (-1 si no hay)
+    private static int childAt(List<Statement> children, long at, int from) {
+        int k = lastChildAtOrBefore(children, at);
+        return k >= from && position(children.get(k)) == at ? k : -1;
+    }
+
+    private static boolean hasErrorAt(Entry e, long at) {
+        for (Diagnostic d : e.diagnostics) {
+            if (pack(d.line, d.column) == at) return true;
+        }
+        return false;
+    }
+
+    private static boolean hasErrorBetween(Entry e, long from, long to) {
+        for (Diagnostic d : e.diagnostics) {
+            long at = pack(d.line, d.column);
+            if (at >= from && at <= to) return true;
+        }
+        return false;
+    }
+
+    public CharSequence source() { return text; }
+
+    // Copia de los tokens actuales
+    public TokenBuffer tokens() { return tokens.toBuffer(); }
+
+    // Mismo orden que una compilación completa: léxicos y luego sintácticos por sentencia
+    public List<Diagnostic> diagnostics() {
+        List<Diagnostic> all = new ArrayList<>();
+        for (int k = 0; k < lexErrors.size(); k++) {
+            LexError e = lexErrors.get(k);
+            int at = tokens.start(lexErrors.token(k)) + e.offset;
+            int line = lines.line(at);
+            all.add(e.diagnostic.movedTo(line, at - lines.lineStart(line) + 1));
+        }
+        for (int k = 0; k < entries.size(); k++) all.addAll(materialize(k).diagnostics);
+        return all;
+    }
+
+    // Sentencias válidas de nivel superior (sin los huecos de las que tuvieron errores)
+    public List<Statement> statements() {
+        List<Statement> result = new ArrayList<>(entries.size());
+        for (int k = 0; k < entries.size(); k++) {
+            Statement s = materialize(k).statement;
+            if (s != null) result.add(s);
+        }
+        return result;
+    }
+
+    // Trabajo hecho por la última edición (o por la carga inicial)
+    public int lastRelexedTokens() { return relexedTokens; }
+    public int lastReparsedStatements() { return reparsedStatements; }
+}
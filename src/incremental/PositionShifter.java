@@ -0,0 +1,128 @@
+package incremental;
+
+import driver.TreeStack;
+import error.Diagnostic;
+import parser.ASTNode;
+import parser.Expr;
+import parser.Statement;
+
+/* Corrige las posiciones de un subárbol reutilizado tras una edición:
+ * todas las líneas se desplazan lineDelta y, en la línea donde terminó la
+ * edición (colLine, en coordenadas viejas), también se corrige la columna.
+ * Con lineDelta == 0 solo cambia lo que está en colLine.
+ */
+class PositionShifter implements Statement.Visitor<Void>, Expr.Visitor<Void> {
+    final int lineDelta;
+    final int colLine;
+    final int colDelta;
+
+    PositionShifter(int lineDelta, int colLine, int colDelta) {
+        this.lineDelta = lineDelta;
+        this.colLine = colLine;
+        this.colDelta = colDelta;
+    }
+
+    boolean moves() {
+        return lineDelta != 0 || colDelta != 0;
+    }
+
+    // El recorrido es recursivo: con árboles altos corre con una pila a la medida
+    void shift(Statement stmt) {
+        TreeStack.run(stmt.height, () -> stmt.accept(this));
+    }
+
+    Diagnostic shift(Diagnostic e) {
+        int column = e.line == colLine ? e.column + colDelta : e.column;
+        return e.movedTo(e.line + lineDelta, column);
+    }
+
+    private void move(ASTNode node) {
+        if (node.line == colLine) node.column += colDelta;
+        node.line += lineDelta;
+    }
+
+    @Override
+    public Void visitVarDecl(Statement.VarDecl stmt) {
+        move(stmt);
+        if (stmt.initializer != null) stmt.initializer.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitRead(Statement.Read stmt) {
+        move(stmt);
+        return null;
+    }
+
+    @Override
+    public Void visitWrite(Statement.Write stmt) {
+        move(stmt);
+        stmt.value.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitIf(Statement.If stmt) {
+        move(stmt);
+        stmt.condition.accept(this);
+        stmt.thenBranch.accept(this);
+        if (stmt.elseBranch != null) stmt.elseBranch.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitWhile(Statement.While stmt) {
+        move(stmt);
+        stmt.condition.accept(this);
+        stmt.body.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitBlock(Statement.Block stmt) {
+        move(stmt);
+        for (Statement s : stmt.statements) s.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitExpression(Statement.Expression stmt) {
+        move(stmt);
+        stmt.expr.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitBinary(Expr.Binary expr) {
+        move(expr);
+        expr.left.accept(this);
+        expr.right.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitUnary(Expr.Unary expr) {
+        move(expr);
+        expr.operand.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteral(Expr.Literal expr) {
+        move(expr);
+        return null;
+    }
+
+    @Override
+    public Void visitVariable(Expr.Variable expr) {
+        move(expr);
+        return null;
+    }
+
+    @Override
+    public Void visitAssign(Expr.Assign expr) {
+        move(expr);
+        expr.value.accept(this);
+        return null;
+    }
+}
@@ -0,0 +1,238 @@
+package incremental;
+
+import lexer.LineIndex;
+import lexer.NameTable;
+import lexer.Token;
+import lexer.TokenBuffer;
+import lexer.TokenStream;
+import lexer.TokenType;
+
+import java.util.Arrays;
+
+/* Tokens del documento en arreglos paralelos como los de TokenBuffer, pero
+ * con un hueco en el lugar de la última edición (ver GapLines): después del
+ * hueco el inicio se guarda relativo al final del texto, así que reemplazar
+ * los tokens re-escaneados no mueve ni corrige los siguientes.
+ *
+ * Línea y columna salen de GapLines cuando alguien las pide; el Parser lee
+ * los tokens con stream(), sin copiarlos a un TokenBuffer.
+ */
+final class TokenGap {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final CharSequence text;
+    private final GapLines lines;
+    private final NameTable names;
+    private byte[] types = new byte[64];
+    private int[] starts = new int[64];
+    private int[] lengths = new int[64];
+    private long[] values = new long[64];
+    private int gapStart = 0;
+    private int gapEnd = 64;
+
+    TokenGap(CharSequence text, GapLines lines, NameTable names) {
+        this.text = text;
+        this.lines = lines;
+        this.names = names;
+    }
+
+    int size() {
+        return types.length - (gapEnd - gapStart);
+    }
+
+    private int slot(int i) {
+        return i < gapStart ? i : i + gapEnd - gapStart;
+    }
+
+    TokenType type(int i) { return TYPES[types[slot(i)]]; }
+    int length(int i) { return lengths[slot(i)]; }
+    long value(int i) { return values[slot(i)]; }
+
+    int start(int i) {
+        return i < gapStart ? starts[i] : starts[i + gapEnd - gapStart] + text.length();
+    }
+
+    int line(int i) {
+        return lines.line(start(i));
+    }
+
+    int column(int i) {
+        return lines.column(start(i));
+    }
+
+    // Índice del primer token en [from, size) que empieza en offset o después
+    int indexAtOrAfter(int offset, int from) {
+        int lo = from, hi = size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (start(mid) < offset) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Con el texto todavía sin editar: deja el hueco antes del token index
+    void prepare(int index) {
+        int length = text.length();
+        while (gapStart > index) {
+            gapStart--;
+            gapEnd--;
+            types[gapEnd] = types[gapStart];
+            starts[gapEnd] = starts[gapStart] - length;
+            lengths[gapEnd] = lengths[gapStart];
+            values[gapEnd] = values[gapStart];
+        }
+        while (gapStart < index) {
+            types[gapStart] = types[gapEnd];
+            starts[gapStart] = starts[gapEnd] + length;
+            lengths[gapStart] = lengths[gapEnd];
+            values[gapStart] = values[gapEnd];
+            gapStart++;
+            gapEnd++;
+        }
+    }
+
+    /* Con el texto ya editado y el hueco en from (prepare): reemplaza los
+     * tokens [from, to) por los primeros count de fresh, que tiene posiciones
+     * del texto nuevo.
+     */
+    void replace(int from, int to, TokenBuffer fresh, int count) {
+        gapEnd += to - from;
+        if (gapEnd - gapStart < count) grow(count);
+        for (int k = 0; k < count; k++) {
+            types[gapStart] = (byte) fresh.type(k).ordinal();
+            starts[gapStart] = fresh.start(k);
+            lengths[gapStart] = fresh.length(k);
+            values[gapStart] = fresh.value(k);
+            gapStart++;
+        }
+    }
+
+    private void grow(int needed) {
+        int capacity = Math.max(types.length * 2, size() + needed + 16);
+        int tail = types.length - gapEnd;
+        int newEnd = capacity - tail;
+        types = regap(types, Arrays.copyOf(types, capacity), newEnd, tail);
+        starts = regap(starts, Arrays.copyOf(starts, capacity), newEnd, tail);
+        lengths = regap(lengths, Arrays.copyOf(lengths, capacity), newEnd, tail);
+        values = regap(values, Arrays.copyOf(values, capacity), newEnd, tail);
+        gapEnd = newEnd;
+    }
+
+    // Copia la cola (los tail elementos después del hueco) al final del arreglo agrandado
+    private <A> A regap(A old, A grown, int newEnd, int tail) {
+        System.arraycopy(old, gapEnd, grown, newEnd, tail);
+        return grown;
+    }
+
+    String lexeme(int i) {
+        TokenType type = type(i);
+        int start = start(i);
+        if (type == TokenType.EOF) return "";
+        if (type == TokenType.IDENTIFIER) return names.name((int) value(i));
+        String fixed = type.lexeme;
+        if (fixed != null && fixed.length() == length(i) && text.charAt(start) == fixed.charAt(0)) return fixed;
+        return text.subSequence(start, start + length(i)).toString();
+    }
+
+    // Mismo literal que TokenBuffer.literal()
+    Object literal(int i) {
+        switch (type(i)) {
+            case INT_LITERAL: return value(i);
+            case DOUBLE_LITERAL: return Double.longBitsToDouble(value(i));
+            case TRUE: return true;
+            case FALSE: return false;
+            case IDENTIFIER: return lexeme(i);
+            case STRING_LITERAL: return text.subSequence(start(i) + 1, start(i) + length(i) - 1).toString();
+            default: return null;
+        }
+    }
+
+    Token token(int i) {
+        int start = start(i);
+        int line = lines.line(start);
+        return new Token(type(i), lexeme(i), literal(i), line, start - lines.lineStart(line) + 1);
+    }
+
+    // Copia de los tokens en un TokenBuffer sobre una copia del texto (para comparar o volcar)
+    TokenBuffer toBuffer() {
+        String source = text.toString();
+        TokenBuffer buffer = new TokenBuffer(source, names, size());
+        for (int i = 0; i < size(); i++) buffer.add(type(i), start(i), start(i) + length(i), value(i));
+        buffer.lines(LineIndex.of(source));
+        return buffer;
+    }
+
+    TokenStream stream(int from) {
+        return new GapStream(from);
+    }
+
+    // Como el IndexStream de TokenBuffer: materializa un Token solo cuando el Parser lo pide
+    private final class GapStream extends TokenStream {
+        private int current;
+        private int cachedIndex = -1;
+        private Token cached;
+
+        GapStream(int from) {
+            this.current = from;
+        }
+
+        @Override
+        public TokenType peekType() {
+            return type(current);
+        }
+
+        @Override
+        public Token peek() {
+            return at(current);
+        }
+
+        @Override
+        public Token previous() {
+            return current == 0 ? null : at(current - 1);
+        }
+
+        @Override
+        public long peekValue() {
+            return value(current);
+        }
+
+        @Override
+        public int peekLine() {
+            return line(current);
+        }
+
+        @Override
+        public int peekColumn() {
+            return column(current);
+        }
+
+        @Override
+        public NameTable names() {
+            return names;
+        }
+
+        @Override
+        public int peekName() {
+            return (int) value(current);
+        }
+
+        @Override
+        public void advance() {
+            if (type(current) != TokenType.EOF) current++;
+        }
+
+        @Override
+        public int position() {
+            return current;
+        }
+
+        private Token at(int i) {
+            if (i != cachedIndex) {
+                cached = token(i);
+                cachedIndex = i;
+            }
+            return cached;
+        }
+    }
+}
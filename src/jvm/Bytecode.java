@@ -0,0 +1,155 @@
+package jvm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/* Búfer de código de un método: emite instrucciones, resuelve etiquetas y
+ * lleva la cuenta de la pila de operandos y de las variables locales.
+ * Los saltos son de 16 bits; un método que no entra en ese rango se rechaza.
+ */
+final class Bytecode {
+    static final int ICONST_0 = 3, ICONST_1 = 4, LCONST_0 = 9, LCONST_1 = 10, DCONST_0 = 14, DCONST_1 = 15;
+    static final int BIPUSH = 16, SIPUSH = 17, LDC = 18, LDC_W = 19, LDC2_W = 20;
+    static final int LLOAD = 22, DLOAD = 24, LSTORE = 55, DSTORE = 57;
+    static final int POP = 87, POP2 = 88, DUP2 = 92;
+    static final int LADD = 97, DADD = 99, LSUB = 101, DSUB = 103, LMUL = 105, DMUL = 107, DDIV = 111;
+    static final int LNEG = 117, DNEG = 119, L2D = 138;
+    static final int LCMP = 148, DCMPL = 151, DCMPG = 152;
+    static final int IFEQ = 153, IFNE = 154, IFLT = 155, IFGE = 156, IFGT = 157, IFLE = 158;
+    static final int IF_ICMPEQ = 159, IF_ICMPNE = 160;
+    static final int GOTO = 167, RETURN = 177;
+    static final int GETSTATIC = 178, PUTSTATIC = 179, INVOKESTATIC = 184, WIDE = 196;
+
+    static final class Label {
+        private int position = -1;
+        private final List<Integer> jumps = new ArrayList<>();
+    }
+
+    private byte[] code = new byte[256];
+    private int size;
+    private int stack;
+    private int maxStack;
+    private int maxLocals;
+
+    int size() {
+        return size;
+    }
+
+    int maxStack() {
+        return maxStack;
+    }
+
+    int maxLocals() {
+        return maxLocals;
+    }
+
+    // Reserva una variable local de 2 posiciones (long o double)
+    int newWideLocal() {
+        int index = maxLocals;
+        maxLocals += 2;
+        return index;
+    }
+
+    void reserveLocals(int count) {
+        maxLocals = Math.max(maxLocals, count);
+    }
+
+    // Instrucción sin operandos; delta es su efecto sobre la pila en posiciones
+    void op(int opcode, int delta) {
+        u1(opcode);
+        adjust(delta);
+    }
+
+    void op1(int opcode, int operand, int delta) {
+        u1(opcode);
+        u1(operand);
+        adjust(delta);
+    }
+
+    void op2(int opcode, int operand, int delta) {
+        u1(opcode);
+        u2(operand);
+        adjust(delta);
+    }
+
+    // lload/dload/lstore/dstore con el prefijo wide cuando el índice no entra en un byte
+    void local(int opcode, int index, int delta) {
+        if (index > 0xFF) {
+            u1(WIDE);
+            op2(opcode, index, delta);
+        } else {
+            op1(opcode, index, delta);
+        }
+    }
+
+    void jump(int opcode, Label target, int delta) {
+        int at = size;
+        u1(opcode);
+        u2(0);
+        adjust(delta);
+        if (target.position >= 0) patch(at, target.position);
+        else target.jumps.add(at);
+    }
+
+    void mark(Label label) {
+        label.position = size;
+        for (int at : label.jumps) patch(at, size);
+        label.jumps.clear();
+    }
+
+    // Tras un goto la pila vuelve a la profundidad que tenía en el destino
+    void setStack(int depth) {
+        stack = depth;
+    }
+
+    int stack() {
+        return stack;
+    }
+
+    private void patch(int at, int target) {
+        int offset = target - at;
+        if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+            throw new IllegalStateException("salto fuera de rango: sentencia demasiado grande para un método JVM");
+        }
+        code[at + 1] = (byte) (offset >> 8);
+        code[at + 2] = (byte) offset;
+    }
+
+    private void adjust(int delta) {
+        stack += delta;
+        if (stack > maxStack) maxStack = stack;
+    }
+
+    // Agrega al final el código de otro búfer (sin saltos pendientes hacia fuera)
+    void append(Bytecode other) {
+        ensure(other.size);
+        System.arraycopy(other.code, 0, code, size, other.size);
+        size += other.size;
+        maxStack = Math.max(maxStack, stack + other.maxStack);
+    }
+
+    void u1(int b) {
+        ensure(1);
+        code[size++] = (byte) b;
+    }
+
+    void u2(int v) {
+        ensure(2);
+        code[size++] = (byte) (v >> 8);
+        code[size++] = (byte) v;
+    }
+
+    private void ensure(int n) {
+        if (size + n > code.length) {
+            byte[] grown = new byte[Math.max(code.length * 2, size + n)];
+            System.arraycopy(code, 0, grown, 0, size);
+            code = grown;
+        }
+    }
+
+    byte[] toByteArray() {
+        byte[] result = new byte[size];
+        System.arraycopy(code, 0, result, 0, size);
+        return result;
+    }
+}
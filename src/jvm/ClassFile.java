@@ -0,0 +1,197 @@
+package jvm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/* Escritor mínimo de archivos .class: pool de constantes, campos y métodos
+ * con atributo Code. Usa la versión 49 (Java 5), que se verifica por
+ * inferencia de tipos y no necesita StackMapTable.
+ */
+final class ClassFile {
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int VERSION = 49;
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+    private int poolCount = 1;
+
+    private final ByteArrayOutputStream fieldBytes = new ByteArrayOutputStream();
+    private final DataOutputStream fields = new DataOutputStream(fieldBytes);
+    private int fieldCount;
+    private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+    private final DataOutputStream methods = new DataOutputStream(methodBytes);
+    private int methodCount;
+
+    final String name;
+    private final int thisClass;
+    private final int superClass;
+    private final int codeAttribute;
+
+    ClassFile(String name, String superName) {
+        this.name = name;
+        this.thisClass = classRef(name);
+        this.superClass = classRef(superName);
+        this.codeAttribute = utf8("Code");
+    }
+
+    // POOL DE CONSTANTES
+
+    int utf8(String value) {
+        Integer index = poolIndex.get("U" + value);
+        if (index != null) return index;
+        try {
+            pool.writeByte(1);
+            pool.writeUTF(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return register("U" + value, 1);
+    }
+
+    int classRef(String internalName) {
+        return entry("C" + internalName, 7, utf8(internalName), -1);
+    }
+
+    int string(String value) {
+        return entry("S" + value, 8, utf8(value), -1);
+    }
+
+    int integer(int value) {
+        Integer index = poolIndex.get("I" + value);
+        if (index != null) return index;
+        write(3, value >>> 16, value & 0xFFFF);
+        return register("I" + value, 1);
+    }
+
+    int longConstant(long value) {
+        Integer index = poolIndex.get("J" + value);
+        if (index != null) return index;
+        writeWide(5, value);
+        return register("J" + value, 2);
+    }
+
+    int doubleConstant(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        Integer index = poolIndex.get("D" + bits);
+        if (index != null) return index;
+        writeWide(6, bits);
+        return register("D" + bits, 2);
+    }
+
+    int fieldRef(String owner, String field, String descriptor) {
+        return entry("F" + owner + '.' + field + ':' + descriptor, 9, classRef(owner), nameAndType(field, descriptor));
+    }
+
+    int methodRef(String owner, String method, String descriptor) {
+        return entry("M" + owner + '.' + method + descriptor, 10, classRef(owner), nameAndType(method, descriptor));
+    }
+
+    private int nameAndType(String member, String descriptor) {
+        return entry("N" + member + ':' + descriptor, 12, utf8(member), utf8(descriptor));
+    }
+
+    // Entrada con una o dos referencias de 16 bits (second = -1 si no hay)
+    private int entry(String key, int tag, int first, int second) {
+        Integer index = poolIndex.get(key);
+        if (index != null) return index;
+        write(tag, first, second);
+        return register(key, 1);
+    }
+
+    private void write(int tag, int first, int second) {
+        try {
+            pool.writeByte(tag);
+            pool.writeShort(first);
+            if (second >= 0) pool.writeShort(second);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeWide(int tag, long value) {
+        try {
+            pool.writeByte(tag);
+            pool.writeLong(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int register(String key, int slots) {
+        int index = poolCount;
+        poolCount += slots;
+        if (poolCount > 0xFFFF) throw new IllegalStateException("pool de constantes lleno: programa demasiado grande para una clase");
+        poolIndex.put(key, index);
+        return index;
+    }
+
+    // MIEMBROS
+
+    void addField(int access, String field, String descriptor) {
+        try {
+            fields.writeShort(access);
+            fields.writeShort(utf8(field));
+            fields.writeShort(utf8(descriptor));
+            fields.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fieldCount++;
+    }
+
+    void addMethod(int access, String method, String descriptor, Bytecode code) {
+        byte[] bytes = code.toByteArray();
+        if (bytes.length > 0xFFFF) throw new IllegalStateException("el método " + method + " supera 64 KB de código");
+        try {
+            methods.writeShort(access);
+            methods.writeShort(utf8(method));
+            methods.writeShort(utf8(descriptor));
+            methods.writeShort(1);
+            methods.writeShort(codeAttribute);
+            methods.writeInt(12 + bytes.length);
+            methods.writeShort(code.maxStack());
+            methods.writeShort(code.maxLocals());
+            methods.writeInt(bytes.length);
+            methods.write(bytes);
+            methods.writeShort(0); // tabla de excepciones
+            methods.writeShort(0); // atributos del código
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methodCount++;
+    }
+
+    byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolCount);
+            poolBytes.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(fieldCount);
+            fieldBytes.writeTo(out);
+            out.writeShort(methodCount);
+            methodBytes.writeTo(out);
+            out.writeShort(0); // atributos de la clase
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
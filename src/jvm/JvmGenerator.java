@@ -0,0 +1,478 @@
+package jvm;
+
+import lexer.TokenType;
+import parser.Expr;
+import parser.Statement;
+import symboltable.DataType;
+import symboltable.SymbolTable.SymbolInfo;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static jvm.Bytecode.*;
+
+/* Traduce el AST ya analizado a una clase JVM que HotSpot puede compilar con
+ * el JIT. Las variables globales son campos estáticos; las de bloque son
+ * variables locales. Las sentencias de nivel superior se reparten en métodos
+ * parteN() de hasta ~16 KB de código (el límite de un método es 64 KB), y
+ * cada parte copia a locales los globales que usa al entrar y los devuelve
+ * a sus campos al salir, así los bucles trabajan solo con locales.
+ * if/while se traducen a saltos reales; read/write y la división entera
+ * llaman a JvmRuntime.
+ */
+public class JvmGenerator implements Statement.Visitor<Void>, Expr.Visitor<Void> {
+    private static final String RUNTIME = "jvm/JvmRuntime";
+    private static final int PART_LIMIT = 16 * 1024;
+
+    private final ClassFile cls;
+    private final Set<SymbolInfo> fields = new LinkedHashSet<>();
+    private final List<String> parts = new ArrayList<>();
+
+    // Parte en construcción: su código y la variable local de cada símbolo que usa
+    private Bytecode code;
+    private Map<SymbolInfo, Integer> locals;
+    private List<SymbolInfo> cachedGlobals;
+
+    private JvmGenerator(String className) {
+        this.cls = new ClassFile(className, "java/lang/Object");
+    }
+
+    public static byte[] generate(String className, List<Statement> statements) {
+        JvmGenerator gen = new JvmGenerator(className);
+        for (Statement s : statements) {
+            if (gen.code == null) gen.startPart();
+            s.accept(gen);
+            if (gen.code.size() > PART_LIMIT) gen.finishPart();
+        }
+        if (gen.code != null) gen.finishPart();
+        return gen.finish();
+    }
+
+    // Nombre de clase válido a partir del nombre de un archivo fuente
+    public static String classNameFor(String fileName) {
+        String base = fileName;
+        int slash = Math.max(base.lastIndexOf('/'), base.lastIndexOf('\\'));
+        if (slash >= 0) base = base.substring(slash + 1);
+        int dot = base.lastIndexOf('.');
+        if (dot > 0) base = base.substring(0, dot);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < base.length(); i++) {
+            char c = base.charAt(i);
+            sb.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        if (sb.length() == 0 || !Character.isJavaIdentifierStart(sb.charAt(0))) sb.insert(0, "Programa_");
+        return sb.toString();
+    }
+
+    private void startPart() {
+        code = new Bytecode();
+        locals = new IdentityHashMap<>();
+        cachedGlobals = new ArrayList<>();
+    }
+
+    private void finishPart() {
+        Bytecode method = new Bytecode();
+        for (SymbolInfo global : cachedGlobals) {
+            boolean d = isDouble(global);
+            method.op2(GETSTATIC, field(global), 2);
+            method.local(d ? DSTORE : LSTORE, locals.get(global), -2);
+        }
+        method.append(code);
+        for (SymbolInfo global : cachedGlobals) {
+            boolean d = isDouble(global);
+            method.local(d ? DLOAD : LLOAD, locals.get(global), 2);
+            method.op2(PUTSTATIC, field(global), -2);
+        }
+        method.op(RETURN, 0);
+        method.reserveLocals(code.maxLocals());
+        String name = "parte" + parts.size();
+        cls.addMethod(ClassFile.ACC_PRIVATE | ClassFile.ACC_STATIC, name, "()V", method);
+        parts.add(name);
+        code = null;
+    }
+
+    private byte[] finish() {
+        for (SymbolInfo global : fields) {
+            cls.addField(ClassFile.ACC_PRIVATE | ClassFile.ACC_STATIC, global.name, isDouble(global) ? "D" : "J");
+        }
+
+        Bytecode run = new Bytecode();
+        for (String part : parts) {
+            run.op2(INVOKESTATIC, cls.methodRef(cls.name, part, "()V"), 0);
+        }
+        run.op(RETURN, 0);
+        cls.addMethod(ClassFile.ACC_PUBLIC | ClassFile.ACC_STATIC, "run", "()V", run);
+
+        // main(String[]) para ejecutar el .class escrito a disco: JvmRuntime.main(Clase.class)
+        Bytecode main = new Bytecode();
+        main.reserveLocals(1);
+        ldc(main, cls.classRef(cls.name));
+        main.op2(INVOKESTATIC, cls.methodRef(RUNTIME, "main", "(Ljava/lang/Class;)V"), -1);
+        main.op(RETURN, 0);
+        cls.addMethod(ClassFile.ACC_PUBLIC | ClassFile.ACC_STATIC, "main", "([Ljava/lang/String;)V", main);
+        return cls.toByteArray();
+    }
+
+    // SENTENCIAS
+
+    @Override
+    public Void visitVarDecl(Statement.VarDecl stmt) {
+        SymbolInfo symbol = stmt.symbol;
+        boolean d = isDouble(symbol);
+        if (stmt.initializer != null) {
+            value(stmt.initializer, d);
+        } else if (d) {
+            code.op(DCONST_0, 2);
+        } else {
+            code.op(LCONST_0, 2);
+        }
+        code.local(d ? DSTORE : LSTORE, local(symbol), -2);
+        return null;
+    }
+
+    @Override
+    public Void visitRead(Statement.Read stmt) {
+        boolean d = isDouble(stmt.symbol);
+        ldc(code, cls.string(stmt.name));
+        pushInt(stmt.line);
+        code.op2(INVOKESTATIC, cls.methodRef(RUNTIME, d ? "readDouble" : "readLong",
+                d ? "(Ljava/lang/String;I)D" : "(Ljava/lang/String;I)J"), 0);
+        code.local(d ? DSTORE : LSTORE, local(stmt.symbol), -2);
+        return null;
+    }
+
+    @Override
+    public Void visitWrite(Statement.Write stmt) {
+        Expr value = stmt.value;
+        if (value instanceof Expr.Literal && ((Expr.Literal) value).kind == DataType.STRING) {
+            ldc(code, cls.string(((Expr.Literal) value).string));
+            code.op2(INVOKESTATIC, cls.methodRef(RUNTIME, "writeString", "(Ljava/lang/String;)V"), -1);
+            return null;
+        }
+        value.accept(this);
+        switch (value.type) {
+            case DOUBLE:
+                code.op2(INVOKESTATIC, cls.methodRef(RUNTIME, "writeDouble", "(D)V"), -2);
+                break;
+            case BOOLEAN:
+                code.op2(INVOKESTATIC, cls.methodRef(RUNTIME, "writeBoolean", "(Z)V"), -1);
+                break;
+            default:
+                code.op2(INVOKESTATIC, cls.methodRef(RUNTIME, "writeLong", "(J)V"), -2);
+                break;
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitIf(Statement.If stmt) {
+        Label otherwise = new Label();
+        jumpIf(stmt.condition, false, otherwise);
+        stmt.thenBranch.accept(this);
+        if (stmt.elseBranch == null) {
+            code.mark(otherwise);
+            return null;
+        }
+        Label end = new Label();
+        code.jump(GOTO, end, 0);
+        code.mark(otherwise);
+        stmt.elseBranch.accept(this);
+        code.mark(end);
+        return null;
+    }
+
+    // Igual que en la VM, la condición va al final del cuerpo
+    @Override
+    public Void visitWhile(Statement.While stmt) {
+        Label condition = new Label();
+        Label body = new Label();
+        code.jump(GOTO, condition, 0);
+        code.mark(body);
+        stmt.body.accept(this);
+        code.mark(condition);
+        jumpIf(stmt.condition, true, body);
+        return null;
+    }
+
+    @Override
+    public Void visitBlock(Statement.Block stmt) {
+        for (Statement s : stmt.statements) {
+            s.accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitExpression(Statement.Expression stmt) {
+        if (stmt.expr instanceof Expr.Assign) {
+            assign((Expr.Assign) stmt.expr, false);
+            return null;
+        }
+        stmt.expr.accept(this);
+        if (stmt.expr.type == DataType.BOOLEAN) code.op(POP, -1);
+        else code.op(POP2, -2);
+        return null;
+    }
+
+    // SALTOS
+
+    // Salta a target cuando la condición vale "when"; si no, sigue de largo
+    private void jumpIf(Expr cond, boolean when, Label target) {
+        if (cond instanceof Expr.Unary && ((Expr.Unary) cond).op == TokenType.BANG) {
+            jumpIf(((Expr.Unary) cond).operand, !when, target);
+            return;
+        }
+        if (cond instanceof Expr.Literal) {
+            if (((Expr.Literal) cond).truth() == when) code.jump(GOTO, target, 0);
+            return;
+        }
+        if (cond instanceof Expr.Binary) {
+            Expr.Binary b = (Expr.Binary) cond;
+            switch (b.op) {
+                case AND_AND:
+                case OR_OR: {
+                    boolean shortCircuit = b.op == TokenType.OR_OR;
+                    if (when == shortCircuit) {
+                        jumpIf(b.left, when, target);
+                        jumpIf(b.right, when, target);
+                    } else {
+                        Label skip = new Label();
+                        jumpIf(b.left, shortCircuit, skip);
+                        jumpIf(b.right, when, target);
+                        code.mark(skip);
+                    }
+                    return;
+                }
+                case LT: case LE: case GT: case GE: case EQEQ: case NEQ:
+                    compareJump(b, when, target);
+                    return;
+                default:
+                    break;
+            }
+        }
+        cond.accept(this);
+        int branch = when ? IFNE : IFEQ;
+        switch (cond.type) {
+            case DOUBLE:
+                code.op(DCONST_0, 2);
+                code.op(DCMPL, -3);
+                break;
+            case LONG:
+                code.op(LCONST_0, 2);
+                code.op(LCMP, -3);
+                break;
+            default:
+                break;
+        }
+        code.jump(branch, target, -1);
+    }
+
+    /* Comparación y salto. Con double se elige dcmpg para < y <= y dcmpl
+     * para el resto, de modo que NaN deja la comparación en falso también
+     * cuando se salta por la condición negada.
+     */
+    private void compareJump(Expr.Binary b, boolean when, Label target) {
+        if (b.left.type == DataType.STRING) {
+            boolean equal = ((Expr.Literal) b.left).string.equals(((Expr.Literal) b.right).string);
+            if ((equal == (b.op == TokenType.EQEQ)) == when) code.jump(GOTO, target, 0);
+            return;
+        }
+        if (b.left.type == DataType.BOOLEAN) {
+            b.left.accept(this);
+            b.right.accept(this);
+            boolean jumpIfEqual = (b.op == TokenType.EQEQ) == when;
+            code.jump(jumpIfEqual ? IF_ICMPEQ : IF_ICMPNE, target, -2);
+            return;
+        }
+        boolean d = b.left.type == DataType.DOUBLE || b.right.type == DataType.DOUBLE;
+        value(b.left, d);
+        value(b.right, d);
+        if (d) code.op(b.op == TokenType.LT || b.op == TokenType.LE ? DCMPG : DCMPL, -3);
+        else code.op(LCMP, -3);
+        int branch;
+        switch (b.op) {
+            case LT: branch = when ? IFLT : IFGE; break;
+            case LE: branch = when ? IFLE : IFGT; break;
+            case GT: branch = when ? IFGT : IFLE; break;
+            case GE: branch = when ? IFGE : IFLT; break;
+            case EQEQ: branch = when ? IFEQ : IFNE; break;
+            default: branch = when ? IFNE : IFEQ; break;
+        }
+        code.jump(branch, target, -1);
+    }
+
+    // EXPRESIONES
+
+    // Deja el valor de e en la pila como double si asDouble, convirtiendo un long
+    private void value(Expr e, boolean asDouble) {
+        if (asDouble && e.type != DataType.DOUBLE) {
+            if (e instanceof Expr.Literal) {
+                pushDouble(((Expr.Literal) e).doubleValue());
+                return;
+            }
+            e.accept(this);
+            code.op(L2D, 0);
+            return;
+        }
+        e.accept(this);
+    }
+
+    // Comparaciones y operadores lógicos usados como valor: 1 o 0 (int)
+    private void booleanValue(Expr e) {
+        Label isFalse = new Label();
+        Label end = new Label();
+        jumpIf(e, false, isFalse);
+        int depth = code.stack();
+        code.op(ICONST_1, 1);
+        code.jump(GOTO, end, 0);
+        code.mark(isFalse);
+        code.setStack(depth);
+        code.op(ICONST_0, 1);
+        code.mark(end);
+    }
+
+    @Override
+    public Void visitBinary(Expr.Binary expr) {
+        switch (expr.op) {
+            case PLUS: case MINUS: case STAR: case SLASH: {
+                boolean d = expr.type == DataType.DOUBLE;
+                value(expr.left, d);
+                value(expr.right, d);
+                arithmetic(expr.op, d, expr.line);
+                return null;
+            }
+            default:
+                booleanValue(expr);
+                return null;
+        }
+    }
+
+    private void arithmetic(TokenType op, boolean d, int line) {
+        switch (op) {
+            case PLUS: code.op(d ? DADD : LADD, -2); break;
+            case MINUS: code.op(d ? DSUB : LSUB, -2); break;
+            case STAR: code.op(d ? DMUL : LMUL, -2); break;
+            default:
+                if (d) {
+                    code.op(DDIV, -2);
+                } else {
+                    pushInt(line);
+                    code.op2(INVOKESTATIC, cls.methodRef(RUNTIME, "divide", "(JJI)J"), -3);
+                }
+                break;
+        }
+    }
+
+    @Override
+    public Void visitUnary(Expr.Unary expr) {
+        if (expr.op == TokenType.BANG) {
+            booleanValue(expr);
+            return null;
+        }
+        boolean d = expr.type == DataType.DOUBLE;
+        expr.operand.accept(this);
+        code.op(d ? DNEG : LNEG, 0);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteral(Expr.Literal expr) {
+        if (expr.isDouble()) {
+            pushDouble(expr.doubleValue());
+        } else if (expr.kind == DataType.BOOLEAN) {
+            code.op(expr.bits != 0 ? ICONST_1 : ICONST_0, 1);
+        } else if (expr.kind == DataType.LONG) {
+            pushLong(expr.bits);
+        } else {
+            throw new IllegalStateException("cadena fuera de write(): el análisis semántico debió rechazarla");
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitVariable(Expr.Variable expr) {
+        code.local(isDouble(expr.symbol) ? DLOAD : LLOAD, local(expr.symbol), 2);
+        return null;
+    }
+
+    @Override
+    public Void visitAssign(Expr.Assign expr) {
+        assign(expr, true);
+        return null;
+    }
+
+    // keep: deja el valor asignado en la pila, para cuando la asignación es parte de una expresión
+    private void assign(Expr.Assign expr, boolean keep) {
+        SymbolInfo symbol = expr.symbol;
+        boolean d = isDouble(symbol);
+        int index = local(symbol);
+        if (expr.op == TokenType.ASSIGN) {
+            value(expr.value, d);
+        } else {
+            code.local(d ? DLOAD : LLOAD, index, 2);
+            value(expr.value, d);
+            arithmetic(compoundOperator(expr.op), d, expr.line);
+        }
+        if (keep) code.op(DUP2, 2);
+        code.local(d ? DSTORE : LSTORE, index, -2);
+    }
+
+    private static TokenType compoundOperator(TokenType op) {
+        switch (op) {
+            case PLUS_EQ: return TokenType.PLUS;
+            case MINUS_EQ: return TokenType.MINUS;
+            case STAR_EQ: return TokenType.STAR;
+            default: return TokenType.SLASH;
+        }
+    }
+
+    // VARIABLES Y CONSTANTES
+
+    // Variable local de la parte actual para el símbolo; los globales se copian de su campo al entrar
+    private int local(SymbolInfo symbol) {
+        Integer index = locals.get(symbol);
+        if (index != null) return index;
+        int created = code.newWideLocal();
+        locals.put(symbol, created);
+        if (symbol.scopeId == 0) {
+            cachedGlobals.add(symbol);
+            fields.add(symbol);
+        }
+        return created;
+    }
+
+    private int field(SymbolInfo global) {
+        return cls.fieldRef(cls.name, global.name, isDouble(global) ? "D" : "J");
+    }
+
+    private static boolean isDouble(SymbolInfo symbol) {
+        return DataType.of(symbol.type) == DataType.DOUBLE;
+    }
+
+    private void pushLong(long v) {
+        if (v == 0 || v == 1) code.op(v == 0 ? LCONST_0 : LCONST_1, 2);
+        else code.op2(LDC2_W, cls.longConstant(v), 2);
+    }
+
+    private void pushDouble(double v) {
+        if (Double.doubleToRawLongBits(v) == 0L) code.op(DCONST_0, 2);
+        else if (v == 1.0) code.op(DCONST_1, 2);
+        else code.op2(LDC2_W, cls.doubleConstant(v), 2);
+    }
+
+    private void pushInt(int v) {
+        if (v >= -1 && v <= 5) code.op(ICONST_0 + v, 1);
+        else if (v >= Byte.MIN_VALUE && v <= Byte.MAX_VALUE) code.op1(BIPUSH, v, 1);
+        else if (v >= Short.MIN_VALUE && v <= Short.MAX_VALUE) code.op2(SIPUSH, v, 1);
+        else ldc(code, cls.integer(v));
+    }
+
+    private static void ldc(Bytecode target, int index) {
+        if (index <= 0xFF) target.op1(LDC, index, 1);
+        else target.op2(LDC_W, index, 1);
+    }
+}
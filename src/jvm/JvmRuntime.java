@@ -0,0 +1,94 @@
+package jvm;
+
+import vm.BufferedInput;
+import vm.BufferedOutput;
+import vm.ExecutionError;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.NoSuchElementException;
+
+/* Soporte en tiempo de ejecución para las clases generadas: read(), write()
+ * y la división entera con chequeo de cero. Comparte los búferes de E/S de
+ * la VM. Hay una sola entrada y salida por proceso, así que se ejecuta un
+ * programa a la vez.
+ */
+public final class JvmRuntime {
+    private static BufferedInput in;
+    private static BufferedOutput out;
+
+    private JvmRuntime() {}
+
+    // Ejecuta el método run() de una clase generada
+    public static void run(Class<?> program, InputStream input, OutputStream output) {
+        in = new BufferedInput(input);
+        out = new BufferedOutput(output);
+        try {
+            program.getMethod("run").invoke(null);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            out.flush();
+            in = null;
+            out = null;
+        }
+    }
+
+    // Punto de entrada del main() de una clase escrita a disco
+    public static void main(Class<?> program) {
+        try {
+            run(program, System.in, System.out);
+        } catch (ExecutionError e) {
+            System.err.println("❌ " + e);
+            System.exit(1);
+        }
+    }
+
+    public static long readLong(String name, int line) {
+        try {
+            return in.readLong();
+        } catch (NoSuchElementException | NumberFormatException e) {
+            throw readError(name, line, e);
+        }
+    }
+
+    public static double readDouble(String name, int line) {
+        try {
+            return in.readDouble();
+        } catch (NoSuchElementException | NumberFormatException e) {
+            throw readError(name, line, e);
+        }
+    }
+
+    public static void writeLong(long v) {
+        out.writeLong(v);
+    }
+
+    public static void writeDouble(double v) {
+        out.writeDouble(v);
+    }
+
+    public static void writeBoolean(boolean v) {
+        out.writeBoolean(v);
+    }
+
+    public static void writeString(String s) {
+        out.writeString(s);
+    }
+
+    public static long divide(long a, long b, int line) {
+        if (b == 0) throw new ExecutionError(line, "división entera por cero.");
+        return a / b;
+    }
+
+    private static ExecutionError readError(String name, int line, RuntimeException cause) {
+        String reason = cause instanceof NoSuchElementException ? "fin de la entrada" : "valor inválido";
+        return new ExecutionError(line, "read(" + name + "): " + reason + ".");
+    }
+}
@@ -0,0 +1,12 @@
+package jvm;
+
+// Carga en el mismo proceso las clases generadas por JvmGenerator
+public final class ProgramLoader extends ClassLoader {
+    public ProgramLoader() {
+        super(JvmRuntime.class.getClassLoader());
+    }
+
+    public Class<?> define(String name, byte[] bytes) {
+        return defineClass(name.replace('/', '.'), bytes, 0, bytes.length);
+    }
+}
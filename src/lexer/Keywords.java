@@ -0,0 +1,47 @@
+package lexer;
+
+/* Reconocimiento de palabras reservadas directamente sobre el rango del fuente,
+ * sin crear el String del identificador ni consultar un mapa. Se discrimina
+ * por longitud y primer carácter y luego se compara el resto.
+ */
+final class Keywords {
+    private Keywords() {}
+
+    // Devuelve el tipo de la palabra reservada o null si es un identificador
+    static TokenType match(CharSequence src, int start, int end) {
+        switch (end - start) {
+            case 2:
+                return is(src, start, "if") ? TokenType.IF : null;
+            case 4:
+                switch (src.charAt(start)) {
+                    case 'l': return is(src, start, "long") ? TokenType.LONG : null;
+                    case 't':
+                        if (is(src, start, "then")) return TokenType.THEN;
+                        return is(src, start, "true") ? TokenType.TRUE : null;
+                    case 'e': return is(src, start, "else") ? TokenType.ELSE : null;
+                    case 'r': return is(src, start, "read") ? TokenType.READ : null;
+                    default: return null;
+                }
+            case 5:
+                switch (src.charAt(start)) {
+                    case 'w':
+                        if (is(src, start, "while")) return TokenType.WHILE;
+                        return is(src, start, "write") ? TokenType.WRITE : null;
+                    case 'b': return is(src, start, "break") ? TokenType.BREAK : null;
+                    case 'f': return is(src, start, "false") ? TokenType.FALSE : null;
+                    default: return null;
+                }
+            case 6:
+                return is(src, start, "double") ? TokenType.DOUBLE : null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean is(CharSequence src, int start, String keyword) {
+        for (int i = 0; i < keyword.length(); i++) {
+            if (src.charAt(start + i) != keyword.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -1,50 +1,131 @@
 package lexer;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import error.ErrorCode;
 import error.ErrorHandler;
 
-public class Lexer {
-    private final String source;
+public class Lexer implements TokenSource {
+    private final CharSequence source;
     private final ErrorHandler errors;
-
-    private final List<Token> tokens = new ArrayList<>();
-
+    private final NameTable names;
+
+    // Token reconocido por el último scanToken(); null si solo se consumió espacio o comentario.
+    // Se guarda como campos sueltos para que scanInto() no tenga que crear un Token.
+    private TokenType pendingType;
+    private Object pendingLiteral; // String o Boolean; los números van en pendingValue
+    private long pendingValue;     // long tal cual o bits crudos del double
+    private int pendingName = -1; // id en NameTable si el token es un identificador
+
+    /* Solo se llevan posiciones. Al escanear en un TokenBuffer, línea y
+     * columna salen de su LineIndex cuando hacen falta; en modo pull
+     * (nextToken) se cuentan los saltos de línea desde el token anterior, sin
+     * mirar más allá de lo ya leído.
+     */
     private int start = 0;
     private int current = 0;
-    private int line = 1;
-    private int column = 1;
-    private int startColumn = 1;
-
-    private static final Map<String, TokenType> keywords = new HashMap<>();
-    static {
-        keywords.put("long", TokenType.LONG);
-        keywords.put("double", TokenType.DOUBLE);
-        keywords.put("if", TokenType.IF);
-        keywords.put("then", TokenType.THEN);
-        keywords.put("else", TokenType.ELSE);
-        keywords.put("while", TokenType.WHILE);
-        keywords.put("break", TokenType.BREAK);
-        keywords.put("read", TokenType.READ);
-        keywords.put("write", TokenType.WRITE);
-        keywords.put("true", TokenType.TRUE);
-        keywords.put("false", TokenType.FALSE);
+    private int limit;          // scanNext corta en el primer hueco entre tokens desde aquí
+    private TokenBuffer target; // buffer en el que se escanea: comparte su índice de líneas
+    private int line = 1;       // modo pull: línea de la posición counted
+    private int lineStart = 0;
+    private int counted = 0;
+
+    public Lexer(CharSequence source, ErrorHandler errors) {
+        this(source, errors, new NameTable());
     }
 
-    public Lexer(String source, ErrorHandler errors) {
+    // Permite compartir la tabla de nombres entre varias unidades
+    public Lexer(CharSequence source, ErrorHandler errors, NameTable names) {
         this.source = source != null ? source : "";
         this.errors = errors;
+        this.names = names;
+        this.limit = this.source.length();
+    }
+
+    public NameTable getNames() {
+        return names;
     }
 
+    // Materializa todos los tokens de una vez (útil para volcados); el parser usa nextToken()
     public List<Token> scanTokens() {
-        while (!isAtEnd()) {
+        List<Token> tokens = new ArrayList<>();
+        Token t;
+        do {
+            t = nextToken();
+            tokens.add(t);
+        } while (t.type != TokenType.EOF);
+        return tokens;
+    }
+
+    // Devuelve el siguiente token bajo demanda. Al llegar al final devuelve EOF indefinidamente.
+    @Override
+    public Token nextToken() {
+        TokenType type = scanNext();
+        String text = type == TokenType.IDENTIFIER ? (String) pendingLiteral
+                : type == TokenType.EOF ? "" : text(type);
+        Object literal = type == TokenType.INT_LITERAL ? (Object) pendingValue
+                : type == TokenType.DOUBLE_LITERAL ? (Object) Double.longBitsToDouble(pendingValue)
+                : pendingLiteral;
+        countLinesTo(start);
+        Token t = new Token(type, text, literal, line, start - lineStart + 1);
+        pendingLiteral = null;
+        pendingValue = 0L;
+        return t;
+    }
+
+    // Tokeniza todo el fuente en un TokenBuffer compacto (sin un objeto Token por token)
+    public TokenBuffer scanBuffer() {
+        TokenBuffer buffer = new TokenBuffer(source, names);
+        scanInto(buffer);
+        return buffer;
+    }
+
+    public void scanInto(TokenBuffer buffer) {
+        while (scanOneInto(buffer) != TokenType.EOF) {
+            // sigue hasta el EOF
+        }
+    }
+
+    // Agrega un solo token (posiblemente EOF) al buffer y devuelve su tipo
+    public TokenType scanOneInto(TokenBuffer buffer) {
+        target = buffer;
+        TokenType type = scanNext();
+        long value = type == TokenType.IDENTIFIER ? pendingName : pendingValue;
+        buffer.add(type, start, current, value);
+        pendingLiteral = null;
+        pendingValue = 0L;
+        return type;
+    }
+
+    // Reanuda el análisis en una posición conocida entre tokens (relexado incremental)
+    public void reset(int offset) {
+        this.current = offset;
+    }
+
+    /* Tokeniza un trozo que empieza al principio de una línea y emite el EOF
+     * en el primer hueco entre tokens en limit o después. Un token o
+     * comentario que cruza limit se completa, así que el EOF puede quedar más
+     * allá (ParallelLexer lo usa para empalmar trozos).
+     */
+    void scanRange(TokenBuffer buffer, int offset, int limit) {
+        reset(offset);
+        this.limit = limit;
+        scanInto(buffer);
+    }
+
+    // Avanza hasta el próximo token y deja su rango en start/current
+    private TokenType scanNext() {
+        // al alcanzar el límite de errores se corta con un EOF
+        while (current < limit && !errors.isAborted()) {
             start = current;
-            startColumn = column;
             scanToken();
+            if (pendingType != null) {
+                TokenType type = pendingType;
+                pendingType = null;
+                return type;
+            }
         }
-        tokens.add(new Token(TokenType.EOF, "", null, line, column));
-        return tokens;
+        start = current;
+        return TokenType.EOF;
     }
 
     private boolean isAtEnd() {
@@ -52,21 +133,13 @@ public class Lexer {
     }
 
     private char advance() {
-        char c = source.charAt(current++);
-        if (c == '\n') {
-            line++;
-            column = 1;
-        } else {
-            column++;
-        }
-        return c;
+        return source.charAt(current++);
     }
 
     private boolean match(char expected) {
         if (isAtEnd()) return false;
         if (source.charAt(current) != expected) return false;
         current++;
-        column++;
         return true;
     }
 
@@ -85,8 +158,28 @@ public class Lexer {
     }
 
     private void addToken(TokenType type, Object literal) {
-        String text = source.substring(start, current);
-        tokens.add(new Token(type, text, literal, line, startColumn));
+        pendingType = type;
+        pendingLiteral = literal;
+        pendingValue = 0L;
+    }
+
+    private void addNumber(TokenType type, long bits) {
+        pendingType = type;
+        pendingLiteral = null;
+        pendingValue = bits;
+    }
+
+    // Los tokens de ortografía fija reutilizan la constante; el resto copia el rango del fuente
+    private String text(TokenType type) {
+        String fixed = type.lexeme;
+        if (fixed != null && fixed.length() == current - start && source.charAt(start) == fixed.charAt(0)) {
+            return fixed;
+        }
+        return slice(start, current);
+    }
+
+    private String slice(int from, int to) {
+        return source.subSequence(from, to).toString();
     }
 
     private void scanToken() {
@@ -104,7 +197,7 @@ public class Lexer {
             case ';' : addToken(TokenType.SEMICOLON); break;
 
             case '!':
-                if (match('=')) addToken(TokenType.EQEQ, "!="); // lo normal sería NEQ, pero mantenemos coherencia
+                if (match('=')) addToken(TokenType.NEQ); // "!=" y "<>" son el mismo operador
                 else addToken(TokenType.BANG);
                 break;
 
@@ -126,12 +219,12 @@ public class Lexer {
 
             case '&':
                 if (match('&')) addToken(TokenType.AND_AND);
-                else error("Símbolo '&' inesperado. ¿Quisiste escribir '&&'?");
+                else error(ErrorCode.LONE_AMPERSAND);
                 break;
 
             case '|':
                 if (match('|')) addToken(TokenType.OR_OR);
-                else error("Símbolo '|' inesperado. ¿Quisiste escribir '||'?");
+                else error(ErrorCode.LONE_BAR);
                 break;
 
             case '+':
@@ -172,15 +265,13 @@ public class Lexer {
                 } else if (isAlpha(c) || c == '_') {
                     identifier();
                 } else {
-                    error("Carácter inesperado: '" + c + "'");
+                    error(ErrorCode.UNEXPECTED_CHAR, c);
                 }
                 break;
         }
     }
 
     private void blockComment() {
-        int openLine = line;
-        int openCol = column - 2;
         while (!isAtEnd()) {
             if (peek() == '*' && peekNext() == '/') {
                 advance();
@@ -189,25 +280,23 @@ public class Lexer {
             }
             advance();
         }
-        errors.addLexError(openLine, openCol, "comentario multilínea sin cierre.");
+        error(ErrorCode.UNTERMINATED_COMMENT);
     }
 
     private void string() {
         StringBuilder sb = new StringBuilder();
-        int strLine = line;
-        int strCol = startColumn;
 
         while (!isAtEnd() && peek() != '"') {
             char c = advance();
             if (c == '\n') {
-                errors.addLexError(strLine, strCol, "cadena sin cierre en la misma línea.");
+                error(ErrorCode.UNTERMINATED_STRING_LINE);
                 return;
             }
             sb.append(c);
         }
 
         if (isAtEnd()) {
-            errors.addLexError(strLine, strCol, "cadena sin cierre.");
+            error(ErrorCode.UNTERMINATED_STRING);
             return;
         }
 
@@ -215,40 +304,34 @@ public class Lexer {
         addToken(TokenType.STRING_LITERAL, sb.toString());
     }
 
+    // El valor se acumula mientras se leen los dígitos (ver NumberLiterals)
     private void number(char first) {
-        while (isDigit(peek())) advance();
+        long value = first - '0';
+        while (isDigit(peek())) value = NumberLiterals.digit(value, advance() - '0');
 
-        boolean isDouble = false;
         if (peek() == '.' && isDigit(peekNext())) {
-            isDouble = true;
             advance();
-            while (isDigit(peek())) advance();
-        }
-
-        String text = source.substring(start, current);
-        if (isDouble) {
-            try {
-                double value = Double.parseDouble(text);
-                addToken(TokenType.DOUBLE_LITERAL, value);
-            } catch (NumberFormatException e) {
-                error("real inválido: " + text);
+            int scale = 0;
+            while (isDigit(peek())) {
+                value = NumberLiterals.digit(value, advance() - '0');
+                scale++;
             }
+            double real = NumberLiterals.real(value, scale, source, start, current);
+            if (Double.isInfinite(real)) error(ErrorCode.INVALID_DOUBLE, slice(start, current));
+            else addNumber(TokenType.DOUBLE_LITERAL, Double.doubleToRawLongBits(real));
+        } else if (value == NumberLiterals.OVERFLOW) {
+            error(ErrorCode.INVALID_INT, slice(start, current));
         } else {
-            try {
-                int value = Integer.parseInt(text);
-                addToken(TokenType.INT_LITERAL, value);
-            } catch (NumberFormatException e) {
-                error("entero inválido: " + text);
-            }
+            addNumber(TokenType.INT_LITERAL, value);
         }
     }
 
     private void identifier() {
         while (isAlphaNumeric(peek()) || peek() == '_') advance();
-        String text = source.substring(start, current);
-        TokenType type = keywords.get(text);
+        TokenType type = Keywords.match(source, start, current);
         if (type == null) {
-            addToken(TokenType.IDENTIFIER, text);
+            pendingName = names.intern(source, start, current);
+            addToken(TokenType.IDENTIFIER, names.name(pendingName));
         } else {
             if (type == TokenType.TRUE) addToken(TokenType.TRUE, true);
             else if (type == TokenType.FALSE) addToken(TokenType.FALSE, false);
@@ -256,8 +339,32 @@ public class Lexer {
         }
     }
 
-    private void error(String message) {
-        errors.addLexError(line, startColumn, message);
+    // Todos los errores léxicos se ubican en el comienzo del token o comentario
+    private void error(ErrorCode code, Object... args) {
+        if (target != null) {
+            LineIndex index = target.lines();
+            int at = index.line(start);
+            errors.report(code, at, start - index.lineStart(at) + 1, args);
+        } else {
+            countLinesTo(start);
+            errors.report(code, line, start - lineStart + 1, args);
+        }
+    }
+
+    // Lleva line/lineStart hasta offset; tras un reset() hacia atrás recuenta desde el principio
+    private void countLinesTo(int offset) {
+        if (offset < counted) {
+            line = 1;
+            lineStart = 0;
+            counted = 0;
+        }
+        for (int i = counted; i < offset; i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+                lineStart = i + 1;
+            }
+        }
+        counted = offset;
     }
 
     private boolean isDigit(char c) { return c >= '0' && c <= '9'; }
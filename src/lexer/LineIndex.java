@@ -0,0 +1,79 @@
+package lexer;
+
+import java.util.Arrays;
+
+/* Índice de comienzos de línea de un fuente: starts[k] es la posición del
+ * primer carácter de la línea k + 1. Los tokens y el lexer guardan solo
+ * posiciones; línea y columna se calculan acá cuando alguien las muestra
+ * (volcados, diagnósticos, el AST), con búsqueda binaria.
+ *
+ * Se arma con una sola pasada buscando '\n'; sobre un String se usa indexOf,
+ * que la JVM resuelve con instrucciones vectoriales. Es inmutable (el
+ * documento incremental lleva sus propios comienzos, ver GapLines).
+ */
+public final class LineIndex {
+    private final int[] starts;
+    private final int count;
+
+    private LineIndex(int[] starts, int count) {
+        this.starts = starts;
+        this.count = count;
+    }
+
+    public static LineIndex of(CharSequence text) {
+        int length = text.length();
+        int[] starts = new int[Math.max(16, length >>> 5)];
+        int count = 1; // starts[0] = 0
+        if (text instanceof String) {
+            String s = (String) text;
+            for (int nl = s.indexOf('\n'); nl >= 0; nl = s.indexOf('\n', nl + 1)) {
+                if (count == starts.length) starts = Arrays.copyOf(starts, count * 2);
+                starts[count++] = nl + 1;
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                if (text.charAt(i) == '\n') {
+                    if (count == starts.length) starts = Arrays.copyOf(starts, count * 2);
+                    starts[count++] = i + 1;
+                }
+            }
+        }
+        return new LineIndex(starts, count);
+    }
+
+    public int lineCount() {
+        return count;
+    }
+
+    // Posición donde empieza la línea (desde 1)
+    public int lineStart(int line) {
+        return starts[line - 1];
+    }
+
+    // Línea (desde 1) que contiene offset
+    public int line(int offset) {
+        int lo = 0, hi = count - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (starts[mid] <= offset) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo + 1;
+    }
+
+    /* Igual que line(offset), pero prueba primero hint y la línea siguiente:
+     * quien recorre tokens en orden casi nunca llega a la búsqueda binaria.
+     */
+    public int line(int offset, int hint) {
+        if (hint >= 1 && hint <= count && starts[hint - 1] <= offset) {
+            if (hint == count || offset < starts[hint]) return hint;
+            if (hint + 1 == count || offset < starts[hint + 1]) return hint + 1;
+        }
+        return line(offset);
+    }
+
+    // Columna (desde 1) de offset, contando cada char como una columna
+    public int column(int offset) {
+        return offset - starts[line(offset) - 1] + 1;
+    }
+}
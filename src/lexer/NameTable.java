@@ -0,0 +1,96 @@
+package lexer;
+
+import java.util.Arrays;
+
+/* Tabla de internado de identificadores. Cada nombre distinto recibe un id
+ * entero estable y un único String compartido por todos sus usos, así las
+ * fases siguientes pueden comparar ids en lugar de volver a hashear texto.
+ * El hash se calcula sobre el rango del fuente, sin crear substrings.
+ */
+public final class NameTable {
+    private int[] slots;       // id + 1 en cada casilla; 0 = libre
+    private String[] names;
+    private int[] hashes;
+    private int size = 0;
+
+    public NameTable() {
+        slots = new int[64];
+        names = new String[32];
+        hashes = new int[32];
+    }
+
+    public int intern(CharSequence src, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) h = 31 * h + src.charAt(i);
+
+        int mask = slots.length - 1;
+        int slot = mix(h) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == h && sameText(names[id], src, start, end)) return id;
+            slot = (slot + 1) & mask;
+        }
+        return insert(slot, h, src.subSequence(start, end).toString());
+    }
+
+    public int intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    // Id de un nombre ya internado, o -1
+    public int find(String name) {
+        int h = name.hashCode();
+        int mask = slots.length - 1;
+        int slot = mix(h) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == h && names[id].equals(name)) return id;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int insert(int slot, int hash, String name) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        names[id] = name;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) rehash();
+        return id;
+    }
+
+    private void rehash() {
+        int[] bigger = new int[slots.length * 2];
+        int mask = bigger.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (bigger[slot] != 0) slot = (slot + 1) & mask;
+            bigger[slot] = id + 1;
+        }
+        slots = bigger;
+    }
+
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean sameText(String name, CharSequence src, int start, int end) {
+        if (name.length() != end - start) return false;
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != src.charAt(start + i)) return false;
+        }
+        return true;
+    }
+}
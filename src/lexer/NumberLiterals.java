@@ -0,0 +1,58 @@
+package lexer;
+
+/* Conversión de literales numéricos sin pasar por un String.
+ * - Enteros: se acumulan dígito a dígito en un long con detección de
+ *   desbordamiento; el rango es el de long (el tipo entero del lenguaje).
+ *   Un literal no tiene signo ("-5" es el operador unario), así que
+ *   9223372036854775808 no entra aunque su negativo sí.
+ * - Reales: si todos los dígitos forman una mantisa de hasta 2^53 y hay a lo
+ *   sumo 22 decimales, mantisa / 10^decimales es exacto en ambos operandos y
+ *   la división de IEEE da el double correctamente redondeado, el mismo que
+ *   Double.parseDouble. Fuera de ese caso (más de 15 o 16 dígitos) se recurre
+ *   a parseDouble sobre el rango del fuente. Un real con más de 308 dígitos
+ *   enteros da infinito: los léxicos lo informan como INVALID_DOUBLE.
+ * Los valores viajan como bits primitivos en el TokenBuffer (el long tal cual,
+ * el double con doubleToRawLongBits).
+ */
+final class NumberLiterals {
+    static final long OVERFLOW = -1; // un literal nunca es negativo
+    static final long MAX_EXACT = 1L << 53;
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private NumberLiterals() {}
+
+    // Agrega un dígito a un entero acumulado; OVERFLOW si ya no entra en un long
+    static long digit(long value, int digit) {
+        if (value == OVERFLOW || value > (Long.MAX_VALUE - digit) / 10) return OVERFLOW;
+        return value * 10 + digit;
+    }
+
+    // Entero de los dígitos en [start, end), u OVERFLOW
+    static long integer(CharSequence src, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) value = digit(value, src.charAt(i) - '0');
+        return value;
+    }
+
+    /* Real con mantissa = todos los dígitos sin el punto y scale decimales;
+     * mantissa es OVERFLOW si no entró en un long. [start, end) es el texto,
+     * para el caso lento.
+     */
+    static double real(long mantissa, int scale, CharSequence src, int start, int end) {
+        if (mantissa != OVERFLOW && mantissa <= MAX_EXACT && scale < POW10.length) {
+            return mantissa / POW10[scale];
+        }
+        return Double.parseDouble(src.subSequence(start, end).toString());
+    }
+
+    // Real de los dígitos en [start, end) con un punto en dot
+    static double real(CharSequence src, int start, int dot, int end) {
+        long mantissa = integer(src, start, dot);
+        for (int i = dot + 1; i < end; i++) mantissa = digit(mantissa, src.charAt(i) - '0');
+        return real(mantissa, end - dot - 1, src, start, end);
+    }
+}
@@ -0,0 +1,230 @@
+package lexer;
+
+import error.Diagnostic;
+import error.ErrorHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/* Tokenizado en paralelo de un único fuente grande. El resultado (tokens,
+ * ids de la tabla de nombres y diagnósticos) es idéntico al de Lexer.scanBuffer().
+ *
+ * 1. Se eligen cortes al principio de una línea: ahí nunca se está dentro de
+ *    un string (no cruzan líneas) ni de un comentario //. Solo un comentario
+ *    de bloque puede cruzar el corte; un pre-escaneo barato evita las líneas
+ *    que parecen interiores de uno, pero es solo una apuesta.
+ * 2. Cada trozo se tokeniza en el pool fork-join con su propio Lexer, tabla
+ *    de nombres y ErrorHandler.
+ * 3. Se empalman en orden. El lexer de un trozo termina en el primer hueco
+ *    entre tokens en el corte siguiente o después; si termina justo en el
+ *    corte, el trozo siguiente vale entero. Si se pasó (un comentario que
+ *    cruzaba el corte), el siguiente se retoma en el token que empieza donde
+ *    terminó el anterior; si no hay ninguno, la apuesta falló y se tokeniza
+ *    secuencialmente desde ahí hasta volver a coincidir con un token del trozo.
+ *
+ * Entre tokens el lexer no tiene estado aparte de la posición, así que dos
+ * lexers que empiezan un token en la misma posición producen lo mismo desde
+ * ahí. Los tokens solo guardan posiciones, así que no hay líneas que corregir.
+ *
+ * Si en el tramo usado de algún trozo hubo errores léxicos se repite todo
+ * con el Lexer secuencial: los diagnósticos, el límite de errores y la
+ * supresión de duplicados quedan exactamente como antes (es el caso raro).
+ */
+public final class ParallelLexer {
+    // Por debajo de esto un trozo no compensa la tarea y el empalme
+    public static final int MIN_CHUNK = 256 * 1024;
+    private static final int PRESCAN_LINES = 64;
+
+    private final int parallelism;
+    private final int minChunk;
+
+    public ParallelLexer(int parallelism) {
+        this(parallelism, MIN_CHUNK);
+    }
+
+    /* Con un trozo mínimo menor que MIN_CHUNK no se gana nada; sirve para
+     * que LexerEquivalence ejercite cortes y empalmes en fuentes chicas.
+     */
+    public ParallelLexer(int parallelism, int minChunk) {
+        this.parallelism = Math.max(1, parallelism);
+        this.minChunk = Math.max(1, minChunk);
+    }
+
+    public TokenBuffer scan(CharSequence source, ErrorHandler errors, NameTable names) {
+        int chunks = Math.min(parallelism, source.length() / minChunk);
+        if (chunks < 2 || errors.isAborted()) {
+            return new Lexer(source, errors, names).scanBuffer();
+        }
+
+        int[] splits = splits(source, chunks);
+        List<Chunk> tasks = new ArrayList<>();
+        for (int i = 0; i + 1 < splits.length; i++) {
+            if (splits[i] < splits[i + 1]) tasks.add(new Chunk(source, splits[i], splits[i + 1]));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        TokenBuffer out = stitch(source, names, tasks);
+        if (out == null) {
+            return new Lexer(source, errors, names).scanBuffer();
+        }
+        return out;
+    }
+
+    // Cortes en [0, length]: el primero es 0, el último length, los demás tras un '\n'
+    static int[] splits(CharSequence source, int chunks) {
+        int length = source.length();
+        int[] splits = new int[chunks + 1];
+        splits[chunks] = length;
+        for (int i = 1; i < chunks; i++) {
+            int target = Math.max((int) ((long) length * i / chunks), splits[i - 1]);
+            splits[i] = lineStartNear(source, target);
+        }
+        return splits;
+    }
+
+    /* Primer comienzo de línea desde target que no parezca interior de un
+     * comentario de bloque: se saltean las líneas que cierran un "*" + "/" sin
+     * abrirlo, o que siguen a una que abre uno sin cerrarlo.
+     */
+    private static int lineStartNear(CharSequence source, int target) {
+        int length = source.length();
+        int pos = nextLineStart(source, target);
+        int first = pos;
+        for (int tries = 0; tries < PRESCAN_LINES && pos < length; tries++) {
+            int next = nextLineStart(source, pos + 1);
+            if (!closesComment(source, pos, next) && !opensComment(source, previousLineStart(source, pos), pos)) {
+                return pos;
+            }
+            pos = next;
+        }
+        return first;
+    }
+
+    // Primer comienzo de línea en from o después (length si no hay más)
+    private static int nextLineStart(CharSequence source, int from) {
+        int length = source.length();
+        int i = Math.max(from, 1);
+        while (i < length && source.charAt(i - 1) != '\n') i++;
+        return i;
+    }
+
+    private static int previousLineStart(CharSequence source, int lineStart) {
+        int i = lineStart - 1;
+        while (i > 0 && source.charAt(i - 1) != '\n') i--;
+        return Math.max(i, 0);
+    }
+
+    // La línea [from, to) cierra un comentario que no abrió
+    private static boolean closesComment(CharSequence source, int from, int to) {
+        for (int i = from; i + 1 < to; i++) {
+            char c = source.charAt(i);
+            if (c == '/' && source.charAt(i + 1) == '*') return false;
+            if (c == '*' && source.charAt(i + 1) == '/') return true;
+        }
+        return false;
+    }
+
+    // La línea [from, to) abre un comentario que no cierra
+    private static boolean opensComment(CharSequence source, int from, int to) {
+        boolean open = false;
+        for (int i = from; i + 1 < to; i++) {
+            char c = source.charAt(i);
+            char d = source.charAt(i + 1);
+            if (!open && c == '/' && d == '/') return false;
+            if (!open && c == '/' && d == '*') { open = true; i++; }
+            else if (open && c == '*' && d == '/') { open = false; i++; }
+        }
+        return open;
+    }
+
+    /* Empalma los trozos en un buffer sobre la tabla de nombres global. Devuelve
+     * null si el tramo usado tuvo errores y hay que repetir secuencialmente.
+     */
+    private static TokenBuffer stitch(CharSequence source, NameTable names, List<Chunk> chunks) {
+        int total = 1;
+        for (Chunk c : chunks) total += c.tokens.size() - 1;
+        TokenBuffer out = new TokenBuffer(source, names, total);
+
+        int pos = 0; // donde empieza el próximo token a emitir
+        ErrorHandler fixErrors = new ErrorHandler(ErrorHandler.UNLIMITED);
+        for (Chunk chunk : chunks) {
+            TokenBuffer t = chunk.tokens;
+            int eof = t.size() - 1;
+            int from;
+            if (pos == chunk.from) {
+                from = 0;
+            } else {
+                from = t.indexAtOrAfter(pos);
+                // sin token del trozo en pos: la apuesta falló, se re-tokeniza hasta volver a coincidir
+                if (from == eof || t.start(from) != pos) {
+                    Lexer fix = new Lexer(source, fixErrors, names);
+                    fix.reset(pos);
+                    while (true) {
+                        int mark = out.size();
+                        TokenType type = fix.scanOneInto(out);
+                        int s = out.start(mark);
+                        from = t.indexAtOrAfter(s);
+                        boolean resync = from < eof && t.start(from) == s;
+                        if (resync || s >= t.start(eof) || type == TokenType.EOF) {
+                            out.truncate(mark);
+                            pos = s;
+                            break;
+                        }
+                    }
+                    if (fixErrors.hasErrors()) return null;
+                    // el tramo re-tokenizado cubrió el trozo entero
+                    if (from == eof || t.start(from) != pos) continue;
+                }
+            }
+            // desde pos y no desde el primer token: antes de él puede haber solo errores
+            if (chunk.errorsFrom(pos)) return null;
+            out.appendFrom(t, from, eof, chunk.nameMap());
+            pos = t.start(eof);
+        }
+        out.add(TokenType.EOF, pos, pos, 0L);
+        return out;
+    }
+
+    private static final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final CharSequence source;
+        final int from;
+        final int limit;
+        final NameTable names = new NameTable();
+        final ErrorHandler errors = new ErrorHandler(ErrorHandler.UNLIMITED);
+        TokenBuffer tokens;
+
+        Chunk(CharSequence source, int from, int limit) {
+            this.source = source;
+            this.from = from;
+            this.limit = limit;
+        }
+
+        @Override
+        protected void compute() {
+            // estimación de ~5 caracteres por token para no crecer varias veces
+            tokens = new TokenBuffer(source, names, (limit - from) / 5);
+            new Lexer(source, errors, names).scanRange(tokens, from, limit);
+        }
+
+        // ¿Hubo errores en la línea de offset o después? (solo arma el índice si los hubo)
+        boolean errorsFrom(int offset) {
+            if (!errors.hasErrors()) return false;
+            int firstLine = tokens.lines().line(offset);
+            for (Diagnostic d : errors.getDiagnostics()) {
+                if (d.line >= firstLine) return true;
+            }
+            return false;
+        }
+
+        int[] nameMap() {
+            int[] map = new int[names.size()];
+            Arrays.fill(map, -1);
+            return map;
+        }
+    }
+}
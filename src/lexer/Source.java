@@ -0,0 +1,78 @@
+package lexer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/* Carga del código fuente para el Lexer sin pasar por un String intermedio.
+ * El archivo se mapea en memoria; si es ASCII puro (el caso normal del lenguaje)
+ * el lexer lee directamente los bytes mapeados. Si trae UTF-8 multibyte se
+ * decodifica una sola vez a un CharBuffer.
+ */
+public final class Source {
+    private Source() {}
+
+    public static CharSequence open(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("archivo demasiado grande: " + path);
+            }
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return of(buf);
+        }
+    }
+
+    public static CharSequence of(ByteBuffer bytes) throws IOException {
+        if (isAscii(bytes)) {
+            return new AsciiText(bytes, bytes.position(), bytes.remaining());
+        }
+        return StandardCharsets.UTF_8.newDecoder().decode(bytes.duplicate());
+    }
+
+    private static boolean isAscii(ByteBuffer bytes) {
+        for (int i = bytes.position(), end = bytes.limit(); i < end; i++) {
+            if (bytes.get(i) < 0) return false;
+        }
+        return true;
+    }
+
+    // Vista de solo lectura sobre bytes ASCII: un byte es un char
+    static final class AsciiText implements CharSequence {
+        private final ByteBuffer bytes;
+        private final int offset;
+        private final int length;
+
+        AsciiText(ByteBuffer bytes, int offset, int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) bytes.get(offset + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiText(bytes, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            byte[] b = new byte[length];
+            bytes.get(offset, b);
+            return new String(b, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package lexer;
+
+import error.ErrorCode;
+import error.ErrorHandler;
+
+/* Variante del Lexer guiada por tablas: produce exactamente los mismos tokens
+ * y diagnósticos que Lexer.scanBuffer(), pero en lugar del switch por carácter
+ * y de las comparaciones de rango usa
+ *  - CLASS: 128 entradas que llevan cada carácter ASCII a su clase (letra,
+ *    dígito, '/', '*', salto de línea...); lo no ASCII es C_OTHER.
+ *  - NEXT: la función de transición de un AFD que reconoce operadores,
+ *    números, identificadores, strings y comentarios, indexada por
+ *    (estado << 5) | clase.
+ *  - ACTION: qué hacer al aceptar en cada estado (token fijo, identificador,
+ *    número, saltear, error).
+ * Se aplica la regla del prefijo más largo: se recuerda el último estado de
+ * aceptación y al morir el autómata se retrocede hasta él ("12." seguido de
+ * algo que no es un dígito deja el entero 12, igual que el Lexer).
+ *
+ * Como en el Lexer, no se llevan línea ni columna: los tokens guardan solo
+ * posiciones y los errores se ubican con el LineIndex del buffer.
+ *
+ * Las tablas se generan en el inicializador estático a partir de la lista de
+ * transiciones de abajo.
+ */
+public final class TableLexer {
+    // Clases de carácter
+    private static final int C_OTHER = 0, C_WS = 1, C_NL = 2, C_LETTER = 3, C_DIGIT = 4, C_DOT = 5,
+            C_SLASH = 6, C_STAR = 7, C_EQ = 8, C_BANG = 9, C_LT = 10, C_GT = 11, C_AMP = 12, C_BAR = 13,
+            C_PLUS = 14, C_MINUS = 15, C_LPAREN = 16, C_RPAREN = 17, C_LBRACE = 18, C_RBRACE = 19,
+            C_SEMI = 20, C_QUOTE = 21;
+    private static final int CLASSES = 22;
+    private static final int SHIFT = 5; // 1 << SHIFT >= CLASSES
+
+    // Estados; DEAD (0) es la ausencia de transición
+    private static final int DEAD = 0, START = 1, IDENT = 2, INT = 3, INT_DOT = 4, DOUBLE = 5,
+            SLASH = 6, LINE_COMMENT = 7, BLOCK = 8, BLOCK_STAR = 9, BLOCK_END = 10,
+            STRING = 11, STRING_END = 12, STRING_NL = 13, BAD = 14,
+            LPAREN = 15, RPAREN = 16, LBRACE = 17, RBRACE = 18, SEMI = 19,
+            BANG = 20, NEQ = 21, ASSIGN = 22, EQEQ = 23, LT = 24, LE = 25, GT = 26, GE = 27,
+            AMP = 28, AND_AND = 29, BAR = 30, OR_OR = 31, PLUS = 32, PLUS_EQ = 33,
+            MINUS = 34, MINUS_EQ = 35, STAR = 36, STAR_EQ = 37, SLASH_EQ = 38;
+    private static final int STATES = 39;
+
+    // Acciones al aceptar
+    private static final byte A_NONE = 0, A_FIXED = 1, A_IDENT = 2, A_INT = 3, A_DOUBLE = 4, A_STRING = 5,
+            A_SKIP = 6, A_LONE_AMP = 7, A_LONE_BAR = 8, A_BAD_CHAR = 9, A_STRING_LINE = 10,
+            A_OPEN_COMMENT = 11, A_OPEN_STRING = 12;
+
+    private static final byte[] CLASS = new byte[128];
+    private static final byte[] NEXT = new byte[STATES << SHIFT];
+    private static final byte[] ACTION = new byte[STATES];
+    private static final byte[] AT_END = new byte[STATES]; // acción si el fuente se termina en ese estado
+    private static final TokenType[] FIXED = new TokenType[STATES];
+
+    static {
+        CLASS[' '] = CLASS['\t'] = CLASS['\r'] = C_WS;
+        CLASS['\n'] = C_NL;
+        for (char c = 'a'; c <= 'z'; c++) CLASS[c] = C_LETTER;
+        for (char c = 'A'; c <= 'Z'; c++) CLASS[c] = C_LETTER;
+        CLASS['_'] = C_LETTER;
+        for (char c = '0'; c <= '9'; c++) CLASS[c] = C_DIGIT;
+        CLASS['.'] = C_DOT;
+        CLASS['/'] = C_SLASH;
+        CLASS['*'] = C_STAR;
+        CLASS['='] = C_EQ;
+        CLASS['!'] = C_BANG;
+        CLASS['<'] = C_LT;
+        CLASS['>'] = C_GT;
+        CLASS['&'] = C_AMP;
+        CLASS['|'] = C_BAR;
+        CLASS['+'] = C_PLUS;
+        CLASS['-'] = C_MINUS;
+        CLASS['('] = C_LPAREN;
+        CLASS[')'] = C_RPAREN;
+        CLASS['{'] = C_LBRACE;
+        CLASS['}'] = C_RBRACE;
+        CLASS[';'] = C_SEMI;
+        CLASS['"'] = C_QUOTE;
+
+        // Identificadores y números
+        edge(START, C_LETTER, IDENT);
+        edge(IDENT, C_LETTER, IDENT);
+        edge(IDENT, C_DIGIT, IDENT);
+        edge(START, C_DIGIT, INT);
+        edge(INT, C_DIGIT, INT);
+        edge(INT, C_DOT, INT_DOT);
+        edge(INT_DOT, C_DIGIT, DOUBLE);
+        edge(DOUBLE, C_DIGIT, DOUBLE);
+
+        // "/", "/=", comentarios de línea y de bloque
+        edge(START, C_SLASH, SLASH);
+        edge(SLASH, C_EQ, SLASH_EQ);
+        edge(SLASH, C_SLASH, LINE_COMMENT);
+        edge(SLASH, C_STAR, BLOCK);
+        for (int c = 0; c < CLASSES; c++) {
+            if (c != C_NL) edge(LINE_COMMENT, c, LINE_COMMENT);
+            edge(BLOCK, c, c == C_STAR ? BLOCK_STAR : BLOCK);
+            edge(BLOCK_STAR, c, c == C_SLASH ? BLOCK_END : c == C_STAR ? BLOCK_STAR : BLOCK);
+            // un string corta en la comilla o, con error, en el salto de línea
+            edge(STRING, c, c == C_QUOTE ? STRING_END : c == C_NL ? STRING_NL : STRING);
+        }
+        edge(START, C_QUOTE, STRING);
+
+        // Operadores de uno y dos caracteres
+        edge(START, C_LPAREN, LPAREN);
+        edge(START, C_RPAREN, RPAREN);
+        edge(START, C_LBRACE, LBRACE);
+        edge(START, C_RBRACE, RBRACE);
+        edge(START, C_SEMI, SEMI);
+        edge(START, C_BANG, BANG);
+        edge(BANG, C_EQ, NEQ);
+        edge(START, C_EQ, ASSIGN);
+        edge(ASSIGN, C_EQ, EQEQ);
+        edge(START, C_LT, LT);
+        edge(LT, C_EQ, LE);
+        edge(LT, C_GT, NEQ);
+        edge(START, C_GT, GT);
+        edge(GT, C_EQ, GE);
+        edge(START, C_AMP, AMP);
+        edge(AMP, C_AMP, AND_AND);
+        edge(START, C_BAR, BAR);
+        edge(BAR, C_BAR, OR_OR);
+        edge(START, C_PLUS, PLUS);
+        edge(PLUS, C_EQ, PLUS_EQ);
+        edge(START, C_MINUS, MINUS);
+        edge(MINUS, C_EQ, MINUS_EQ);
+        edge(START, C_STAR, STAR);
+        edge(STAR, C_EQ, STAR_EQ);
+        edge(START, C_OTHER, BAD);
+        edge(START, C_DOT, BAD);
+
+        ACTION[IDENT] = A_IDENT;
+        ACTION[INT] = A_INT;
+        ACTION[DOUBLE] = A_DOUBLE;
+        ACTION[STRING_END] = A_STRING;
+        ACTION[STRING_NL] = A_STRING_LINE;
+        ACTION[LINE_COMMENT] = A_SKIP;
+        ACTION[BLOCK_END] = A_SKIP;
+        ACTION[AMP] = A_LONE_AMP;
+        ACTION[BAR] = A_LONE_BAR;
+        ACTION[BAD] = A_BAD_CHAR;
+        AT_END[BLOCK] = AT_END[BLOCK_STAR] = A_OPEN_COMMENT;
+        AT_END[STRING] = A_OPEN_STRING;
+
+        fixed(SLASH, TokenType.SLASH);
+        fixed(SLASH_EQ, TokenType.SLASH_EQ);
+        fixed(LPAREN, TokenType.LPAREN);
+        fixed(RPAREN, TokenType.RPAREN);
+        fixed(LBRACE, TokenType.LBRACE);
+        fixed(RBRACE, TokenType.RBRACE);
+        fixed(SEMI, TokenType.SEMICOLON);
+        fixed(BANG, TokenType.BANG);
+        fixed(NEQ, TokenType.NEQ);
+        fixed(ASSIGN, TokenType.ASSIGN);
+        fixed(EQEQ, TokenType.EQEQ);
+        fixed(LT, TokenType.LT);
+        fixed(LE, TokenType.LE);
+        fixed(GT, TokenType.GT);
+        fixed(GE, TokenType.GE);
+        fixed(AND_AND, TokenType.AND_AND);
+        fixed(OR_OR, TokenType.OR_OR);
+        fixed(PLUS, TokenType.PLUS);
+        fixed(PLUS_EQ, TokenType.PLUS_EQ);
+        fixed(MINUS, TokenType.MINUS);
+        fixed(MINUS_EQ, TokenType.MINUS_EQ);
+        fixed(STAR, TokenType.STAR);
+        fixed(STAR_EQ, TokenType.STAR_EQ);
+    }
+
+    private static void edge(int from, int cls, int to) {
+        NEXT[(from << SHIFT) | cls] = (byte) to;
+    }
+
+    private static void fixed(int state, TokenType type) {
+        ACTION[state] = A_FIXED;
+        FIXED[state] = type;
+    }
+
+    private final CharSequence source;
+    private final ErrorHandler errors;
+    private final NameTable names;
+    private final int length;
+
+    private int pos = 0;
+    private TokenBuffer target;
+
+    public TableLexer(CharSequence source, ErrorHandler errors) {
+        this(source, errors, new NameTable());
+    }
+
+    public TableLexer(CharSequence source, ErrorHandler errors, NameTable names) {
+        this.source = source != null ? source : "";
+        this.errors = errors;
+        this.names = names;
+        this.length = this.source.length();
+    }
+
+    public NameTable getNames() {
+        return names;
+    }
+
+    public TokenBuffer scanBuffer() {
+        TokenBuffer buffer = new TokenBuffer(source, names);
+        scanInto(buffer);
+        return buffer;
+    }
+
+    public void scanInto(TokenBuffer buffer) {
+        target = buffer;
+        CharSequence src = source;
+        // al alcanzar el límite de errores se corta con un EOF, como en el Lexer
+        while (pos < length && !errors.isAborted()) {
+            char c = src.charAt(pos);
+            int cls = c < 128 ? CLASS[c] : C_OTHER;
+            if (cls == C_WS || cls == C_NL) {
+                pos++;
+                continue;
+            }
+
+            int start = pos;
+            int state = START;
+            int accept = DEAD;
+            int acceptPos = start;
+            int p = start;
+            while (true) {
+                int next = NEXT[(state << SHIFT) | cls];
+                if (next == DEAD) break;
+                state = next;
+                p++;
+                if (ACTION[state] != A_NONE) {
+                    accept = state;
+                    acceptPos = p;
+                }
+                if (p >= length) break;
+                char ch = src.charAt(p);
+                cls = ch < 128 ? CLASS[ch] : C_OTHER;
+            }
+
+            int action;
+            if (p >= length && AT_END[state] != A_NONE) {
+                action = AT_END[state];
+                pos = length;
+            } else {
+                action = ACTION[accept];
+                pos = acceptPos;
+            }
+            switch (action) {
+                case A_FIXED:
+                    buffer.add(FIXED[accept], start, pos, 0L);
+                    break;
+                case A_IDENT:
+                    identifier(buffer, start);
+                    break;
+                case A_INT:
+                    integer(buffer, start);
+                    break;
+                case A_DOUBLE:
+                    real(buffer, start);
+                    break;
+                case A_STRING:
+                    buffer.add(TokenType.STRING_LITERAL, start, pos, 0L);
+                    break;
+                case A_SKIP:
+                    break;
+                case A_LONE_AMP:
+                    error(ErrorCode.LONE_AMPERSAND, start);
+                    break;
+                case A_LONE_BAR:
+                    error(ErrorCode.LONE_BAR, start);
+                    break;
+                case A_BAD_CHAR:
+                    error(ErrorCode.UNEXPECTED_CHAR, start, c);
+                    break;
+                case A_STRING_LINE:
+                    error(ErrorCode.UNTERMINATED_STRING_LINE, start);
+                    break;
+                case A_OPEN_STRING:
+                    error(ErrorCode.UNTERMINATED_STRING, start);
+                    break;
+                case A_OPEN_COMMENT:
+                    error(ErrorCode.UNTERMINATED_COMMENT, start);
+                    break;
+                default:
+                    throw new IllegalStateException("estado sin acción: " + accept);
+            }
+        }
+        buffer.add(TokenType.EOF, pos, pos, 0L);
+    }
+
+    private void identifier(TokenBuffer buffer, int start) {
+        TokenType type = Keywords.match(source, start, pos);
+        if (type == null) {
+            int id = names.intern(source, start, pos);
+            buffer.add(TokenType.IDENTIFIER, start, pos, id);
+        } else {
+            buffer.add(type, start, pos, 0L);
+        }
+    }
+
+    private void integer(TokenBuffer buffer, int start) {
+        long value = NumberLiterals.integer(source, start, pos);
+        if (value == NumberLiterals.OVERFLOW) {
+            error(ErrorCode.INVALID_INT, start, source.subSequence(start, pos).toString());
+        } else {
+            buffer.add(TokenType.INT_LITERAL, start, pos, value);
+        }
+    }
+
+    private void real(TokenBuffer buffer, int start) {
+        int dot = start;
+        while (source.charAt(dot) != '.') dot++;
+        double value = NumberLiterals.real(source, start, dot, pos);
+        if (Double.isInfinite(value)) {
+            error(ErrorCode.INVALID_DOUBLE, start, source.subSequence(start, pos).toString());
+        } else {
+            buffer.add(TokenType.DOUBLE_LITERAL, start, pos, Double.doubleToRawLongBits(value));
+        }
+    }
+
+    private void error(ErrorCode code, int offset, Object... args) {
+        LineIndex index = target.lines();
+        int line = index.line(offset);
+        errors.report(code, line, offset - index.lineStart(line) + 1, args);
+    }
+}
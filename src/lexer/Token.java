@@ -3,7 +3,7 @@ package lexer;
 public class Token {
     public final TokenType type;
     public final String lexeme;
-    public final Object literal; // Integer, Double, String, Boolean, o null
+    public final Object literal; // Long, Double, String, Boolean, o null
     public final int line;
     public final int column;
 
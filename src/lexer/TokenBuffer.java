@@ -0,0 +1,258 @@
+package lexer;
+
+import java.util.Arrays;
+
+/* Flujo de tokens en formato "struct of arrays": un token es un índice en
+ * arreglos paralelos de tipo, inicio, longitud y valor.
+ * Los lexemas no se copian; se leen del fuente solo cuando alguien los pide.
+ * Tampoco se guardan línea y columna: salen del LineIndex del fuente, que se
+ * arma la primera vez que alguien pregunta una posición.
+ */
+public final class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private CharSequence source;
+    private final NameTable names;
+    private int size = 0;
+    private byte[] types;
+    private int[] starts;
+    private int[] lengths;
+    private long[] values; // enteros (long) tal cual, reales como bits crudos, identificadores por id
+    private LineIndex lineIndex;
+    private int lineHint = 1; // última línea calculada; los recorridos van en orden
+
+    public TokenBuffer(CharSequence source, NameTable names) {
+        this(source, names, 64);
+    }
+
+    public TokenBuffer(CharSequence source, NameTable names, int capacity) {
+        this.source = source;
+        this.names = names;
+        capacity = Math.max(capacity, 16);
+        types = new byte[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        values = new long[capacity];
+    }
+
+    public void add(TokenType type, int start, int end, long value) {
+        if (size == types.length) grow();
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = end - start;
+        values[size] = value;
+        size++;
+    }
+
+    /* Vacía el buffer para tokenizar otro fuente conservando los arreglos y
+     * la tabla de nombres (un proceso que compila muchas unidades seguidas
+     * no vuelve a pagar su crecimiento).
+     */
+    public void reset(CharSequence newSource) {
+        source = newSource;
+        size = 0;
+        lineIndex = null;
+    }
+
+    // Descarta los tokens desde size en adelante
+    void truncate(int newSize) {
+        size = newSize;
+    }
+
+    /* Agrega los tokens [from, to) de otro buffer sobre el mismo fuente,
+     * traduciendo los ids de identificador de su tabla de nombres a la de este
+     * buffer (nameMap, -1 = sin traducir todavía). Los nombres se internan en
+     * orden de aparición, igual que si este buffer los hubiera tokenizado.
+     */
+    void appendFrom(TokenBuffer other, int from, int to, int[] nameMap) {
+        ensureCapacity(size + to - from);
+        int n = to - from;
+        System.arraycopy(other.types, from, types, size, n);
+        System.arraycopy(other.starts, from, starts, size, n);
+        System.arraycopy(other.lengths, from, lengths, size, n);
+        System.arraycopy(other.values, from, values, size, n);
+        byte identifier = (byte) TokenType.IDENTIFIER.ordinal();
+        for (int i = 0; i < n; i++) {
+            if (types[size + i] == identifier) {
+                int local = (int) values[size + i];
+                int global = nameMap[local];
+                if (global < 0) global = nameMap[local] = names.intern(other.names.name(local));
+                values[size + i] = global;
+            }
+        }
+        size += n;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    public CharSequence source() { return source; }
+    public NameTable names() { return names; }
+    public int size() { return size; }
+    public TokenType type(int i) { return TYPES[types[i]]; }
+    public int start(int i) { return starts[i]; }
+    public int length(int i) { return lengths[i]; }
+    public long value(int i) { return values[i]; }
+
+    // Índice de líneas del fuente; se arma en la primera consulta
+    public LineIndex lines() {
+        if (lineIndex == null) lineIndex = LineIndex.of(source);
+        return lineIndex;
+    }
+
+    // Instala un índice ya calculado (p. ej. el de una copia del texto que ya se indexó)
+    public void lines(LineIndex index) {
+        lineIndex = index;
+        lineHint = 1;
+    }
+
+    public int line(int i) {
+        return lineHint = lines().line(starts[i], lineHint);
+    }
+
+    public int column(int i) {
+        int line = line(i); // arma el índice si hace falta
+        return starts[i] - lineIndex.lineStart(line) + 1;
+    }
+
+    public String lexeme(int i) {
+        TokenType type = type(i);
+        String fixed = type.lexeme;
+        if (type == TokenType.EOF) return "";
+        if (type == TokenType.IDENTIFIER) return names.name((int) values[i]);
+        if (fixed != null && fixed.length() == lengths[i] && source.charAt(starts[i]) == fixed.charAt(0)) {
+            return fixed;
+        }
+        return source.subSequence(starts[i], starts[i] + lengths[i]).toString();
+    }
+
+    // Igual que lexeme(i) pero agregando directo a out, sin recortar el fuente
+    public StringBuilder appendLexeme(int i, StringBuilder out) {
+        TokenType type = type(i);
+        String fixed = type.lexeme;
+        if (type == TokenType.EOF) return out;
+        if (type == TokenType.IDENTIFIER) return out.append(names.name((int) values[i]));
+        if (fixed != null && fixed.length() == lengths[i] && source.charAt(starts[i]) == fixed.charAt(0)) {
+            return out.append(fixed);
+        }
+        return out.append(source, starts[i], starts[i] + lengths[i]);
+    }
+
+    // Reconstruye el literal con la misma forma que tendría el Token del Lexer
+    public Object literal(int i) {
+        switch (type(i)) {
+            case INT_LITERAL: return values[i];
+            case DOUBLE_LITERAL: return Double.longBitsToDouble(values[i]);
+            case TRUE: return true;
+            case FALSE: return false;
+            case IDENTIFIER: return lexeme(i);
+            case STRING_LITERAL: return source.subSequence(starts[i] + 1, starts[i] + lengths[i] - 1).toString();
+            default: return null;
+        }
+    }
+
+    public Token token(int i) {
+        int line = line(i);
+        return new Token(type(i), lexeme(i), literal(i), line, starts[i] - lineIndex.lineStart(line) + 1);
+    }
+
+    private void ensureCapacity(int capacity) {
+        while (types.length < capacity) grow();
+    }
+
+    // Índice del primer token que empieza en offset o después (size si no hay)
+    public int indexAtOrAfter(int offset) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] < offset) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Flujo por índices para el Parser; materializa un Token solo cuando se pide
+    public TokenStream stream() {
+        return stream(0);
+    }
+
+    public TokenStream stream(int from) {
+        return new IndexStream(from);
+    }
+
+    private final class IndexStream extends TokenStream {
+        private int current;
+        private int cachedIndex = -1;
+        private Token cached;
+
+        IndexStream(int from) {
+            this.current = from;
+        }
+
+        @Override
+        public TokenType peekType() {
+            return type(current);
+        }
+
+        @Override
+        public Token peek() {
+            return at(current);
+        }
+
+        @Override
+        public Token previous() {
+            return current == 0 ? null : at(current - 1);
+        }
+
+        // Sin pasar por un Token: el valor y la posición salen de los arreglos
+
+        @Override
+        public long peekValue() {
+            return value(current);
+        }
+
+        @Override
+        public int peekLine() {
+            return line(current);
+        }
+
+        @Override
+        public int peekColumn() {
+            return column(current);
+        }
+
+        @Override
+        public NameTable names() {
+            return names;
+        }
+
+        // El id ya está en el buffer: no se vuelve a hashear el nombre
+        @Override
+        public int peekName() {
+            return (int) value(current);
+        }
+
+        @Override
+        public void advance() {
+            if (type(current) != TokenType.EOF) current++;
+        }
+
+        @Override
+        public int position() {
+            return current;
+        }
+
+        private Token at(int i) {
+            if (i != cachedIndex) {
+                cached = token(i);
+                cachedIndex = i;
+            }
+            return cached;
+        }
+    }
+}
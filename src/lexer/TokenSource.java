@@ -0,0 +1,6 @@
+package lexer;
+
+// Fuente de tokens bajo demanda (pull). Tras el EOF debe seguir devolviendo EOF.
+public interface TokenSource {
+    Token nextToken();
+}
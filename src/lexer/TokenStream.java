@@ -0,0 +1,111 @@
+package lexer;
+
+import java.util.Iterator;
+import java.util.List;
+
+/* Vista secuencial de tokens que consume el Parser.
+ * peekType() permite decidir sin materializar un Token, y peekValue(),
+ * peekLine() y peekColumn() armar un literal numérico sin empaquetarlo;
+ * peek()/previous() solo se usan cuando hace falta el lexema.
+ */
+public abstract class TokenStream {
+
+    public abstract TokenType peekType();
+
+    public abstract Token peek();
+
+    public abstract Token previous();
+
+    // Valor del token actual como en TokenBuffer.value(): el long, o los bits crudos del double
+    public long peekValue() {
+        Object literal = peek().literal;
+        if (literal instanceof Double) return Double.doubleToRawLongBits((Double) literal);
+        return literal instanceof Long ? (Long) literal : 0L;
+    }
+
+    public int peekLine() {
+        return peek().line;
+    }
+
+    public int peekColumn() {
+        return peek().column;
+    }
+
+    // Tabla en la que están internados los identificadores del flujo
+    public abstract NameTable names();
+
+    // Id en names() del token actual, que tiene que ser un IDENTIFIER
+    public int peekName() {
+        return names().intern(peek().lexeme);
+    }
+
+    // Consume el token actual; en EOF no avanza
+    public abstract void advance();
+
+    // Cantidad de tokens consumidos (índice del token actual)
+    public abstract int position();
+
+    // Flujo con lookahead acotado sobre una fuente pull (p. ej. el Lexer)
+    public static TokenStream of(TokenSource source) {
+        return new PullStream(source, source instanceof Lexer ? ((Lexer) source).getNames() : new NameTable());
+    }
+
+    // Adaptador para parsear una lista ya materializada (termina en EOF)
+    public static TokenStream of(List<Token> tokens) {
+        Iterator<Token> it = tokens.iterator();
+        Token eof = tokens.get(tokens.size() - 1);
+        return new PullStream(() -> it.hasNext() ? it.next() : eof, new NameTable());
+    }
+
+    /* Lookahead de un token: solo retiene el token actual y el último consumido,
+     * así que la memoria no depende del tamaño de la entrada.
+     */
+    static final class PullStream extends TokenStream {
+        private final TokenSource source;
+        private final NameTable names;
+        private Token current;
+        private Token previous;
+        private int position = 0;
+
+        PullStream(TokenSource source, NameTable names) {
+            this.source = source;
+            this.names = names;
+        }
+
+        @Override
+        public NameTable names() {
+            return names;
+        }
+
+        @Override
+        public TokenType peekType() {
+            return peek().type;
+        }
+
+        @Override
+        public Token peek() {
+            if (current == null) current = source.nextToken();
+            return current;
+        }
+
+        @Override
+        public Token previous() {
+            return previous;
+        }
+
+        @Override
+        public void advance() {
+            Token t = peek();
+            if (t.type != TokenType.EOF) {
+                current = null;
+                position++;
+            }
+            previous = t;
+        }
+
+        @Override
+        public int position() {
+            return position;
+        }
+    }
+}
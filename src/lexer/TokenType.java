@@ -2,27 +2,38 @@ package lexer;
 
 public enum TokenType {
     // Palabras reservadas
-    LONG, DOUBLE, IF, THEN, ELSE, WHILE, BREAK, READ, WRITE,
-    TRUE, FALSE,
+    LONG("long"), DOUBLE("double"), IF("if"), THEN("then"), ELSE("else"), WHILE("while"),
+    BREAK("break"), READ("read"), WRITE("write"),
+    TRUE("true"), FALSE("false"),
 
     // Identificadores y literales
     IDENTIFIER, INT_LITERAL, DOUBLE_LITERAL, STRING_LITERAL,
 
     // Operadores aritméticos
-    PLUS, MINUS, STAR, SLASH,
+    PLUS("+"), MINUS("-"), STAR("*"), SLASH("/"),
 
     // Operadores relacionales y lógicos
-    GT, LT, GE, LE, EQEQ, NEQ, // NEQ vale tanto para "!=" como "<>"
+    GT(">"), LT("<"), GE(">="), LE("<="), EQEQ("=="), NEQ("<>"), // NEQ vale tanto para "!=" como "<>"
     // Lógicos
-    AND_AND, OR_OR, BANG,
+    AND_AND("&&"), OR_OR("||"), BANG("!"),
 
     // Asignación y agrupación
-    ASSIGN, LPAREN, RPAREN, LBRACE, RBRACE, SEMICOLON,
+    ASSIGN("="), LPAREN("("), RPAREN(")"), LBRACE("{"), RBRACE("}"), SEMICOLON(";"),
 
     // Asignaciones compuestas
-    PLUS_EQ, MINUS_EQ, STAR_EQ, SLASH_EQ,
+    PLUS_EQ("+="), MINUS_EQ("-="), STAR_EQ("*="), SLASH_EQ("/="),
 
     // Fin de archivo
-    EOF
-}
+    EOF;
+
+    // Ortografía fija del token, o null si depende del fuente
+    public final String lexeme;
 
+    TokenType() {
+        this(null);
+    }
+
+    TokenType(String lexeme) {
+        this.lexeme = lexeme;
+    }
+}
@@ -0,0 +1,395 @@
+package optimizer;
+
+import lexer.TokenType;
+import parser.ASTNode;
+import parser.Expr;
+import parser.Statement;
+import symboltable.DataType;
+import symboltable.SymbolTable.SymbolInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/* Optimizaciones sobre el AST ya analizado, entre el análisis semántico y la
+ * generación de código:
+ *  - plegado de constantes long/double con las reglas del lenguaje (long con
+ *    desborde de Java, mezcla promovida a double, / entera por cero se deja
+ *    para que falle en ejecución);
+ *  - propagación de variables que solo reciben su valor inicial constante;
+ *  - eliminación de ramas if/else inalcanzables y de while(false).
+ * Los nodos son inmutables, así que cada cambio crea nodos nuevos y lo que
+ * no cambia se comparte.
+ */
+public class Optimizer implements Statement.Visitor<Statement>, Expr.Visitor<Expr> {
+    private final Map<SymbolInfo, Expr.Literal> constants = new IdentityHashMap<>();
+    private Usage usage;
+    private int eliminated;
+
+    public List<Statement> optimize(List<Statement> statements) {
+        usage = new Usage();
+        usage.scan(statements);
+        int before = usage.nodes;
+
+        List<Statement> result = optimizeAll(statements);
+
+        Usage after = new Usage();
+        after.scan(result);
+        eliminated += before - after.nodes;
+        return result;
+    }
+
+    // Nodos (sentencias y expresiones) que desaparecieron en total
+    public int getEliminatedNodes() {
+        return eliminated;
+    }
+
+    private List<Statement> optimizeAll(List<Statement> statements) {
+        List<Statement> result = new ArrayList<>(statements.size());
+        for (Statement s : statements) {
+            Statement optimized = s.accept(this);
+            if (optimized != null) result.add(optimized);
+        }
+        return result;
+    }
+
+    // Sentencia anidada que no puede desaparecer (cuerpo de while, rama then)
+    private Statement nested(Statement s) {
+        Statement optimized = s.accept(this);
+        return optimized != null ? optimized : new Statement.Block(Collections.emptyList(), s.line, s.column);
+    }
+
+    // SENTENCIAS: devuelven null cuando la sentencia se elimina
+
+    @Override
+    public Statement visitVarDecl(Statement.VarDecl stmt) {
+        Expr init = stmt.initializer != null ? stmt.initializer.accept(this) : null;
+        SymbolInfo symbol = stmt.symbol;
+        if (!usage.isReassigned(symbol) && (init == null || init instanceof Expr.Literal)) {
+            // sin inicializador vale 0: también es una constante
+            constants.put(symbol, converted((Expr.Literal) init, DataType.of(symbol.type), stmt));
+            return null;
+        }
+        if (init == stmt.initializer) return stmt;
+        Statement.VarDecl copy = new Statement.VarDecl(stmt.type, stmt.name, init, stmt.line, stmt.column);
+        copy.nameId = stmt.nameId;
+        copy.symbol = symbol;
+        return copy;
+    }
+
+    @Override
+    public Statement visitRead(Statement.Read stmt) {
+        return stmt;
+    }
+
+    @Override
+    public Statement visitWrite(Statement.Write stmt) {
+        Expr value = stmt.value.accept(this);
+        return value == stmt.value ? stmt : new Statement.Write(value, stmt.line, stmt.column);
+    }
+
+    @Override
+    public Statement visitIf(Statement.If stmt) {
+        Expr condition = stmt.condition.accept(this);
+        if (condition instanceof Expr.Literal) {
+            if (((Expr.Literal) condition).truth()) return stmt.thenBranch.accept(this);
+            return stmt.elseBranch != null ? stmt.elseBranch.accept(this) : null;
+        }
+        Statement thenBranch = nested(stmt.thenBranch);
+        Statement elseBranch = stmt.elseBranch != null ? stmt.elseBranch.accept(this) : null;
+        if (condition == stmt.condition && thenBranch == stmt.thenBranch && elseBranch == stmt.elseBranch) return stmt;
+        return new Statement.If(condition, thenBranch, elseBranch, stmt.line, stmt.column);
+    }
+
+    @Override
+    public Statement visitWhile(Statement.While stmt) {
+        Expr condition = stmt.condition.accept(this);
+        if (condition instanceof Expr.Literal && !((Expr.Literal) condition).truth()) return null;
+        Statement body = nested(stmt.body);
+        if (condition == stmt.condition && body == stmt.body) return stmt;
+        return new Statement.While(condition, body, stmt.line, stmt.column);
+    }
+
+    @Override
+    public Statement visitBlock(Statement.Block stmt) {
+        List<Statement> statements = optimizeAll(stmt.statements);
+        if (statements.isEmpty()) return null;
+        if (statements.equals(stmt.statements)) return stmt;
+        return new Statement.Block(statements, stmt.line, stmt.column);
+    }
+
+    @Override
+    public Statement visitExpression(Statement.Expression stmt) {
+        Expr expr = stmt.expr.accept(this);
+        // una constante o una variable sola no tienen efecto
+        if (expr instanceof Expr.Literal || expr instanceof Expr.Variable) return null;
+        return expr == stmt.expr ? stmt : new Statement.Expression(expr, stmt.line, stmt.column);
+    }
+
+    // EXPRESIONES
+
+    @Override
+    public Expr visitLiteral(Expr.Literal expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitVariable(Expr.Variable expr) {
+        Expr.Literal constant = constants.get(expr.symbol);
+        if (constant == null) return expr;
+        Expr.Literal copy = new Expr.Literal(constant.kind, constant.bits, constant.string, expr.line, expr.column);
+        copy.type = constant.type;
+        return copy;
+    }
+
+    @Override
+    public Expr visitAssign(Expr.Assign expr) {
+        Expr value = expr.value.accept(this);
+        if (value == expr.value) return expr;
+        Expr.Assign copy = new Expr.Assign(expr.name, expr.op, value, expr.line, expr.column);
+        copy.nameId = expr.nameId;
+        copy.symbol = expr.symbol;
+        copy.type = expr.type;
+        return copy;
+    }
+
+    @Override
+    public Expr visitUnary(Expr.Unary expr) {
+        Expr operand = expr.operand.accept(this);
+        if (operand instanceof Expr.Literal) {
+            Expr.Literal v = (Expr.Literal) operand;
+            if (expr.op == TokenType.BANG) return booleanLiteral(!v.truth(), expr);
+            if (v.isDouble()) return doubleLiteral(-v.doubleValue(), expr);
+            return longLiteral(-v.bits, expr);
+        }
+        if (operand == expr.operand) return expr;
+        Expr.Unary copy = new Expr.Unary(expr.op, operand, expr.line, expr.column);
+        copy.type = expr.type;
+        return copy;
+    }
+
+    @Override
+    public Expr visitBinary(Expr.Binary expr) {
+        Expr left = expr.left.accept(this);
+
+        // Cortocircuito con el lado izquierdo constante: el derecho puede no evaluarse nunca
+        boolean logical = expr.op == TokenType.AND_AND || expr.op == TokenType.OR_OR;
+        if (logical && left instanceof Expr.Literal) {
+            boolean l = ((Expr.Literal) left).truth();
+            if (l == (expr.op == TokenType.OR_OR)) return booleanLiteral(l, expr);
+        }
+
+        Expr right = expr.right.accept(this);
+        // true && b y false || b valen lo mismo que b; a && true y a || false, lo mismo que a
+        if (logical && left instanceof Expr.Literal && right.type == DataType.BOOLEAN) return right;
+        if (logical && right instanceof Expr.Literal && left.type == DataType.BOOLEAN
+                && ((Expr.Literal) right).truth() == (expr.op == TokenType.AND_AND)) return left;
+        if (left instanceof Expr.Literal && right instanceof Expr.Literal) {
+            Expr folded = fold(expr, (Expr.Literal) left, (Expr.Literal) right);
+            if (folded != null) return folded;
+        }
+        if (left == expr.left && right == expr.right) return expr;
+        Expr.Binary copy = new Expr.Binary(left, expr.op, right, expr.line, expr.column);
+        copy.type = expr.type;
+        return copy;
+    }
+
+    // Valor de a op b, o null si no se debe plegar (división entera por cero)
+    private Expr fold(Expr.Binary expr, Expr.Literal a, Expr.Literal b) {
+        switch (expr.op) {
+            case AND_AND:
+                return booleanLiteral(a.truth() && b.truth(), expr);
+            case OR_OR:
+                return booleanLiteral(a.truth() || b.truth(), expr);
+            case EQEQ:
+            case NEQ: {
+                boolean equal;
+                if (a.kind.isNumeric() && b.kind.isNumeric()) equal = compare(a, b) == 0 && !isNaN(a, b);
+                else equal = a.kind == b.kind && a.bits == b.bits && Objects.equals(a.string, b.string);
+                return booleanLiteral(equal == (expr.op == TokenType.EQEQ), expr);
+            }
+            case LT: case LE: case GT: case GE:
+                return booleanLiteral(relational(expr.op, a, b), expr);
+            default:
+                break;
+        }
+        if (expr.type == DataType.DOUBLE) {
+            double x = a.doubleValue();
+            double y = b.doubleValue();
+            switch (expr.op) {
+                case PLUS: return doubleLiteral(x + y, expr);
+                case MINUS: return doubleLiteral(x - y, expr);
+                case STAR: return doubleLiteral(x * y, expr);
+                default: return doubleLiteral(x / y, expr);
+            }
+        }
+        long x = a.longValue();
+        long y = b.longValue();
+        switch (expr.op) {
+            case PLUS: return longLiteral(x + y, expr);
+            case MINUS: return longLiteral(x - y, expr);
+            case STAR: return longLiteral(x * y, expr);
+            default: return y == 0 ? null : longLiteral(x / y, expr);
+        }
+    }
+
+    private static boolean relational(TokenType op, Expr.Literal a, Expr.Literal b) {
+        if (isNaN(a, b)) return false;
+        int c = compare(a, b);
+        switch (op) {
+            case LT: return c < 0;
+            case LE: return c <= 0;
+            case GT: return c > 0;
+            default: return c >= 0;
+        }
+    }
+
+    // Compara como long si ambos son enteros y como double si no
+    private static int compare(Expr.Literal a, Expr.Literal b) {
+        if (a.isDouble() || b.isDouble()) {
+            double x = a.doubleValue();
+            double y = b.doubleValue();
+            return x < y ? -1 : (x > y ? 1 : 0);
+        }
+        return Long.compare(a.bits, b.bits);
+    }
+
+    private static boolean isNaN(Expr.Literal a, Expr.Literal b) {
+        return (a.isDouble() && Double.isNaN(a.doubleValue())) || (b.isDouble() && Double.isNaN(b.doubleValue()));
+    }
+
+    // Literales plegados: ya analizados, así que el tipo se fija junto con el valor
+    private static Expr.Literal longLiteral(long value, ASTNode at) {
+        return typed(Expr.Literal.ofLong(value, at.line, at.column));
+    }
+
+    private static Expr.Literal doubleLiteral(double value, ASTNode at) {
+        return typed(Expr.Literal.ofDouble(value, at.line, at.column));
+    }
+
+    private static Expr.Literal booleanLiteral(boolean value, ASTNode at) {
+        return typed(Expr.Literal.ofBoolean(value, at.line, at.column));
+    }
+
+    private static Expr.Literal typed(Expr.Literal lit) {
+        lit.type = lit.kind;
+        return lit;
+    }
+
+    /* Constante con el tipo declarado de la variable (un long guardado en un
+     * double pasa a double); value es null si no hay inicializador (vale 0).
+     */
+    private static Expr.Literal converted(Expr.Literal value, DataType type, Statement at) {
+        if (type == DataType.DOUBLE) return doubleLiteral(value != null ? value.doubleValue() : 0, at);
+        return longLiteral(value != null ? value.longValue() : 0, at);
+    }
+
+    /* Recorrido previo: qué variables se reasignan (asignación, read o una
+     * segunda declaración en el mismo ámbito) y cuántos nodos tiene el árbol.
+     */
+    private static class Usage implements Statement.Visitor<Void>, Expr.Visitor<Void> {
+        private final Set<SymbolInfo> reassigned = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Set<SymbolInfo> declared = Collections.newSetFromMap(new IdentityHashMap<>());
+        int nodes;
+
+        void scan(List<Statement> statements) {
+            for (Statement s : statements) s.accept(this);
+        }
+
+        boolean isReassigned(SymbolInfo symbol) {
+            return reassigned.contains(symbol);
+        }
+
+        @Override
+        public Void visitVarDecl(Statement.VarDecl stmt) {
+            nodes++;
+            if (!declared.add(stmt.symbol)) reassigned.add(stmt.symbol);
+            if (stmt.initializer != null) stmt.initializer.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitRead(Statement.Read stmt) {
+            nodes++;
+            reassigned.add(stmt.symbol);
+            return null;
+        }
+
+        @Override
+        public Void visitWrite(Statement.Write stmt) {
+            nodes++;
+            stmt.value.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitIf(Statement.If stmt) {
+            nodes++;
+            stmt.condition.accept(this);
+            stmt.thenBranch.accept(this);
+            if (stmt.elseBranch != null) stmt.elseBranch.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitWhile(Statement.While stmt) {
+            nodes++;
+            stmt.condition.accept(this);
+            stmt.body.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitBlock(Statement.Block stmt) {
+            nodes++;
+            scan(stmt.statements);
+            return null;
+        }
+
+        @Override
+        public Void visitExpression(Statement.Expression stmt) {
+            nodes++;
+            stmt.expr.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitBinary(Expr.Binary expr) {
+            nodes++;
+            expr.left.accept(this);
+            expr.right.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitUnary(Expr.Unary expr) {
+            nodes++;
+            expr.operand.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitLiteral(Expr.Literal expr) {
+            nodes++;
+            return null;
+        }
+
+        @Override
+        public Void visitVariable(Expr.Variable expr) {
+            nodes++;
+            return null;
+        }
+
+        @Override
+        public Void visitAssign(Expr.Assign expr) {
+            nodes++;
+            reassigned.add(expr.symbol);
+            expr.value.accept(this);
+            return null;
+        }
+    }
+}
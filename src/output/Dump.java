@@ -0,0 +1,33 @@
+package output;
+
+import error.Category;
+import error.ErrorHandler;
+import lexer.TokenBuffer;
+import parser.Statement;
+import symboltable.SymbolTable;
+import vm.Program;
+
+import java.util.List;
+
+/* Volcado de los resultados de cada fase. Main llama en orden a lo que
+ * corresponda y la implementación decide el formato y qué secciones salen;
+ * todo se escribe en un OutputSink que se vacía en finish().
+ */
+public interface Dump {
+    void tokens(TokenBuffer tokens);
+
+    // La fase terminó con errores; no habrá más llamadas salvo finish()
+    void failed(Category phase, ErrorHandler errors);
+
+    // El análisis terminó sin errores pero con advertencias (antes de program/symbols)
+    void warnings(ErrorHandler errors);
+
+    // eliminated es -1 si no se ejecutó el optimizador
+    void program(List<Statement> statements, int eliminated);
+
+    void symbols(SymbolTable table);
+
+    void bytecode(Program program);
+
+    void finish(ErrorHandler errors);
+}
@@ -0,0 +1,368 @@
+package output;
+
+import error.Category;
+import error.Diagnostic;
+import error.ErrorHandler;
+import lexer.TokenBuffer;
+import parser.Expr;
+import parser.Statement;
+import symboltable.SymbolTable;
+import vm.Program;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+
+/* Volcado para herramientas. En modo JSON se escribe un único objeto
+ * {"tokens":[...],"ast":[...],"symbols":[...],"diagnostics":[...],"ok":...}
+ * a medida que avanzan las fases, sin armar el documento en memoria. En
+ * modo NDJSON cada token, sentencia, símbolo o diagnóstico es una línea
+ * independiente con un campo "kind", y la última es el resultado.
+ */
+public final class JsonDump implements Dump, Statement.Visitor<Void>, Expr.Visitor<Void> {
+    private final OutputSink out;
+    private final StringBuilder b;
+    private final EnumSet<Section> sections;
+    private final boolean ndjson;
+    private boolean firstMember = true; // del objeto raíz (solo JSON)
+    private Category failedPhase;
+    private int eliminated = -1;
+
+    public JsonDump(OutputSink out, EnumSet<Section> sections, boolean ndjson) {
+        this.out = out;
+        this.b = out.buffer();
+        this.sections = sections;
+        this.ndjson = ndjson;
+        if (!ndjson) b.append('{');
+    }
+
+    // Abre "name":[ en el objeto raíz
+    private void beginArray(String name) {
+        if (!firstMember) b.append(',');
+        firstMember = false;
+        b.append('\n');
+        string(name).append(":[");
+    }
+
+    // Separador entre elementos: nueva línea en NDJSON, coma en JSON
+    private void beginRecord(String kind, boolean first) {
+        if (ndjson) {
+            b.append("{\"kind\":");
+            string(kind).append(',');
+        } else {
+            if (!first) b.append(',');
+            b.append("\n{");
+        }
+    }
+
+    private void endRecord() {
+        b.append('}');
+        if (ndjson) b.append('\n');
+        out.check();
+    }
+
+    @Override
+    public void tokens(TokenBuffer tokens) {
+        if (!sections.contains(Section.TOKENS)) return;
+        if (!ndjson) beginArray("tokens");
+        for (int i = 0; i < tokens.size(); i++) {
+            beginRecord("token", i == 0);
+            b.append("\"type\":");
+            string(tokens.type(i).name()).append(",\"lexeme\":\"");
+            int from = b.length();
+            tokens.appendLexeme(i, b);
+            escapeFrom(from);
+            b.append("\",\"line\":").append(tokens.line(i)).append(",\"column\":").append(tokens.column(i));
+            switch (tokens.type(i)) {
+                case INT_LITERAL: b.append(",\"value\":").append(tokens.value(i)); break;
+                case DOUBLE_LITERAL:
+                    b.append(",\"value\":");
+                    number(Double.longBitsToDouble(tokens.value(i)));
+                    break;
+                case TRUE: b.append(",\"value\":true"); break;
+                case FALSE: b.append(",\"value\":false"); break;
+                case STRING_LITERAL:
+                    b.append(",\"value\":");
+                    string(tokens.source().subSequence(tokens.start(i) + 1, tokens.start(i) + tokens.length(i) - 1));
+                    break;
+                default: break;
+            }
+            endRecord();
+        }
+        if (!ndjson) b.append("\n]");
+    }
+
+    @Override
+    public void failed(Category phase, ErrorHandler errors) {
+        failedPhase = phase;
+    }
+
+    @Override
+    public void warnings(ErrorHandler errors) {
+        // van con los errores en finish()
+    }
+
+    @Override
+    public void program(List<Statement> statements, int eliminated) {
+        this.eliminated = eliminated;
+        if (!sections.contains(Section.AST)) return;
+        if (!ndjson) beginArray("ast");
+        boolean first = true;
+        for (Statement s : statements) {
+            beginRecord("stmt", first);
+            first = false;
+            b.append("\"stmt\":");
+            s.accept(this);
+            endRecord();
+        }
+        if (!ndjson) b.append("\n]");
+    }
+
+    @Override
+    public void symbols(SymbolTable table) {
+        if (!sections.contains(Section.SYMBOLS)) return;
+        if (!ndjson) beginArray("symbols");
+        boolean first = true;
+        for (SymbolTable.Scope scope : table.getScopes()) {
+            for (SymbolTable.SymbolInfo s : scope.symbols()) {
+                beginRecord("symbol", first);
+                first = false;
+                b.append("\"name\":");
+                string(s.name).append(",\"type\":");
+                string(s.type).append(",\"value\":");
+                value(s.value);
+                b.append(",\"scope\":");
+                string(s.scope).append(",\"line\":").append(s.line);
+                endRecord();
+            }
+        }
+        if (!ndjson) b.append("\n]");
+    }
+
+    @Override
+    public void bytecode(Program program) {
+        if (ndjson) {
+            b.append("{\"kind\":\"bytecode\",\"text\":");
+            string(program.disassemble()).append("}\n");
+        } else {
+            if (!firstMember) b.append(',');
+            firstMember = false;
+            b.append("\n\"bytecode\":");
+            string(program.disassemble());
+        }
+        out.check();
+    }
+
+    @Override
+    public void finish(ErrorHandler errors) {
+        if (!ndjson) beginArray("diagnostics");
+        boolean first = true;
+        for (Diagnostic d : errors.getWarnings()) {
+            diagnostic(d, first);
+            first = false;
+        }
+        for (Diagnostic d : errors.getDiagnostics()) {
+            diagnostic(d, first);
+            first = false;
+        }
+        if (!ndjson) b.append("\n],\n");
+        else b.append("{\"kind\":\"result\",");
+        b.append("\"ok\":").append(failedPhase == null);
+        if (failedPhase != null) {
+            b.append(",\"failedPhase\":");
+            string(failedPhase.name().toLowerCase(Locale.ROOT));
+        }
+        if (eliminated >= 0) b.append(",\"eliminatedNodes\":").append(eliminated);
+        b.append(",\"aborted\":").append(errors.isAborted())
+                .append(",\"suppressed\":").append(errors.getSuppressed());
+        b.append(ndjson ? "}\n" : "\n}\n");
+        out.flush();
+    }
+
+    private void diagnostic(Diagnostic d, boolean first) {
+        beginRecord("diagnostic", first);
+        b.append("\"code\":");
+        string(d.code.id).append(",\"severity\":");
+        string(d.isWarning() ? "warning" : "error").append(",\"category\":");
+        string(d.category().name().toLowerCase(Locale.ROOT)).append(",\"line\":").append(d.line)
+                .append(",\"column\":").append(d.column).append(",\"message\":");
+        string(d.message());
+        endRecord();
+    }
+
+    // VALORES
+
+    private StringBuilder string(CharSequence s) {
+        b.append('"');
+        int from = b.length();
+        b.append(s);
+        escapeFrom(from);
+        return b.append('"');
+    }
+
+    // Escapa en el lugar lo agregado a partir de from (la mayoría de las veces no hay nada que escapar)
+    private void escapeFrom(int from) {
+        for (int i = from; i < b.length(); i++) {
+            char c = b.charAt(i);
+            if (c == '"' || c == '\\') {
+                b.insert(i++, '\\');
+            } else if (c < 0x20) {
+                String esc = c == '\n' ? "\\n" : c == '\r' ? "\\r" : c == '\t' ? "\\t"
+                        : String.format("\\u%04x", (int) c);
+                b.replace(i, i + 1, esc);
+                i += esc.length() - 1;
+            }
+        }
+    }
+
+    // NaN e infinitos no existen en JSON: se escriben como cadenas
+    private void number(double d) {
+        if (Double.isNaN(d) || Double.isInfinite(d)) string(Double.toString(d));
+        else b.append(d);
+    }
+
+    private void value(Object v) {
+        if (v == null) b.append("null");
+        else if (v instanceof Double) number((Double) v);
+        else if (v instanceof Number || v instanceof Boolean) b.append(v);
+        else string(v.toString());
+    }
+
+    private void position(String node, int line, int column) {
+        b.append("{\"node\":");
+        string(node).append(",\"line\":").append(line).append(",\"column\":").append(column);
+    }
+
+    private void field(String name, Statement stmt) {
+        b.append(",\"").append(name).append("\":");
+        if (stmt == null) b.append("null");
+        else stmt.accept(this);
+    }
+
+    private void field(String name, Expr expr) {
+        b.append(",\"").append(name).append("\":");
+        if (expr == null) b.append("null");
+        else expr.accept(this);
+    }
+
+    // SENTENCIAS
+
+    @Override
+    public Void visitVarDecl(Statement.VarDecl stmt) {
+        position(stmt.kind, stmt.line, stmt.column);
+        b.append(",\"type\":");
+        string(stmt.type).append(",\"name\":");
+        string(stmt.name);
+        field("init", stmt.initializer);
+        b.append('}');
+        return null;
+    }
+
+    @Override
+    public Void visitRead(Statement.Read stmt) {
+        position(stmt.kind, stmt.line, stmt.column);
+        b.append(",\"name\":");
+        string(stmt.name).append('}');
+        return null;
+    }
+
+    @Override
+    public Void visitWrite(Statement.Write stmt) {
+        position(stmt.kind, stmt.line, stmt.column);
+        field("value", stmt.value);
+        b.append('}');
+        return null;
+    }
+
+    @Override
+    public Void visitIf(Statement.If stmt) {
+        position(stmt.kind, stmt.line, stmt.column);
+        field("condition", stmt.condition);
+        field("then", stmt.thenBranch);
+        field("else", stmt.elseBranch);
+        b.append('}');
+        return null;
+    }
+
+    @Override
+    public Void visitWhile(Statement.While stmt) {
+        position(stmt.kind, stmt.line, stmt.column);
+        field("condition", stmt.condition);
+        field("body", stmt.body);
+        b.append('}');
+        return null;
+    }
+
+    @Override
+    public Void visitBlock(Statement.Block stmt) {
+        position(stmt.kind, stmt.line, stmt.column);
+        b.append(",\"statements\":[");
+        for (int i = 0; i < stmt.statements.size(); i++) {
+            if (i > 0) b.append(',');
+            stmt.statements.get(i).accept(this);
+        }
+        b.append("]}");
+        out.check();
+        return null;
+    }
+
+    @Override
+    public Void visitExpression(Statement.Expression stmt) {
+        position(stmt.kind, stmt.line, stmt.column);
+        field("expr", stmt.expr);
+        b.append('}');
+        return null;
+    }
+
+    // EXPRESIONES
+
+    @Override
+    public Void visitBinary(Expr.Binary expr) {
+        b.append("{\"node\":\"binary\",\"op\":");
+        string(expr.op.lexeme);
+        field("left", expr.left);
+        field("right", expr.right);
+        b.append('}');
+        return null;
+    }
+
+    @Override
+    public Void visitUnary(Expr.Unary expr) {
+        b.append("{\"node\":\"unary\",\"op\":");
+        string(expr.op.lexeme);
+        field("operand", expr.operand);
+        b.append('}');
+        return null;
+    }
+
+    @Override
+    public Void visitLiteral(Expr.Literal expr) {
+        b.append("{\"node\":\"literal\",\"value\":");
+        switch (expr.kind) {
+            case LONG: b.append(expr.bits); break;
+            case DOUBLE: number(expr.doubleValue()); break;
+            case BOOLEAN: b.append(expr.bits != 0); break;
+            case STRING: string(expr.string); break;
+            default: b.append("null"); break;
+        }
+        b.append('}');
+        return null;
+    }
+
+    @Override
+    public Void visitVariable(Expr.Variable expr) {
+        b.append("{\"node\":\"variable\",\"name\":");
+        string(expr.name).append('}');
+        return null;
+    }
+
+    @Override
+    public Void visitAssign(Expr.Assign expr) {
+        b.append("{\"node\":\"assign\",\"name\":");
+        string(expr.name).append(",\"op\":");
+        string(expr.op.lexeme);
+        field("value", expr.value);
+        b.append('}');
+        return null;
+    }
+}
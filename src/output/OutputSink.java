@@ -0,0 +1,115 @@
+package output;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/* Único destino de los volcados. Acumula texto en un búfer grande y lo
+ * codifica a UTF-8 por bloques, así imprimir un millón de tokens son unas
+ * pocas escrituras y no una por línea. Los números se agregan sin formatear
+ * con printf.
+ */
+public final class OutputSink {
+    private static final int FLUSH_AT = 1 << 16;
+
+    private final OutputStream out;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_AT + 1024);
+    // un sustituto suelto se reemplaza por '?' en vez de abortar la salida
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(FLUSH_AT * 3);
+
+    public OutputSink(OutputStream out) {
+        this.out = out;
+    }
+
+    // Salida estándar sin pasar por el PrintStream de System.out
+    public static OutputSink stdout() {
+        return new OutputSink(new FileOutputStream(FileDescriptor.out));
+    }
+
+    public OutputSink append(CharSequence s) {
+        buffer.append(s);
+        return check();
+    }
+
+    public OutputSink append(CharSequence s, int start, int end) {
+        buffer.append(s, start, end);
+        return check();
+    }
+
+    public OutputSink append(char c) {
+        buffer.append(c);
+        return check();
+    }
+
+    public OutputSink append(long v) {
+        buffer.append(v);
+        return check();
+    }
+
+    public OutputSink append(double v) {
+        buffer.append(v);
+        return check();
+    }
+
+    public OutputSink newline() {
+        buffer.append('\n');
+        return check();
+    }
+
+    // Texto alineado a la izquierda en una columna de width caracteres (como %-10s)
+    public OutputSink pad(CharSequence s, int width) {
+        buffer.append(s);
+        for (int i = s.length(); i < width; i++) buffer.append(' ');
+        return check();
+    }
+
+    /* Acceso directo al búfer para quien arma texto por partes (AstPrinter).
+     * Después hay que llamar a check() para que se vuelque si creció.
+     */
+    public StringBuilder buffer() {
+        return buffer;
+    }
+
+    public OutputSink check() {
+        if (buffer.length() >= FLUSH_AT) drain();
+        return this;
+    }
+
+    public void flush() {
+        drain();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void drain() {
+        if (buffer.length() == 0) return;
+        CharBuffer chars = CharBuffer.wrap(buffer);
+        encoder.reset();
+        while (encoder.encode(chars, bytes, true).isOverflow()) write();
+        while (encoder.flush(bytes).isOverflow()) write();
+        write();
+        buffer.setLength(0);
+    }
+
+    private void write() {
+        try {
+            out.write(bytes.array(), 0, bytes.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        bytes.clear();
+    }
+}
@@ -0,0 +1,6 @@
+package output;
+
+// Partes del resultado que se pueden pedir por separado (--tokens, --ast, --symbols)
+public enum Section {
+    TOKENS, AST, SYMBOLS
+}
@@ -0,0 +1,123 @@
+package output;
+
+import error.Category;
+import error.ErrorHandler;
+import lexer.TokenBuffer;
+import parser.AstPrinter;
+import parser.Statement;
+import symboltable.SymbolTable;
+import vm.Program;
+
+import java.io.PrintStream;
+import java.util.EnumSet;
+import java.util.List;
+
+/* El formato legible de siempre. Los tokens se escriben desde el
+ * TokenBuffer sin crear objetos Token, y la tabla de símbolos se alinea a
+ * mano en lugar de usar printf. Los errores van aparte, a stderr o al
+ * stream que se indique.
+ */
+public final class TextDump implements Dump {
+    private static final int COLUMN = 10;
+
+    private final OutputSink out;
+    private final EnumSet<Section> sections;
+    private final boolean quiet;
+    private final PrintStream err;
+
+    // quiet también calla los encabezados de error; los diagnósticos se imprimen igual
+    public TextDump(OutputSink out, EnumSet<Section> sections, boolean quiet) {
+        this(out, sections, quiet, System.err);
+    }
+
+    public TextDump(OutputSink out, EnumSet<Section> sections, boolean quiet, PrintStream err) {
+        this.out = out;
+        this.sections = sections;
+        this.quiet = quiet;
+        this.err = err;
+    }
+
+    @Override
+    public void tokens(TokenBuffer tokens) {
+        if (!sections.contains(Section.TOKENS)) return;
+        out.append("=== TOKENS ===\n");
+        StringBuilder b = out.buffer();
+        for (int i = 0; i < tokens.size(); i++) {
+            b.append(tokens.type(i).name()).append("('");
+            tokens.appendLexeme(i, b).append("')@").append(tokens.line(i)).append(':').append(tokens.column(i));
+            switch (tokens.type(i)) {
+                case INT_LITERAL: b.append(' ').append(tokens.value(i)); break;
+                case DOUBLE_LITERAL: b.append(' ').append(Double.longBitsToDouble(tokens.value(i))); break;
+                case TRUE: b.append(" true"); break;
+                case FALSE: b.append(" false"); break;
+                case IDENTIFIER: tokens.appendLexeme(i, b.append(' ')); break;
+                case STRING_LITERAL:
+                    b.append(' ').append(tokens.source(), tokens.start(i) + 1, tokens.start(i) + tokens.length(i) - 1);
+                    break;
+                default: break;
+            }
+            b.append('\n');
+            out.check();
+        }
+    }
+
+    @Override
+    public void failed(Category phase, ErrorHandler errors) {
+        if (!quiet) {
+            String what = phase == Category.LEXICAL ? "léxicos"
+                    : phase == Category.SYNTACTIC ? "sintácticos" : "semánticos";
+            out.append("\n❌ Se detectaron errores ").append(what).append(":\n");
+        }
+        // stdout antes que stderr para que en la terminal el orden sea el de siempre
+        out.flush();
+        errors.print(err);
+    }
+
+    @Override
+    public void warnings(ErrorHandler errors) {
+        out.flush();
+        errors.printWarnings(err);
+    }
+
+    @Override
+    public void program(List<Statement> statements, int eliminated) {
+        if (!sections.contains(Section.AST)) return;
+        out.append("\n✅ Análisis sintáctico exitoso.\n\n");
+        out.append("=== ESTRUCTURA DEL PROGRAMA ===\n");
+        for (Statement s : statements) {
+            AstPrinter.print(s, out.buffer()).append('\n');
+            out.check();
+        }
+        if (eliminated >= 0) {
+            out.append("\nOptimización: ").append(eliminated).append(" nodos eliminados.\n");
+        }
+    }
+
+    @Override
+    public void symbols(SymbolTable table) {
+        if (!sections.contains(Section.SYMBOLS)) return;
+        out.append("\n\n=== TABLA DE SÍMBOLOS ===\n");
+        row("Nombre", "Tipo", "Valor", "Ámbito", "Línea");
+        out.append("------------------------------------------------------\n");
+        for (SymbolTable.Scope scope : table.getScopes()) {
+            for (SymbolTable.SymbolInfo s : scope.symbols()) {
+                row(s.name, s.type, s.value != null ? String.valueOf(s.value) : "-", s.scope, Integer.toString(s.line));
+            }
+        }
+    }
+
+    private void row(String name, String type, String value, String scope, String line) {
+        out.pad(name, COLUMN).append(' ').pad(type, COLUMN).append(' ').pad(value, COLUMN).append(' ')
+                .pad(scope, COLUMN).append(' ').pad(line, COLUMN).newline();
+    }
+
+    @Override
+    public void bytecode(Program program) {
+        out.append("\n=== BYTECODE ===\n").append(program.disassemble());
+    }
+
+    @Override
+    public void finish(ErrorHandler errors) {
+        out.flush();
+    }
+}
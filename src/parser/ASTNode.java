@@ -3,4 +3,11 @@ package parser;
 public abstract class ASTNode {
     public int line;
     public int column;
+    // Niveles del subárbol (1 = hoja); las fases recursivas dimensionan su pila con esto (ver driver.TreeStack)
+    public int height = 1;
+
+    // Altura de un hijo que puede faltar (else, inicializador, nodos de un resultado con errores)
+    protected static int height(ASTNode node) {
+        return node != null ? node.height : 0;
+    }
 }
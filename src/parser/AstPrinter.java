@@ -0,0 +1,169 @@
+package parser;
+
+/* Representación legible del árbol para los volcados de Main.
+ * Las expresiones binarias y las asignaciones se imprimen entre paréntesis
+ * para que la precedencia resuelta por el parser quede a la vista.
+ */
+public class AstPrinter implements Statement.Visitor<Void>, Expr.Visitor<Void> {
+    private final StringBuilder out;
+    private int indent = 0;
+
+    private AstPrinter(StringBuilder out) {
+        this.out = out;
+    }
+
+    public static String print(Statement stmt) {
+        return print(stmt, new StringBuilder()).toString();
+    }
+
+    // Agrega la sentencia a un búfer ajeno (el del volcado) sin crear un String intermedio
+    public static StringBuilder print(Statement stmt, StringBuilder out) {
+        stmt.accept(new AstPrinter(out));
+        return out;
+    }
+
+    public static String print(Expr expr) {
+        AstPrinter p = new AstPrinter(new StringBuilder());
+        expr.accept(p);
+        return p.out.toString();
+    }
+
+    private void header(Statement stmt) {
+        out.append(stmt.kind).append(" -> ");
+    }
+
+    private void footer(Statement stmt) {
+        out.append(" (línea ").append(stmt.line).append(")");
+    }
+
+    private void child(String label, Statement stmt) {
+        indent++;
+        out.append('\n');
+        for (int i = 0; i < indent; i++) out.append("  ");
+        if (label != null) out.append(label).append(": ");
+        stmt.accept(this);
+        indent--;
+    }
+
+    // SENTENCIAS
+
+    @Override
+    public Void visitVarDecl(Statement.VarDecl stmt) {
+        header(stmt);
+        out.append(stmt.type).append(' ').append(stmt.name);
+        if (stmt.initializer != null) {
+            out.append(" = ");
+            stmt.initializer.accept(this);
+        }
+        footer(stmt);
+        return null;
+    }
+
+    @Override
+    public Void visitRead(Statement.Read stmt) {
+        header(stmt);
+        out.append(stmt.name);
+        footer(stmt);
+        return null;
+    }
+
+    @Override
+    public Void visitWrite(Statement.Write stmt) {
+        header(stmt);
+        stmt.value.accept(this);
+        footer(stmt);
+        return null;
+    }
+
+    @Override
+    public Void visitIf(Statement.If stmt) {
+        header(stmt);
+        stmt.condition.accept(this);
+        footer(stmt);
+        child("then", stmt.thenBranch);
+        if (stmt.elseBranch != null) child("else", stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitWhile(Statement.While stmt) {
+        header(stmt);
+        stmt.condition.accept(this);
+        footer(stmt);
+        child(null, stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visitBlock(Statement.Block stmt) {
+        header(stmt);
+        out.append(stmt.statements.size()).append(" sentencias");
+        footer(stmt);
+        for (Statement s : stmt.statements) child(null, s);
+        return null;
+    }
+
+    @Override
+    public Void visitExpression(Statement.Expression stmt) {
+        header(stmt);
+        stmt.expr.accept(this);
+        footer(stmt);
+        return null;
+    }
+
+    // EXPRESIONES
+
+    @Override
+    public Void visitBinary(Expr.Binary expr) {
+        out.append('(');
+        expr.left.accept(this);
+        out.append(' ').append(expr.op.lexeme).append(' ');
+        expr.right.accept(this);
+        out.append(')');
+        return null;
+    }
+
+    @Override
+    public Void visitUnary(Expr.Unary expr) {
+        out.append(expr.op.lexeme);
+        // "- -x" o "- -5" pegados se leerían como "--"
+        boolean nested = expr.operand instanceof Expr.Unary || isNegative(expr.operand);
+        if (nested) out.append('(');
+        expr.operand.accept(this);
+        if (nested) out.append(')');
+        return null;
+    }
+
+    // Literal numérico con signo (solo los deja así el plegado de constantes)
+    private static boolean isNegative(Expr expr) {
+        if (!(expr instanceof Expr.Literal)) return false;
+        Expr.Literal lit = (Expr.Literal) expr;
+        return lit.kind.isNumeric() && lit.bits < 0; // en un double, bits < 0 es el bit de signo
+    }
+
+    @Override
+    public Void visitLiteral(Expr.Literal expr) {
+        switch (expr.kind) {
+            case LONG: out.append(expr.bits); break;
+            case DOUBLE: out.append(expr.doubleValue()); break;
+            case BOOLEAN: out.append(expr.bits != 0); break;
+            case STRING: out.append('"').append(expr.string).append('"'); break;
+            default: out.append("null"); break;
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitVariable(Expr.Variable expr) {
+        out.append(expr.name);
+        return null;
+    }
+
+    @Override
+    public Void visitAssign(Expr.Assign expr) {
+        out.append('(').append(expr.name).append(' ').append(expr.op.lexeme).append(' ');
+        expr.value.accept(this);
+        out.append(')');
+        return null;
+    }
+}
@@ -0,0 +1,157 @@
+package parser;
+
+import lexer.TokenType;
+import symboltable.DataType;
+import symboltable.SymbolTable;
+
+// Nodos de expresión. Cada fase recorre el árbol con un Visitor.
+public abstract class Expr extends ASTNode {
+    // Tipo inferido por el análisis semántico; null hasta entonces
+    public DataType type;
+
+    public interface Visitor<R> {
+        R visitBinary(Binary expr);
+        R visitUnary(Unary expr);
+        R visitLiteral(Literal expr);
+        R visitVariable(Variable expr);
+        R visitAssign(Assign expr);
+    }
+
+    public abstract <R> R accept(Visitor<R> visitor);
+
+    protected Expr(int line, int column) {
+        this.line = line;
+        this.column = column;
+    }
+
+    // a op b, con op aritmético, relacional o lógico
+    public static class Binary extends Expr {
+        public final Expr left;
+        public final TokenType op;
+        public final Expr right;
+
+        public Binary(Expr left, TokenType op, Expr right, int line, int column) {
+            super(line, column);
+            this.left = left;
+            this.op = op;
+            this.right = right;
+            this.height = 1 + Math.max(height(left), height(right));
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitBinary(this); }
+    }
+
+    // -a, !a
+    public static class Unary extends Expr {
+        public final TokenType op;
+        public final Expr operand;
+
+        public Unary(TokenType op, Expr operand, int line, int column) {
+            super(line, column);
+            this.op = op;
+            this.operand = operand;
+            this.height = 1 + height(operand);
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitUnary(this); }
+    }
+
+    /* Constante del fuente o del plegado. kind es el tipo del valor (LONG,
+     * DOUBLE, BOOLEAN o STRING; ERROR si la expresión no se pudo parsear). Los
+     * números y booleanos van sin empaquetar en bits: el long, los bits crudos
+     * del double, o 1/0. string es el texto de una cadena.
+     */
+    public static class Literal extends Expr {
+        public final DataType kind;
+        public final long bits;
+        public final String string;
+
+        public Literal(DataType kind, long bits, String string, int line, int column) {
+            super(line, column);
+            this.kind = kind;
+            this.bits = bits;
+            this.string = string;
+        }
+
+        public static Literal ofLong(long value, int line, int column) {
+            return new Literal(DataType.LONG, value, null, line, column);
+        }
+
+        public static Literal ofDouble(double value, int line, int column) {
+            return new Literal(DataType.DOUBLE, Double.doubleToRawLongBits(value), null, line, column);
+        }
+
+        public static Literal ofBoolean(boolean value, int line, int column) {
+            return new Literal(DataType.BOOLEAN, value ? 1 : 0, null, line, column);
+        }
+
+        public static Literal ofString(String value, int line, int column) {
+            return new Literal(DataType.STRING, 0, value, line, column);
+        }
+
+        public boolean isDouble() { return kind == DataType.DOUBLE; }
+
+        public long longValue() {
+            return isDouble() ? (long) Double.longBitsToDouble(bits) : bits;
+        }
+
+        public double doubleValue() {
+            return isDouble() ? Double.longBitsToDouble(bits) : (double) bits;
+        }
+
+        // Verdad en una condición: distinto de cero para los números (-0.0 es falso)
+        public boolean truth() {
+            return isDouble() ? Double.longBitsToDouble(bits) != 0 : bits != 0;
+        }
+
+        // El valor empaquetado (Long, Double, Boolean, String o null), solo para mostrarlo
+        public Object value() {
+            switch (kind) {
+                case LONG: return bits;
+                case DOUBLE: return Double.longBitsToDouble(bits);
+                case BOOLEAN: return bits != 0;
+                case STRING: return string;
+                default: return null;
+            }
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitLiteral(this); }
+    }
+
+    public static class Variable extends Expr {
+        public final String name;
+        public int nameId = -1; // id del nombre en la NameTable del parser; -1 si el nodo no salió de él
+        public SymbolTable.SymbolInfo symbol; // resuelto por el análisis semántico
+
+        public Variable(String name, int line, int column) {
+            super(line, column);
+            this.name = name;
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitVariable(this); }
+    }
+
+    // nombre op valor, con op = ASSIGN o una asignación compuesta (+=, -=, *=, /=)
+    public static class Assign extends Expr {
+        public final String name;
+        public final TokenType op;
+        public final Expr value;
+        public int nameId = -1; // como en Variable
+        public SymbolTable.SymbolInfo symbol; // resuelto por el análisis semántico
+
+        public Assign(String name, TokenType op, Expr value, int line, int column) {
+            super(line, column);
+            this.name = name;
+            this.op = op;
+            this.value = value;
+            this.height = 1 + height(value);
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitAssign(this); }
+    }
+}
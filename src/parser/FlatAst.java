@@ -0,0 +1,259 @@
+package parser;
+
+import lexer.TokenBuffer;
+import lexer.TokenType;
+import symboltable.DataType;
+
+import java.util.Arrays;
+
+/* Árbol sintáctico plano: una arena por unidad de compilación con un nodo
+ * por posición en arreglos primitivos paralelos (tipo de nodo, primer hijo,
+ * hermano siguiente, índice del token en el TokenBuffer y tipo inferido).
+ * No hay un objeto por nodo: el lexema, la posición y el valor de un
+ * literal se leen del TokenBuffer con el índice del token.
+ *
+ * Los nodos se guardan en postorden (FlatParser agrega cada nodo después de
+ * sus hijos), así que recorrer 0..size()-1 visita cada nodo después de sus
+ * hijos leyendo la memoria en orden: es el recorrido para pasadas de abajo
+ * hacia arriba (tipos, plegado de constantes). La raíz PROGRAM es el último
+ * nodo y sus hijos son las sentencias de nivel superior. Para recorrer de
+ * arriba hacia abajo están Cursor (preorden) y walk(Visitor), ambos sin
+ * recursión.
+ *
+ * Hijos de cada nodo, en orden:
+ *   VAR_DECL    inicializador (opcional)    token: long/double; el nombre es el token siguiente
+ *   READ        -                           token: read; el nombre es token + 2
+ *   WRITE       expresión                   token: write
+ *   IF          condición, then, else (opcional)
+ *   WHILE       condición, cuerpo
+ *   BLOCK       sentencias                  token: '{'
+ *   EXPRESSION  expresión                   token: el primero de la expresión
+ *   BINARY      izquierdo, derecho          token: el operador
+ *   UNARY       operando                    token: el operador
+ *   LITERAL     -                           token: el literal (o true/false)
+ *   VARIABLE    -                           token: el identificador
+ *   ASSIGN      VARIABLE destino, valor     token: el operador (=, +=, ...)
+ *
+ * La memoria se libera toda junta: reset() deja la arena vacía para la
+ * próxima unidad reutilizando los arreglos, y soltarla deja al GC cinco
+ * arreglos en lugar de un objeto por nodo.
+ */
+public final class FlatAst {
+    public enum Kind {
+        PROGRAM, VAR_DECL, READ, WRITE, IF, WHILE, BLOCK, EXPRESSION,
+        BINARY, UNARY, LITERAL, VARIABLE, ASSIGN
+    }
+
+    public static final int NONE = -1;
+    private static final Kind[] KINDS = Kind.values();
+    private static final DataType[] TYPES = DataType.values();
+
+    private TokenBuffer tokens;
+    private int size = 0;
+    private byte[] kinds;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private int[] tokenIndex;
+    private byte[] types; // ordinal de DataType + 1; 0 = sin tipo todavía
+
+    public FlatAst(TokenBuffer tokens) {
+        // un nodo cada ~2 tokens en programas típicos
+        this(Math.max(16, tokens.size() / 2));
+        this.tokens = tokens;
+    }
+
+    // Arena vacía para reutilizar en varias unidades (FlatParser.parseInto la asocia a sus tokens)
+    public FlatAst(int capacity) {
+        kinds = new byte[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        tokenIndex = new int[capacity];
+        types = new byte[capacity];
+    }
+
+    // Vacía la arena para otra unidad; los arreglos se conservan
+    public void reset(TokenBuffer newTokens) {
+        tokens = newTokens;
+        size = 0;
+    }
+
+    /* Agrega un nodo cuyos hijos son first y los que le siguen por
+     * nextSibling (ya enlazados con link()). Devuelve su índice.
+     */
+    int add(Kind kind, int token, int first) {
+        if (size == kinds.length) grow();
+        kinds[size] = (byte) kind.ordinal();
+        firstChild[size] = first;
+        nextSibling[size] = NONE;
+        tokenIndex[size] = token;
+        types[size] = 0;
+        return size++;
+    }
+
+    // Enlaza hijos consecutivos; devuelve next para encadenar
+    int link(int node, int next) {
+        nextSibling[node] = next;
+        return next;
+    }
+
+    private void grow() {
+        int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        tokenIndex = Arrays.copyOf(tokenIndex, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+
+    public TokenBuffer tokens() { return tokens; }
+    public int size() { return size; }
+    public int root() { return size - 1; }
+    public Kind kind(int node) { return KINDS[kinds[node]]; }
+    public int firstChild(int node) { return firstChild[node]; }
+    public int nextSibling(int node) { return nextSibling[node]; }
+    public int token(int node) { return tokenIndex[node]; }
+
+    public DataType type(int node) {
+        return types[node] == 0 ? null : TYPES[types[node] - 1];
+    }
+
+    public void setType(int node, DataType type) {
+        types[node] = (byte) (type == null ? 0 : type.ordinal() + 1);
+    }
+
+    // Hijo número k (desde 0), o NONE
+    public int child(int node, int k) {
+        int c = firstChild[node];
+        while (k-- > 0 && c != NONE) c = nextSibling[c];
+        return c;
+    }
+
+    // Operador de BINARY, UNARY y ASSIGN
+    public TokenType op(int node) {
+        return tokens.type(tokenIndex[node]);
+    }
+
+    // Token del nombre de VAR_DECL, READ, VARIABLE y ASSIGN
+    public int nameToken(int node) {
+        switch (kind(node)) {
+            case VAR_DECL: return tokenIndex[node] + 1;
+            case READ: return tokenIndex[node] + 2;
+            case ASSIGN: return tokenIndex[firstChild[node]];
+            default: return tokenIndex[node];
+        }
+    }
+
+    // Id del nombre en la NameTable del TokenBuffer, sin crear el String
+    public int nameId(int node) {
+        return (int) tokens.value(nameToken(node));
+    }
+
+    public String name(int node) {
+        return tokens.lexeme(nameToken(node));
+    }
+
+    // Valor de un LITERAL sin empaquetar: el long o los bits del double (ver TokenBuffer)
+    public long bits(int node) {
+        return tokens.value(tokenIndex[node]);
+    }
+
+    // Valor de un LITERAL como Expr.Literal.value() (Long, Double, String o Boolean)
+    public Object literal(int node) {
+        return tokens.literal(tokenIndex[node]);
+    }
+
+    // Posición como la del nodo de objetos equivalente (ASSIGN toma la de su destino)
+    public int line(int node) {
+        return tokens.line(positionToken(node));
+    }
+
+    public int column(int node) {
+        return tokens.column(positionToken(node));
+    }
+
+    private int positionToken(int node) {
+        return kinds[node] == Kind.ASSIGN.ordinal() ? tokenIndex[firstChild[node]] : tokenIndex[node];
+    }
+
+    /* Recorrido en preorden desde un nodo con una pila propia de ancestros:
+     *   for (Cursor c = ast.cursor(ast.root()); c.next(); ) ... c.node() ...
+     */
+    public Cursor cursor(int from) {
+        return new Cursor(from);
+    }
+
+    public final class Cursor {
+        private final int start;
+        private int node = NONE;
+        private int[] parents = new int[16];
+        private int depth = 0;
+        private boolean skip;
+
+        private Cursor(int start) {
+            this.start = start;
+        }
+
+        public int node() { return node; }
+
+        // Profundidad relativa al nodo inicial (0 para él)
+        public int depth() { return depth; }
+
+        // next() no baja a los hijos del nodo actual
+        public void skipChildren() { skip = true; }
+
+        public boolean next() {
+            if (node == NONE) {
+                if (start == NONE || depth < 0) return false;
+                node = start;
+                return true;
+            }
+            int child = skip ? NONE : firstChild[node];
+            skip = false;
+            if (child != NONE) {
+                if (depth == parents.length) parents = Arrays.copyOf(parents, depth * 2);
+                parents[depth++] = node;
+                node = child;
+                return true;
+            }
+            while (depth > 0 && nextSibling[node] == NONE) node = parents[--depth];
+            if (depth == 0) {
+                depth = -1; // terminado
+                return false;
+            }
+            node = nextSibling[node];
+            return true;
+        }
+    }
+
+    public interface Visitor {
+        // Devuelve false para no visitar los hijos (tampoco se llama exit)
+        boolean enter(FlatAst ast, int node);
+
+        default void exit(FlatAst ast, int node) {}
+    }
+
+    // Llama enter() en preorden y exit() al terminar cada subárbol
+    public void walk(int from, Visitor visitor) {
+        if (from == NONE) return;
+        int[] stack = new int[16];
+        int depth = 0;
+        int node = from;
+        while (true) {
+            boolean entered = visitor.enter(this, node);
+            int child = entered ? firstChild[node] : NONE;
+            if (child != NONE) {
+                if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                stack[depth++] = node;
+                node = child;
+                continue;
+            }
+            if (entered) visitor.exit(this, node);
+            while (node != from && nextSibling[node] == NONE) {
+                node = stack[--depth];
+                visitor.exit(this, node);
+            }
+            if (node == from) return;
+            node = nextSibling[node];
+        }
+    }
+}
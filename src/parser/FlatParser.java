@@ -0,0 +1,206 @@
+package parser;
+
+import lexer.TokenBuffer;
+import lexer.TokenType;
+import parser.FlatAst.Kind;
+
+/* Parser que arma un FlatAst directamente desde el TokenBuffer: avanza por
+ * índices de token y agrega nodos a la arena, sin materializar Tokens ni
+ * crear nodos objeto. Cada regla devuelve el índice del nodo que armó.
+ *
+ * Es la misma gramática que Parser, pero estricta: no reporta ni se
+ * recupera de errores. Ante el primer error de sintaxis parseInto()
+ * devuelve false y quien llama vuelve a parsear con Parser para tener los
+ * diagnósticos de siempre (el caso raro, como en ParallelLexer). Acepta
+ * exactamente los programas en los que Parser no reporta errores. Es
+ * recursivo como el modo por defecto de Parser; para anidamientos extremos
+ * está Parser.stackSafe().
+ */
+public final class FlatParser {
+    private final TokenBuffer tokens;
+    private FlatAst ast;
+    private int pos = 0;
+
+    // Error de sintaxis: corta el parseo sin armar la traza
+    private static final class Mismatch extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Mismatch() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final Mismatch MISMATCH = new Mismatch();
+
+    public FlatParser(TokenBuffer tokens) {
+        this.tokens = tokens;
+    }
+
+    /* Vacía ast y lo llena con el programa. Devuelve false si hay errores
+     * de sintaxis; en ese caso el contenido de ast no sirve.
+     */
+    public boolean parseInto(FlatAst ast) {
+        this.ast = ast;
+        ast.reset(tokens);
+        pos = 0;
+        try {
+            int first = FlatAst.NONE, last = FlatAst.NONE;
+            while (!isAtEnd()) {
+                int stmt = declaration();
+                if (first == FlatAst.NONE) first = stmt;
+                else ast.link(last, stmt);
+                last = stmt;
+            }
+            ast.add(Kind.PROGRAM, pos, first);
+            return true;
+        } catch (Mismatch e) {
+            return false;
+        }
+    }
+
+    // SENTENCIAS
+
+    private int declaration() {
+        if (check(TokenType.LONG) || check(TokenType.DOUBLE)) {
+            int type = pos++;
+            expect(TokenType.IDENTIFIER);
+            int init = match(TokenType.ASSIGN) ? expression() : FlatAst.NONE;
+            expect(TokenType.SEMICOLON);
+            return ast.add(Kind.VAR_DECL, type, init);
+        }
+        return statement();
+    }
+
+    private int statement() {
+        int keyword = pos;
+        if (match(TokenType.READ)) {
+            expect(TokenType.LPAREN);
+            expect(TokenType.IDENTIFIER);
+            expect(TokenType.RPAREN);
+            expect(TokenType.SEMICOLON);
+            return ast.add(Kind.READ, keyword, FlatAst.NONE);
+        }
+        if (match(TokenType.WRITE)) {
+            expect(TokenType.LPAREN);
+            int value = expression();
+            expect(TokenType.RPAREN);
+            expect(TokenType.SEMICOLON);
+            return ast.add(Kind.WRITE, keyword, value);
+        }
+        if (match(TokenType.IF)) {
+            expect(TokenType.LPAREN);
+            int condition = expression();
+            expect(TokenType.RPAREN);
+            expect(TokenType.THEN);
+            int then = ast.link(condition, statement());
+            if (match(TokenType.ELSE)) ast.link(then, statement());
+            return ast.add(Kind.IF, keyword, condition);
+        }
+        if (match(TokenType.WHILE)) {
+            expect(TokenType.LPAREN);
+            int condition = expression();
+            expect(TokenType.RPAREN);
+            ast.link(condition, statement());
+            return ast.add(Kind.WHILE, keyword, condition);
+        }
+        if (match(TokenType.LBRACE)) {
+            int first = FlatAst.NONE, last = FlatAst.NONE;
+            while (!check(TokenType.RBRACE) && !isAtEnd()) {
+                int stmt = declaration();
+                if (first == FlatAst.NONE) first = stmt;
+                else ast.link(last, stmt);
+                last = stmt;
+            }
+            expect(TokenType.RBRACE);
+            return ast.add(Kind.BLOCK, keyword, first);
+        }
+        int expr = expression();
+        expect(TokenType.SEMICOLON);
+        return ast.add(Kind.EXPRESSION, keyword, expr);
+    }
+
+    // EXPRESIONES (de menor a mayor precedencia, como en Parser)
+
+    private int expression() {
+        int target = binary(1);
+        TokenType type = tokens.type(pos);
+        if (type == TokenType.ASSIGN || type == TokenType.PLUS_EQ || type == TokenType.MINUS_EQ
+                || type == TokenType.STAR_EQ || type == TokenType.SLASH_EQ) {
+            int op = pos++;
+            // Parser reporta INVALID_ASSIGN_TARGET si el destino no es una variable
+            if (ast.kind(target) != Kind.VARIABLE) throw MISMATCH;
+            ast.link(target, expression());
+            return ast.add(Kind.ASSIGN, op, target);
+        }
+        return target;
+    }
+
+    // Binarios de nivel >= level, asociativos a izquierda (|| = 1 ... * / = 6)
+    private int binary(int level) {
+        int left = level == 6 ? unary() : binary(level + 1);
+        while (level(tokens.type(pos)) == level) {
+            int op = pos++;
+            int right = level == 6 ? unary() : binary(level + 1);
+            ast.link(left, right);
+            left = ast.add(Kind.BINARY, op, left);
+        }
+        return left;
+    }
+
+    private static int level(TokenType type) {
+        switch (type) {
+            case OR_OR: return 1;
+            case AND_AND: return 2;
+            case EQEQ: case NEQ: return 3;
+            case GT: case GE: case LT: case LE: return 4;
+            case PLUS: case MINUS: return 5;
+            case STAR: case SLASH: return 6;
+            default: return 0;
+        }
+    }
+
+    private int unary() {
+        if (check(TokenType.BANG) || check(TokenType.MINUS)) {
+            int op = pos++;
+            return ast.add(Kind.UNARY, op, unary());
+        }
+        return primary();
+    }
+
+    private int primary() {
+        switch (tokens.type(pos)) {
+            case INT_LITERAL: case DOUBLE_LITERAL: case STRING_LITERAL: case TRUE: case FALSE:
+                return ast.add(Kind.LITERAL, pos++, FlatAst.NONE);
+            case IDENTIFIER:
+                return ast.add(Kind.VARIABLE, pos++, FlatAst.NONE);
+            case LPAREN: {
+                pos++;
+                int expr = expression();
+                expect(TokenType.RPAREN);
+                return expr;
+            }
+            default:
+                throw MISMATCH;
+        }
+    }
+
+    // UTILIDADES
+
+    private boolean check(TokenType type) {
+        return tokens.type(pos) == type && type != TokenType.EOF;
+    }
+
+    private boolean match(TokenType type) {
+        if (!check(type)) return false;
+        pos++;
+        return true;
+    }
+
+    private void expect(TokenType type) {
+        if (!match(type)) throw MISMATCH;
+    }
+
+    private boolean isAtEnd() {
+        return tokens.type(pos) == TokenType.EOF;
+    }
+}
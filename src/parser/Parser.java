@@ -2,42 +2,100 @@ package parser;
 
 import lexer.*;
 import error.*;
-import symboltable.SymbolTable;
+import symboltable.DataType;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Parser {
-    private final List<Token> tokens;
+    private final TokenStream tokens;
     private final ErrorHandler errors;
-    private int current = 0;
 
     private final List<Statement> statements = new ArrayList<>();
-    private final SymbolTable symbolTable = new SymbolTable(); // ✅ Tabla de símbolos
-
-    public Parser(List<Token> tokens, ErrorHandler errors) {
+    // Modo pánico: tras un error se callan los siguientes hasta la próxima sentencia,
+    // que es donde synchronize() dejó el parser
+    private boolean panicMode;
+    private boolean stackSafe;
+    // Sentencias y expresiones abiertas en la pila de llamadas (modo recursivo)
+    private int nesting;
+
+    public Parser(TokenStream tokens, ErrorHandler errors) {
         this.tokens = tokens;
         this.errors = errors;
     }
 
-    public SymbolTable getSymbolTable() {
-        return symbolTable;
+    // Parsea tirando tokens del lexer a medida que se necesitan
+    public Parser(TokenSource source, ErrorHandler errors) {
+        this(TokenStream.of(source), errors);
+    }
+
+    public Parser(List<Token> tokens, ErrorHandler errors) {
+        this(TokenStream.of(tokens), errors);
+    }
+
+    /* Modo sin recursión: sentencias y expresiones se parsean con pilas de
+     * trabajo en el heap en lugar de la pila de llamadas, así que el
+     * anidamiento ({ { ..., if ... then if ..., ((( ... ))), - - x,
+     * a = b = ...) solo lo limita la memoria. Da el mismo árbol y los mismos
+     * diagnósticos que el modo recursivo, que sigue siendo el de siempre por
+     * ser algo más rápido en programas normales.
+     *
+     * El modo recursivo tampoco desborda la pila: pasados MAX_NESTING niveles
+     * sigue con estas mismas pilas (ver withoutRecursion), y "- - x" y
+     * "a = b = ..." van en bucles. Las fases que recorren el árbol después
+     * corren con una pila a la medida de su altura (ver driver.TreeStack).
+     */
+    // Tabla de los ids de nombre que quedan en los nodos (nameId), para el análisis semántico
+    public NameTable names() {
+        return tokens.names();
+    }
+
+    public Parser stackSafe() {
+        stackSafe = true;
+        return this;
     }
 
     public List<Statement> parse() {
-        while (!isAtEnd()) {
+        while (!isAtEnd() && !errors.isAborted()) {
             Statement stmt = declaration();
             if (stmt != null) statements.add(stmt);
         }
         return statements;
     }
 
+    // Parsea una sola declaración de nivel superior (null si tuvo errores).
+    // Junto con position() permite al modo incremental reparsear por tramos.
+    public Statement parseDeclaration() {
+        return declaration();
+    }
+
+    public ErrorHandler getErrors() {
+        return errors;
+    }
+
+    public boolean hasMore() {
+        return !isAtEnd() && !errors.isAborted();
+    }
+
+    // Índice del próximo token a consumir
+    public int position() {
+        return tokens.position();
+    }
+
     //REGLAS PRINCIPALES
     private Statement declaration() {
+        if (stackSafe) return stackSafeStatement(START_DECLARATION);
+        if (nesting == MAX_NESTING) return withoutRecursion(START_DECLARATION);
+        panicMode = false;
         if (match(TokenType.LONG, TokenType.DOUBLE)) {
             return varDeclaration(); // ✅ llamadas a declaraciones de variables
         }
-        return statement();
+        int before = position();
+        Statement stmt = statement();
+        // Si la recuperación de errores no consumió nada (p. ej. "; else"), se salta el token
+        if (position() == before) advance();
+        return stmt;
     }
 
     // Declaraciones de variables
@@ -46,80 +104,66 @@ public class Parser {
 
         if (!check(TokenType.IDENTIFIER)) {
             error(peek(), "Se esperaba un identificador después del tipo.");
-            synchronize();
             return null;
         }
 
+        int nameId = tokens.peekName();
         Token name = advance();
-        StringBuilder content = new StringBuilder();
-        content.append(typeToken.lexeme).append(" ").append(name.lexeme);
-
-        symbolTable.addSymbol(name.lexeme, typeToken.lexeme, null, "global", typeToken.line);
 
+        Expr initializer = null;
         if (match(TokenType.ASSIGN)) {
-            String valueExpr = expressionToString();
-            content.append(" = ").append(valueExpr);
+            initializer = expression();
         }
 
         consume(TokenType.SEMICOLON, "Se esperaba ';' después de la declaración.");
 
-        return new Statement("varDecl", content.toString(), typeToken.line, typeToken.column);
+        Statement.VarDecl decl = new Statement.VarDecl(typeToken.lexeme, name.lexeme, initializer, typeToken.line, typeToken.column);
+        decl.nameId = nameId;
+        return decl;
     }
 
     private Statement statement() {
-        if (match(TokenType.READ)) return readStatement();
-        if (match(TokenType.WRITE)) return writeStatement();
-        if (match(TokenType.IF)) return ifStatement();
-        if (match(TokenType.WHILE)) return whileStatement();
-        if (match(TokenType.LBRACE)) return blockStatement();
-
-        return exprStatement();
+        if (nesting == MAX_NESTING) return withoutRecursion(START_STATEMENT);
+        nesting++;
+        Statement stmt;
+        if (match(TokenType.READ)) stmt = readStatement();
+        else if (match(TokenType.WRITE)) stmt = writeStatement();
+        else if (match(TokenType.IF)) stmt = ifStatement();
+        else if (match(TokenType.WHILE)) stmt = whileStatement();
+        else if (match(TokenType.LBRACE)) stmt = blockStatement();
+        else stmt = exprStatement();
+        nesting--;
+        return stmt;
     }
 
     private Statement readStatement() {
+        Token keyword = previous();
         consume(TokenType.LPAREN, "Se esperaba '(' después de 'read'.");
+        int nameId = check(TokenType.IDENTIFIER) ? tokens.peekName() : -1;
         Token id = consume(TokenType.IDENTIFIER, "Se esperaba un identificador dentro de read().");
 
-        if (symbolTable.getSymbol(id.lexeme) == null) {
-            errors.addLexError(id.line, id.column, "Variable '" + id.lexeme + "' usada sin declarar.");
-        }
-
         consume(TokenType.RPAREN, "Falta ')' en read().");
         consume(TokenType.SEMICOLON, "Falta ';' después de read().");
-        return new Statement("read", id.lexeme, id.line, id.column);
+        Statement.Read read = new Statement.Read(id.lexeme, keyword.line, keyword.column);
+        read.nameId = nameId;
+        return read;
     }
 
     private Statement writeStatement() {
+        Token keyword = previous();
         consume(TokenType.LPAREN, "Se esperaba '(' después de 'write'.");
 
-        String expr = expressionToString();
-
-        String firstWord = expr.split(" ")[0];
-        if (Character.isLetter(firstWord.charAt(0)) || firstWord.startsWith("_")) {
-            if (!symbolTable.exists(firstWord) && !firstWord.matches("\\d+(\\.\\d+)?")) {
-                errors.addLexError(peek().line, peek().column,
-                        "Error semántico: variable '" + firstWord + "' usada sin declarar.");
-            }
-        }
+        Expr value = expression();
 
         consume(TokenType.RPAREN, "Falta ')' en write().");
         consume(TokenType.SEMICOLON, "Falta ';' después de write().");
-        return new Statement("write", expr, previous().line, previous().column);
+        return new Statement.Write(value, keyword.line, keyword.column);
     }
 
 
     private Statement ifStatement() {
-        consume(TokenType.LPAREN, "Se esperaba '(' después de 'if'.");
-        String condition = expressionToString();
-
-        String condType = inferExpressionType(condition);
-        if (!condType.equals("long") && !condType.equals("double")) {
-            errors.addLexError(peek().line, peek().column,
-                    "Error semántico: condición de if() debe ser numérica o booleana.");
-        }
-
-        consume(TokenType.RPAREN, "Falta ')' en condición de 'if'.");
-        consume(TokenType.THEN, "Falta 'then' después del if().");
+        Token keyword = previous();
+        Expr condition = ifCondition();
 
         Statement thenBranch = statement();
         Statement elseBranch = null;
@@ -127,85 +171,442 @@ public class Parser {
             elseBranch = statement();
         }
 
-        String content = "if (" + condition + ")";
-        if (elseBranch != null)
-            content += " [else incluido]";
-        return new Statement("if", content, previous().line, previous().column);
+        return new Statement.If(condition, thenBranch, elseBranch, keyword.line, keyword.column);
     }
 
 
     private Statement whileStatement() {
+        Token keyword = previous();
+        Expr condition = whileCondition();
+        Statement body = statement();
+        return new Statement.While(condition, body, keyword.line, keyword.column);
+    }
+
+    // Lo que va entre 'if' y la rama then
+    private Expr ifCondition() {
+        consume(TokenType.LPAREN, "Se esperaba '(' después de 'if'.");
+        Expr condition = expression();
+
+        consume(TokenType.RPAREN, "Falta ')' en condición de 'if'.");
+        consume(TokenType.THEN, "Falta 'then' después del if().");
+        return condition;
+    }
+
+    private Expr whileCondition() {
         consume(TokenType.LPAREN, "Se esperaba '(' después de 'while'.");
-        String condition = expressionToString();
+        Expr condition = expression();
         consume(TokenType.RPAREN, "Falta ')' en condición de 'while'.");
-        Statement body = blockStatement();
-        return new Statement("while", condition, previous().line, previous().column);
+        return condition;
     }
 
     private Statement blockStatement() {
-        symbolTable.beginScope();
+        Token brace = previous();
 
-        StringBuilder body = new StringBuilder();
+        List<Statement> body = new ArrayList<>();
         while (!check(TokenType.RBRACE) && !isAtEnd()) {
             Statement stmt = declaration();
-            if (stmt != null) body.append("\n  ").append(stmt);
+            if (stmt != null) body.add(stmt);
         }
 
         consume(TokenType.RBRACE, "Falta '}' para cerrar el bloque.");
-        symbolTable.endScope();
 
-        return new Statement("block", body.toString(), previous().line, previous().column);
+        return new Statement.Block(body, brace.line, brace.column);
     }
 
 
     private Statement exprStatement() {
-        String expr = expressionToString();
+        Token first = peek();
+        Expr expr = expression();
         consume(TokenType.SEMICOLON, "Falta ';' después de la expresión.");
+        return new Statement.Expression(expr, first.line, first.column);
+    }
 
-        String[] parts = expr.split("=");
-        if (parts.length == 2) {
-            String left = parts[0].trim();
-            String right = parts[1].trim();
-
-            if (!symbolTable.exists(left)) {
-                errors.addLexError(peek().line, peek().column,
-                        "Error semántico: variable '" + left + "' usada sin declarar.");
-            } else {
-                String leftType = symbolTable.getSymbol(left).type;
-                String rightType = inferExpressionType(right);
-
-                if (leftType.equals("long") && rightType.equals("double")) {
-                    errors.addLexError(peek().line, peek().column,
-                            "Error semántico: no se puede asignar un double a un long (" + left + ").");
-                }
-            }
+
+
+    // EXPRESIONES (de menor a mayor precedencia)
+
+    private Expr expression() {
+        if (stackSafe || nesting == MAX_NESTING) return stackSafeExpression();
+        nesting++;
+        Expr expr = assignment();
+        nesting--;
+        return expr;
+    }
+
+    // a = b = c en un bucle: los destinos esperan en la pila de pendientes y se asigna de derecha a izquierda
+    private Expr assignment() {
+        int base = pending;
+        Expr value = or();
+        while (match(TokenType.ASSIGN, TokenType.PLUS_EQ, TokenType.MINUS_EQ, TokenType.STAR_EQ, TokenType.SLASH_EQ)) {
+            pushPending(ASSIGN, previous(), value);
+            value = or();
         }
+        while (pending > base) {
+            Expr target = pendingLefts[pending - 1];
+            value = assign(target, popPending(), value);
+        }
+        return value;
+    }
 
-        return new Statement("expr", expr, previous().line, previous().column);
+    private Expr assign(Expr target, Token op, Expr value) {
+        if (target instanceof Expr.Variable) {
+            Expr.Variable variable = (Expr.Variable) target;
+            Expr.Assign assign = new Expr.Assign(variable.name, op.type, value, target.line, target.column);
+            assign.nameId = variable.nameId;
+            return assign;
+        }
+        // no hace falta resincronizar: el resto de la expresión ya se parseó
+        if (!panicMode) errors.report(ErrorCode.INVALID_ASSIGN_TARGET, op.line, op.column);
+        return target;
     }
 
+    private Expr or() {
+        Expr expr = and();
+        while (match(TokenType.OR_OR)) {
+            expr = binary(expr, previous(), and());
+        }
+        return expr;
+    }
 
+    private Expr and() {
+        Expr expr = equality();
+        while (match(TokenType.AND_AND)) {
+            expr = binary(expr, previous(), equality());
+        }
+        return expr;
+    }
 
-    // EXPRESIONES SIMPLES
+    private Expr equality() {
+        Expr expr = comparison();
+        while (match(TokenType.EQEQ, TokenType.NEQ)) {
+            expr = binary(expr, previous(), comparison());
+        }
+        return expr;
+    }
 
-    private String expressionToString() {
-        StringBuilder expr = new StringBuilder();
-        int parenCount = 0;
+    private Expr comparison() {
+        Expr expr = term();
+        while (match(TokenType.GT, TokenType.GE, TokenType.LT, TokenType.LE)) {
+            expr = binary(expr, previous(), term());
+        }
+        return expr;
+    }
 
-        while (!isAtEnd()) {
-            Token t = peek();
+    private Expr term() {
+        Expr expr = factor();
+        while (match(TokenType.PLUS, TokenType.MINUS)) {
+            expr = binary(expr, previous(), factor());
+        }
+        return expr;
+    }
+
+    private Expr factor() {
+        Expr expr = unary();
+        while (match(TokenType.STAR, TokenType.SLASH)) {
+            expr = binary(expr, previous(), unary());
+        }
+        return expr;
+    }
+
+    // "- - x" también en un bucle, como la asignación
+    private Expr unary() {
+        int base = pending;
+        while (match(TokenType.BANG, TokenType.MINUS)) {
+            pushPending(UNARY, previous(), null);
+        }
+        Expr expr = primary();
+        while (pending > base) {
+            Token op = popPending();
+            expr = new Expr.Unary(op.type, expr, op.line, op.column);
+        }
+        return expr;
+    }
+
+    private Expr primary() {
+        if (match(TokenType.LPAREN)) {
+            Expr expr = expression();
+            consume(TokenType.RPAREN, "Falta ')' en la expresión.");
+            return expr;
+        }
+        return atom();
+    }
+
+    // Literal o variable; cualquier otra cosa es un error
+    private Expr atom() {
+        TokenType type = tokens.peekType();
+        if (type == TokenType.INT_LITERAL || type == TokenType.DOUBLE_LITERAL
+                || type == TokenType.TRUE || type == TokenType.FALSE) {
+            // valor primitivo del flujo, sin materializar ni empaquetar el token
+            DataType kind = type == TokenType.INT_LITERAL ? DataType.LONG
+                    : type == TokenType.DOUBLE_LITERAL ? DataType.DOUBLE : DataType.BOOLEAN;
+            long bits = kind == DataType.BOOLEAN ? (type == TokenType.TRUE ? 1 : 0) : tokens.peekValue();
+            Expr literal = new Expr.Literal(kind, bits, null, tokens.peekLine(), tokens.peekColumn());
+            tokens.advance();
+            return literal;
+        }
+        if (match(TokenType.STRING_LITERAL)) {
+            Token t = previous();
+            return Expr.Literal.ofString((String) t.literal, t.line, t.column);
+        }
+        if (check(TokenType.IDENTIFIER)) {
+            int nameId = tokens.peekName();
+            Token t = advance();
+            Expr.Variable variable = new Expr.Variable(t.lexeme, t.line, t.column);
+            variable.nameId = nameId;
+            return variable;
+        }
+
+        Token t = peek();
+        error(t, ErrorCode.EXPECTED_EXPRESSION);
+        return new Expr.Literal(DataType.ERROR, 0, null, t.line, t.column);
+    }
+
+    private Expr binary(Expr left, Token op, Expr right) {
+        return new Expr.Binary(left, op.type, right, op.line, op.column);
+    }
+
+    // MODO SIN RECURSIÓN (stackSafe)
+
+    /* Niveles de sentencia o expresión que el modo recursivo abre en la pila
+     * de llamadas (hasta unos 10 marcos por nivel, con "((("); con 32 entra
+     * holgado en la pila de cualquier hilo y casi ningún programa llega.
+     */
+    static final int MAX_NESTING = 32;
+
+    // Sigue sin recursión desde step y vuelve al modo recursivo con la sentencia completa
+    private Statement withoutRecursion(int step) {
+        stackSafe = true;
+        Statement stmt = stackSafeStatement(step);
+        stackSafe = false;
+        return stmt;
+    }
+
+    // Pila de sentencias abiertas; cada marco guarda lo que la versión recursiva tendría en variables locales
+    private static final int DECL = 0, THEN = 1, ELSE = 2, WHILE_BODY = 3, BLOCK = 4;
+    // Próximo paso del recorrido
+    private static final int START_DECLARATION = 0, START_STATEMENT = 1, NEXT_IN_BLOCK = 2, FINISHED = 3;
+
+    private static final class Frame {
+        int kind;
+        int before;              // DECL: posición antes de la sentencia
+        Token keyword;           // if, while o '{'
+        Expr condition;
+        Statement thenBranch;
+        List<Statement> body;
+    }
+
+    private Frame[] frames = new Frame[16];
+    private int depth = 0;
+
+    /* Igual que declaration() o statement() → ..., según step, pero abrir un
+     * if, while o bloque apila un marco y sigue con la sentencia interna; al
+     * terminar una sentencia se completa la del marco de arriba. Los pasos y los tokens
+     * consumidos son exactamente los del modo recursivo.
+     */
+    private Statement stackSafeStatement(int step) {
+        int base = depth;
+        Statement result = null;
+        while (true) {
+            switch (step) {
+                case START_DECLARATION:
+                    panicMode = false;
+                    if (match(TokenType.LONG, TokenType.DOUBLE)) {
+                        result = varDeclaration();
+                        step = FINISHED;
+                    } else {
+                        push(DECL).before = position();
+                        step = START_STATEMENT;
+                    }
+                    break;
+                case START_STATEMENT:
+                    step = FINISHED;
+                    if (match(TokenType.READ)) result = readStatement();
+                    else if (match(TokenType.WRITE)) result = writeStatement();
+                    else if (match(TokenType.IF)) {
+                        Frame f = push(THEN);
+                        f.keyword = previous();
+                        f.condition = ifCondition();
+                        step = START_STATEMENT;
+                    } else if (match(TokenType.WHILE)) {
+                        Frame f = push(WHILE_BODY);
+                        f.keyword = previous();
+                        f.condition = whileCondition();
+                        step = START_STATEMENT;
+                    } else if (match(TokenType.LBRACE)) {
+                        Frame f = push(BLOCK);
+                        f.keyword = previous();
+                        f.body = new ArrayList<>();
+                        step = NEXT_IN_BLOCK;
+                    } else {
+                        result = exprStatement();
+                    }
+                    break;
+                case NEXT_IN_BLOCK: {
+                    Frame f = frames[depth - 1];
+                    if (!check(TokenType.RBRACE) && !isAtEnd()) {
+                        step = START_DECLARATION;
+                    } else {
+                        consume(TokenType.RBRACE, "Falta '}' para cerrar el bloque.");
+                        result = new Statement.Block(f.body, f.keyword.line, f.keyword.column);
+                        pop();
+                        step = FINISHED;
+                    }
+                    break;
+                }
+                default: { // FINISHED: result completa la sentencia del marco de arriba
+                    if (depth == base) return result;
+                    Frame f = frames[depth - 1];
+                    switch (f.kind) {
+                        case DECL:
+                            // si la recuperación de errores no consumió nada, se salta el token
+                            if (position() == f.before) advance();
+                            pop();
+                            break;
+                        case THEN:
+                            if (match(TokenType.ELSE)) {
+                                f.thenBranch = result;
+                                f.kind = ELSE;
+                                step = START_STATEMENT;
+                            } else {
+                                result = new Statement.If(f.condition, result, null, f.keyword.line, f.keyword.column);
+                                pop();
+                            }
+                            break;
+                        case ELSE:
+                            result = new Statement.If(f.condition, f.thenBranch, result, f.keyword.line, f.keyword.column);
+                            pop();
+                            break;
+                        case WHILE_BODY:
+                            result = new Statement.While(f.condition, result, f.keyword.line, f.keyword.column);
+                            pop();
+                            break;
+                        default: // BLOCK
+                            if (result != null) f.body.add(result);
+                            step = NEXT_IN_BLOCK;
+                            break;
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private Frame push(int kind) {
+        if (depth == frames.length) frames = Arrays.copyOf(frames, depth * 2);
+        Frame f = frames[depth];
+        if (f == null) f = frames[depth] = new Frame();
+        depth++;
+        f.kind = kind;
+        return f;
+    }
 
-            if (t.type == TokenType.RPAREN && parenCount == 0) break;
-            if (t.type == TokenType.SEMICOLON && parenCount == 0) break;
-            if (t.type == TokenType.RBRACE && parenCount == 0) break;
+    // Los marcos se reutilizan; se sueltan las referencias para no retener el árbol
+    private void pop() {
+        Frame f = frames[--depth];
+        f.keyword = null;
+        f.condition = null;
+        f.thenBranch = null;
+        f.body = null;
+    }
 
-            if (t.type == TokenType.LPAREN) parenCount++;
-            if (t.type == TokenType.RPAREN && parenCount > 0) parenCount--;
+    // Operadores pendientes de las expresiones: el operador y, si es binario o asignación, su operando izquierdo
+    private static final byte UNARY = 0, BINARY = 1, ASSIGN = 2, GROUP = 3;
+    private byte[] pendingKinds = new byte[16];
+    private Token[] pendingOps = new Token[16];
+    private Expr[] pendingLefts = new Expr[16];
+    private int pending = 0;
+
+    /* assignment() → or() → ... → primary() por precedencia con una pila
+     * explícita. Tras cada operando, un binario de nivel L cierra los
+     * pendientes de nivel >= L (asociatividad izquierda) y se apila; un
+     * operador de asignación se apila después de cerrar todos (asociatividad
+     * derecha); "-", "!" y "(" se apilan antes del operando y se cierran
+     * apenas está completo. Se consumen los mismos tokens en el mismo orden
+     * que en el modo recursivo, así que los errores salen iguales.
+     */
+    private Expr stackSafeExpression() {
+        int base = pending;
+        while (true) {
+            if (match(TokenType.BANG, TokenType.MINUS)) {
+                pushPending(UNARY, previous(), null);
+                continue;
+            }
+            if (match(TokenType.LPAREN)) {
+                pushPending(GROUP, null, null);
+                continue;
+            }
+            Expr value = atom();
+            while (true) {
+                while (pending > base && pendingKinds[pending - 1] == UNARY) {
+                    Token op = popPending();
+                    value = new Expr.Unary(op.type, value, op.line, op.column);
+                }
+                int level = binaryLevel(tokens.peekType());
+                if (level > 0) {
+                    value = reduce(base, level, value);
+                    advance();
+                    pushPending(BINARY, previous(), value);
+                    break;
+                }
+                value = reduce(base, 1, value);
+                if (match(TokenType.ASSIGN, TokenType.PLUS_EQ, TokenType.MINUS_EQ, TokenType.STAR_EQ, TokenType.SLASH_EQ)) {
+                    pushPending(ASSIGN, previous(), value);
+                    break;
+                }
+                while (pending > base && pendingKinds[pending - 1] == ASSIGN) {
+                    Expr target = pendingLefts[pending - 1];
+                    value = assign(target, popPending(), value);
+                }
+                if (pending == base) return value;
+                // cierra un "(": lo agrupado es un primario y sigue igual que tras atom()
+                popPending();
+                consume(TokenType.RPAREN, "Falta ')' en la expresión.");
+            }
+        }
+    }
+
+    // Cierra los binarios pendientes de nivel >= level, de derecha a izquierda
+    private Expr reduce(int base, int level, Expr right) {
+        while (pending > base && pendingKinds[pending - 1] == BINARY
+                && binaryLevel(pendingOps[pending - 1].type) >= level) {
+            Expr left = pendingLefts[pending - 1];
+            right = binary(left, popPending(), right);
+        }
+        return right;
+    }
 
-            expr.append(advance().lexeme).append(" ");
+    private void pushPending(byte kind, Token op, Expr left) {
+        if (pending == pendingKinds.length) {
+            pendingKinds = Arrays.copyOf(pendingKinds, pending * 2);
+            pendingOps = Arrays.copyOf(pendingOps, pending * 2);
+            pendingLefts = Arrays.copyOf(pendingLefts, pending * 2);
         }
+        pendingKinds[pending] = kind;
+        pendingOps[pending] = op;
+        pendingLefts[pending] = left;
+        pending++;
+    }
+
+    // Quita el de arriba y devuelve su operador, sin retener nodos en la pila
+    private Token popPending() {
+        pending--;
+        Token op = pendingOps[pending];
+        pendingOps[pending] = null;
+        pendingLefts[pending] = null;
+        return op;
+    }
 
-        return expr.toString().trim();
+    // Nivel de precedencia de un operador binario (1 = ||, 6 = * /); 0 si no lo es
+    private static int binaryLevel(TokenType type) {
+        switch (type) {
+            case OR_OR: return 1;
+            case AND_AND: return 2;
+            case EQEQ: case NEQ: return 3;
+            case GT: case GE: case LT: case LE: return 4;
+            case PLUS: case MINUS: return 5;
+            case STAR: case SLASH: return 6;
+            default: return 0;
+        }
     }
 
     // UTILIDADES
@@ -213,7 +614,7 @@ public class Parser {
     private boolean match(TokenType... types) {
         for (TokenType type : types) {
             if (check(type)) {
-                advance();
+                tokens.advance();
                 return true;
             }
         }
@@ -228,54 +629,40 @@ public class Parser {
 
     private boolean check(TokenType type) {
         if (isAtEnd()) return false;
-        return peek().type == type;
+        return tokens.peekType() == type;
     }
 
     private Token advance() {
-        if (!isAtEnd()) current++;
+        if (!isAtEnd()) tokens.advance();
         return previous();
     }
 
     private boolean isAtEnd() {
-        return peek().type == TokenType.EOF;
+        return tokens.peekType() == TokenType.EOF;
     }
 
-    private Token peek() { return tokens.get(current); }
-    private Token previous() { return tokens.get(current - 1); }
+    private Token peek() { return tokens.peek(); }
+    private Token previous() { return tokens.previous(); }
 
     private void error(Token token, String message) {
-        errors.addLexError(token.line, token.column, "Error sintáctico: " + message);
+        error(token, ErrorCode.SYNTAX, message);
+    }
+
+    private void error(Token token, ErrorCode code, Object... args) {
+        if (panicMode) return;
+        panicMode = true;
+        errors.report(code, token.line, token.column, args);
         synchronize();
     }
 
     private void synchronize() {
         while (!isAtEnd()) {
-            if (previous().type == TokenType.SEMICOLON) return;
-            switch (peek().type) {
+            if (previous() != null && previous().type == TokenType.SEMICOLON) return;
+            switch (tokens.peekType()) {
                 case IF: case WHILE: case READ: case WRITE: case LONG: case DOUBLE:
                     return;
             }
             advance();
         }
     }
-    private String inferExpressionType(String expr) {
-
-        if (expr.matches(".*\\d+\\.\\d+.*")) return "double";
-
-        String[] tokens = expr.split("[\\s\\+\\-\\*/]+");
-        boolean hasDouble = false;
-        for (String t : tokens) {
-            t = t.trim();
-            if (t.isEmpty()) continue;
-
-            if (t.matches("\\d+\\.\\d+")) hasDouble = true;
-            else if (symbolTable.exists(t)) {
-                String type = symbolTable.getSymbol(t).type;
-                if (type.equals("double")) hasDouble = true;
-            }
-        }
-
-        return hasDouble ? "double" : "long";
-    }
-
 }
@@ -1,18 +1,145 @@
 package parser;
 
-public class Statement extends ASTNode {
-    public String kind;
-    public String content;
+import symboltable.SymbolTable;
 
-    public Statement(String kind, String content, int line, int column) {
+import java.util.List;
+
+// Nodos de sentencia. kind identifica la sentencia en los volcados.
+public abstract class Statement extends ASTNode {
+    public final String kind;
+
+    public interface Visitor<R> {
+        R visitVarDecl(VarDecl stmt);
+        R visitRead(Read stmt);
+        R visitWrite(Write stmt);
+        R visitIf(If stmt);
+        R visitWhile(While stmt);
+        R visitBlock(Block stmt);
+        R visitExpression(Expression stmt);
+    }
+
+    public abstract <R> R accept(Visitor<R> visitor);
+
+    protected Statement(String kind, int line, int column) {
         this.kind = kind;
-        this.content = content;
         this.line = line;
         this.column = column;
     }
 
     @Override
     public String toString() {
-        return kind + " -> " + content + " (línea " + line + ")";
+        return AstPrinter.print(this);
+    }
+
+    // La altura mayor entre las sentencias (0 si no hay ninguna)
+    public static int height(List<Statement> statements) {
+        int height = 0;
+        for (Statement s : statements) height = Math.max(height, height(s));
+        return height;
+    }
+
+    // long _x; / double _y = expr;
+    public static class VarDecl extends Statement {
+        public final String type;
+        public final String name;
+        public final Expr initializer; // puede ser null
+        public int nameId = -1; // id del nombre en la NameTable del parser; -1 si el nodo no salió de él
+        public SymbolTable.SymbolInfo symbol; // entrada creada por el análisis semántico
+
+        public VarDecl(String type, String name, Expr initializer, int line, int column) {
+            super("varDecl", line, column);
+            this.type = type;
+            this.name = name;
+            this.initializer = initializer;
+            this.height = 1 + height(initializer);
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitVarDecl(this); }
+    }
+
+    public static class Read extends Statement {
+        public final String name;
+        public int nameId = -1; // como en VarDecl
+        public SymbolTable.SymbolInfo symbol; // resuelto por el análisis semántico
+
+        public Read(String name, int line, int column) {
+            super("read", line, column);
+            this.name = name;
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitRead(this); }
+    }
+
+    public static class Write extends Statement {
+        public final Expr value;
+
+        public Write(Expr value, int line, int column) {
+            super("write", line, column);
+            this.value = value;
+            this.height = 1 + height(value);
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitWrite(this); }
+    }
+
+    public static class If extends Statement {
+        public final Expr condition;
+        public final Statement thenBranch;
+        public final Statement elseBranch; // puede ser null
+
+        public If(Expr condition, Statement thenBranch, Statement elseBranch, int line, int column) {
+            super("if", line, column);
+            this.condition = condition;
+            this.thenBranch = thenBranch;
+            this.elseBranch = elseBranch;
+            this.height = 1 + Math.max(height(condition), Math.max(height(thenBranch), height(elseBranch)));
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitIf(this); }
+    }
+
+    public static class While extends Statement {
+        public final Expr condition;
+        public final Statement body;
+
+        public While(Expr condition, Statement body, int line, int column) {
+            super("while", line, column);
+            this.condition = condition;
+            this.body = body;
+            this.height = 1 + Math.max(height(condition), height(body));
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitWhile(this); }
+    }
+
+    public static class Block extends Statement {
+        public final List<Statement> statements;
+
+        public Block(List<Statement> statements, int line, int column) {
+            super("block", line, column);
+            this.statements = statements;
+            this.height = 1 + height(statements);
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitBlock(this); }
+    }
+
+    public static class Expression extends Statement {
+        public final Expr expr;
+
+        public Expression(Expr expr, int line, int column) {
+            super("expr", line, column);
+            this.expr = expr;
+            this.height = 1 + height(expr);
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitExpression(this); }
     }
 }
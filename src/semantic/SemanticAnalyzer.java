@@ -0,0 +1,222 @@
+package semantic;
+
+import error.ErrorCode;
+import error.ErrorHandler;
+import lexer.NameTable;
+import lexer.TokenType;
+import parser.Expr;
+import parser.Statement;
+import symboltable.DataType;
+import symboltable.SymbolTable;
+
+import java.util.List;
+
+/* Análisis semántico en una sola pasada sobre el AST.
+ * Declara las variables en la tabla de símbolos respetando los bloques,
+ * resuelve cada uso a su SymbolInfo una única vez y deja el tipo inferido
+ * en cada nodo de expresión (Expr.type) para las fases siguientes.
+ * Los nombres se buscan por el id que el parser dejó en cada nodo (nameId).
+ */
+public class SemanticAnalyzer implements Statement.Visitor<Void>, Expr.Visitor<DataType> {
+    private final ErrorHandler errors;
+    private final SymbolTable symbolTable;
+    private final boolean parserIds; // los nameId de los nodos son de la tabla de symbolTable
+
+    // Sin la tabla del parser: cada nombre se interna en una propia
+    public SemanticAnalyzer(ErrorHandler errors) {
+        this(errors, null);
+    }
+
+    // names: la NameTable con que el parser internó los nombres (Parser.names())
+    public SemanticAnalyzer(ErrorHandler errors, NameTable names) {
+        this.errors = errors;
+        this.symbolTable = new SymbolTable(names != null ? names : new NameTable());
+        this.parserIds = names != null;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    public void analyze(List<Statement> statements) {
+        for (Statement s : statements) {
+            if (errors.isAborted()) return;
+            s.accept(this);
+        }
+    }
+
+    // SENTENCIAS
+
+    @Override
+    public Void visitVarDecl(Statement.VarDecl stmt) {
+        // El inicializador se analiza antes de declarar: "long _x = _x;" es un uso sin declarar
+        if (stmt.initializer != null) {
+            checkAssignable(DataType.of(stmt.type), analyze(stmt.initializer), stmt.initializer, stmt.name);
+        }
+        int id = nameId(stmt.nameId, stmt.name);
+        if (symbolTable.existsInCurrentScope(id)) {
+            errors.report(ErrorCode.REDECLARED, stmt.line, stmt.column, stmt.name);
+        }
+        stmt.symbol = symbolTable.addSymbol(id, stmt.name, stmt.type, null, stmt.line);
+        return null;
+    }
+
+    @Override
+    public Void visitRead(Statement.Read stmt) {
+        stmt.symbol = symbolTable.getSymbol(nameId(stmt.nameId, stmt.name));
+        if (stmt.symbol == null) {
+            undeclared(stmt.name, stmt.line, stmt.column);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitWrite(Statement.Write stmt) {
+        analyze(stmt.value);
+        return null;
+    }
+
+    @Override
+    public Void visitIf(Statement.If stmt) {
+        checkCondition(stmt.condition, "if");
+        stmt.thenBranch.accept(this);
+        if (stmt.elseBranch != null) stmt.elseBranch.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitWhile(Statement.While stmt) {
+        checkCondition(stmt.condition, "while");
+        stmt.body.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitBlock(Statement.Block stmt) {
+        symbolTable.beginScope();
+        for (Statement s : stmt.statements) {
+            s.accept(this);
+        }
+        symbolTable.endScope();
+        return null;
+    }
+
+    @Override
+    public Void visitExpression(Statement.Expression stmt) {
+        analyze(stmt.expr);
+        return null;
+    }
+
+    // EXPRESIONES
+
+    private DataType analyze(Expr expr) {
+        DataType type = expr.accept(this);
+        expr.type = type;
+        return type;
+    }
+
+    @Override
+    public DataType visitLiteral(Expr.Literal expr) {
+        return expr.kind; // ERROR si el parser ya reportó la expresión inválida
+    }
+
+    @Override
+    public DataType visitVariable(Expr.Variable expr) {
+        expr.symbol = symbolTable.getSymbol(nameId(expr.nameId, expr.name));
+        if (expr.symbol == null) {
+            undeclared(expr.name, expr.line, expr.column);
+            return DataType.ERROR;
+        }
+        return DataType.of(expr.symbol.type);
+    }
+
+    @Override
+    public DataType visitAssign(Expr.Assign expr) {
+        DataType valueType = analyze(expr.value);
+        expr.symbol = symbolTable.getSymbol(nameId(expr.nameId, expr.name));
+        if (expr.symbol == null) {
+            undeclared(expr.name, expr.line, expr.column);
+            return DataType.ERROR;
+        }
+        DataType target = DataType.of(expr.symbol.type);
+        checkAssignable(target, valueType, expr.value, expr.name);
+        return target;
+    }
+
+    @Override
+    public DataType visitUnary(Expr.Unary expr) {
+        DataType operand = analyze(expr.operand);
+        if (operand == DataType.ERROR) return DataType.ERROR;
+        if (expr.op == TokenType.BANG) {
+            if (operand == DataType.STRING) invalidOperands(expr.op, expr);
+            return DataType.BOOLEAN;
+        }
+        if (!operand.isNumeric()) {
+            invalidOperands(expr.op, expr);
+            return DataType.ERROR;
+        }
+        return operand;
+    }
+
+    @Override
+    public DataType visitBinary(Expr.Binary expr) {
+        DataType left = analyze(expr.left);
+        DataType right = analyze(expr.right);
+        if (left == DataType.ERROR || right == DataType.ERROR) {
+            return isArithmetic(expr.op) ? DataType.ERROR : DataType.BOOLEAN;
+        }
+
+        switch (expr.op) {
+            case PLUS: case MINUS: case STAR: case SLASH:
+                if (!left.isNumeric() || !right.isNumeric()) {
+                    invalidOperands(expr.op, expr);
+                    return DataType.ERROR;
+                }
+                return (left == DataType.DOUBLE || right == DataType.DOUBLE) ? DataType.DOUBLE : DataType.LONG;
+            case GT: case GE: case LT: case LE:
+                if (!left.isNumeric() || !right.isNumeric()) invalidOperands(expr.op, expr);
+                return DataType.BOOLEAN;
+            case EQEQ: case NEQ:
+                if (left != right && !(left.isNumeric() && right.isNumeric())) invalidOperands(expr.op, expr);
+                return DataType.BOOLEAN;
+            default: // && y ||: valen operandos booleanos o numéricos
+                if (left == DataType.STRING || right == DataType.STRING) invalidOperands(expr.op, expr);
+                return DataType.BOOLEAN;
+        }
+    }
+
+    // Nodos que no salieron de este parser (caché, optimizador) no traen id
+    private int nameId(int parserId, String name) {
+        return parserIds && parserId >= 0 ? parserId : symbolTable.nameId(name);
+    }
+
+    // REGLAS
+
+    private static boolean isArithmetic(TokenType op) {
+        return op == TokenType.PLUS || op == TokenType.MINUS || op == TokenType.STAR || op == TokenType.SLASH;
+    }
+
+    private void checkCondition(Expr condition, String keyword) {
+        DataType type = analyze(condition);
+        if (type != DataType.ERROR && !type.isNumeric() && type != DataType.BOOLEAN) {
+            errors.report(ErrorCode.BAD_CONDITION, condition.line, condition.column, keyword);
+        }
+    }
+
+    private void checkAssignable(DataType target, DataType value, Expr valueExpr, String name) {
+        if (value == DataType.ERROR || target == DataType.ERROR) return;
+        if (target == DataType.LONG && value == DataType.DOUBLE) {
+            errors.report(ErrorCode.DOUBLE_TO_LONG, valueExpr.line, valueExpr.column, name);
+        } else if (!value.isNumeric()) {
+            errors.report(ErrorCode.INCOMPATIBLE_ASSIGN, valueExpr.line, valueExpr.column, value.name, target.name, name);
+        }
+    }
+
+    private void undeclared(String name, int line, int column) {
+        errors.report(ErrorCode.UNDECLARED, line, column, name);
+    }
+
+    private void invalidOperands(TokenType op, Expr expr) {
+        errors.report(ErrorCode.INVALID_OPERANDS, expr.line, expr.column, op.lexeme);
+    }
+}
@@ -0,0 +1,65 @@
+package server;
+
+import driver.Options;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Cliente mínimo del servidor: manda el archivo con las mismas opciones que
+ * aceptaría Main, copia la respuesta a stdout/stderr y sale con el estado
+ * del servidor, que es el que daría Main (0 bien, 1 errores de compilación,
+ * 2 pedido inválido).
+ *
+ *   java server.Client [--socket <ruta>] [opciones] <archivo|->
+ */
+public final class Client {
+    private Client() {}
+
+    public static void main(String[] args) throws IOException {
+        Path socket = CompileServer.defaultSocket();
+        List<String> options = new ArrayList<>();
+        String file = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--socket") && i + 1 < args.length) socket = Path.of(args[++i]);
+            else if (Options.takesValue(args[i]) && i + 1 < args.length) {
+                options.add(args[i]);
+                options.add(args[++i]);
+            } else if (args[i].startsWith("--")) options.add(args[i]);
+            else file = args[i];
+        }
+        if (file == null) {
+            System.err.println("Uso: Client [--socket <ruta>] [opciones] <archivo|->");
+            System.exit(Protocol.BAD_REQUEST);
+        }
+        String source = file.equals("-")
+                ? new String(System.in.readAllBytes(), StandardCharsets.UTF_8)
+                : Files.readString(Path.of(file));
+
+        Protocol.Response response;
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            new Protocol.Request(1, options.toArray(new String[0]), file, source).write(out);
+            out.flush();
+            response = Protocol.Response.read(
+                    new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel))));
+        }
+        System.out.write(response.out);
+        System.out.flush();
+        System.err.write(response.err);
+        System.err.flush();
+        System.exit(response.status);
+    }
+}
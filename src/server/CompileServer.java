@@ -0,0 +1,184 @@
+package server;
+
+import driver.Driver;
+import driver.Options;
+import lexer.NameTable;
+import lexer.TokenBuffer;
+import output.OutputSink;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+
+/* Servidor de compilación de larga vida: evita pagar el arranque de la JVM
+ * y el JIT en frío por cada archivo. Recibe pedidos (argumentos como los de
+ * Main más el fuente) por un socket Unix o por stdin/stdout, los compila en
+ * un pool de hilos y devuelve lo que Main habría escrito en stdout y stderr.
+ *
+ * Cada hilo del pool conserva su TokenBuffer y su tabla de nombres entre
+ * pedidos, así que una vez caliente compilar una unidad chica no reserva
+ * arreglos nuevos para los tokens ni vuelve a internar los nombres comunes.
+ * Acepta las mismas opciones que Main salvo --run (la entrada y la salida
+ * del programa son del cliente) y --emit-class (escribiría en el disco del
+ * servidor).
+ */
+public final class CompileServer {
+    // Pasado este tamaño la tabla de nombres del hilo se descarta para que no crezca sin límite
+    private static final int MAX_NAMES = 1 << 16;
+
+    private final ExecutorService pool;
+    private final ThreadLocal<TokenBuffer> buffers =
+            ThreadLocal.withInitial(() -> new TokenBuffer("", new NameTable(), 4096));
+
+    public CompileServer(int threads) {
+        pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "compilador");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static Path defaultSocket() {
+        return Path.of(System.getProperty("java.io.tmpdir"), "compilador.sock");
+    }
+
+    // Acepta conexiones hasta que el proceso termina; cada conexión se lee en su propio hilo
+    public void serve(Path socket) throws IOException {
+        Files.deleteIfExists(socket);
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socket));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    Files.deleteIfExists(socket);
+                } catch (IOException e) {
+                    // nada que hacer al salir
+                }
+            }));
+            System.err.println("Servidor escuchando en " + socket);
+            while (true) {
+                SocketChannel client = server.accept();
+                Thread reader = new Thread(() -> {
+                    try (client) {
+                        serve(input(client), output(client));
+                    } catch (IOException e) {
+                        System.err.println("⚠️ Conexión cerrada: " + e.getMessage());
+                    }
+                }, "conexion");
+                reader.setDaemon(true);
+                reader.start();
+            }
+        }
+    }
+
+    /* Channels.newInputStream/newOutputStream toman el mismo candado del canal
+     * para leer y para escribir: una lectura bloqueada esperando el próximo
+     * pedido impediría enviar las respuestas. SocketChannel sí admite leer y
+     * escribir a la vez desde hilos distintos, así que se usa directamente.
+     */
+    private static InputStream input(SocketChannel channel) {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return len == 0 ? 0 : channel.read(ByteBuffer.wrap(b, off, len));
+            }
+        };
+    }
+
+    private static OutputStream output(SocketChannel channel) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                ByteBuffer buf = ByteBuffer.wrap(b, off, len);
+                while (buf.hasRemaining()) channel.write(buf);
+            }
+        };
+    }
+
+    /* Atiende una conexión (o stdin/stdout) hasta el fin de la entrada. Los
+     * pedidos se compilan en el pool y cada respuesta se escribe completa
+     * apenas está lista.
+     */
+    public void serve(InputStream input, OutputStream output) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input, 1 << 16));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+        Phaser pending = new Phaser(1); // el lector más un participante por pedido en curso
+        Protocol.Request request;
+        while ((request = Protocol.Request.read(in)) != null) {
+            Protocol.Request r = request;
+            pending.register();
+            pool.execute(() -> {
+                try {
+                    Protocol.Response response = handle(r);
+                    synchronized (out) {
+                        response.write(out);
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // el cliente se fue; el lector de la conexión lo va a notar
+                } finally {
+                    pending.arriveAndDeregister();
+                }
+            });
+        }
+        // no cerrar la conexión con respuestas todavía en camino
+        pending.arriveAndAwaitAdvance();
+    }
+
+    Protocol.Response handle(Protocol.Request request) {
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        PrintStream err = new PrintStream(stderr, true, StandardCharsets.UTF_8);
+        int status;
+        try {
+            status = compile(request, new OutputSink(stdout), err);
+        } catch (IllegalArgumentException e) {
+            err.println("❌ " + e.getMessage());
+            status = Protocol.BAD_REQUEST;
+        } catch (IOException | RuntimeException e) {
+            err.println("❌ Error interno: " + e);
+            status = Protocol.BAD_REQUEST;
+        }
+        err.flush();
+        return new Protocol.Response(request.id, status, stdout.toByteArray(), stderr.toByteArray());
+    }
+
+    // El mismo recorrido que Main (Driver) con el buffer del hilo y sin ejecución
+    private int compile(Protocol.Request request, OutputSink sink, PrintStream errStream) throws IOException {
+        Options options = Options.parse(request.args);
+        if (options.run) {
+            throw new IllegalArgumentException("--run no se atiende: la entrada y la salida del programa son del cliente");
+        }
+        if (options.classDir != null) {
+            throw new IllegalArgumentException("--emit-class no se atiende: escribiría en el disco del servidor");
+        }
+        if (options.path != null) throw new IllegalArgumentException("argumento inesperado: " + options.path);
+
+        TokenBuffer buffer = buffers.get();
+        if (buffer.names().size() > MAX_NAMES) {
+            buffer = new TokenBuffer("", new NameTable(), 4096);
+            buffers.set(buffer);
+        }
+        return Driver.run(options, request.name, request.source, buffer, sink, errStream,
+                InputStream.nullInputStream(), OutputStream.nullOutputStream());
+    }
+}
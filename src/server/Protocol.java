@@ -0,0 +1,118 @@
+package server;
+
+import driver.Driver;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/* Formato de los mensajes entre cliente y servidor, igual por socket o por
+ * stdin/stdout. Todo es big-endian (DataInput/DataOutput) y los bloques de
+ * texto van como longitud + bytes UTF-8:
+ *
+ *   pedido     id, cantidad de argumentos, argumentos, nombre, fuente
+ *   respuesta  id, estado, salida estándar, salida de errores
+ *
+ * El id lo elige el cliente y vuelve en la respuesta: el servidor atiende
+ * los pedidos de una misma conexión en paralelo y puede contestarlos en
+ * otro orden.
+ */
+final class Protocol {
+    // los mismos estados de salida que Main
+    static final int OK = Driver.OK;
+    static final int COMPILE_ERRORS = Driver.COMPILE_ERRORS;
+    static final int BAD_REQUEST = Driver.USAGE;
+
+    private static final int MAX_BLOCK = 1 << 30;
+
+    private Protocol() {}
+
+    static final class Request {
+        final int id;
+        final String[] args;
+        final String name;
+        final String source;
+
+        Request(int id, String[] args, String name, String source) {
+            this.id = id;
+            this.args = args;
+            this.name = name;
+            this.source = source;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(id);
+            out.writeInt(args.length);
+            for (String a : args) writeString(out, a);
+            writeString(out, name);
+            writeString(out, source);
+        }
+
+        // null si el otro extremo cerró la conexión entre mensajes
+        static Request read(DataInputStream in) throws IOException {
+            int id;
+            try {
+                id = in.readInt();
+            } catch (EOFException e) {
+                return null;
+            }
+            int argc = in.readInt();
+            if (argc < 0 || argc > 1024) throw new IOException("pedido mal formado");
+            String[] args = new String[argc];
+            for (int i = 0; i < argc; i++) args[i] = readString(in);
+            String name = readString(in);
+            return new Request(id, args, name, readString(in));
+        }
+    }
+
+    static final class Response {
+        final int id;
+        final int status;
+        final byte[] out;
+        final byte[] err;
+
+        Response(int id, int status, byte[] out, byte[] err) {
+            this.id = id;
+            this.status = status;
+            this.out = out;
+            this.err = err;
+        }
+
+        void write(DataOutputStream stream) throws IOException {
+            stream.writeInt(id);
+            stream.writeInt(status);
+            writeBlock(stream, out);
+            writeBlock(stream, err);
+        }
+
+        static Response read(DataInputStream in) throws IOException {
+            int id = in.readInt();
+            int status = in.readInt();
+            byte[] out = readBlock(in);
+            return new Response(id, status, out, readBlock(in));
+        }
+    }
+
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        writeBlock(out, s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        return new String(readBlock(in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBlock(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBlock(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_BLOCK) throw new IOException("bloque de tamaño inválido: " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,36 @@
+package stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Evento de JFR que resume una compilación completa (una por ejecución de Main)
+@Name("compilador.Compilation")
+@Label("Compilación")
+@Category("Compilador")
+@Description("Resumen de una compilación: tamaño, tokens, símbolos y errores")
+@StackTrace(false)
+class CompilationEvent extends Event {
+    @Label("Fuente")
+    String source;
+
+    @Label("Tamaño")
+    @DataAmount
+    long bytes;
+
+    @Label("Tokens")
+    long tokens;
+
+    @Label("Símbolos")
+    int symbols;
+
+    @Label("Ámbitos")
+    int scopes;
+
+    @Label("Errores")
+    int errors;
+}
@@ -0,0 +1,19 @@
+package stats;
+
+// Fases que mide PipelineStats, con la unidad de lo que cuenta cada una
+public enum Phase {
+    LEX("léxico", "tokens"),
+    PARSE("sintáctico", "tokens"),
+    SEMANTIC("semántico", "sentencias"),
+    OPTIMIZE("optimización", "nodos elim."),
+    CODEGEN("generación", "instrucc."),
+    OUTPUT("salida", "");
+
+    public final String label;
+    public final String unit;
+
+    Phase(String label, String unit) {
+        this.label = label;
+        this.unit = unit;
+    }
+}
@@ -0,0 +1,34 @@
+package stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/* Evento de JFR por cada fase del compilador. Sin una grabación activa no
+ * cuesta nada; con -XX:StartFlightRecording (o jcmd JFR.start) aparece en
+ * la grabación junto a los eventos de la JVM.
+ */
+@Name("compilador.Phase")
+@Label("Fase del compilador")
+@Category("Compilador")
+@Description("Duración y volumen de una fase del compilador")
+@StackTrace(false)
+class PhaseEvent extends Event {
+    @Label("Fase")
+    String phase;
+
+    @Label("Cantidad")
+    @Description("Elementos procesados (tokens, sentencias, nodos, instrucciones)")
+    long items;
+
+    @Label("Asignado")
+    @DataAmount
+    long allocated;
+
+    @Label("Errores")
+    int errors;
+}
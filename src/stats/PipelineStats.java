@@ -0,0 +1,199 @@
+package stats;
+
+import error.Category;
+import error.ErrorHandler;
+import lexer.TokenBuffer;
+import output.Dump;
+import parser.Statement;
+import symboltable.SymbolTable;
+import vm.Program;
+
+import jdk.jfr.FlightRecorder;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/* Instrumentación por fase de una compilación: tiempo de reloj, bytes
+ * asignados por el hilo (ThreadMXBean), cantidad de elementos procesados y
+ * errores. Los datos se muestran con --stats y además se publican como
+ * eventos de JFR, así una grabación de producción los trae sin tocar nada.
+ *
+ * Si no se pidió --stats ni hay una grabación de JFR en curso al empezar,
+ * begin/end no hacen nada: ni eventos (instanciar el primero inicializa el
+ * soporte de JFR, unos 190 ms de arranque) ni nanoTime ni el ThreadMXBean.
+ */
+public final class PipelineStats {
+    private static final Phase[] PHASES = Phase.values();
+
+    private final boolean print;
+    private final boolean recording = FlightRecorder.isInitialized();
+    private final long[] nanos = new long[PHASES.length];
+    private final long[] allocated = new long[PHASES.length];
+    private final long[] items = new long[PHASES.length];
+    private final int[] errors = new int[PHASES.length];
+    private final boolean[] ran = new boolean[PHASES.length];
+    private final PhaseEvent[] events = new PhaseEvent[PHASES.length];
+    private final long[] startNanos = new long[PHASES.length];
+    private final long[] startBytes = new long[PHASES.length];
+    private final boolean[] measuring = new boolean[PHASES.length];
+    private long tokens;
+    private int symbols;
+    private int scopes;
+
+    public PipelineStats(boolean print) {
+        this.print = print;
+    }
+
+    public void begin(Phase phase) {
+        int p = phase.ordinal();
+        PhaseEvent event = recording ? new PhaseEvent() : null;
+        events[p] = event;
+        measuring[p] = print || event != null && event.isEnabled();
+        if (!measuring[p]) return;
+        startBytes[p] = Allocation.current();
+        startNanos[p] = System.nanoTime();
+        if (event != null) event.begin(); // después de la primera lectura del ThreadMXBean, que carga JMX
+    }
+
+    // count son los elementos procesados en este tramo (tokens, nodos...); se acumulan
+    public void end(Phase phase, long count, int errorCount) {
+        int p = phase.ordinal();
+        if (!measuring[p]) return;
+        PhaseEvent event = events[p];
+        if (event != null) event.end();
+        long elapsed = System.nanoTime() - startNanos[p];
+        long bytes = Allocation.current() - startBytes[p];
+        nanos[p] += elapsed;
+        allocated[p] += bytes;
+        items[p] += count;
+        errors[p] += errorCount;
+        ran[p] = true;
+        if (event != null && event.shouldCommit()) {
+            event.phase = phase.label;
+            event.items = count;
+            event.allocated = bytes;
+            event.errors = errorCount;
+            event.commit();
+        }
+    }
+
+    public void tokens(TokenBuffer buffer) {
+        tokens = buffer.size() - 1; // sin el EOF
+    }
+
+    public void symbols(SymbolTable table) {
+        scopes = table.getScopes().size();
+        symbols = 0;
+        for (SymbolTable.Scope s : table.getScopes()) symbols += s.symbols().size();
+    }
+
+    // Envuelve el volcado para que su tiempo cuente como la fase OUTPUT
+    public Dump timed(Dump dump) {
+        return print || recording ? new TimedDump(dump) : dump;
+    }
+
+    // Cierra la compilación: evento de resumen y, con --stats, la tabla en out
+    public void finish(String source, long bytes, ErrorHandler err, PrintStream out) {
+        int errorCount = err.getDiagnostics().size();
+        CompilationEvent event = recording ? new CompilationEvent() : null;
+        if (event != null && event.shouldCommit()) {
+            event.source = source;
+            event.bytes = bytes;
+            event.tokens = tokens;
+            event.symbols = symbols;
+            event.scopes = scopes;
+            event.errors = errorCount;
+            event.commit();
+        }
+        if (!print) return;
+
+        out.println("\n=== ESTADÍSTICAS ===");
+        out.printf("%-13s %10s %13s %12s %-11s %12s %8s%n",
+                "Fase", "Tiempo ms", "Asignado KB", "Cantidad", "", "Por segundo", "Errores");
+        out.println("-------------------------------------------------------------------------------------");
+        long totalNanos = 0, totalBytes = 0;
+        for (Phase phase : PHASES) {
+            int p = phase.ordinal();
+            if (!ran[p]) continue;
+            totalNanos += nanos[p];
+            totalBytes += allocated[p];
+            String rate = phase.unit.isEmpty() || nanos[p] == 0 ? "-"
+                    : String.format("%.0f", items[p] * 1e9 / nanos[p]);
+            out.printf("%-13s %10.3f %13d %12s %-11s %12s %8d%n", phase.label, nanos[p] / 1e6,
+                    allocated[p] / 1024, phase.unit.isEmpty() ? "-" : Long.toString(items[p]), phase.unit,
+                    rate, errors[p]);
+        }
+        out.println("-------------------------------------------------------------------------------------");
+        out.printf("%-13s %10.3f %13d%n", "total", totalNanos / 1e6, totalBytes / 1024);
+        out.printf("Fuente: %d bytes, %d tokens, %d símbolos en %d ámbitos, %d errores%n",
+                bytes, tokens, symbols, scopes, errorCount);
+    }
+
+    // El ThreadMXBean se pide recién en la primera medición (arrastra JMX)
+    private static final class Allocation {
+        private static final com.sun.management.ThreadMXBean BEAN =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        static long current() {
+            return BEAN.getCurrentThreadAllocatedBytes();
+        }
+    }
+
+    private final class TimedDump implements Dump {
+        private final Dump dump;
+
+        TimedDump(Dump dump) {
+            this.dump = dump;
+        }
+
+        @Override
+        public void tokens(TokenBuffer tokens) {
+            begin(Phase.OUTPUT);
+            dump.tokens(tokens);
+            end(Phase.OUTPUT, 0, 0);
+        }
+
+        @Override
+        public void failed(Category phase, ErrorHandler errors) {
+            begin(Phase.OUTPUT);
+            dump.failed(phase, errors);
+            end(Phase.OUTPUT, 0, 0);
+        }
+
+        @Override
+        public void warnings(ErrorHandler errors) {
+            begin(Phase.OUTPUT);
+            dump.warnings(errors);
+            end(Phase.OUTPUT, 0, 0);
+        }
+
+        @Override
+        public void program(List<Statement> statements, int eliminated) {
+            begin(Phase.OUTPUT);
+            dump.program(statements, eliminated);
+            end(Phase.OUTPUT, 0, 0);
+        }
+
+        @Override
+        public void symbols(SymbolTable table) {
+            begin(Phase.OUTPUT);
+            dump.symbols(table);
+            end(Phase.OUTPUT, 0, 0);
+        }
+
+        @Override
+        public void bytecode(Program program) {
+            begin(Phase.OUTPUT);
+            dump.bytecode(program);
+            end(Phase.OUTPUT, 0, 0);
+        }
+
+        @Override
+        public void finish(ErrorHandler errors) {
+            begin(Phase.OUTPUT);
+            dump.finish(errors);
+            end(Phase.OUTPUT, 0, 0);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package symboltable;
+
+// Tipos del lenguaje. Solo LONG y DOUBLE se pueden declarar;
+// BOOLEAN y STRING aparecen como tipo de expresiones.
+public enum DataType {
+    LONG("long"), DOUBLE("double"), BOOLEAN("boolean"), STRING("string"),
+    ERROR("error"); // expresión con errores ya reportados
+
+    public final String name;
+
+    DataType(String name) {
+        this.name = name;
+    }
+
+    public boolean isNumeric() {
+        return this == LONG || this == DOUBLE;
+    }
+
+    public static DataType of(String name) {
+        switch (name) {
+            case "long": return LONG;
+            case "double": return DOUBLE;
+            case "boolean": return BOOLEAN;
+            case "string": return STRING;
+            default: return ERROR;
+        }
+    }
+}
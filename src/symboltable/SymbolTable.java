@@ -1,58 +1,156 @@
 package symboltable;
 
+import lexer.NameTable;
+
 import java.util.*;
 
+/* Tabla de símbolos plana: un único arreglo, indexado por el id del nombre en
+ * la NameTable, con la entrada visible más interna de cada nombre. Cada
+ * entrada enlaza a la que oculta en un ámbito exterior, y cada ámbito
+ * guarda la lista de lo que declaró (registro para deshacer). Así buscar,
+ * declarar y cerrar un ámbito no dependen de la profundidad de anidamiento,
+ * y con el id que el parser dejó en cada nodo no se hashea ni compara texto.
+ * Las variantes con String internan el nombre primero.
+ * Los ámbitos cerrados se conservan para los reportes y las fases siguientes.
+ */
 public class SymbolTable {
-    private final Deque<Map<String, SymbolInfo>> scopes = new ArrayDeque<>();
+    private final NameTable names;
+    private SymbolInfo[] visible = new SymbolInfo[64];
+    private final List<Scope> scopes = new ArrayList<>(); // todos, en orden de apertura
+    private Scope current;
 
     public SymbolTable() {
+        this(new NameTable());
+    }
+
+    // names: la tabla de los ids que se pasan a las variantes con int
+    public SymbolTable(NameTable names) {
+        this.names = names;
         beginScope();
     }
 
+    // Id del nombre en la tabla de nombres (lo agrega si no estaba)
+    public int nameId(String name) {
+        return names.intern(name);
+    }
+
     public void beginScope() {
-        scopes.push(new HashMap<>());
+        int id = scopes.size();
+        String name = current == null ? "global" : "bloque" + id;
+        current = new Scope(id, current, name);
+        scopes.add(current);
     }
 
     public void endScope() {
-        scopes.pop();
+        List<SymbolInfo> declared = current.symbols;
+        for (int i = declared.size() - 1; i >= 0; i--) {
+            SymbolInfo s = declared.get(i);
+            visible[s.nameId] = s.shadowed;
+            s.shadowed = null;
+        }
+        current.closed = true;
+        current = current.parent;
+    }
+
+    public boolean existsInCurrentScope(int nameId) {
+        SymbolInfo s = getSymbol(nameId);
+        return s != null && s.scopeId == current.id;
     }
 
     public boolean existsInCurrentScope(String name) {
-        return scopes.peek().containsKey(name);
+        int id = names.find(name);
+        return id >= 0 && existsInCurrentScope(id);
+    }
+
+    public boolean exists(int nameId) {
+        return getSymbol(nameId) != null;
     }
 
     public boolean exists(String name) {
-        return scopes.stream().anyMatch(scope -> scope.containsKey(name));
+        return getSymbol(name) != null;
+    }
+
+    public SymbolInfo addSymbol(String name, String type, Object value, int line) {
+        return addSymbol(names.intern(name), name, type, value, current.name, line);
+    }
+
+    public SymbolInfo addSymbol(String name, String type, Object value, String scopeName, int line) {
+        return addSymbol(names.intern(name), name, type, value, scopeName, line);
+    }
+
+    public SymbolInfo addSymbol(int nameId, String name, String type, Object value, int line) {
+        return addSymbol(nameId, name, type, value, current.name, line);
     }
 
-    public void addSymbol(String name, String type, Object value, String scopeName, int line) {
-        Map<String, SymbolInfo> current = scopes.peek();
-        if (current.containsKey(name)) {
-            System.err.println("⚠️ Advertencia semántica [línea " + line + "]: la variable '" + name +
-                    "' ya fue declarada en este ámbito.");
-            return;
+    /* Devuelve la entrada creada, o la ya existente si el nombre se redeclara
+     * en el mismo ámbito (la advertencia la reporta quien llama, ver
+     * existsInCurrentScope).
+     */
+    public SymbolInfo addSymbol(int nameId, String name, String type, Object value, String scopeName, int line) {
+        SymbolInfo existing = getSymbol(nameId);
+        if (existing != null && existing.scopeId == current.id) {
+            return existing;
         }
-        current.put(name, new SymbolInfo(name, type, value, scopeName, line));
+        SymbolInfo info = new SymbolInfo(name, type, value, scopeName, line);
+        info.nameId = nameId;
+        info.scopeId = current.id;
+        info.shadowed = existing;
+        if (nameId >= visible.length) visible = Arrays.copyOf(visible, Math.max(nameId + 1, visible.length * 2));
+        visible[nameId] = info;
+        current.symbols.add(info);
+        return info;
+    }
+
+    public SymbolInfo getSymbol(int nameId) {
+        return nameId < visible.length ? visible[nameId] : null;
     }
 
     public SymbolInfo getSymbol(String name) {
-        for (Map<String, SymbolInfo> scope : scopes) {
-            if (scope.containsKey(name)) return scope.get(name);
+        int id = names.find(name);
+        return id < 0 ? null : getSymbol(id);
+    }
+
+    public Scope currentScope() {
+        return current;
+    }
+
+    // Todos los ámbitos abiertos hasta ahora, incluidos los ya cerrados
+    public List<Scope> getScopes() {
+        return Collections.unmodifiableList(scopes);
+    }
+
+    public static class Scope {
+        public final int id;
+        public final Scope parent;
+        public final int depth;
+        public final String name;
+        private final List<SymbolInfo> symbols = new ArrayList<>();
+        private boolean closed;
+
+        Scope(int id, Scope parent, String name) {
+            this.id = id;
+            this.parent = parent;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+            this.name = name;
+        }
+
+        // Símbolos declarados en este ámbito, en orden de declaración
+        public List<SymbolInfo> symbols() {
+            return Collections.unmodifiableList(symbols);
+        }
+
+        public boolean isClosed() {
+            return closed;
         }
-        return null;
-    }
-
-    public void print() {
-        System.out.println("\n=== TABLA DE SÍMBOLOS ===");
-        System.out.printf("%-10s %-10s %-10s %-10s %-10s%n", "Nombre", "Tipo", "Valor", "Ámbito", "Línea");
-        System.out.println("------------------------------------------------------");
-        List<Map<String, SymbolInfo>> list = new ArrayList<>(scopes);
-        Collections.reverse(list);
-        for (Map<String, SymbolInfo> scope : list) {
-            for (SymbolInfo s : scope.values()) {
-                System.out.printf("%-10s %-10s %-10s %-10s %-10d%n",
-                        s.name, s.type, (s.value != null ? s.value : "-"), s.scope, s.line);
+
+        // Búsqueda dentro de un ámbito ya cerrado (para reportes y fases posteriores)
+        public SymbolInfo find(String name) {
+            for (Scope s = this; s != null; s = s.parent) {
+                for (SymbolInfo info : s.symbols) {
+                    if (info.name.equals(name)) return info;
+                }
             }
+            return null;
         }
     }
 
@@ -62,6 +160,11 @@ public class SymbolTable {
         public Object value;
         public final String scope;
         public final int line;
+        public int scopeId;
+        public int slot = -1; // registro asignado por el generador de código; -1 hasta entonces
+
+        int nameId;          // índice en visible
+        SymbolInfo shadowed; // entrada del mismo nombre que esta oculta mientras su ámbito está abierto
 
         public SymbolInfo(String name, String type, Object value, String scope, int line) {
             this.name = name;
@@ -72,4 +175,3 @@ public class SymbolTable {
         }
     }
 }
-
@@ -0,0 +1,87 @@
+package vm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+/* Entrada para read(): lee la entrada en bloques de 64 KB y separa los
+ * números por espacios en blanco. Los long se acumulan directamente desde
+ * los bytes, sin crear cadenas.
+ */
+public final class BufferedInput {
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private final StringBuilder scratch = new StringBuilder();
+    private int pos;
+    private int limit;
+
+    public BufferedInput(InputStream in) {
+        this.in = in;
+    }
+
+    // Lanza NoSuchElementException al final de la entrada y NumberFormatException si no es un entero
+    public long readLong() {
+        skipWhitespace();
+        boolean negative = false;
+        int c = peek();
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            pos++;
+        }
+        long value = 0;
+        int digits = 0;
+        while ((c = peek()) >= '0' && c <= '9') {
+            int d = c - '0';
+            // se acumula en negativo para aceptar Long.MIN_VALUE
+            if (value < (Long.MIN_VALUE + d) / 10) throw new NumberFormatException("entero fuera de rango");
+            value = value * 10 - d;
+            digits++;
+            pos++;
+        }
+        if (digits == 0 || (c != -1 && !isWhitespace(c))) throw new NumberFormatException("se esperaba un entero");
+        if (!negative) {
+            if (value == Long.MIN_VALUE) throw new NumberFormatException("entero fuera de rango");
+            value = -value;
+        }
+        return value;
+    }
+
+    public double readDouble() {
+        skipWhitespace();
+        scratch.setLength(0);
+        int c;
+        while ((c = peek()) != -1 && !isWhitespace(c)) {
+            scratch.append((char) c);
+            pos++;
+        }
+        return Double.parseDouble(scratch.toString());
+    }
+
+    private void skipWhitespace() {
+        int c;
+        while ((c = peek()) != -1 && isWhitespace(c)) pos++;
+        if (c == -1) throw new NoSuchElementException("fin de la entrada");
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private int peek() {
+        if (pos == limit && !fill()) return -1;
+        return buffer[pos] & 0xFF;
+    }
+
+    private boolean fill() {
+        try {
+            int n = in.read(buffer, 0, buffer.length);
+            if (n <= 0) return false;
+            pos = 0;
+            limit = n;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package vm;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/* Salida para write(): acumula en un búfer de 64 KB y lo vuelca de una vez.
+ * Los long se formatean directamente sobre el búfer, sin crear cadenas.
+ * Cada write() termina la línea.
+ */
+public final class BufferedOutput {
+    private final OutputStream out;
+    private final byte[] buffer = new byte[1 << 16];
+    private int count;
+
+    public BufferedOutput(OutputStream out) {
+        this.out = out;
+    }
+
+    public void writeLong(long v) {
+        if (buffer.length - count < 21) flush();
+        if (v == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+        } else {
+            if (v < 0) {
+                buffer[count++] = '-';
+                v = -v;
+            }
+            int end = count + digits(v);
+            for (int i = end - 1; i >= count; i--) {
+                buffer[i] = (byte) ('0' + v % 10);
+                v /= 10;
+            }
+            count = end;
+        }
+        newline();
+    }
+
+    public void writeDouble(double v) {
+        writeAscii(Double.toString(v));
+        newline();
+    }
+
+    public void writeBoolean(boolean v) {
+        writeAscii(v ? "true" : "false");
+        newline();
+    }
+
+    public void writeString(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > buffer.length - count) flush();
+        if (bytes.length > buffer.length) {
+            write(bytes, bytes.length);
+        } else {
+            System.arraycopy(bytes, 0, buffer, count, bytes.length);
+            count += bytes.length;
+        }
+        newline();
+    }
+
+    public void flush() {
+        write(buffer, count);
+        count = 0;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeAscii(String s) {
+        if (buffer.length - count < s.length()) flush();
+        for (int i = 0; i < s.length(); i++) buffer[count++] = (byte) s.charAt(i);
+    }
+
+    private void newline() {
+        if (count == buffer.length) flush();
+        buffer[count++] = '\n';
+    }
+
+    private void write(byte[] bytes, int length) {
+        try {
+            out.write(bytes, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int digits(long v) {
+        int n = 1;
+        while (v >= 10) {
+            v /= 10;
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,555 @@
+package vm;
+
+import lexer.TokenType;
+import parser.Expr;
+import parser.Statement;
+import symboltable.DataType;
+import symboltable.SymbolTable.SymbolInfo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/* Traduce el AST ya analizado a código de la VM de registros.
+ * Cada variable recibe un registro fijo (SymbolInfo.slot) al declararse, así
+ * la ejecución no busca nombres. Los temporales se asignan como una pila por
+ * encima de las variables y se liberan al terminar cada sentencia; los
+ * registros de un bloque se reutilizan cuando el bloque termina.
+ * Requiere un programa sin errores: usa los tipos y símbolos que dejó el
+ * SemanticAnalyzer en cada nodo.
+ */
+public class CodeGenerator implements Statement.Visitor<Void>, Expr.Visitor<Integer> {
+    private int[] code = new int[256];
+    private int size;
+    private int[] lines = new int[64];
+    private int line;
+
+    private final List<Long> longs = new ArrayList<>();
+    private final Map<Long, Integer> longIndex = new HashMap<>();
+    private final List<Double> doubles = new ArrayList<>();
+    private final Map<Double, Integer> doubleIndex = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+
+    // Próximo registro libre y máximo usado de cada banco
+    private int nextL, nextD, maxL, maxD;
+    // Registro destino sugerido para la expresión que se está visitando (-1 = cualquiera)
+    private int dst = -1;
+
+    public static Program compile(List<Statement> statements) {
+        CodeGenerator gen = new CodeGenerator();
+        for (Statement s : statements) {
+            s.accept(gen);
+        }
+        gen.emit(Op.HALT, 0, 0, 0);
+        return gen.finish();
+    }
+
+    private Program finish() {
+        int[] finalCode = new int[size];
+        System.arraycopy(code, 0, finalCode, 0, size);
+        int[] finalLines = new int[size / Op.WIDTH];
+        System.arraycopy(lines, 0, finalLines, 0, finalLines.length);
+        long[] l = new long[longs.size()];
+        for (int i = 0; i < l.length; i++) l[i] = longs.get(i);
+        double[] d = new double[doubles.size()];
+        for (int i = 0; i < d.length; i++) d[i] = doubles.get(i);
+        return new Program(finalCode, finalLines, l, d, strings.toArray(new String[0]), maxL, maxD);
+    }
+
+    // SENTENCIAS
+
+    @Override
+    public Void visitVarDecl(Statement.VarDecl stmt) {
+        line = stmt.line;
+        SymbolInfo symbol = stmt.symbol;
+        boolean isDouble = isDouble(symbol);
+        // Se asigna en cada declaración: el código se emite en orden, así que tras una
+        // redeclaración en el mismo ámbito los usos siguientes ven el registro nuevo
+        symbol.slot = isDouble ? allocD() : allocL();
+        int markL = nextL, markD = nextD;
+        if (stmt.initializer != null) {
+            store(symbol.slot, isDouble, stmt.initializer);
+        } else if (isDouble) {
+            emit(Op.CONST_D, symbol.slot, doubleConstant(0.0), 0);
+        } else {
+            emit(Op.CONST_L, symbol.slot, longConstant(0), 0);
+        }
+        release(markL, markD);
+        return null;
+    }
+
+    @Override
+    public Void visitRead(Statement.Read stmt) {
+        line = stmt.line;
+        SymbolInfo symbol = stmt.symbol;
+        emit(isDouble(symbol) ? Op.READ_D : Op.READ_L, symbol.slot, stringConstant(stmt.name), 0);
+        return null;
+    }
+
+    @Override
+    public Void visitWrite(Statement.Write stmt) {
+        line = stmt.line;
+        if (stmt.value instanceof Expr.Literal && ((Expr.Literal) stmt.value).kind == DataType.STRING) {
+            emit(Op.WRITE_S, stringConstant(((Expr.Literal) stmt.value).string), 0, 0);
+            return null;
+        }
+        int markL = nextL, markD = nextD;
+        int r = expr(stmt.value, -1);
+        switch (stmt.value.type) {
+            case DOUBLE: emit(Op.WRITE_D, r, 0, 0); break;
+            case BOOLEAN: emit(Op.WRITE_B, r, 0, 0); break;
+            default: emit(Op.WRITE_L, r, 0, 0); break;
+        }
+        release(markL, markD);
+        return null;
+    }
+
+    @Override
+    public Void visitIf(Statement.If stmt) {
+        line = stmt.line;
+        List<Integer> toElse = new ArrayList<>();
+        jumpIf(stmt.condition, false, toElse);
+        stmt.thenBranch.accept(this);
+        if (stmt.elseBranch == null) {
+            patch(toElse, size);
+            return null;
+        }
+        int toEnd = emit(Op.JMP, 0, 0, 0);
+        patch(toElse, size);
+        stmt.elseBranch.accept(this);
+        patch(toEnd, size);
+        return null;
+    }
+
+    // Bucle rotado: la condición va al final y cada vuelta ejecuta un solo salto
+    @Override
+    public Void visitWhile(Statement.While stmt) {
+        line = stmt.line;
+        int toCondition = emit(Op.JMP, 0, 0, 0);
+        int body = size;
+        stmt.body.accept(this);
+        patch(toCondition, size);
+        line = stmt.line;
+        List<Integer> toBody = new ArrayList<>();
+        jumpIf(stmt.condition, true, toBody);
+        patch(toBody, body);
+        return null;
+    }
+
+    @Override
+    public Void visitBlock(Statement.Block stmt) {
+        int markL = nextL, markD = nextD;
+        for (Statement s : stmt.statements) {
+            s.accept(this);
+        }
+        release(markL, markD);
+        return null;
+    }
+
+    @Override
+    public Void visitExpression(Statement.Expression stmt) {
+        line = stmt.line;
+        int markL = nextL, markD = nextD;
+        expr(stmt.expr, -1);
+        release(markL, markD);
+        return null;
+    }
+
+    // SALTOS
+
+    /* Emite los saltos que se toman cuando la condición vale "when" y agrega
+     * sus posiciones a patches. Si no se toma ninguno, la ejecución sigue.
+     */
+    private void jumpIf(Expr cond, boolean when, List<Integer> patches) {
+        int markL = nextL, markD = nextD;
+        if (cond instanceof Expr.Unary && ((Expr.Unary) cond).op == TokenType.BANG) {
+            jumpIf(((Expr.Unary) cond).operand, !when, patches);
+            return;
+        }
+        if (cond instanceof Expr.Binary) {
+            Expr.Binary b = (Expr.Binary) cond;
+            switch (b.op) {
+                case AND_AND:
+                case OR_OR: {
+                    // a && b salta por falso si cualquiera es falso; a || b, por verdadero si cualquiera lo es
+                    boolean shortCircuit = b.op == TokenType.OR_OR;
+                    if (when == shortCircuit) {
+                        jumpIf(b.left, when, patches);
+                        jumpIf(b.right, when, patches);
+                    } else {
+                        List<Integer> skip = new ArrayList<>();
+                        jumpIf(b.left, shortCircuit, skip);
+                        jumpIf(b.right, when, patches);
+                        patch(skip, size);
+                    }
+                    return;
+                }
+                case LT: case LE: case GT: case GE: case EQEQ: case NEQ:
+                    if (b.left.type == DataType.STRING) break;
+                    boolean d = isDouble(b);
+                    if (!d || when) {
+                        int[] ops = operands(b, d);
+                        TokenType op = when ? b.op : negate(b.op);
+                        patches.add(emit(compareJump(op, d), ops[0], ops[1], 0));
+                        release(markL, markD);
+                        return;
+                    }
+                    break; // !(a < b) no equivale a a >= b con NaN: se calcula el valor
+                default:
+                    break;
+            }
+        }
+        if (cond instanceof Expr.Literal) {
+            if (((Expr.Literal) cond).truth() == when) patches.add(emit(Op.JMP, 0, 0, 0));
+            return;
+        }
+        int r = expr(cond, -1);
+        if (cond.type == DataType.DOUBLE) {
+            int t = allocL();
+            emit(Op.TRUTH_D, t, r, 0);
+            r = t;
+        }
+        patches.add(emit(when ? Op.JNZ : Op.JZ, r, 0, 0));
+        release(markL, markD);
+    }
+
+    private static TokenType negate(TokenType op) {
+        switch (op) {
+            case LT: return TokenType.GE;
+            case LE: return TokenType.GT;
+            case GT: return TokenType.LE;
+            case GE: return TokenType.LT;
+            case EQEQ: return TokenType.NEQ;
+            default: return TokenType.EQEQ;
+        }
+    }
+
+    private static int compareJump(TokenType op, boolean isDouble) {
+        int base = isDouble ? Op.JLT_D : Op.JLT_L;
+        return base + relationalIndex(op);
+    }
+
+    private static int compare(TokenType op, boolean isDouble) {
+        int base = isDouble ? Op.LT_D : Op.LT_L;
+        return base + relationalIndex(op);
+    }
+
+    // Orden de los opcodes relacionales: LT, LE, GT, GE, EQ, NE
+    private static int relationalIndex(TokenType op) {
+        switch (op) {
+            case LT: return 0;
+            case LE: return 1;
+            case GT: return 2;
+            case GE: return 3;
+            case EQEQ: return 4;
+            default: return 5;
+        }
+    }
+
+    // EXPRESIONES
+
+    // Evalúa e y devuelve el registro con su valor; si dst >= 0 el resultado queda en dst
+    private int expr(Expr e, int dst) {
+        int saved = this.dst;
+        this.dst = dst;
+        int r = e.accept(this);
+        this.dst = saved;
+        return r;
+    }
+
+    // Valor de e en un registro double, convirtiendo si es long
+    private int asDouble(Expr e) {
+        if (e.type == DataType.DOUBLE) return expr(e, -1);
+        int t;
+        if (e instanceof Expr.Literal) {
+            // constante entera usada como double: se convierte al compilar
+            t = allocD();
+            emit(Op.CONST_D, t, doubleConstant(((Expr.Literal) e).doubleValue()), 0);
+            return t;
+        }
+        int r = expr(e, -1);
+        t = allocD();
+        emit(Op.L2D, t, r, 0);
+        return t;
+    }
+
+    // Guarda el valor de e en el registro de una variable
+    private void store(int slot, boolean isDouble, Expr e) {
+        if (isDouble && e instanceof Expr.Literal && e.type == DataType.LONG) {
+            emit(Op.CONST_D, slot, doubleConstant(((Expr.Literal) e).doubleValue()), 0);
+        } else if (isDouble && e.type != DataType.DOUBLE) {
+            emit(Op.L2D, slot, expr(e, -1), 0);
+        } else {
+            expr(e, slot);
+        }
+    }
+
+    private static boolean assigns(Expr e) {
+        if (e instanceof Expr.Assign) return true;
+        if (e instanceof Expr.Binary) return assigns(((Expr.Binary) e).left) || assigns(((Expr.Binary) e).right);
+        if (e instanceof Expr.Unary) return assigns(((Expr.Unary) e).operand);
+        return false;
+    }
+
+    @Override
+    public Integer visitBinary(Expr.Binary expr) {
+        int target = dst;
+        line = expr.line;
+        int markL = nextL, markD = nextD;
+        switch (expr.op) {
+            case AND_AND:
+            case OR_OR:
+                return logicalValue(expr, target);
+            case LT: case LE: case GT: case GE: case EQEQ: case NEQ: {
+                if (expr.left.type == DataType.STRING) {
+                    boolean equal = ((Expr.Literal) expr.left).string.equals(((Expr.Literal) expr.right).string);
+                    int r = target >= 0 ? target : allocL();
+                    emit(Op.CONST_L, r, longConstant(equal == (expr.op == TokenType.EQEQ) ? 1 : 0), 0);
+                    return r;
+                }
+                boolean d = isDouble(expr);
+                int[] ops = operands(expr, d);
+                release(markL, markD);
+                int r = target >= 0 ? target : allocL();
+                emit(compare(expr.op, d), r, ops[0], ops[1]);
+                return r;
+            }
+            default: {
+                boolean d = expr.type == DataType.DOUBLE;
+                if (!d && isSmallConstant(expr.right) && (expr.op == TokenType.PLUS || expr.op == TokenType.MINUS)) {
+                    int l = expr(expr.left, -1);
+                    long k = ((Expr.Literal) expr.right).bits;
+                    release(markL, markD);
+                    int r = target >= 0 ? target : allocL();
+                    emit(Op.ADDI_L, r, l, (int) (expr.op == TokenType.PLUS ? k : -k));
+                    return r;
+                }
+                int[] ops = operands(expr, d);
+                release(markL, markD);
+                int r = target >= 0 ? target : (d ? allocD() : allocL());
+                emit(arithmetic(expr.op, d), r, ops[0], ops[1]);
+                return r;
+            }
+        }
+    }
+
+    /* Registros de ambos operandos, en el banco indicado. Si el izquierdo quedó
+     * en el registro de una variable (a, a = 1) y el derecho asigna (a + (a = 5)),
+     * se copia antes de evaluar el derecho para respetar el orden de evaluación.
+     */
+    private int[] operands(Expr.Binary expr, boolean d) {
+        int l = d ? asDouble(expr.left) : expr(expr.left, -1);
+        boolean inVariable = (expr.left instanceof Expr.Variable || expr.left instanceof Expr.Assign)
+                && d == (expr.left.type == DataType.DOUBLE);
+        if (inVariable && assigns(expr.right)) {
+            int copy = d ? allocD() : allocL();
+            emit(d ? Op.MOV_D : Op.MOV_L, copy, l, 0);
+            l = copy;
+        }
+        int r = d ? asDouble(expr.right) : expr(expr.right, -1);
+        return new int[] {l, r};
+    }
+
+    private static boolean isSmallConstant(Expr e) {
+        if (!(e instanceof Expr.Literal)) return false;
+        Expr.Literal lit = (Expr.Literal) e;
+        if (lit.kind != DataType.LONG) return false;
+        long k = lit.bits;
+        return k > Integer.MIN_VALUE && k <= Integer.MAX_VALUE;
+    }
+
+    private static int arithmetic(TokenType op, boolean isDouble) {
+        switch (op) {
+            case PLUS: return isDouble ? Op.ADD_D : Op.ADD_L;
+            case MINUS: return isDouble ? Op.SUB_D : Op.SUB_L;
+            case STAR: return isDouble ? Op.MUL_D : Op.MUL_L;
+            default: return isDouble ? Op.DIV_D : Op.DIV_L;
+        }
+    }
+
+    // a && b / a || b como valor 0/1
+    private int logicalValue(Expr.Binary expr, int target) {
+        List<Integer> toFalse = new ArrayList<>();
+        jumpIf(expr, false, toFalse);
+        int r = target >= 0 ? target : allocL();
+        emit(Op.CONST_L, r, longConstant(1), 0);
+        int toEnd = emit(Op.JMP, 0, 0, 0);
+        patch(toFalse, size);
+        emit(Op.CONST_L, r, longConstant(0), 0);
+        patch(toEnd, size);
+        return r;
+    }
+
+    @Override
+    public Integer visitUnary(Expr.Unary expr) {
+        int target = dst;
+        line = expr.line;
+        int markL = nextL, markD = nextD;
+        if (expr.op == TokenType.BANG) {
+            int v = expr(expr.operand, -1);
+            if (expr.operand.type == DataType.DOUBLE) {
+                int t = allocL();
+                emit(Op.TRUTH_D, t, v, 0);
+                v = t;
+            }
+            release(markL, markD);
+            int r = target >= 0 ? target : allocL();
+            emit(Op.NOT, r, v, 0);
+            return r;
+        }
+        boolean d = expr.type == DataType.DOUBLE;
+        int v = expr(expr.operand, -1);
+        release(markL, markD);
+        int r = target >= 0 ? target : (d ? allocD() : allocL());
+        emit(d ? Op.NEG_D : Op.NEG_L, r, v, 0);
+        return r;
+    }
+
+    @Override
+    public Integer visitLiteral(Expr.Literal expr) {
+        if (expr.isDouble()) {
+            int r = dst >= 0 ? dst : allocD();
+            emit(Op.CONST_D, r, doubleConstant(expr.doubleValue()), 0);
+            return r;
+        }
+        if (expr.kind == DataType.STRING) {
+            throw new IllegalStateException("cadena fuera de write(): el análisis semántico debió rechazarla");
+        }
+        // long o booleano (1/0) tal cual
+        int r = dst >= 0 ? dst : allocL();
+        emit(Op.CONST_L, r, longConstant(expr.bits), 0);
+        return r;
+    }
+
+    @Override
+    public Integer visitVariable(Expr.Variable expr) {
+        int slot = expr.symbol.slot;
+        if (dst < 0 || dst == slot) return slot;
+        emit(isDouble(expr.symbol) ? Op.MOV_D : Op.MOV_L, dst, slot, 0);
+        return dst;
+    }
+
+    @Override
+    public Integer visitAssign(Expr.Assign expr) {
+        int target = dst;
+        line = expr.line;
+        SymbolInfo symbol = expr.symbol;
+        int slot = symbol.slot;
+        boolean d = isDouble(symbol);
+        int markL = nextL, markD = nextD;
+        if (expr.op == TokenType.ASSIGN) {
+            store(slot, d, expr.value);
+        } else {
+            TokenType op = compoundOperator(expr.op);
+            if (!d && isSmallConstant(expr.value) && (op == TokenType.PLUS || op == TokenType.MINUS)) {
+                long k = ((Expr.Literal) expr.value).bits;
+                emit(Op.ADDI_L, slot, slot, (int) (op == TokenType.PLUS ? k : -k));
+            } else {
+                // x += (x = 3) usa el valor de x anterior a la asignación interna
+                int current = slot;
+                if (assigns(expr.value)) {
+                    current = d ? allocD() : allocL();
+                    emit(d ? Op.MOV_D : Op.MOV_L, current, slot, 0);
+                }
+                int v = d ? asDouble(expr.value) : expr(expr.value, -1);
+                line = expr.line;
+                emit(arithmetic(op, d), slot, current, v);
+            }
+        }
+        release(markL, markD);
+        if (target < 0 || target == slot) return slot;
+        emit(d ? Op.MOV_D : Op.MOV_L, target, slot, 0);
+        return target;
+    }
+
+    private static TokenType compoundOperator(TokenType op) {
+        switch (op) {
+            case PLUS_EQ: return TokenType.PLUS;
+            case MINUS_EQ: return TokenType.MINUS;
+            case STAR_EQ: return TokenType.STAR;
+            default: return TokenType.SLASH;
+        }
+    }
+
+    // REGISTROS Y CONSTANTES
+
+    private static boolean isDouble(SymbolInfo symbol) {
+        return DataType.of(symbol.type) == DataType.DOUBLE;
+    }
+
+    // Una comparación se hace en double si alguno de los operandos lo es
+    private static boolean isDouble(Expr.Binary b) {
+        return b.left.type == DataType.DOUBLE || b.right.type == DataType.DOUBLE;
+    }
+
+    private int allocL() {
+        int r = nextL++;
+        if (nextL > maxL) maxL = nextL;
+        return r;
+    }
+
+    private int allocD() {
+        int r = nextD++;
+        if (nextD > maxD) maxD = nextD;
+        return r;
+    }
+
+    private void release(int markL, int markD) {
+        nextL = markL;
+        nextD = markD;
+    }
+
+    private int longConstant(long value) {
+        return longIndex.computeIfAbsent(value, v -> {
+            longs.add(v);
+            return longs.size() - 1;
+        });
+    }
+
+    private int doubleConstant(double value) {
+        return doubleIndex.computeIfAbsent(value, v -> {
+            doubles.add(v);
+            return doubles.size() - 1;
+        });
+    }
+
+    private int stringConstant(String value) {
+        return stringIndex.computeIfAbsent(value, v -> {
+            strings.add(v);
+            return strings.size() - 1;
+        });
+    }
+
+    // EMISIÓN
+
+    private int emit(int op, int a, int b, int c) {
+        if (size + Op.WIDTH > code.length) {
+            int[] grown = new int[code.length * 2];
+            System.arraycopy(code, 0, grown, 0, size);
+            code = grown;
+        }
+        int pc = size;
+        if (pc / Op.WIDTH >= lines.length) {
+            int[] grown = new int[lines.length * 2];
+            System.arraycopy(lines, 0, grown, 0, lines.length);
+            lines = grown;
+        }
+        lines[pc / Op.WIDTH] = line;
+        code[pc] = op;
+        code[pc + 1] = a;
+        code[pc + 2] = b;
+        code[pc + 3] = c;
+        size += Op.WIDTH;
+        return pc;
+    }
+
+    private void patch(int jump, int target) {
+        code[jump + 3] = target;
+    }
+
+    private void patch(List<Integer> jumps, int target) {
+        for (int jump : jumps) patch(jump, target);
+    }
+}
@@ -0,0 +1,18 @@
+package vm;
+
+// Error detectado al ejecutar el programa (división por cero, entrada inválida)
+public class ExecutionError extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public final int line;
+
+    public ExecutionError(int line, String message) {
+        super(message);
+        this.line = line;
+    }
+
+    @Override
+    public String toString() {
+        return "Error de ejecución [línea " + line + "]: " + getMessage();
+    }
+}
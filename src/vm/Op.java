@@ -0,0 +1,142 @@
+package vm;
+
+/* Códigos de operación de la VM de registros.
+ * Cada instrucción ocupa 4 enteros: op, a, b, c. Los registros long y double
+ * son bancos separados; los booleanos viven en registros long como 0/1.
+ * En los saltos el último operando es la dirección destino (índice en code).
+ */
+public final class Op {
+    private Op() {}
+
+    public static final int WIDTH = 4;
+
+    public static final int HALT = 0;
+    public static final int MOV_L = 1;      // l[a] = l[b]
+    public static final int MOV_D = 2;      // d[a] = d[b]
+    public static final int CONST_L = 3;    // l[a] = longs[b]
+    public static final int CONST_D = 4;    // d[a] = doubles[b]
+    public static final int L2D = 5;        // d[a] = (double) l[b]
+
+    public static final int ADD_L = 6;      // l[a] = l[b] + l[c]
+    public static final int SUB_L = 7;
+    public static final int MUL_L = 8;
+    public static final int DIV_L = 9;
+    public static final int ADDI_L = 10;    // l[a] = l[b] + c
+    public static final int NEG_L = 11;     // l[a] = -l[b]
+    public static final int ADD_D = 12;     // d[a] = d[b] + d[c]
+    public static final int SUB_D = 13;
+    public static final int MUL_D = 14;
+    public static final int DIV_D = 15;
+    public static final int NEG_D = 16;     // d[a] = -d[b]
+    public static final int NOT = 17;       // l[a] = l[b] == 0 ? 1 : 0
+    public static final int TRUTH_D = 18;   // l[a] = d[b] != 0 ? 1 : 0
+
+    // Comparaciones: l[a] = x[b] op x[c] ? 1 : 0
+    public static final int LT_L = 19;
+    public static final int LE_L = 20;
+    public static final int GT_L = 21;
+    public static final int GE_L = 22;
+    public static final int EQ_L = 23;
+    public static final int NE_L = 24;
+    public static final int LT_D = 25;
+    public static final int LE_D = 26;
+    public static final int GT_D = 27;
+    public static final int GE_D = 28;
+    public static final int EQ_D = 29;
+    public static final int NE_D = 30;
+
+    // Saltos
+    public static final int JMP = 31;       // pc = c
+    public static final int JZ = 32;        // if (l[a] == 0) pc = c
+    public static final int JNZ = 33;       // if (l[a] != 0) pc = c
+    // Comparar y saltar: if (x[a] op x[b]) pc = c
+    public static final int JLT_L = 34;
+    public static final int JLE_L = 35;
+    public static final int JGT_L = 36;
+    public static final int JGE_L = 37;
+    public static final int JEQ_L = 38;
+    public static final int JNE_L = 39;
+    public static final int JLT_D = 40;
+    public static final int JLE_D = 41;
+    public static final int JGT_D = 42;
+    public static final int JGE_D = 43;
+    public static final int JEQ_D = 44;
+    public static final int JNE_D = 45;
+
+    // Entrada y salida; en READ b es el índice del nombre en strings
+    public static final int READ_L = 46;
+    public static final int READ_D = 47;
+    public static final int WRITE_L = 48;
+    public static final int WRITE_D = 49;
+    public static final int WRITE_B = 50;   // escribe l[a] como true/false
+    public static final int WRITE_S = 51;   // escribe strings[a]
+
+    public static final int COUNT = 52;
+
+    /* Nombre y formato de operandos de cada instrucción, para el desensamblador:
+     * l = registro long, d = registro double, k = constante long, K = constante double,
+     * s = cadena, i = inmediato, j = destino de salto, - = sin usar.
+     */
+    static final String[] NAMES = new String[COUNT];
+    static final String[] FORMATS = new String[COUNT];
+
+    private static void def(int op, String name, String format) {
+        NAMES[op] = name;
+        FORMATS[op] = format;
+    }
+
+    static {
+        def(HALT, "HALT", "---");
+        def(MOV_L, "MOV_L", "ll-");
+        def(MOV_D, "MOV_D", "dd-");
+        def(CONST_L, "CONST_L", "lk-");
+        def(CONST_D, "CONST_D", "dK-");
+        def(L2D, "L2D", "dl-");
+        def(ADD_L, "ADD_L", "lll");
+        def(SUB_L, "SUB_L", "lll");
+        def(MUL_L, "MUL_L", "lll");
+        def(DIV_L, "DIV_L", "lll");
+        def(ADDI_L, "ADDI_L", "lli");
+        def(NEG_L, "NEG_L", "ll-");
+        def(ADD_D, "ADD_D", "ddd");
+        def(SUB_D, "SUB_D", "ddd");
+        def(MUL_D, "MUL_D", "ddd");
+        def(DIV_D, "DIV_D", "ddd");
+        def(NEG_D, "NEG_D", "dd-");
+        def(NOT, "NOT", "ll-");
+        def(TRUTH_D, "TRUTH_D", "ld-");
+        def(LT_L, "LT_L", "lll");
+        def(LE_L, "LE_L", "lll");
+        def(GT_L, "GT_L", "lll");
+        def(GE_L, "GE_L", "lll");
+        def(EQ_L, "EQ_L", "lll");
+        def(NE_L, "NE_L", "lll");
+        def(LT_D, "LT_D", "ldd");
+        def(LE_D, "LE_D", "ldd");
+        def(GT_D, "GT_D", "ldd");
+        def(GE_D, "GE_D", "ldd");
+        def(EQ_D, "EQ_D", "ldd");
+        def(NE_D, "NE_D", "ldd");
+        def(JMP, "JMP", "--j");
+        def(JZ, "JZ", "l-j");
+        def(JNZ, "JNZ", "l-j");
+        def(JLT_L, "JLT_L", "llj");
+        def(JLE_L, "JLE_L", "llj");
+        def(JGT_L, "JGT_L", "llj");
+        def(JGE_L, "JGE_L", "llj");
+        def(JEQ_L, "JEQ_L", "llj");
+        def(JNE_L, "JNE_L", "llj");
+        def(JLT_D, "JLT_D", "ddj");
+        def(JLE_D, "JLE_D", "ddj");
+        def(JGT_D, "JGT_D", "ddj");
+        def(JGE_D, "JGE_D", "ddj");
+        def(JEQ_D, "JEQ_D", "ddj");
+        def(JNE_D, "JNE_D", "ddj");
+        def(READ_L, "READ_L", "ls-");
+        def(READ_D, "READ_D", "ds-");
+        def(WRITE_L, "WRITE_L", "l--");
+        def(WRITE_D, "WRITE_D", "d--");
+        def(WRITE_B, "WRITE_B", "l--");
+        def(WRITE_S, "WRITE_S", "s--");
+    }
+}
@@ -0,0 +1,63 @@
+package vm;
+
+/* Programa compilado para la VM: código de ancho fijo (Op.WIDTH enteros por
+ * instrucción), pools de constantes y tamaño de cada banco de registros.
+ * Las variables ocupan los registros bajos; los temporales van encima.
+ */
+public final class Program {
+    public final int[] code;
+    public final int[] lines;        // línea fuente de cada instrucción (índice pc / Op.WIDTH)
+    public final long[] longs;
+    public final double[] doubles;
+    public final String[] strings;
+    public final int longRegisters;
+    public final int doubleRegisters;
+
+    Program(int[] code, int[] lines, long[] longs, double[] doubles, String[] strings,
+            int longRegisters, int doubleRegisters) {
+        this.code = code;
+        this.lines = lines;
+        this.longs = longs;
+        this.doubles = doubles;
+        this.strings = strings;
+        this.longRegisters = longRegisters;
+        this.doubleRegisters = doubleRegisters;
+    }
+
+    public int instructionCount() {
+        return code.length / Op.WIDTH;
+    }
+
+    public String disassemble() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("registros: ").append(longRegisters).append(" long, ")
+          .append(doubleRegisters).append(" double\n");
+        for (int pc = 0; pc < code.length; pc += Op.WIDTH) {
+            int op = code[pc];
+            String format = Op.FORMATS[op];
+            sb.append(String.format("%04d  %-8s", pc, Op.NAMES[op]));
+            boolean first = true;
+            for (int i = 0; i < 3; i++) {
+                char kind = format.charAt(i);
+                if (kind == '-') continue;
+                sb.append(first ? " " : ", ");
+                first = false;
+                operand(sb, kind, code[pc + 1 + i]);
+            }
+            sb.append("    ; línea ").append(lines[pc / Op.WIDTH]).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private void operand(StringBuilder sb, char kind, int value) {
+        switch (kind) {
+            case 'l': sb.append('l').append(value); break;
+            case 'd': sb.append('d').append(value); break;
+            case 'k': sb.append(longs[value]); break;
+            case 'K': sb.append(doubles[value]); break;
+            case 's': sb.append('"').append(strings[value]).append('"'); break;
+            case 'j': sb.append(String.format("%04d", value)); break;
+            default: sb.append(value); break;
+        }
+    }
+}
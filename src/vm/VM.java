@@ -0,0 +1,120 @@
+package vm;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.NoSuchElementException;
+
+/* Intérprete de la VM de registros. Los valores viven sin boxing en dos
+ * arreglos primitivos (long y double) indexados por los registros que fijó
+ * el CodeGenerator, así que un while de puro cálculo no asigna memoria ni
+ * busca nombres en cada vuelta.
+ */
+public final class VM {
+    private VM() {}
+
+    public static void run(Program program, InputStream in, OutputStream out) {
+        BufferedOutput output = new BufferedOutput(out);
+        try {
+            execute(program, new BufferedInput(in), output);
+        } finally {
+            output.flush();
+        }
+    }
+
+    public static void execute(Program program, BufferedInput in, BufferedOutput out) {
+        final int[] code = program.code;
+        final long[] longs = program.longs;
+        final double[] doubles = program.doubles;
+        final long[] l = new long[program.longRegisters];
+        final double[] d = new double[program.doubleRegisters];
+        int pc = 0;
+
+        for (;;) {
+            switch (code[pc]) {
+                case Op.HALT: return;
+                case Op.MOV_L: l[code[pc + 1]] = l[code[pc + 2]]; break;
+                case Op.MOV_D: d[code[pc + 1]] = d[code[pc + 2]]; break;
+                case Op.CONST_L: l[code[pc + 1]] = longs[code[pc + 2]]; break;
+                case Op.CONST_D: d[code[pc + 1]] = doubles[code[pc + 2]]; break;
+                case Op.L2D: d[code[pc + 1]] = l[code[pc + 2]]; break;
+
+                case Op.ADD_L: l[code[pc + 1]] = l[code[pc + 2]] + l[code[pc + 3]]; break;
+                case Op.SUB_L: l[code[pc + 1]] = l[code[pc + 2]] - l[code[pc + 3]]; break;
+                case Op.MUL_L: l[code[pc + 1]] = l[code[pc + 2]] * l[code[pc + 3]]; break;
+                case Op.DIV_L: {
+                    long divisor = l[code[pc + 3]];
+                    if (divisor == 0) throw new ExecutionError(program.lines[pc / Op.WIDTH], "división entera por cero.");
+                    l[code[pc + 1]] = l[code[pc + 2]] / divisor;
+                    break;
+                }
+                case Op.ADDI_L: l[code[pc + 1]] = l[code[pc + 2]] + code[pc + 3]; break;
+                case Op.NEG_L: l[code[pc + 1]] = -l[code[pc + 2]]; break;
+                case Op.ADD_D: d[code[pc + 1]] = d[code[pc + 2]] + d[code[pc + 3]]; break;
+                case Op.SUB_D: d[code[pc + 1]] = d[code[pc + 2]] - d[code[pc + 3]]; break;
+                case Op.MUL_D: d[code[pc + 1]] = d[code[pc + 2]] * d[code[pc + 3]]; break;
+                case Op.DIV_D: d[code[pc + 1]] = d[code[pc + 2]] / d[code[pc + 3]]; break;
+                case Op.NEG_D: d[code[pc + 1]] = -d[code[pc + 2]]; break;
+                case Op.NOT: l[code[pc + 1]] = l[code[pc + 2]] == 0 ? 1 : 0; break;
+                case Op.TRUTH_D: l[code[pc + 1]] = d[code[pc + 2]] != 0 ? 1 : 0; break;
+
+                case Op.LT_L: l[code[pc + 1]] = l[code[pc + 2]] < l[code[pc + 3]] ? 1 : 0; break;
+                case Op.LE_L: l[code[pc + 1]] = l[code[pc + 2]] <= l[code[pc + 3]] ? 1 : 0; break;
+                case Op.GT_L: l[code[pc + 1]] = l[code[pc + 2]] > l[code[pc + 3]] ? 1 : 0; break;
+                case Op.GE_L: l[code[pc + 1]] = l[code[pc + 2]] >= l[code[pc + 3]] ? 1 : 0; break;
+                case Op.EQ_L: l[code[pc + 1]] = l[code[pc + 2]] == l[code[pc + 3]] ? 1 : 0; break;
+                case Op.NE_L: l[code[pc + 1]] = l[code[pc + 2]] != l[code[pc + 3]] ? 1 : 0; break;
+                case Op.LT_D: l[code[pc + 1]] = d[code[pc + 2]] < d[code[pc + 3]] ? 1 : 0; break;
+                case Op.LE_D: l[code[pc + 1]] = d[code[pc + 2]] <= d[code[pc + 3]] ? 1 : 0; break;
+                case Op.GT_D: l[code[pc + 1]] = d[code[pc + 2]] > d[code[pc + 3]] ? 1 : 0; break;
+                case Op.GE_D: l[code[pc + 1]] = d[code[pc + 2]] >= d[code[pc + 3]] ? 1 : 0; break;
+                case Op.EQ_D: l[code[pc + 1]] = d[code[pc + 2]] == d[code[pc + 3]] ? 1 : 0; break;
+                case Op.NE_D: l[code[pc + 1]] = d[code[pc + 2]] != d[code[pc + 3]] ? 1 : 0; break;
+
+                // Los saltos tomados continúan sin avanzar pc
+                case Op.JMP: pc = code[pc + 3]; continue;
+                case Op.JZ: if (l[code[pc + 1]] == 0) { pc = code[pc + 3]; continue; } break;
+                case Op.JNZ: if (l[code[pc + 1]] != 0) { pc = code[pc + 3]; continue; } break;
+                case Op.JLT_L: if (l[code[pc + 1]] < l[code[pc + 2]]) { pc = code[pc + 3]; continue; } break;
+                case Op.JLE_L: if (l[code[pc + 1]] <= l[code[pc + 2]]) { pc = code[pc + 3]; continue; } break;
+                case Op.JGT_L: if (l[code[pc + 1]] > l[code[pc + 2]]) { pc = code[pc + 3]; continue; } break;
+                case Op.JGE_L: if (l[code[pc + 1]] >= l[code[pc + 2]]) { pc = code[pc + 3]; continue; } break;
+                case Op.JEQ_L: if (l[code[pc + 1]] == l[code[pc + 2]]) { pc = code[pc + 3]; continue; } break;
+                case Op.JNE_L: if (l[code[pc + 1]] != l[code[pc + 2]]) { pc = code[pc + 3]; continue; } break;
+                case Op.JLT_D: if (d[code[pc + 1]] < d[code[pc + 2]]) { pc = code[pc + 3]; continue; } break;
+                case Op.JLE_D: if (d[code[pc + 1]] <= d[code[pc + 2]]) { pc = code[pc + 3]; continue; } break;
+                case Op.JGT_D: if (d[code[pc + 1]] > d[code[pc + 2]]) { pc = code[pc + 3]; continue; } break;
+                case Op.JGE_D: if (d[code[pc + 1]] >= d[code[pc + 2]]) { pc = code[pc + 3]; continue; } break;
+                case Op.JEQ_D: if (d[code[pc + 1]] == d[code[pc + 2]]) { pc = code[pc + 3]; continue; } break;
+                case Op.JNE_D: if (d[code[pc + 1]] != d[code[pc + 2]]) { pc = code[pc + 3]; continue; } break;
+
+                case Op.READ_L:
+                    try {
+                        l[code[pc + 1]] = in.readLong();
+                    } catch (NoSuchElementException | NumberFormatException e) {
+                        throw readError(program, pc, e);
+                    }
+                    break;
+                case Op.READ_D:
+                    try {
+                        d[code[pc + 1]] = in.readDouble();
+                    } catch (NoSuchElementException | NumberFormatException e) {
+                        throw readError(program, pc, e);
+                    }
+                    break;
+                case Op.WRITE_L: out.writeLong(l[code[pc + 1]]); break;
+                case Op.WRITE_D: out.writeDouble(d[code[pc + 1]]); break;
+                case Op.WRITE_B: out.writeBoolean(l[code[pc + 1]] != 0); break;
+                case Op.WRITE_S: out.writeString(program.strings[code[pc + 1]]); break;
+                default:
+                    throw new IllegalStateException("opcode inválido " + code[pc] + " en " + pc);
+            }
+            pc += Op.WIDTH;
+        }
+    }
+
+    private static ExecutionError readError(Program program, int pc, RuntimeException cause) {
+        String name = program.strings[program.code[pc + 2]];
+        String reason = cause instanceof NoSuchElementException ? "fin de la entrada" : "valor inválido";
+        return new ExecutionError(program.lines[pc / Op.WIDTH], "read(" + name + "): " + reason + ".");
+    }
+}